@@ -59,6 +59,20 @@ public interface ActiveLearningService
             AnnotationLayer aLayer, boolean aFilterSkippedRecommendation,
             List<SuggestionGroup<SpanSuggestion>> aSuggestionGroups);
 
+    /**
+     * Synchronizes the suggestion queue of the given active learning session with the current
+     * predictions. Only documents for which the predictions have changed are re-processed.
+     * 
+     * @param aSessionOwner
+     *            the user performing the action
+     * @param aDataOwner
+     *            annotator user to get suggestions for
+     * @param aAlState
+     *            the active learning session
+     */
+    void refreshSuggestions(String aSessionOwner, User aDataOwner,
+            ActiveLearningUserState aAlState);
+
     Optional<Delta<SpanSuggestion>> generateNextSuggestion(String aSessionOwner, User aDataOwner,
             ActiveLearningUserState aAlState, Long aCurrentDocumentId);
 
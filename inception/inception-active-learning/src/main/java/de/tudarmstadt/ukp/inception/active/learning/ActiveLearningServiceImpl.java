@@ -26,6 +26,7 @@ import static de.tudarmstadt.ukp.inception.recommendation.api.model.LearningReco
 import static de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordUserAction.SKIPPED;
 import static java.util.Collections.emptyList;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 
 import java.io.IOException;
 import java.io.Serializable;
@@ -55,7 +56,6 @@ import de.tudarmstadt.ukp.inception.active.learning.strategy.ActiveLearningStrat
 import de.tudarmstadt.ukp.inception.documents.api.DocumentService;
 import de.tudarmstadt.ukp.inception.recommendation.api.LearningRecordService;
 import de.tudarmstadt.ukp.inception.recommendation.api.RecommendationService;
-import de.tudarmstadt.ukp.inception.recommendation.api.model.AnnotationSuggestion;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.Predictions;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.SpanSuggestion;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.SuggestionGroup;
@@ -155,34 +155,47 @@ public class ActiveLearningServiceImpl
         }
     }
 
+    @Override
+    public void refreshSuggestions(String aSessionOwner, User aDataOwner,
+            ActiveLearningUserState aState)
+    {
+        var queue = aState.getSuggestionQueue();
+        var layer = aState.getLayer();
+        var predictions = recommendationService.getPredictions(aDataOwner, layer.getProject(),
+                RECOMMENDER_SOURCE);
+
+        if (predictions == null) {
+            queue.clear();
+            return;
+        }
+
+        long startTimer = System.currentTimeMillis();
+        var documentIds = documentService
+                .listAnnotationDocuments(layer.getProject(), predictions.getSessionOwner())
+                .stream() //
+                .map(doc -> doc.getDocument().getId()) //
+                .collect(toSet());
+        var records = learningHistoryService.getLearningRecordIndex(aSessionOwner,
+                aDataOwner.getUsername(), layer);
+        var pref = recommendationService.getPreferences(aDataOwner, layer.getProject());
+        queue.update(predictions, layer, documentIds, records, aState.getStrategy(), pref);
+        LOG.trace("Updating suggestion queue took {} ms.",
+                (System.currentTimeMillis() - startTimer));
+    }
+
     @Override
     public Optional<Delta<SpanSuggestion>> generateNextSuggestion(String aSessionOwner,
             User aDataOwner, ActiveLearningUserState alState, Long aCurrentDocumentId)
     {
         // Fetch the next suggestion to present to the user (if there is any)
         long startTimer = System.currentTimeMillis();
-        var suggestionGroups = alState.getSuggestions();
-        long getRecommendationsFromRecommendationService = System.currentTimeMillis();
-        LOG.trace("Getting recommendations from recommender system took {} ms.",
-                (getRecommendationsFromRecommendationService - startTimer));
-
-        // hide rejected recommendations
-        hideRejectedOrSkippedAnnotations(aSessionOwner, aDataOwner, alState.getLayer(), true,
-                suggestionGroups);
-        long removeRejectedSkippedRecommendation = System.currentTimeMillis();
-        LOG.trace("Hiding rejected or skipped ones took {} ms.",
-                (removeRejectedSkippedRecommendation
-                        - getRecommendationsFromRecommendationService));
-
-        // remove duplicate recommendations
-        suggestionGroups = suggestionGroups.stream() //
-                .map(it -> removeDuplicatesAndHiddenSuggestions(it)) //
-                .filter(it -> !it.isEmpty()) //
-                .collect(toList());
-        long removeDuplicateRecommendation = System.currentTimeMillis();
-        LOG.trace("Removing duplicate recommendations took {} ms.",
-                (removeDuplicateRecommendation - removeRejectedSkippedRecommendation));
+        var queue = alState.getSuggestionQueue();
+        var records = learningHistoryService.getLearningRecordIndex(aSessionOwner,
+                aDataOwner.getUsername(), alState.getLayer());
+        var pref = recommendationService.getPreferences(aDataOwner,
+                alState.getLayer().getProject());
 
+        Optional<Delta<SpanSuggestion>> nextSuggestion;
         // filter by current document if requested
         if (alState.isFilterByCurrentDocument()) {
             if (aCurrentDocumentId == null) {
@@ -190,18 +203,14 @@ public class ActiveLearningServiceImpl
                 return Optional.empty();
             }
 
-            suggestionGroups = suggestionGroups.stream() //
-                    .filter(group -> group.stream()
-                            .anyMatch(s -> s.getDocumentId() == aCurrentDocumentId)) //
-                    .collect(toList());
-            long filterByDocument = System.currentTimeMillis();
-            LOG.trace("Filtering by current document took {} ms.",
-                    (filterByDocument - removeDuplicateRecommendation));
+            nextSuggestion = queue.next(aCurrentDocumentId, records, alState.getStrategy(), pref);
+        }
+        else {
+            nextSuggestion = queue.next(records, alState.getStrategy(), pref);
         }
 
-        var pref = recommendationService.getPreferences(aDataOwner,
-                alState.getLayer().getProject());
-        var nextSuggestion = alState.getStrategy().generateNextSuggestion(pref, suggestionGroups);
+        LOG.trace("Generating next suggestion took {} ms.",
+                (System.currentTimeMillis() - startTimer));
         assert !nextSuggestion.isPresent() || nextSuggestion.get().getFirst()
                 .isVisible() : "Generated suggestion must be visible";
         return nextSuggestion;
@@ -332,43 +341,6 @@ public class ActiveLearningServiceImpl
                 alternativeSuggestions));
     }
 
-    private static SuggestionGroup<SpanSuggestion> removeDuplicatesAndHiddenSuggestions(
-            SuggestionGroup<SpanSuggestion> aSuggestionGroup)
-    {
-        var cleanSuggestionGroup = new SuggestionGroup<SpanSuggestion>();
-
-        aSuggestionGroup.forEach(suggestion -> {
-            if (!suggestion.isVisible()) {
-                return;
-            }
-
-            if (!isAlreadyInCleanList(cleanSuggestionGroup, suggestion)) {
-                cleanSuggestionGroup.add(suggestion);
-            }
-        });
-
-        return cleanSuggestionGroup;
-    }
-
-    private static boolean isAlreadyInCleanList(
-            SuggestionGroup<SpanSuggestion> cleanRecommendationList,
-            AnnotationSuggestion recommendationItem)
-    {
-        var source = recommendationItem.getRecommenderName();
-        var annotation = recommendationItem.getLabel();
-        var documentId = recommendationItem.getDocumentId();
-
-        for (var existingRecommendation : cleanRecommendationList) {
-            var areLabelsEqual = existingRecommendation.labelEquals(annotation);
-            if (existingRecommendation.getRecommenderName().equals(source) && areLabelsEqual
-                    && existingRecommendation.getDocumentId() == documentId) {
-                return true;
-            }
-        }
-
-        return false;
-    }
-
     public static class ActiveLearningUserState
         implements Serializable
     {
@@ -379,7 +351,8 @@ public class ActiveLearningServiceImpl
         private boolean filterByCurrentDocument = false;
         private AnnotationLayer layer;
         private ActiveLearningStrategy strategy;
-        private List<SuggestionGroup<SpanSuggestion>> suggestions;
+        private final ActiveLearningSuggestionQueue suggestionQueue = //
+                new ActiveLearningSuggestionQueue();
 
         private Delta<SpanSuggestion> currentDifference;
         private String leftContext;
@@ -441,14 +414,14 @@ public class ActiveLearningServiceImpl
             strategy = aStrategy;
         }
 
-        public void setSuggestions(List<SuggestionGroup<SpanSuggestion>> aSuggestions)
+        public ActiveLearningSuggestionQueue getSuggestionQueue()
         {
-            suggestions = aSuggestions;
+            return suggestionQueue;
         }
 
         public List<SuggestionGroup<SpanSuggestion>> getSuggestions()
         {
-            return suggestions;
+            return suggestionQueue.getSuggestions();
         }
 
         public String getLeftContext()
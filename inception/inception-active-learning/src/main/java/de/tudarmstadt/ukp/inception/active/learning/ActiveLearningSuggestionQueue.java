@@ -0,0 +1,457 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.active.learning;
+
+import static java.util.Collections.emptyList;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationLayer;
+import de.tudarmstadt.ukp.inception.active.learning.strategy.ActiveLearningStrategy;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.AnnotationSuggestion;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordIndex;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.Predictions;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.Preferences;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.SpanSuggestion;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.SuggestionGroup;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.SuggestionGroup.Delta;
+
+/**
+ * Suggestion groups of an active learning session ordered by the delta of their best suggestion
+ * as determined by the {@link ActiveLearningStrategy}.
+ * <p>
+ * When new predictions come in, only the groups of documents whose suggestions have changed are
+ * rebuilt. When the user acts on a suggestion, the group containing it must be re-keyed via
+ * {@link #requeue(AnnotationSuggestion)} since its priority may have increased as well as
+ * decreased. As a safety net, the priority of a group is also re-validated when it reaches the head
+ * of the queue and the group is re-positioned until the head is stable. Thus, obtaining the next
+ * suggestion takes logarithmic time in the number of groups.
+ */
+public class ActiveLearningSuggestionQueue
+    implements Serializable
+{
+    private static final long serialVersionUID = 2471529360166380419L;
+
+    private final Map<Long, DocumentSlot> documents = new LinkedHashMap<>();
+    private final PriorityQueue<QueueEntry> queue = new PriorityQueue<>();
+    private final Set<GroupSlot> pending = new LinkedHashSet<>();
+
+    private Long layerId;
+    private double scoreThreshold;
+    private List<SuggestionGroup<SpanSuggestion>> suggestions;
+
+    /**
+     * Synchronizes the queue with the given predictions. Only the groups of documents for which
+     * the suggestions have changed since the last update are rebuilt.
+     * 
+     * @param aPredictions
+     *            the current predictions.
+     * @param aLayer
+     *            the layer of the active learning session.
+     * @param aDocumentIds
+     *            the documents to consider.
+     * @param aRecords
+     *            the learning records used to hide rejected and skipped suggestions.
+     * @param aStrategy
+     *            the strategy used to determine the priority of the suggestion groups.
+     * @param aPreferences
+     *            the recommender preferences.
+     */
+    public void update(Predictions aPredictions, AnnotationLayer aLayer,
+            Collection<Long> aDocumentIds, LearningRecordIndex aRecords,
+            ActiveLearningStrategy aStrategy, Preferences aPreferences)
+    {
+        if (!aLayer.getId().equals(layerId)) {
+            clear();
+            layerId = aLayer.getId();
+        }
+
+        var reprioritize = scoreThreshold != aPreferences.getScoreThreshold();
+        scoreThreshold = aPreferences.getScoreThreshold();
+
+        var removed = documents.keySet().stream() //
+                .filter(id -> !aDocumentIds.contains(id)) //
+                .toList();
+        for (var documentId : removed) {
+            documents.remove(documentId).invalidate();
+            suggestions = null;
+        }
+
+        for (var documentId : aDocumentIds) {
+            var current = aPredictions.getPredictionsByDocument(documentId);
+            var document = documents.get(documentId);
+            if (document != null && isSameSuggestions(document.suggestions, current)) {
+                continue;
+            }
+
+            if (document != null) {
+                document.invalidate();
+            }
+
+            var groups = aPredictions.getGroupedPredictions(SpanSuggestion.class, documentId,
+                    aLayer, -1, -1);
+            document = new DocumentSlot(current);
+            for (var group : groups) {
+                hideRejectedOrSkippedSuggestions(group, aRecords);
+                var slot = new GroupSlot(group);
+                document.groups.add(slot);
+                if (!reprioritize) {
+                    enqueue(slot, aStrategy, aPreferences);
+                }
+            }
+            documents.put(documentId, document);
+            suggestions = null;
+        }
+
+        if (reprioritize) {
+            requeueAll();
+        }
+    }
+
+    /**
+     * @return all suggestion groups in the queue (irrespective of their priority).
+     */
+    public List<SuggestionGroup<SpanSuggestion>> getSuggestions()
+    {
+        if (suggestions == null) {
+            suggestions = documents.values().stream() //
+                    .flatMap(doc -> doc.groups.stream()) //
+                    .map(slot -> slot.group) //
+                    .toList();
+        }
+
+        return suggestions;
+    }
+
+    /**
+     * Schedules the suggestion groups of the given document to be re-prioritized. This is
+     * necessary when suggestions in the document were made visible again.
+     * 
+     * @param aDocumentId
+     *            the document.
+     */
+    public void requeue(long aDocumentId)
+    {
+        var document = documents.get(aDocumentId);
+        if (document == null) {
+            return;
+        }
+
+        for (var slot : document.groups) {
+            slot.version++;
+            pending.add(slot);
+        }
+    }
+
+    /**
+     * Schedules the suggestion group containing the given suggestion to be re-prioritized. This is
+     * necessary whenever the suggestion has been accepted, rejected or skipped because this changes
+     * the delta of the group.
+     * 
+     * @param aSuggestion
+     *            the suggestion.
+     */
+    public void requeue(AnnotationSuggestion aSuggestion)
+    {
+        var document = documents.get(aSuggestion.getDocumentId());
+        if (document == null) {
+            return;
+        }
+
+        for (var slot : document.groups) {
+            var group = slot.group;
+            if (group.getLayerId() == aSuggestion.getLayerId()
+                    && Objects.equals(group.getFeature(), aSuggestion.getFeature())
+                    && Objects.equals(group.getPosition(), aSuggestion.getPosition())) {
+                slot.version++;
+                pending.add(slot);
+            }
+        }
+    }
+
+    /**
+     * Schedules all suggestion groups to be re-prioritized.
+     */
+    public void requeueAll()
+    {
+        queue.clear();
+        pending.clear();
+        for (var document : documents.values()) {
+            for (var slot : document.groups) {
+                slot.version++;
+                pending.add(slot);
+            }
+        }
+    }
+
+    /**
+     * @param aRecords
+     *            the learning records used to hide rejected and skipped suggestions.
+     * @param aStrategy
+     *            the strategy used to determine the priority of the suggestion groups.
+     * @param aPreferences
+     *            the recommender preferences.
+     * @return the suggestion with the highest priority.
+     */
+    public Optional<Delta<SpanSuggestion>> next(LearningRecordIndex aRecords,
+            ActiveLearningStrategy aStrategy, Preferences aPreferences)
+    {
+        for (var slot : pending) {
+            if (!slot.removed) {
+                hideRejectedOrSkippedSuggestions(slot.group, aRecords);
+                enqueue(slot, aStrategy, aPreferences);
+            }
+        }
+        pending.clear();
+
+        while (!queue.isEmpty()) {
+            var head = queue.peek();
+            if (head.version != head.slot.version) {
+                queue.poll();
+                continue;
+            }
+
+            // The user may have acted on suggestions from the group since it has been queued
+            hideRejectedOrSkippedSuggestions(head.slot.group, aRecords);
+            var current = evaluate(head.slot.group, aStrategy, aPreferences);
+            if (current.isEmpty()) {
+                queue.poll();
+                continue;
+            }
+
+            var delta = current.get();
+            if (delta.getFirst() != head.delta.getFirst()
+                    || delta.getDelta() != head.delta.getDelta()) {
+                queue.poll();
+                queue.add(new QueueEntry(head.slot, head.version, delta));
+                continue;
+            }
+
+            return current;
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * @param aDocumentId
+     *            the document to which the suggestions are restricted.
+     * @param aRecords
+     *            the learning records used to hide rejected and skipped suggestions.
+     * @param aStrategy
+     *            the strategy used to determine the priority of the suggestion groups.
+     * @param aPreferences
+     *            the recommender preferences.
+     * @return the suggestion with the highest priority in the given document.
+     */
+    public Optional<Delta<SpanSuggestion>> next(long aDocumentId, LearningRecordIndex aRecords,
+            ActiveLearningStrategy aStrategy, Preferences aPreferences)
+    {
+        var document = documents.get(aDocumentId);
+        if (document == null) {
+            return Optional.empty();
+        }
+
+        var candidates = new ArrayList<SuggestionGroup<SpanSuggestion>>();
+        for (var slot : document.groups) {
+            hideRejectedOrSkippedSuggestions(slot.group, aRecords);
+            var group = removeDuplicatesAndHiddenSuggestions(slot.group);
+            if (!group.isEmpty()) {
+                candidates.add(group);
+            }
+        }
+
+        return aStrategy.generateNextSuggestion(aPreferences, candidates);
+    }
+
+    public void clear()
+    {
+        documents.values().forEach(DocumentSlot::invalidate);
+        documents.clear();
+        queue.clear();
+        pending.clear();
+        suggestions = null;
+        layerId = null;
+    }
+
+    private void enqueue(GroupSlot aSlot, ActiveLearningStrategy aStrategy,
+            Preferences aPreferences)
+    {
+        evaluate(aSlot.group, aStrategy, aPreferences).ifPresent(
+                delta -> queue.add(new QueueEntry(aSlot, aSlot.version, delta)));
+    }
+
+    private static Optional<Delta<SpanSuggestion>> evaluate(SuggestionGroup<SpanSuggestion> aGroup,
+            ActiveLearningStrategy aStrategy, Preferences aPreferences)
+    {
+        var group = removeDuplicatesAndHiddenSuggestions(aGroup);
+        if (group.isEmpty()) {
+            return Optional.empty();
+        }
+
+        return aStrategy.generateNextSuggestion(aPreferences, List.of(group));
+    }
+
+    private static void hideRejectedOrSkippedSuggestions(SuggestionGroup<SpanSuggestion> aGroup,
+            LearningRecordIndex aRecords)
+    {
+        for (var suggestion : aGroup) {
+            // If a suggestion is already invisible, we don't need to check if it needs hiding.
+            if (!suggestion.isVisible()) {
+                continue;
+            }
+
+            for (var record : aRecords.get(suggestion, suggestion.getBegin(),
+                    suggestion.getEnd())) {
+                suggestion.hideSuggestion(record.getUserAction());
+            }
+        }
+    }
+
+    static SuggestionGroup<SpanSuggestion> removeDuplicatesAndHiddenSuggestions(
+            SuggestionGroup<SpanSuggestion> aSuggestionGroup)
+    {
+        var cleanSuggestionGroup = new SuggestionGroup<SpanSuggestion>();
+
+        aSuggestionGroup.forEach(suggestion -> {
+            if (!suggestion.isVisible()) {
+                return;
+            }
+
+            if (!isAlreadyInCleanList(cleanSuggestionGroup, suggestion)) {
+                cleanSuggestionGroup.add(suggestion);
+            }
+        });
+
+        return cleanSuggestionGroup;
+    }
+
+    private static boolean isAlreadyInCleanList(
+            SuggestionGroup<SpanSuggestion> cleanRecommendationList,
+            AnnotationSuggestion recommendationItem)
+    {
+        var source = recommendationItem.getRecommenderName();
+        var annotation = recommendationItem.getLabel();
+        var documentId = recommendationItem.getDocumentId();
+
+        for (var existingRecommendation : cleanRecommendationList) {
+            var areLabelsEqual = existingRecommendation.labelEquals(annotation);
+            if (existingRecommendation.getRecommenderName().equals(source) && areLabelsEqual
+                    && existingRecommendation.getDocumentId() == documentId) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isSameSuggestions(List<AnnotationSuggestion> aPrevious,
+            List<AnnotationSuggestion> aCurrent)
+    {
+        if (aPrevious.size() != aCurrent.size()) {
+            return false;
+        }
+
+        // Suggestions which are inherited from previous predictions are the same instances
+        var previous = new HashSet<IdentityKey>(aPrevious.size());
+        for (var suggestion : aPrevious) {
+            previous.add(new IdentityKey(suggestion));
+        }
+
+        for (var suggestion : aCurrent) {
+            if (!previous.contains(new IdentityKey(suggestion))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private record IdentityKey(AnnotationSuggestion suggestion)
+    {
+        @Override
+        public boolean equals(Object aOther)
+        {
+            return aOther instanceof IdentityKey other && other.suggestion == suggestion;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return System.identityHashCode(suggestion);
+        }
+    }
+
+    private static class DocumentSlot
+        implements Serializable
+    {
+        private static final long serialVersionUID = -2745893407561243851L;
+
+        private final List<AnnotationSuggestion> suggestions;
+        private final List<GroupSlot> groups = new ArrayList<>();
+
+        DocumentSlot(List<AnnotationSuggestion> aSuggestions)
+        {
+            suggestions = aSuggestions != null ? aSuggestions : emptyList();
+        }
+
+        void invalidate()
+        {
+            for (var slot : groups) {
+                slot.version++;
+                slot.removed = true;
+            }
+        }
+    }
+
+    private static class GroupSlot
+        implements Serializable
+    {
+        private static final long serialVersionUID = 6187372840946612218L;
+
+        private final SuggestionGroup<SpanSuggestion> group;
+        private int version;
+        private boolean removed;
+
+        GroupSlot(SuggestionGroup<SpanSuggestion> aGroup)
+        {
+            group = aGroup;
+        }
+    }
+
+    private record QueueEntry(GroupSlot slot, int version, Delta<SpanSuggestion> delta)
+        implements Comparable<QueueEntry>, Serializable
+    {
+        @Override
+        public int compareTo(QueueEntry aOther)
+        {
+            return Double.compare(delta.getDelta(), aOther.delta.getDelta());
+        }
+    }
+}
@@ -526,6 +526,7 @@ public class ActiveLearningSidebar
         alStateModel.getObject().getSuggestions().stream() //
                 .flatMap(group -> group.stream())
                 .forEach(suggestion -> suggestion.show(FLAG_SKIPPED));
+        alStateModel.getObject().getSuggestionQueue().requeueAll();
 
         refreshAvailableSuggestions();
         requestClearningSelectionAndJumpingToSuggestion();
@@ -758,6 +759,7 @@ public class ActiveLearningSidebar
                 RECOMMENDER_SOURCE);
         activeLearningService.acceptSpanSuggestion(document, state.getUser(), predictions,
                 suggestion, editor.getModelObject().value);
+        alState.getSuggestionQueue().requeue(suggestion);
 
         // If the currently displayed document is the same one where the annotation was created,
         // then update timestamp in state to avoid concurrent modification errors
@@ -785,6 +787,7 @@ public class ActiveLearningSidebar
         requestClearningSelectionAndJumpingToSuggestion();
         activeLearningService.skipSpanSuggestion(sessionOwner, getModelObject().getUser(),
                 alStateModel.getObject().getLayer(), maybeSuggestion.get());
+        alStateModel.getObject().getSuggestionQueue().requeue(maybeSuggestion.get());
         moveToNextSuggestion(aTarget);
     }
 
@@ -803,6 +806,7 @@ public class ActiveLearningSidebar
         activeLearningService.rejectSpanSuggestion(userService.getCurrentUsername(),
                 getModelObject().getUser(), alStateModel.getObject().getLayer(),
                 maybeSuggestion.get());
+        alStateModel.getObject().getSuggestionQueue().requeue(maybeSuggestion.get());
         moveToNextSuggestion(aTarget);
     }
 
@@ -1096,6 +1100,7 @@ public class ActiveLearningSidebar
         // here
         getMatchingSuggestion(alState.getSuggestions(), aRecord)
                 .forEach(suggestion -> suggestion.show(FLAG_SKIPPED | FLAG_REJECTED));
+        alState.getSuggestionQueue().requeue(aRecord.getSourceDocument().getId());
 
         // Force the learning records model to be refreshed during rendering, showing the latest
         // state from the DB
@@ -1463,8 +1468,8 @@ public class ActiveLearningSidebar
 
         var state = getModelObject();
         var alState = alStateModel.getObject();
-        var suggestions = activeLearningService.getSuggestions(state.getUser(), alState.getLayer());
-        alState.setSuggestions(suggestions);
+        activeLearningService.refreshSuggestions(userService.getCurrentUsername(), state.getUser(),
+                alState);
     }
 
     @OnEvent
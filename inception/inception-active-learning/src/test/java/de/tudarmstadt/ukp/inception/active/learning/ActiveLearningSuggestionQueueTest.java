@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.active.learning;
+
+import static de.tudarmstadt.ukp.inception.recommendation.api.model.AnnotationSuggestion.FLAG_REJECTED;
+import static de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordUserAction.SKIPPED;
+import static java.util.Arrays.asList;
+import static org.apache.uima.cas.CAS.TYPE_NAME_STRING;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationFeature;
+import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationLayer;
+import de.tudarmstadt.ukp.clarin.webanno.model.Project;
+import de.tudarmstadt.ukp.clarin.webanno.model.SourceDocument;
+import de.tudarmstadt.ukp.clarin.webanno.security.model.User;
+import de.tudarmstadt.ukp.inception.active.learning.strategy.UncertaintySamplingStrategy;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.AnnotationSuggestion;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecord;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordIndex;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.Predictions;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.Preferences;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.Recommender;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.SpanSuggestion;
+
+class ActiveLearningSuggestionQueueTest
+{
+    private Project project;
+    private User user;
+    private AnnotationLayer layer;
+    private AnnotationFeature feature;
+    private SourceDocument doc;
+    private Recommender rec;
+    private UncertaintySamplingStrategy strategy;
+    private Preferences preferences;
+    private LearningRecordIndex records;
+    private int nextId;
+
+    private ActiveLearningSuggestionQueue sut;
+
+    @BeforeEach
+    void setup()
+    {
+        project = Project.builder().withId(1l).withName("Test Project").build();
+        user = new User("user");
+        layer = AnnotationLayer.builder().withId(42l).withName("custom.Span").build();
+        feature = AnnotationFeature.builder().withId(2l).withLayer(layer).withName("value")
+                .withType(TYPE_NAME_STRING).build();
+        doc = SourceDocument.builder().withId(12l).withName("doc").withProject(project).build();
+        rec = Recommender.builder().withId(123l).withName("rec").withLayer(layer)
+                .withFeature(feature).build();
+        strategy = new UncertaintySamplingStrategy();
+        preferences = new Preferences();
+        records = new LearningRecordIndex();
+        nextId = 1;
+
+        sut = new ActiveLearningSuggestionQueue();
+    }
+
+    @Test
+    void thatNextReturnsSuggestionWithSmallestDelta()
+    {
+        var a1 = suggestion(0, 5, "A1", 0.9);
+        var a2 = suggestion(0, 5, "A2", 0.5);
+        var b1 = suggestion(10, 15, "B1", 0.9);
+        var b2 = suggestion(10, 15, "B2", 0.2);
+        var c1 = suggestion(20, 25, "C1", 0.8);
+
+        sut.update(predictions(a1, a2, b1, b2, c1), layer, List.of(doc.getId()), records,
+                strategy, preferences);
+
+        assertThat(sut.getSuggestions()).hasSize(3);
+        assertThat(next()).isSameAs(a1);
+
+        // Without any user action, the same suggestion remains at the head of the queue
+        assertThat(next()).isSameAs(a1);
+    }
+
+    @Test
+    void thatRejectedSuggestionIsDemoted()
+    {
+        var a1 = suggestion(0, 5, "A1", 0.9);
+        var a2 = suggestion(0, 5, "A2", 0.5);
+        var b1 = suggestion(10, 15, "B1", 0.9);
+        var b2 = suggestion(10, 15, "B2", 0.45);
+
+        sut.update(predictions(a1, a2, b1, b2), layer, List.of(doc.getId()), records, strategy,
+                preferences);
+
+        assertThat(next()).isSameAs(a1);
+
+        a1.hide(FLAG_REJECTED);
+        sut.requeue(a1);
+
+        // Delta of A increases from 0.4 to 0.5, so B (0.45) must take over
+        assertThat(next()).isSameAs(b1);
+    }
+
+    @Test
+    void thatSkippedSuggestionPromotesGroupWhichIsNotAtHead()
+    {
+        var a1 = suggestion(0, 5, "A1", 0.9);
+        var a2 = suggestion(0, 5, "A2", 0.5);
+        var b1 = suggestion(10, 15, "B1", 0.9);
+        var b2 = suggestion(10, 15, "B2", 0.3);
+        var b3 = suggestion(10, 15, "B3", 0.25);
+
+        sut.update(predictions(a1, a2, b1, b2, b3), layer, List.of(doc.getId()), records,
+                strategy, preferences);
+
+        assertThat(next()).isSameAs(a1);
+
+        // Skipping B1 from outside the active learning sidebar (e.g. the annotation editor)
+        // reduces the delta of B from 0.6 to 0.05 while A is at the head of the queue
+        records.add(LearningRecord.builder() //
+                .withSourceDocument(doc) //
+                .withLayer(layer) //
+                .withAnnotationFeature(feature) //
+                .withOffsetBegin(10) //
+                .withOffsetEnd(15) //
+                .withAnnotation("B1") //
+                .withUserAction(SKIPPED) //
+                .build());
+        sut.requeue(b1);
+
+        assertThat(next()).isSameAs(b2);
+        assertThat(b1.isVisible()).isFalse();
+    }
+
+    @Test
+    void thatRequeueOfDocumentRestoresShownSuggestions()
+    {
+        var a1 = suggestion(0, 5, "A1", 0.9);
+        var a2 = suggestion(0, 5, "A2", 0.5);
+        var b1 = suggestion(10, 15, "B1", 0.9);
+        var b2 = suggestion(10, 15, "B2", 0.2);
+
+        sut.update(predictions(a1, a2, b1, b2), layer, List.of(doc.getId()), records, strategy,
+                preferences);
+
+        a1.hide(FLAG_REJECTED);
+        sut.requeue(a1);
+        assertThat(next()).isSameAs(a2);
+
+        a1.show(FLAG_REJECTED);
+        sut.requeue(doc.getId());
+        assertThat(next()).isSameAs(a1);
+    }
+
+    @Test
+    void thatStaleEntriesAreDroppedWhenPredictionsChange()
+    {
+        var a1 = suggestion(0, 5, "A1", 0.9);
+        var a2 = suggestion(0, 5, "A2", 0.5);
+        var b1 = suggestion(10, 15, "B1", 0.9);
+        var b2 = suggestion(10, 15, "B2", 0.2);
+
+        sut.update(predictions(a1, a2, b1, b2), layer, List.of(doc.getId()), records, strategy,
+                preferences);
+
+        assertThat(next()).isSameAs(a1);
+
+        // New predictions no longer contain group A, so the queue entry for A is stale
+        var b1New = suggestion(10, 15, "B1", 0.9);
+        var b2New = suggestion(10, 15, "B2", 0.2);
+        sut.update(predictions(b1New, b2New), layer, List.of(doc.getId()), records, strategy,
+                preferences);
+
+        assertThat(sut.getSuggestions()).hasSize(1);
+        assertThat(next()).isSameAs(b1New);
+
+        // Requeuing a suggestion from the old predictions must not resurrect the stale group
+        sut.requeue(a1);
+        assertThat(next()).isSameAs(b1New);
+    }
+
+    @Test
+    void thatUnchangedPredictionsDoNotRebuildQueue()
+    {
+        var a1 = suggestion(0, 5, "A1", 0.9);
+        var a2 = suggestion(0, 5, "A2", 0.5);
+
+        var predictions = predictions(a1, a2);
+        sut.update(predictions, layer, List.of(doc.getId()), records, strategy, preferences);
+        var groups = sut.getSuggestions();
+
+        var inherited = new Predictions(user, user.getUsername(), project);
+        inherited.inheritSuggestions(predictions.getPredictionsByDocument(doc.getId()));
+        sut.update(inherited, layer, List.of(doc.getId()), records, strategy, preferences);
+
+        assertThat(sut.getSuggestions()).isSameAs(groups);
+        assertThat(next()).isSameAs(a1);
+    }
+
+    @Test
+    void thatChangedScoreThresholdReprioritizesQueue()
+    {
+        var a1 = suggestion(0, 5, "A1", 0.9);
+        var a2 = suggestion(0, 5, "A2", 0.5);
+        var b1 = suggestion(10, 15, "B1", 0.7);
+        var b2 = suggestion(10, 15, "B2", 0.2);
+
+        sut.update(predictions(a1, a2, b1, b2), layer, List.of(doc.getId()), records, strategy,
+                preferences);
+
+        assertThat(next()).isSameAs(a1);
+
+        // With the threshold, only A1 (0.9) and B1 (0.7) remain and are compared by their score
+        preferences.setScoreThreshold(0.6);
+        sut.update(predictions(a1, a2, b1, b2), layer, List.of(doc.getId()), records, strategy,
+                preferences);
+
+        assertThat(next()).isSameAs(b1);
+    }
+
+    @Test
+    void thatRemovedDocumentIsDropped()
+    {
+        var a1 = suggestion(0, 5, "A1", 0.9);
+        var a2 = suggestion(0, 5, "A2", 0.5);
+
+        sut.update(predictions(a1, a2), layer, List.of(doc.getId()), records, strategy,
+                preferences);
+        assertThat(next()).isSameAs(a1);
+
+        sut.update(predictions(a1, a2), layer, List.of(), records, strategy, preferences);
+
+        assertThat(sut.getSuggestions()).isEmpty();
+        assertThat(sut.next(records, strategy, preferences)).isEmpty();
+    }
+
+    private AnnotationSuggestion next()
+    {
+        return sut.next(records, strategy, preferences).get().getFirst();
+    }
+
+    private SpanSuggestion suggestion(int aBegin, int aEnd, String aLabel, double aScore)
+    {
+        return SpanSuggestion.builder() //
+                .withId(nextId++) //
+                .withDocument(doc) //
+                .withRecommender(rec) //
+                .withLabel(aLabel) //
+                .withPosition(aBegin, aEnd) //
+                .withScore(aScore) //
+                .build();
+    }
+
+    private Predictions predictions(AnnotationSuggestion... aSuggestions)
+    {
+        var predictions = new Predictions(user, user.getUsername(), project);
+        predictions.putSuggestions(aSuggestions.length, 0, 0,
+                new ArrayList<>(asList(aSuggestions)));
+        return predictions;
+    }
+}
@@ -32,6 +32,16 @@ public interface CasStorageService
 {
     String SERVICE_NAME = "casStorageService";
 
+    /**
+     * Footprint category under which the size of the annotation files is tracked.
+     */
+    String FOOTPRINT_ANNOTATIONS = "Annotations";
+
+    /**
+     * Footprint category under which the size of the annotation backup files is tracked.
+     */
+    String FOOTPRINT_ANNOTATION_BACKUPS = "Annotation backups";
+
     /**
      * Creates an annotation document (either user's annotation document or CURATION_USER's
      * annotation document)
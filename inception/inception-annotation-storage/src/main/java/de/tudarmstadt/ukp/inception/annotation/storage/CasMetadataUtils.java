@@ -248,4 +248,43 @@ public class CasMetadataUtils
     {
         return getCasMetadataFeature(aCas, CASMetadata._FeatName_projectName, String.class);
     }
+
+    public static Optional<String> getTypeSystemFingerprint(CAS aCas)
+    {
+        return getCasMetadataFeature(aCas, CASMetadata._FeatName_typeSystemFingerprint,
+                String.class);
+    }
+
+    /**
+     * Stamps the CAS with the fingerprint of the type system it is known to be compatible with. If
+     * the CAS does not (yet) contain a {@link CASMetadata} instance supporting the fingerprint,
+     * nothing happens.
+     *
+     * @return whether the fingerprint could be recorded.
+     */
+    public static boolean setTypeSystemFingerprint(CAS aCas, String aFingerprint)
+    {
+        Optional<FeatureStructure> maybeFs;
+        try {
+            maybeFs = getCasMetadataFS(aCas);
+        }
+        catch (IllegalArgumentException e) {
+            // No or more than one CASMetadata instance
+            return false;
+        }
+
+        if (maybeFs.isEmpty()) {
+            return false;
+        }
+
+        var fs = maybeFs.get();
+        var feature = fs.getType()
+                .getFeatureByBaseName(CASMetadata._FeatName_typeSystemFingerprint);
+        if (feature == null) {
+            return false;
+        }
+
+        fs.setStringValue(feature, aFingerprint);
+        return true;
+    }
 }
@@ -33,6 +33,7 @@ import de.tudarmstadt.ukp.inception.annotation.storage.OpenCasStorageSessionForR
 import de.tudarmstadt.ukp.inception.annotation.storage.driver.CasStorageDriver;
 import de.tudarmstadt.ukp.inception.annotation.storage.driver.filesystem.FileSystemCasStorageDriver;
 import de.tudarmstadt.ukp.inception.documents.api.RepositoryProperties;
+import de.tudarmstadt.ukp.inception.project.api.footprint.FootprintTracker;
 import de.tudarmstadt.ukp.inception.schema.api.AnnotationSchemaService;
 
 @Configuration
@@ -53,10 +54,11 @@ public class CasStorageServiceAutoConfiguration
     @Bean
     public CasStorageDriver fileSystemCasStorageDriver(RepositoryProperties aRepositoryProperties,
             CasStorageBackupProperties aBackupProperties,
-            CasStorageProperties aCasStorageProperties)
+            CasStorageProperties aCasStorageProperties,
+            @Autowired(required = false) FootprintTracker aFootprintTracker)
     {
         return new FileSystemCasStorageDriver(aRepositoryProperties, aBackupProperties,
-                aCasStorageProperties);
+                aCasStorageProperties, aFootprintTracker);
     }
 
     @Bean
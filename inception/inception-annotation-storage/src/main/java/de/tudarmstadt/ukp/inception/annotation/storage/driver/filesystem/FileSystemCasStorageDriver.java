@@ -17,6 +17,8 @@
  */
 package de.tudarmstadt.ukp.inception.annotation.storage.driver.filesystem;
 
+import static de.tudarmstadt.ukp.clarin.webanno.api.casstorage.CasStorageService.FOOTPRINT_ANNOTATIONS;
+import static de.tudarmstadt.ukp.clarin.webanno.api.casstorage.CasStorageService.FOOTPRINT_ANNOTATION_BACKUPS;
 import static de.tudarmstadt.ukp.inception.project.api.ProjectService.ANNOTATION_FOLDER;
 import static de.tudarmstadt.ukp.inception.project.api.ProjectService.DOCUMENT_FOLDER;
 import static de.tudarmstadt.ukp.inception.project.api.ProjectService.PROJECT_FOLDER;
@@ -67,6 +69,7 @@ import de.tudarmstadt.ukp.inception.annotation.storage.config.CasStorageBackupPr
 import de.tudarmstadt.ukp.inception.annotation.storage.config.CasStorageProperties;
 import de.tudarmstadt.ukp.inception.annotation.storage.driver.CasStorageDriver;
 import de.tudarmstadt.ukp.inception.documents.api.RepositoryProperties;
+import de.tudarmstadt.ukp.inception.project.api.footprint.FootprintTracker;
 import de.tudarmstadt.ukp.inception.support.uima.WebAnnoCasUtil;
 import de.tudarmstadt.ukp.inception.support.wicket.WicketUtil;
 
@@ -82,12 +85,21 @@ public class FileSystemCasStorageDriver
     private final CasStorageProperties casStorageProperties;
     private final CasStorageBackupProperties backupProperties;
     private final LoadingCache<File, InternalMetadata> metadataCache;
+    private final FootprintTracker footprintTracker;
 
     public FileSystemCasStorageDriver(RepositoryProperties aRepositoryProperties,
             CasStorageBackupProperties aBackupProperties,
             CasStorageProperties aCasStorageProperties)
+    {
+        this(aRepositoryProperties, aBackupProperties, aCasStorageProperties, null);
+    }
+
+    public FileSystemCasStorageDriver(RepositoryProperties aRepositoryProperties,
+            CasStorageBackupProperties aBackupProperties,
+            CasStorageProperties aCasStorageProperties, FootprintTracker aFootprintTracker)
     {
         repositoryProperties = aRepositoryProperties;
+        footprintTracker = aFootprintTracker;
         backupProperties = aBackupProperties;
         casStorageProperties = aCasStorageProperties;
 
@@ -206,6 +218,8 @@ public class FileSystemCasStorageDriver
             failOnConcurrentModification(aCas, currentVersion, aDocument, aSet, "writing");
         }
 
+        var previousSize = currentVersion.exists() ? currentVersion.length() : 0L;
+
         // Save current version
         try {
             // Make a backup of the current version of the file before overwriting
@@ -266,6 +280,8 @@ public class FileSystemCasStorageDriver
             FileUtils.forceDelete(oldVersion);
         }
 
+        trackFootprint(aDocument, FOOTPRINT_ANNOTATIONS, currentVersion.length() - previousSize);
+
         // Update the timestamp in the CAS in case we attempt to save it a second time. This
         // happens for example in an annotation replacement operation (change layer of existing
         // annotation) which is implemented as a delete/create operation with an intermediate
@@ -350,6 +366,7 @@ public class FileSystemCasStorageDriver
             // history file in any case.
             FileUtils.copyFile(aCurrentVersion, historyFile);
             historyFileCreated = true;
+            trackFootprint(aDocument, FOOTPRINT_ANNOTATION_BACKUPS, historyFile.length());
         }
         else {
             // Check if the newest history file is significantly older than the current one
@@ -357,6 +374,7 @@ public class FileSystemCasStorageDriver
             if (latestHistory.lastModified() + (backupProperties.getInterval() * 1000) < now) {
                 FileUtils.copyFile(aCurrentVersion, historyFile);
                 historyFileCreated = true;
+                trackFootprint(aDocument, FOOTPRINT_ANNOTATION_BACKUPS, historyFile.length());
             }
         }
 
@@ -383,7 +401,9 @@ public class FileSystemCasStorageDriver
 
             // Remove these old files
             for (var file : toRemove) {
+                var size = file.length();
                 FileUtils.forceDelete(file);
+                trackFootprint(aDocument, FOOTPRINT_ANNOTATION_BACKUPS, -size);
 
                 LOG.debug("Removed surplus history file [{}] of [{}] for document {} in project {}",
                         file.getName(), aSet, aDocument, aDocument.getProject());
@@ -394,7 +414,9 @@ public class FileSystemCasStorageDriver
         if (backupProperties.getKeep().getTime() > 0) {
             for (var file : history) {
                 if ((file.lastModified() + (backupProperties.getKeep().getTime() * 1000)) < now) {
+                    var size = file.length();
                     FileUtils.forceDelete(file);
+                    trackFootprint(aDocument, FOOTPRINT_ANNOTATION_BACKUPS, -size);
 
                     LOG.debug(
                             "Removed outdated history file [{}] of [{}] for "
@@ -433,9 +455,19 @@ public class FileSystemCasStorageDriver
         Validate.notNull(aDocument, "Source document must be specified");
         Validate.notNull(aSet, "Set must be specified");
 
-        try (var os = Files.newOutputStream(getCasFile(aDocument, aSet).toPath())) {
+        var casFile = getCasFile(aDocument, aSet);
+        var previousSize = casFile.exists() ? casFile.length() : 0L;
+        try (var os = Files.newOutputStream(casFile.toPath())) {
             IOUtils.copyLarge(aStream, os);
         }
+        trackFootprint(aDocument, FOOTPRINT_ANNOTATIONS, casFile.length() - previousSize);
+    }
+
+    private void trackFootprint(SourceDocument aDocument, String aCategory, long aDelta)
+    {
+        if (footprintTracker != null && aDelta != 0) {
+            footprintTracker.adjust(aDocument.getProject(), aCategory, aDelta);
+        }
     }
 
     public File getCasFile(long aProjectId, long aDocumentId, AnnotationSet aSet) throws IOException
@@ -453,7 +485,12 @@ public class FileSystemCasStorageDriver
             metadataCache.invalidate(casFile);
         }
 
-        return casFile.delete();
+        var size = casFile.length();
+        var deleted = casFile.delete();
+        if (deleted) {
+            trackFootprint(aDocument, FOOTPRINT_ANNOTATIONS, -size);
+        }
+        return deleted;
     }
 
     @Override
@@ -22,7 +22,6 @@ import static java.util.Arrays.asList;
 import static java.util.regex.Pattern.compile;
 import static java.util.stream.Collectors.joining;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -58,29 +57,31 @@ public class LineOrientedPagingStrategy
 
     @Override
     public List<Unit> units(CAS aCas, int aFirstIndex, int aLastIndex)
+    {
+        return unitIndex(aCas).units(aFirstIndex, aLastIndex);
+    }
+
+    @Override
+    protected UnitIndex buildUnitIndex(CAS aCas)
     {
         var text = aCas.getDocumentText();
         var matcher = LINE_SPLITTER_PATTERN.matcher(text);
 
         var unitStart = 0;
-        var unitEnd = 0;
-        var index = 1;
 
-        var units = new ArrayList<Unit>();
+        var index = UnitIndex.builder();
         while (matcher.find()) {
-            unitEnd = matcher.start();
-            units.add(new Unit(index, unitStart, unitEnd));
+            index.add(unitStart, matcher.start());
             unitStart = matcher.end();
-            index++;
         }
 
         if (unitStart < text.length()) {
             if (!text.substring(unitStart).isBlank()) {
-                units.add(new Unit(index, unitStart, text.length()));
+                index.add(unitStart, text.length());
             }
         }
 
-        return units;
+        return index.build();
     }
 
     @Override
@@ -18,6 +18,7 @@
 package de.tudarmstadt.ukp.clarin.webanno.api.annotation.paging;
 
 import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.util.Arrays.asList;
 import static org.apache.wicket.event.Broadcast.BREADTH;
 
@@ -31,6 +32,7 @@ import org.apache.wicket.request.cycle.RequestCycle;
 
 import de.tudarmstadt.ukp.inception.rendering.editorstate.AnnotatorViewState;
 import de.tudarmstadt.ukp.inception.rendering.paging.PagingStrategy;
+import de.tudarmstadt.ukp.inception.rendering.paging.Unit;
 import de.tudarmstadt.ukp.inception.rendering.selection.FocusPosition;
 import de.tudarmstadt.ukp.inception.rendering.selection.ScrollToEvent;
 import de.tudarmstadt.ukp.inception.rendering.vmodel.VRange;
@@ -40,30 +42,90 @@ public abstract class PagingStrategy_ImplBase
 {
     private static final long serialVersionUID = 928025483609029306L;
 
+    private static final int MAX_CACHED_UNIT_INDEXES = 32;
+
+    private static final UnitIndexCache UNIT_INDEX_CACHE = new UnitIndexCache(
+            MAX_CACHED_UNIT_INDEXES);
+
+    /**
+     * Builds an index of all units in the given CAS. Strategies supporting a unit index implement
+     * this method and use {@link #unitIndex(CAS)} to access the index. The index is cached per
+     * document version, so it is built only once even if it is used many times e.g. when paging
+     * through a long document.
+     * 
+     * @param aCas
+     *            CAS currently being edited
+     * @return the unit index or {@code null} if the strategy does not support a unit index. In
+     *         this case, all units are materialized whenever they are needed.
+     */
+    protected UnitIndex buildUnitIndex(CAS aCas)
+    {
+        return null;
+    }
+
+    /**
+     * @return an identifier for the configuration of this strategy. Strategies which build their
+     *         units differently depending on their configuration must include the configuration
+     *         here, so that a cached unit index is not used with a different configuration.
+     */
+    protected String getUnitIndexVariant()
+    {
+        return getClass().getName();
+    }
+
+    protected UnitIndex unitIndex(CAS aCas)
+    {
+        return UNIT_INDEX_CACHE.get(getUnitIndexVariant(), aCas, this::buildUnitIndex);
+    }
+
     @Override
-    public void moveToOffset(AnnotatorViewState aState, CAS aCas, int aOffset,
-            List<VRange> aPingRanges, FocusPosition aPos)
+    public int unitCount(CAS aCas)
     {
-        var units = units(aCas);
+        var index = unitIndex(aCas);
+        if (index == null) {
+            return PagingStrategy.super.unitCount(aCas);
+        }
 
-        // Find the unit for the given offset, with fallback handling
-        var unitContainingOffset = units.stream() //
-                .filter(u -> u.getBegin() <= aOffset && aOffset <= u.getEnd()) //
-                .findFirst();
+        return index.size();
+    }
 
-        var unit = unitContainingOffset.or(() -> {
-            // If no unit contains offset, find unit before or after
-            var unitBefore = units.stream() //
-                    .filter(u -> u.getEnd() <= aOffset) //
-                    .reduce((first, second) -> second); // Get last unit before offset
+    @Override
+    public Unit unitAtIndex(CAS aCas, int aIndex)
+    {
+        var index = unitIndex(aCas);
+        if (index == null) {
+            return PagingStrategy.super.unitAtIndex(aCas, aIndex);
+        }
 
-            if (unitBefore.isPresent()) {
-                return unitBefore;
-            }
+        if (index.isEmpty()) {
+            return null;
+        }
 
-            // No unit before, use first unit (offset is before all units)
-            return units.stream().findFirst();
-        }).orElseThrow(() -> new IllegalArgumentException("No units available in document"));
+        return index.unit(min(max(aIndex, 1), index.size()));
+    }
+
+    @Override
+    public List<Unit> unitsStartingAtOffset(CAS aCas, int aOffset, int aCount)
+    {
+        var index = unitIndex(aCas);
+        if (index == null) {
+            return PagingStrategy.super.unitsStartingAtOffset(aCas, aOffset, aCount);
+        }
+
+        return index.unitsStartingAtOffset(aOffset, aCount);
+    }
+
+    @Override
+    public void moveToOffset(AnnotatorViewState aState, CAS aCas, int aOffset,
+            List<VRange> aPingRanges, FocusPosition aPos)
+    {
+        var index = unitIndex(aCas);
+        var units = index == null ? units(aCas) : null;
+
+        var unit = index != null ? index.unitAtOffset(aOffset) : findUnitAtOffset(units, aOffset);
+        if (unit == null) {
+            throw new IllegalArgumentException("No units available in document");
+        }
 
         switch (aPos) {
         case TOP: {
@@ -75,7 +137,9 @@ public abstract class PagingStrategy_ImplBase
             // How many rows to display before the unit such that the unit is centered?
             var rowsInPageBeforeUnit = aState.getPreferences().getWindowSize() / 2;
             // The -1 below is because unit.getIndex() is 1-based
-            var firstUnit = units.get(max(0, unit.getIndex() - rowsInPageBeforeUnit - 1));
+            var firstUnitIndex = max(0, unit.getIndex() - rowsInPageBeforeUnit - 1);
+            var firstUnit = index != null ? index.unit(firstUnitIndex + 1)
+                    : units.get(firstUnitIndex);
 
             aState.setPageBegin(aCas, firstUnit.getBegin());
             aState.setFocusUnitIndex(unit.getIndex());
@@ -87,6 +151,28 @@ public abstract class PagingStrategy_ImplBase
         }
     }
 
+    private static Unit findUnitAtOffset(List<Unit> aUnits, int aOffset)
+    {
+        // Find the unit for the given offset, with fallback handling
+        var unitContainingOffset = aUnits.stream() //
+                .filter(u -> u.getBegin() <= aOffset && aOffset <= u.getEnd()) //
+                .findFirst();
+
+        return unitContainingOffset.or(() -> {
+            // If no unit contains offset, find unit before or after
+            var unitBefore = aUnits.stream() //
+                    .filter(u -> u.getEnd() <= aOffset) //
+                    .reduce((first, second) -> second); // Get last unit before offset
+
+            if (unitBefore.isPresent()) {
+                return unitBefore;
+            }
+
+            // No unit before, use first unit (offset is before all units)
+            return aUnits.stream().findFirst();
+        }).orElse(null);
+    }
+
     @Override
     public void moveToOffset(AnnotatorViewState aState, CAS aCas, int aOffset, VRange aPingRange,
             FocusPosition aPos)
@@ -17,23 +17,20 @@
  */
 package de.tudarmstadt.ukp.clarin.webanno.api.annotation.paging;
 
+import static de.tudarmstadt.ukp.inception.support.uima.ICasUtil.getAddr;
 import static de.tudarmstadt.ukp.inception.support.uima.WebAnnoCasUtil.selectSentences;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.text.AnnotationFS;
-import org.apache.uima.fit.util.CasUtil;
 import org.apache.uima.fit.util.FSUtil;
 import org.apache.wicket.Component;
 import org.apache.wicket.model.IModel;
 
-import de.tudarmstadt.ukp.dkpro.core.api.segmentation.type.Sentence;
 import de.tudarmstadt.ukp.inception.rendering.editorstate.AnnotatorState;
 import de.tudarmstadt.ukp.inception.rendering.editorstate.DiamContext;
 import de.tudarmstadt.ukp.inception.rendering.paging.Unit;
-import de.tudarmstadt.ukp.inception.rendering.vmodel.VID;
 
 public class SentenceOrientedPagingStrategy
     extends PagingStrategy_ImplBase
@@ -43,42 +40,31 @@ public class SentenceOrientedPagingStrategy
     @Override
     public List<Unit> units(CAS aCas, int aFirstIndex, int aLastIndex)
     {
-        var units = new ArrayList<Unit>();
-        int i = 1;
-        for (var sentence : selectSentences(aCas)) {
-            if (i > aLastIndex) {
-                break;
-            }
-
-            if (i >= aFirstIndex) {
-                units.add(toUnit(i, sentence));
-            }
-
-            i++;
-        }
-        return units;
+        return unitIndex(aCas).units(aFirstIndex, aLastIndex);
     }
 
     @Override
-    public int unitCount(CAS aCas)
+    protected UnitIndex buildUnitIndex(CAS aCas)
     {
-        // This is way faster than the default implementation which first materializes all units
-        return aCas.getAnnotationIndex(CasUtil.getType(aCas, Sentence.class)).size();
+        var index = UnitIndex.builder();
+        for (var sentence : selectSentences(aCas)) {
+            index.add(sentence.getBegin(), sentence.getEnd(), getAddr(sentence),
+                    getSentenceId(sentence));
+        }
+        return index.build();
     }
 
-    private Unit toUnit(int aIndex, AnnotationFS aSentence)
+    private String getSentenceId(AnnotationFS aSentence)
     {
         // If there is a sentence ID, then make it accessible to the user via a sentence-level
         // comment.
-        String sentId = null;
         try {
-            sentId = FSUtil.getFeature(aSentence, "id", String.class);
+            return FSUtil.getFeature(aSentence, "id", String.class);
         }
         catch (IllegalArgumentException e) {
             // Ignore if there is no "id" feature on the sentence
+            return null;
         }
-        return new Unit(VID.of(aSentence), sentId, aIndex, aSentence.getBegin(),
-                aSentence.getEnd());
     }
 
     @Override
@@ -20,7 +20,6 @@ package de.tudarmstadt.ukp.clarin.webanno.api.annotation.paging;
 import static de.tudarmstadt.ukp.clarin.webanno.api.annotation.paging.LineOrientedPagingStrategy.LINE_SPLITTER_PATTERN;
 import static java.lang.String.format;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.uima.cas.CAS;
@@ -47,9 +46,24 @@ public class TokenWrappingPagingStrategy
     @Override
     public List<Unit> units(CAS aCas, int aFirstIndex, int aLastIndex)
     {
+        return unitIndex(aCas).units(aFirstIndex, aLastIndex);
+    }
+
+    @Override
+    protected String getUnitIndexVariant()
+    {
+        return super.getUnitIndexVariant() + "/" + maxLineLength;
+    }
+
+    @Override
+    protected UnitIndex buildUnitIndex(CAS aCas)
+    {
+        var text = aCas.getDocumentText();
         var tokenIterator = aCas.select(Token.class).iterator();
+        // Only look for line breaks in the gaps between tokens without copying the gaps
+        var matcher = LINE_SPLITTER_PATTERN.matcher(text);
 
-        var units = new ArrayList<Unit>();
+        var units = UnitIndex.builder();
 
         int currentUnitStart = 0;
         int currentUnitEnd = 0;
@@ -63,13 +77,11 @@ public class TokenWrappingPagingStrategy
             }
 
             // Add units for each of the lines in the gap
-            var gap = aCas.getDocumentText().substring(currentUnitEnd, currentToken.getBegin());
-            int gapStart = currentUnitEnd;
-            var matcher = LINE_SPLITTER_PATTERN.matcher(gap);
+            matcher.region(currentUnitEnd, currentToken.getBegin());
             while (matcher.find()) {
-                currentUnitEnd = gapStart + matcher.start();
-                units.add(new Unit(units.size() + 1, currentUnitStart, currentUnitEnd));
-                currentUnitStart = gapStart + matcher.end();
+                currentUnitEnd = matcher.start();
+                units.add(currentUnitStart, currentUnitEnd);
+                currentUnitStart = matcher.end();
             }
 
             var unitNonEmpty = (currentUnitEnd - currentUnitStart) > 0;
@@ -78,7 +90,7 @@ public class TokenWrappingPagingStrategy
 
             // If the unit is full, finish the unit and start a new one
             if (unitFull) {
-                units.add(new Unit(units.size() + 1, currentUnitStart, currentUnitEnd));
+                units.add(currentUnitStart, currentUnitEnd);
                 currentUnitStart = -1;
             }
 
@@ -91,7 +103,7 @@ public class TokenWrappingPagingStrategy
 
         // Finish current unit
         if (currentUnitEnd - currentUnitStart > 0) {
-            units.add(new Unit(units.size() + 1, currentUnitStart, currentUnitEnd));
+            units.add(currentUnitStart, currentUnitEnd);
             currentUnitStart = -1;
         }
 
@@ -111,7 +123,7 @@ public class TokenWrappingPagingStrategy
         // }
         // }
 
-        return units;
+        return units.build();
     }
 
     @Override
@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.clarin.webanno.api.annotation.paging;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.tudarmstadt.ukp.inception.rendering.paging.Unit;
+import de.tudarmstadt.ukp.inception.rendering.vmodel.VID;
+
+/**
+ * Compact index of the units of a document. The unit offsets are stored in primitive arrays and
+ * {@link Unit} objects are only created for the units that are actually requested. If the units
+ * are sorted by their begin and end offsets (which is the normal case), offset-based lookups use a
+ * binary search. Otherwise, they fall back to a linear scan.
+ * <p>
+ * Unit indexes are immutable and can be shared between requests.
+ */
+public final class UnitIndex
+{
+    private static final int NO_ADDRESS = -1;
+
+    private final int[] begins;
+    private final int[] ends;
+    private final int[] addresses;
+    private final String[] ids;
+    private final int size;
+    private final boolean sorted;
+
+    private UnitIndex(Builder aBuilder)
+    {
+        size = aBuilder.size;
+        begins = Arrays.copyOf(aBuilder.begins, size);
+        ends = Arrays.copyOf(aBuilder.ends, size);
+        addresses = aBuilder.addresses != null ? Arrays.copyOf(aBuilder.addresses, size) : null;
+        ids = aBuilder.ids != null ? Arrays.copyOf(aBuilder.ids, size) : null;
+
+        var isSorted = true;
+        for (int i = 1; i < size && isSorted; i++) {
+            isSorted = begins[i - 1] <= begins[i] && ends[i - 1] <= ends[i];
+        }
+        sorted = isSorted;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * @param aIndex
+     *            the index of the unit (1-based).
+     * @return the unit with the given index.
+     */
+    public Unit unit(int aIndex)
+    {
+        if (aIndex < 1 || aIndex > size) {
+            throw new IndexOutOfBoundsException(
+                    "Unit index [" + aIndex + "] out of range [1-" + size + "]");
+        }
+
+        var i = aIndex - 1;
+        if (addresses == null || addresses[i] == NO_ADDRESS) {
+            return new Unit(aIndex, begins[i], ends[i]);
+        }
+
+        return new Unit(new VID(addresses[i]), ids != null ? ids[i] : null, aIndex, begins[i],
+                ends[i]);
+    }
+
+    /**
+     * @param aFirstIndex
+     *            index of the first unit to be returned (1-based).
+     * @param aLastIndex
+     *            index of the last unit to be returned (1-based).
+     * @return the units in the given index range, capped to the available units.
+     */
+    public List<Unit> units(int aFirstIndex, int aLastIndex)
+    {
+        var first = max(1, aFirstIndex);
+        var last = min(size, aLastIndex);
+
+        var units = new ArrayList<Unit>(max(0, last - first + 1));
+        for (int i = first; i <= last; i++) {
+            units.add(unit(i));
+        }
+        return units;
+    }
+
+    /**
+     * Looks up the unit for the given offset. This is the first unit containing the offset (the
+     * end offset being inclusive). If there is no such unit, it is the last unit ending before the
+     * offset or, if the offset is before all units, the first unit.
+     * 
+     * @param aOffset
+     *            a character offset.
+     * @return the unit or {@code null} if there are no units.
+     */
+    public Unit unitAtOffset(int aOffset)
+    {
+        if (size == 0) {
+            return null;
+        }
+
+        if (!sorted) {
+            return unit(scanUnitAtOffset(aOffset));
+        }
+
+        // First unit which does not end before the offset
+        var i = lowerBound(ends, aOffset);
+        if (i < size && begins[i] <= aOffset) {
+            return unit(i + 1);
+        }
+
+        // No unit contains the offset - use the last unit before it or the first unit
+        return unit(max(1, i));
+    }
+
+    private int scanUnitAtOffset(int aOffset)
+    {
+        var lastBefore = -1;
+        for (int i = 0; i < size; i++) {
+            if (begins[i] <= aOffset && aOffset <= ends[i]) {
+                return i + 1;
+            }
+            if (ends[i] <= aOffset) {
+                lastBefore = i;
+            }
+        }
+        return lastBefore >= 0 ? lastBefore + 1 : 1;
+    }
+
+    /**
+     * @param aOffset
+     *            a character offset.
+     * @param aCount
+     *            the maximum number of units to return.
+     * @return the units which contain the given offset or start after it.
+     */
+    public List<Unit> unitsStartingAtOffset(int aOffset, int aCount)
+    {
+        if (!sorted) {
+            var units = new ArrayList<Unit>();
+            for (int i = 0; i < size && units.size() < aCount; i++) {
+                if (begins[i] >= aOffset || begins[i] <= aOffset && aOffset < ends[i]) {
+                    units.add(unit(i + 1));
+                }
+            }
+            return units;
+        }
+
+        // Units containing the offset come before the units starting at or after the offset and
+        // all units following the first matching one match as well
+        var first = min(lowerBound(ends, aOffset + 1), lowerBound(begins, aOffset));
+        var last = (int) min((long) first + aCount, size);
+        return units(first + 1, last);
+    }
+
+    /**
+     * @return the position of the first value in the given sorted array that is equal to or
+     *         greater than the given key, or the size of the index if there is no such value.
+     */
+    private int lowerBound(int[] aValues, int aKey)
+    {
+        var low = 0;
+        var high = size;
+        while (low < high) {
+            var mid = (low + high) >>> 1;
+            if (aValues[mid] < aKey) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    public static final class Builder
+    {
+        private int[] begins = new int[64];
+        private int[] ends = new int[64];
+        private int[] addresses;
+        private String[] ids;
+        private int size;
+
+        private Builder()
+        {
+            // No instances
+        }
+
+        public int size()
+        {
+            return size;
+        }
+
+        public Builder add(int aBegin, int aEnd)
+        {
+            ensureCapacity();
+            begins[size] = aBegin;
+            ends[size] = aEnd;
+            if (addresses != null) {
+                addresses[size] = NO_ADDRESS;
+            }
+            size++;
+            return this;
+        }
+
+        /**
+         * @param aBegin
+         *            the begin offset of the unit.
+         * @param aEnd
+         *            the end offset of the unit.
+         * @param aAddress
+         *            the address of the annotation representing the unit.
+         * @param aId
+         *            an optional ID of the unit (may be {@code null}).
+         * @return the builder.
+         */
+        public Builder add(int aBegin, int aEnd, int aAddress, String aId)
+        {
+            if (addresses == null) {
+                addresses = new int[begins.length];
+                Arrays.fill(addresses, NO_ADDRESS);
+            }
+
+            if (aId != null && ids == null) {
+                ids = new String[begins.length];
+            }
+
+            add(aBegin, aEnd);
+            addresses[size - 1] = aAddress;
+            if (ids != null) {
+                ids[size - 1] = aId;
+            }
+            return this;
+        }
+
+        private void ensureCapacity()
+        {
+            if (size < begins.length) {
+                return;
+            }
+
+            var capacity = begins.length * 2;
+            begins = Arrays.copyOf(begins, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            if (addresses != null) {
+                addresses = Arrays.copyOf(addresses, capacity);
+                Arrays.fill(addresses, size, capacity, NO_ADDRESS);
+            }
+            if (ids != null) {
+                ids = Arrays.copyOf(ids, capacity);
+            }
+        }
+
+        public UnitIndex build()
+        {
+            return new UnitIndex(this);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.clarin.webanno.api.annotation.paging;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.apache.uima.cas.CAS;
+
+/**
+ * Cache for {@link UnitIndex unit indexes}. Indexes are cached per paging strategy configuration
+ * and per document version, i.e. the units are only determined again when the document changes.
+ * <p>
+ * The document version is determined from the {@code CASMetadata} of the CAS. As an additional
+ * safeguard against changes which have not been written to disk yet, the size of the annotation
+ * index and the length of the document text are also part of the key. Indexes for CASes that do
+ * not carry a valid on-disk timestamp are not cached.
+ */
+class UnitIndexCache
+{
+    private static final String TYPE_CAS_METADATA = //
+            "de.tudarmstadt.ukp.clarin.webanno.api.type.CASMetadata";
+    private static final String FEAT_SOURCE_DOCUMENT_ID = "sourceDocumentId";
+    private static final String FEAT_USERNAME = "username";
+    private static final String FEAT_LAST_CHANGED_ON_DISK = "lastChangedOnDisk";
+
+    private final int maxEntries;
+
+    // Access-ordered, i.e. the least recently used entry comes first
+    private final Map<IndexKey, UnitIndex> cache;
+
+    UnitIndexCache(int aMaxEntries)
+    {
+        maxEntries = aMaxEntries;
+        cache = new LinkedHashMap<>(16, 0.75f, true)
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<IndexKey, UnitIndex> aEldest)
+            {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @param aVariant
+     *            identifier of the paging strategy configuration.
+     * @param aCas
+     *            the CAS.
+     * @param aBuilder
+     *            function building the index if it is not cached yet. It may return {@code null}
+     *            in which case nothing is cached.
+     * @return the unit index.
+     */
+    UnitIndex get(String aVariant, CAS aCas, Function<CAS, UnitIndex> aBuilder)
+    {
+        var key = IndexKey.of(aVariant, aCas);
+        if (key == null) {
+            return aBuilder.apply(aCas);
+        }
+
+        synchronized (this) {
+            var index = cache.get(key);
+            if (index != null) {
+                return index;
+            }
+        }
+
+        var index = aBuilder.apply(aCas);
+
+        if (index != null) {
+            synchronized (this) {
+                cache.put(key, index);
+            }
+        }
+
+        return index;
+    }
+
+    synchronized int size()
+    {
+        return cache.size();
+    }
+
+    synchronized void clear()
+    {
+        cache.clear();
+    }
+
+    private record IndexKey(String variant, long documentId, String username, long timestamp,
+            int annotationCount, int textLength)
+    {
+        static IndexKey of(String aVariant, CAS aCas)
+        {
+            var type = aCas.getTypeSystem().getType(TYPE_CAS_METADATA);
+            if (type == null) {
+                return null;
+            }
+
+            var documentIdFeature = type.getFeatureByBaseName(FEAT_SOURCE_DOCUMENT_ID);
+            var usernameFeature = type.getFeatureByBaseName(FEAT_USERNAME);
+            var timestampFeature = type.getFeatureByBaseName(FEAT_LAST_CHANGED_ON_DISK);
+            if (documentIdFeature == null || usernameFeature == null || timestampFeature == null) {
+                return null;
+            }
+
+            var cmd = aCas.select(type).nullOK().get();
+            if (cmd == null) {
+                return null;
+            }
+
+            // Negative timestamps mark CASes which have not been written to disk (yet)
+            var timestamp = cmd.getLongValue(timestampFeature);
+            if (timestamp < 0) {
+                return null;
+            }
+
+            var text = aCas.getDocumentText();
+            return new IndexKey(aVariant, cmd.getLongValue(documentIdFeature),
+                    cmd.getStringValue(usernameFeature), timestamp,
+                    aCas.getAnnotationIndex().size(), text != null ? text.length() : 0);
+        }
+    }
+}
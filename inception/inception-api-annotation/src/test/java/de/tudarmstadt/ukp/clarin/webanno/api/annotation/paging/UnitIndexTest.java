@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.clarin.webanno.api.annotation.paging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.tudarmstadt.ukp.inception.rendering.paging.Unit;
+
+class UnitIndexTest
+{
+    @Test
+    void thatUnitsInRangeAreReturned()
+    {
+        var sut = UnitIndex.builder() //
+                .add(0, 5) //
+                .add(6, 10) //
+                .add(11, 11) //
+                .add(12, 20) //
+                .build();
+
+        assertThat(sut.size()).isEqualTo(4);
+        assertThat(sut.units(2, 3)) //
+                .extracting(Unit::getIndex, Unit::getBegin, Unit::getEnd) //
+                .containsExactly(tuple(2, 6, 10), tuple(3, 11, 11));
+        assertThat(sut.units(0, Integer.MAX_VALUE)).hasSize(4);
+        assertThat(sut.units(5, 10)).isEmpty();
+    }
+
+    @Test
+    void thatOffsetLookupsMatchLinearScan()
+    {
+        var builder = UnitIndex.builder();
+        var units = new ArrayList<Unit>();
+        // Units of varying length with gaps, touching units and empty units
+        var offset = 3;
+        for (int i = 0; i < 200; i++) {
+            var length = i % 7 == 0 ? 0 : i % 5 + 1;
+            var gap = i % 3;
+            builder.add(offset, offset + length);
+            units.add(new Unit(i + 1, offset, offset + length));
+            offset += length + gap;
+        }
+        var sut = builder.build();
+
+        for (int o = 0; o <= offset + 2; o++) {
+            assertThat(sut.unitAtOffset(o).getIndex()) //
+                    .as("unit at offset %d", o) //
+                    .isEqualTo(linearUnitAtOffset(units, o).getIndex());
+            assertThat(sut.unitsStartingAtOffset(o, 5)) //
+                    .as("units starting at offset %d", o) //
+                    .extracting(Unit::getIndex) //
+                    .containsExactlyElementsOf(linearUnitsStartingAtOffset(units, o, 5));
+        }
+    }
+
+    @Test
+    void thatUnsortedUnitsFallBackToLinearScan()
+    {
+        var sut = UnitIndex.builder() //
+                .add(0, 20) //
+                .add(5, 10) //
+                .add(25, 30) //
+                .build();
+
+        assertThat(sut.unitAtOffset(7).getIndex()).isEqualTo(1);
+        assertThat(sut.unitAtOffset(22).getIndex()).isEqualTo(2);
+        assertThat(sut.unitsStartingAtOffset(7, 10)) //
+                .extracting(Unit::getIndex) //
+                .containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void thatEmptyIndexWorks()
+    {
+        var sut = UnitIndex.builder().build();
+
+        assertThat(sut.isEmpty()).isTrue();
+        assertThat(sut.unitAtOffset(0)).isNull();
+        assertThat(sut.unitsStartingAtOffset(0, 5)).isEmpty();
+        assertThat(sut.units(1, 5)).isEmpty();
+    }
+
+    @Test
+    void thatAddressesAndIdsArePreserved()
+    {
+        var sut = UnitIndex.builder() //
+                .add(0, 5) //
+                .add(6, 10, 42, null) //
+                .add(11, 15, 43, "s3") //
+                .build();
+
+        assertThat(sut.units(1, 3)) //
+                .extracting(u -> u.getVid() != null ? u.getVid().getId() : -1, Unit::getId) //
+                .containsExactly(tuple(-1, null), tuple(42, null), tuple(43, "s3"));
+    }
+
+    private static Unit linearUnitAtOffset(List<Unit> aUnits, int aOffset)
+    {
+        return aUnits.stream() //
+                .filter(u -> u.getBegin() <= aOffset && aOffset <= u.getEnd()) //
+                .findFirst() //
+                .or(() -> aUnits.stream() //
+                        .filter(u -> u.getEnd() <= aOffset) //
+                        .reduce((first, second) -> second)) //
+                .orElse(aUnits.get(0));
+    }
+
+    private static List<Integer> linearUnitsStartingAtOffset(List<Unit> aUnits, int aOffset,
+            int aCount)
+    {
+        return aUnits.stream() //
+                .filter(unit -> unit.getBegin() >= aOffset
+                        || unit.getBegin() <= aOffset && aOffset < unit.getEnd()) //
+                .limit(aCount) //
+                .map(Unit::getIndex) //
+                .toList();
+    }
+}
@@ -120,7 +120,8 @@ public class CasDiff
             Map<String, CAS> aCasMap, int aBegin, int aEnd)
     {
         if (aCasMap.isEmpty()) {
-            return new CasDiff(0, 0, aAdapters);
+            // Retain the window so the diff can still be extended later
+            return new CasDiff(aBegin, aEnd, aAdapters);
         }
 
         var startTime = currentTimeMillis();
@@ -141,6 +142,38 @@ public class CasDiff
         return diff;
     }
 
+    /**
+     * Creates a copy of this diff and adds the given CAS to the copy. This diff itself is not
+     * modified. This allows calculating the diff for a set of CASes which rarely change only once
+     * and then extending it with a CAS that changes frequently.
+     * 
+     * @param aCasGroupId
+     *            the ID of the CAS group to add. It must not yet be part of this diff.
+     * @param aCas
+     *            the CAS itself.
+     * @return the extended diff.
+     */
+    public CasDiff extend(String aCasGroupId, CAS aCas)
+    {
+        if (casses.containsKey(aCasGroupId)) {
+            throw new IllegalArgumentException(
+                    "CAS group [" + aCasGroupId + "] is already part of the diff");
+        }
+
+        var diff = new CasDiff(begin, end, null);
+        diff.diffAdapters.putAll(diffAdapters);
+        diff.casses.putAll(casses);
+        for (var e : configSets.entrySet()) {
+            diff.configSets.put(e.getKey(), new ConfigurationSet(e.getValue()));
+        }
+
+        for (var type : diffAdapters.keySet()) {
+            diff.addCas(aCasGroupId, aCas, type);
+        }
+
+        return diff;
+    }
+
     private DiffAdapter getAdapter(String aType)
     {
         var adapter = diffAdapters.get(aType);
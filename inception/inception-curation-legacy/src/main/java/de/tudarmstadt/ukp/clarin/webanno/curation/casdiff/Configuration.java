@@ -64,6 +64,21 @@ public class Configuration
         position = aPosition;
     }
 
+    /**
+     * Creates a deep copy of the given configuration.
+     */
+    Configuration(Configuration aOther)
+    {
+        position = aOther.position;
+        fsAddresses.putAll(aOther.fsAddresses);
+        if (aOther.duplicates != null) {
+            duplicates = new TreeMap<>();
+            for (var e : aOther.duplicates.entrySet()) {
+                duplicates.put(e.getKey(), new ArrayList<>(e.getValue()));
+            }
+        }
+    }
+
     public Position getPosition()
     {
         return position;
@@ -56,6 +56,22 @@ public class ConfigurationSet
         position = aPosition;
     }
 
+    /**
+     * Creates a deep copy of the given configuration set.
+     */
+    ConfigurationSet(ConfigurationSet aOther)
+    {
+        position = aOther.position;
+        for (var cfg : aOther.configurations) {
+            configurations.add(new Configuration(cfg));
+        }
+        casGroupIds.addAll(aOther.casGroupIds);
+        tags.addAll(aOther.tags);
+        for (var e : aOther.values.entrySet()) {
+            values.put(e.getKey(), new HashSet<>(e.getValue()));
+        }
+    }
+
     public ConfigurationSet addTags(Tag... aTag)
     {
         if (aTag != null) {
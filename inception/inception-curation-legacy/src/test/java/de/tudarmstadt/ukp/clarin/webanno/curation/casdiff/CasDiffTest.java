@@ -202,6 +202,71 @@ public class CasDiffTest
         assertThat(calculateState(result)).isEqualTo(DISAGREE);
     }
 
+    @Test
+    public void thatExtendedDiffEqualsFullDiff() throws Exception
+    {
+        var casByUser = load( //
+                "casdiff/someDifferences/user1.conll", //
+                "casdiff/someDifferences/user2.conll");
+
+        var diffAdapters = asList(POS_DIFF_ADAPTER);
+
+        var base = doDiff(diffAdapters, Map.of("user1", casByUser.get("user1")));
+        var baseSize = base.toResult().size();
+        var extended = base.extend("user2", casByUser.get("user2")).toResult();
+        var full = doDiff(diffAdapters, casByUser).toResult();
+
+        assertThat(extended.size()).isEqualTo(full.size());
+        assertThat(extended.getDifferingConfigurationSets()) //
+                .hasSameSizeAs(full.getDifferingConfigurationSets());
+        assertThat(extended.getIncompleteConfigurationSets()) //
+                .hasSameSizeAs(full.getIncompleteConfigurationSets());
+        assertThat(calculateState(extended)).isEqualTo(calculateState(full));
+
+        // The base diff must not be affected by extending it
+        assertThat(base.getCasMap()).containsOnlyKeys("user1");
+        assertThat(base.toResult().size()).isEqualTo(baseSize);
+        assertThat(base.toResult().getConfigurationSets()).allSatisfy(
+                cfgSet -> assertThat(cfgSet.getCasGroupIds()).containsExactly("user1"));
+    }
+
+    @Test
+    public void thatExtendedDiffHasSameRepresentativesAsDiffWithExtendingCasFirst()
+        throws Exception
+    {
+        var casByUser = load( //
+                "casdiff/someDifferences/user1.conll", //
+                "casdiff/someDifferences/user2.conll");
+
+        var diffAdapters = asList(POS_DIFF_ADAPTER);
+
+        // The curation sidebar used to put the curator CAS first. Extending adds it last, which
+        // only changes the order of the configurations but not their representatives because
+        // these are chosen by CAS group ID.
+        var casses = new LinkedHashMap<String, CAS>();
+        casses.put("user2", casByUser.get("user2"));
+        casses.put("user1", casByUser.get("user1"));
+        var full = doDiff(diffAdapters, casses).toResult();
+        var extended = doDiff(diffAdapters, Map.of("user1", casByUser.get("user1"))) //
+                .extend("user2", casByUser.get("user2")).toResult();
+
+        assertThat(extended.getPositions()) //
+                .containsExactlyInAnyOrderElementsOf(full.getPositions());
+        for (var position : full.getPositions()) {
+            assertThat(representatives(extended.getConfigurationSet(position))) //
+                    .containsExactlyInAnyOrderElementsOf(
+                            representatives(full.getConfigurationSet(position)));
+        }
+    }
+
+    private static List<Tuple> representatives(ConfigurationSet aSet)
+    {
+        return aSet.getConfigurations().stream() //
+                .map(cfg -> tuple(cfg.getRepresentativeCasGroupId(), cfg.getRepresentativeAID(),
+                        Set.copyOf(cfg.getCasGroupIds()))) //
+                .toList();
+    }
+
     @Test
     public void singleNoDifferencesTest() throws Exception
     {
@@ -27,6 +27,11 @@ import de.tudarmstadt.ukp.clarin.webanno.model.SourceDocument;
 
 public interface DocumentStorageService
 {
+    /**
+     * Footprint category under which the size of the source document files is tracked.
+     */
+    String FOOTPRINT_DOCUMENTS = "Documents";
+
     /**
      * @return a stream to the source document file.
      * 
@@ -17,6 +17,9 @@
  */
 package de.tudarmstadt.ukp.inception.documents;
 
+import static de.tudarmstadt.ukp.clarin.webanno.api.casstorage.CasStorageService.FOOTPRINT_ANNOTATIONS;
+import static de.tudarmstadt.ukp.clarin.webanno.api.casstorage.CasStorageService.FOOTPRINT_ANNOTATION_BACKUPS;
+import static de.tudarmstadt.ukp.inception.documents.api.DocumentStorageService.FOOTPRINT_DOCUMENTS;
 import static de.tudarmstadt.ukp.inception.project.api.ProjectService.ANNOTATION_FOLDER;
 import static de.tudarmstadt.ukp.inception.project.api.ProjectService.SOURCE_FOLDER;
 import static java.nio.file.Files.isDirectory;
@@ -104,9 +107,10 @@ public class DocumentFootprintProvider
             }
 
             return asList( //
-                    new Footprint("Documents", sourceDocumentsSize, "lightgreen"),
-                    new Footprint("Annotations", annotationsSize, "lightcoral"),
-                    new Footprint("Annotation backups", annotationBackupSize, "palevioletred"));
+                    new Footprint(FOOTPRINT_DOCUMENTS, sourceDocumentsSize, "lightgreen"),
+                    new Footprint(FOOTPRINT_ANNOTATIONS, annotationsSize, "lightcoral"),
+                    new Footprint(FOOTPRINT_ANNOTATION_BACKUPS, annotationBackupSize,
+                            "palevioletred"));
         }
         catch (IOException e) {
             return emptyList();
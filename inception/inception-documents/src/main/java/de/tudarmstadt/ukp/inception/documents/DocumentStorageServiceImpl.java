@@ -17,6 +17,7 @@
  */
 package de.tudarmstadt.ukp.inception.documents;
 
+import static de.tudarmstadt.ukp.inception.documents.api.DocumentStorageService.FOOTPRINT_DOCUMENTS;
 import static de.tudarmstadt.ukp.inception.project.api.ProjectService.DOCUMENT_FOLDER;
 import static de.tudarmstadt.ukp.inception.project.api.ProjectService.PROJECT_FOLDER;
 import static de.tudarmstadt.ukp.inception.project.api.ProjectService.SOURCE_FOLDER;
@@ -40,15 +41,24 @@ import de.tudarmstadt.ukp.clarin.webanno.model.Project;
 import de.tudarmstadt.ukp.clarin.webanno.model.SourceDocument;
 import de.tudarmstadt.ukp.inception.documents.api.DocumentStorageService;
 import de.tudarmstadt.ukp.inception.documents.api.RepositoryProperties;
+import de.tudarmstadt.ukp.inception.project.api.footprint.FootprintTracker;
 
 public class DocumentStorageServiceImpl
     implements DocumentStorageService
 {
     private final RepositoryProperties repositoryProperties;
+    private final FootprintTracker footprintTracker;
 
     public DocumentStorageServiceImpl(RepositoryProperties aRepositoryProperties)
+    {
+        this(aRepositoryProperties, null);
+    }
+
+    public DocumentStorageServiceImpl(RepositoryProperties aRepositoryProperties,
+            FootprintTracker aFootprintTracker)
     {
         repositoryProperties = aRepositoryProperties;
+        footprintTracker = aFootprintTracker;
     }
 
     Path getSourceDocumentFolder(SourceDocument aDocument)
@@ -115,7 +125,9 @@ public class DocumentStorageServiceImpl
 
         var path = getSourceDocumentFolder(aDocument);
         if (Files.exists(path)) {
+            var size = FileUtils.sizeOfDirectory(path.toFile());
             FileUtils.forceDelete(path.toFile());
+            trackFootprint(aDocument, -size);
         }
     }
 
@@ -177,9 +189,18 @@ public class DocumentStorageServiceImpl
         var targetFile = getSourceDocumentFile(aDocument);
         createDirectories(targetFile.getParentFile().toPath());
 
+        var previousSize = targetFile.exists() ? targetFile.length() : 0L;
         try (var os = new FileOutputStream(targetFile)) {
             copyLarge(aIs, os);
         }
+        trackFootprint(aDocument, targetFile.length() - previousSize);
+    }
+
+    private void trackFootprint(SourceDocument aDocument, long aDelta)
+    {
+        if (footprintTracker != null && aDelta != 0) {
+            footprintTracker.adjust(aDocument.getProject(), FOOTPRINT_DOCUMENTS, aDelta);
+        }
     }
 
     @Override
@@ -46,6 +46,7 @@ import de.tudarmstadt.ukp.inception.documents.exporters.CrossDocumentExporterReg
 import de.tudarmstadt.ukp.inception.documents.exporters.SourceDocumentExporter;
 import de.tudarmstadt.ukp.inception.log.api.EventRepository;
 import de.tudarmstadt.ukp.inception.project.api.ProjectService;
+import de.tudarmstadt.ukp.inception.project.api.footprint.FootprintTracker;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 
@@ -92,9 +93,10 @@ public class DocumentServiceAutoConfiguration
     }
 
     @Bean
-    public DocumentStorageService documentStorageService(RepositoryProperties aRepositoryProperties)
+    public DocumentStorageService documentStorageService(RepositoryProperties aRepositoryProperties,
+            @Autowired(required = false) FootprintTracker aFootprintTracker)
     {
-        return new DocumentStorageServiceImpl(aRepositoryProperties);
+        return new DocumentStorageServiceImpl(aRepositoryProperties, aFootprintTracker);
     }
 
     @Bean
@@ -304,18 +304,16 @@ public class DocumentImportExportServiceImpl
             TypeSystemDescription aFullProjectTypeSystem)
         throws UIMAException, IOException
     {
-        var tsd = aFullProjectTypeSystem;
-
-        if (tsd == null) {
-            tsd = annotationService.getFullProjectTypeSystem(aDocument.getProject());
-        }
-
         // Convert the source document to CAS
         var format = getReadableFormatById(aFormat).orElseThrow(
                 () -> new IOException("No reader available for format [" + aFormat + "]"));
 
-        // Prepare a CAS with the project type system
-        var cas = WebAnnoCasUtil.createCas(tsd);
+        // Prepare a CAS with the project type system - if no specific type system was given, we
+        // can use the compiled project type system which is shared by all CASes of the project
+        var cas = aFullProjectTypeSystem != null //
+                ? WebAnnoCasUtil.createCas(aFullProjectTypeSystem)
+                : WebAnnoCasUtil.createCas(
+                        annotationService.getProjectTypeSystem(aDocument.getProject()));
         format.read(aDocument, getRealCas(cas), aFile);
 
         // Create sentence / token annotations if they are missing - sentences first because
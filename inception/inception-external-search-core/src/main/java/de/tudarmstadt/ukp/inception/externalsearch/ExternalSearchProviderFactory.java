@@ -38,4 +38,13 @@ public interface ExternalSearchProviderFactory<P>
     P readTraits(DocumentRepository aDocumentRepository);
 
     void writeTraits(DocumentRepository aDocumentRepository, P aTraits);
+
+    /**
+     * @return the maximum number of requests per second that should be sent to repositories of
+     *         this type or {@code 0} if there is no limit.
+     */
+    default double getMaxRequestsPerSecond()
+    {
+        return 0;
+    }
 }
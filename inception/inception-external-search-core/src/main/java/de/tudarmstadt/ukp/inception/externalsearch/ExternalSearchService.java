@@ -33,6 +33,21 @@ public interface ExternalSearchService
     List<ExternalSearchResult> query(User aUser, DocumentRepository aRepository, String aQuery)
         throws IOException;
 
+    /**
+     * Runs the query against all document repositories of the given project concurrently.
+     * Repositories which fail or do not respond within the configured query timeout are reported
+     * in the result but do not prevent the results of the other repositories from being returned.
+     * 
+     * @param aUser
+     *            the user running the query
+     * @param aProject
+     *            the project whose repositories are queried
+     * @param aQuery
+     *            the query
+     * @return the merged results.
+     */
+    FederatedSearchResult queryAll(User aUser, Project aProject, String aQuery);
+
     ExternalSearchResult getDocumentResult(DocumentRepository aRepository, String aCollectionId,
             String aDocumentId)
         throws IOException;
@@ -17,10 +17,23 @@
  */
 package de.tudarmstadt.ukp.inception.externalsearch;
 
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.apache.commons.lang3.exception.ExceptionUtils.getRootCauseMessage;
+
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,6 +42,7 @@ import org.springframework.transaction.annotation.Transactional;
 import de.tudarmstadt.ukp.clarin.webanno.model.Project;
 import de.tudarmstadt.ukp.clarin.webanno.security.model.User;
 import de.tudarmstadt.ukp.inception.externalsearch.config.ExternalSearchAutoConfiguration;
+import de.tudarmstadt.ukp.inception.externalsearch.config.ExternalSearchProperties;
 import de.tudarmstadt.ukp.inception.externalsearch.model.DocumentRepository;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -48,11 +62,15 @@ public class ExternalSearchServiceImpl
     private @PersistenceContext EntityManager entityManager;
 
     private final ExternalSearchProviderRegistry externalSearchProviderRegistry;
+    private final ExternalSearchProperties properties;
+    private final Map<String, RequestRateLimiter> rateLimiters = new ConcurrentHashMap<>();
 
     @Autowired
-    public ExternalSearchServiceImpl(ExternalSearchProviderRegistry aExternalSearchProviderRegistry)
+    public ExternalSearchServiceImpl(ExternalSearchProviderRegistry aExternalSearchProviderRegistry,
+            ExternalSearchProperties aProperties)
     {
         externalSearchProviderRegistry = aExternalSearchProviderRegistry;
+        properties = aProperties;
     }
 
     /**
@@ -60,9 +78,10 @@ public class ExternalSearchServiceImpl
      */
     @SuppressWarnings("javadoc")
     public ExternalSearchServiceImpl(ExternalSearchProviderRegistry aExternalSearchProviderRegistry,
-            EntityManager aEntityManager)
+            ExternalSearchProperties aProperties, EntityManager aEntityManager)
     {
         externalSearchProviderRegistry = aExternalSearchProviderRegistry;
+        properties = aProperties;
         entityManager = aEntityManager;
     }
 
@@ -81,11 +100,114 @@ public class ExternalSearchServiceImpl
 
         var traits = factory.readTraits(aRepository);
 
+        acquirePermit(aRepository, factory);
+
         List<ExternalSearchResult> results = provider.executeQuery(aRepository, traits, aQuery);
 
         return results;
     }
 
+    @Override
+    public FederatedSearchResult queryAll(User aUser, Project aProject, String aQuery)
+    {
+        var repositories = listDocumentRepositories(aProject);
+        var results = new ArrayList<List<ExternalSearchResult>>();
+        var failures = new LinkedHashMap<String, String>();
+
+        if (repositories.isEmpty()) {
+            return new FederatedSearchResult(List.of(), failures);
+        }
+
+        var executor = Executors.newFixedThreadPool(repositories.size(),
+                new BasicThreadFactory.Builder() //
+                        .daemon(true) //
+                        .namingPattern("external-search-query-%d") //
+                        .build());
+
+        try {
+            var futures = new ArrayList<Future<List<ExternalSearchResult>>>();
+            for (var repository : repositories) {
+                futures.add(executor.submit(() -> query(aUser, repository, aQuery)));
+            }
+
+            // All repositories are queried at the same time, so they each get the full timeout
+            var timeout = properties.getQueryTimeout();
+            var deadline = System.nanoTime() + timeout.toNanos();
+            for (int i = 0; i < repositories.size(); i++) {
+                var repository = repositories.get(i);
+                var future = futures.get(i);
+                try {
+                    if (timeout.isPositive()) {
+                        results.add(
+                                future.get(Math.max(0, deadline - System.nanoTime()), NANOSECONDS));
+                    }
+                    else {
+                        results.add(future.get());
+                    }
+                }
+                catch (TimeoutException e) {
+                    future.cancel(true);
+                    log.warn("Repository [{}] did not respond within {}s", repository.getName(),
+                            timeout.toSeconds());
+                    failures.put(repository.getName(),
+                            "No response within " + timeout.toSeconds() + "s");
+                }
+                catch (ExecutionException e) {
+                    log.error("Unable to query repository [{}]", repository.getName(),
+                            e.getCause());
+                    failures.put(repository.getName(), getRootCauseMessage(e));
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        return new FederatedSearchResult(interleave(results), failures);
+    }
+
+    /**
+     * Merges the results of several repositories by taking turns, so the best results of each
+     * repository end up at the top. Scores of different repositories are not comparable, so we
+     * cannot simply sort by score.
+     */
+    static List<ExternalSearchResult> interleave(List<List<ExternalSearchResult>> aResults)
+    {
+        var merged = new ArrayList<ExternalSearchResult>();
+        var iterators = new ArrayList<Iterator<ExternalSearchResult>>();
+        for (var results : aResults) {
+            iterators.add(results.iterator());
+        }
+
+        while (!iterators.isEmpty()) {
+            var i = iterators.iterator();
+            while (i.hasNext()) {
+                var it = i.next();
+                if (it.hasNext()) {
+                    merged.add(it.next());
+                }
+                else {
+                    i.remove();
+                }
+            }
+        }
+
+        return merged;
+    }
+
+    private void acquirePermit(DocumentRepository aRepository,
+            ExternalSearchProviderFactory<?> aFactory)
+        throws IOException
+    {
+        var type = aRepository.getType();
+        var limiter = rateLimiters.computeIfAbsent(type, $ -> new RequestRateLimiter(
+                properties.getRateLimits().getOrDefault(type, aFactory.getMaxRequestsPerSecond())));
+        limiter.acquire();
+    }
+
     @Override
     @Transactional
     public List<DocumentRepository> listDocumentRepositories(Project aProject)
@@ -159,6 +281,8 @@ public class ExternalSearchServiceImpl
 
         Object traits = factory.readTraits(aRepository);
 
+        acquirePermit(aRepository, factory);
+
         return provider.getDocumentResult(aRepository, traits, aCollectionId, aDocumentId);
     }
 
@@ -175,6 +299,8 @@ public class ExternalSearchServiceImpl
 
         Object traits = factory.readTraits(aRepository);
 
+        acquirePermit(aRepository, factory);
+
         return provider.getDocumentText(aRepository, traits, aCollectionId, aDocumentId);
     }
 
@@ -191,6 +317,8 @@ public class ExternalSearchServiceImpl
 
         Object traits = factory.readTraits(aRepository);
 
+        acquirePermit(aRepository, factory);
+
         return provider.getDocumentAsStream(aRepository, traits, aCollectionId, aDocumentId);
     }
 
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.externalsearch;
+
+import static java.lang.Math.max;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces out requests so that no more than a given number of requests per second are made. Callers
+ * are granted consecutive time slots in the order in which they ask for them.
+ */
+class RequestRateLimiter
+{
+    private final long intervalNanos;
+
+    private long nextSlot;
+
+    RequestRateLimiter(double aRequestsPerSecond)
+    {
+        intervalNanos = aRequestsPerSecond > 0 ? (long) (1_000_000_000L / aRequestsPerSecond) : 0;
+        nextSlot = System.nanoTime();
+    }
+
+    /**
+     * Blocks until the caller may send the next request.
+     * 
+     * @throws InterruptedIOException
+     *             if the thread was interrupted while waiting.
+     */
+    void acquire() throws InterruptedIOException
+    {
+        if (intervalNanos == 0) {
+            return;
+        }
+
+        long wait;
+        synchronized (this) {
+            var now = System.nanoTime();
+            var slot = max(now, nextSlot);
+            nextSlot = slot + intervalNanos;
+            wait = slot - now;
+        }
+
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for rate limit");
+            }
+        }
+    }
+}
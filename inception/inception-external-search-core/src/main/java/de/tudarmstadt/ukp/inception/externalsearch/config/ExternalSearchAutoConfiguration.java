@@ -41,9 +41,10 @@ import de.tudarmstadt.ukp.inception.externalsearch.exporter.DocumentRepositoryEx
 public class ExternalSearchAutoConfiguration
 {
     @Bean
-    public ExternalSearchService externalSearchService(ExternalSearchProviderRegistry aRegistry)
+    public ExternalSearchService externalSearchService(ExternalSearchProviderRegistry aRegistry,
+            ExternalSearchProperties aProperties)
     {
-        return new ExternalSearchServiceImpl(aRegistry);
+        return new ExternalSearchServiceImpl(aRegistry, aProperties);
     }
 
     @Bean
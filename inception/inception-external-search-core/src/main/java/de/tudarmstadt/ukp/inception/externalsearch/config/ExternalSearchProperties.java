@@ -18,6 +18,10 @@
 
 package de.tudarmstadt.ukp.inception.externalsearch.config;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
@@ -26,10 +30,27 @@ import org.springframework.stereotype.Component;
 public class ExternalSearchProperties
 {
     public static final boolean DEFAULT_ENABLED = true;
+    public static final Duration DEFAULT_QUERY_TIMEOUT = Duration.ofSeconds(30);
+    public static final int DEFAULT_IMPORT_THREADS = 4;
 
     /** Enable/disable document repository support. */
     private boolean enabled = DEFAULT_ENABLED;
 
+    /**
+     * Maximum time to wait for each repository when querying all repositories of a project.
+     * Repositories that do not respond in time are skipped.
+     */
+    private Duration queryTimeout = DEFAULT_QUERY_TIMEOUT;
+
+    /** Number of documents that a bulk import retrieves and converts concurrently. */
+    private int importThreads = DEFAULT_IMPORT_THREADS;
+
+    /**
+     * Maximum number of requests per second sent to repositories of a given provider type (key).
+     * Overrides the default limit of the provider. A value of {@code 0} disables the limit.
+     */
+    private Map<String, Double> rateLimits = new LinkedHashMap<>();
+
     public boolean isEnabled()
     {
         return enabled;
@@ -39,4 +60,34 @@ public class ExternalSearchProperties
     {
         enabled = aEnabled;
     }
+
+    public Duration getQueryTimeout()
+    {
+        return queryTimeout;
+    }
+
+    public void setQueryTimeout(Duration aQueryTimeout)
+    {
+        queryTimeout = aQueryTimeout;
+    }
+
+    public int getImportThreads()
+    {
+        return importThreads;
+    }
+
+    public void setImportThreads(int aImportThreads)
+    {
+        importThreads = aImportThreads;
+    }
+
+    public Map<String, Double> getRateLimits()
+    {
+        return rateLimits;
+    }
+
+    public void setRateLimits(Map<String, Double> aRateLimits)
+    {
+        rateLimits = aRateLimits;
+    }
 }
@@ -0,0 +1,325 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.externalsearch;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.wicket.markup.html.panel.Panel;
+import org.apache.wicket.model.IModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import de.tudarmstadt.ukp.clarin.webanno.model.Project;
+import de.tudarmstadt.ukp.inception.externalsearch.config.ExternalSearchProperties;
+import de.tudarmstadt.ukp.inception.externalsearch.model.DocumentRepository;
+
+class ExternalSearchServiceImplTest
+{
+    private static final String STUB_TYPE = "stub";
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private AtomicInteger requestCount;
+    private Project project;
+    private List<DocumentRepository> repositories;
+    private ExternalSearchProperties properties;
+    private ExternalSearchServiceImpl sut;
+
+    @BeforeEach
+    void setup() throws Exception
+    {
+        requestCount = new AtomicInteger();
+
+        // Local stand-in for a remote repository. Each context simulates a different repository.
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/fast", ex -> respond(ex, 200, "fast-1\nfast-2\nfast-3"));
+        server.createContext("/other", ex -> respond(ex, 200, "other-1"));
+        server.createContext("/broken", ex -> respond(ex, 500, "Internal server error"));
+        server.createContext("/slow", ex -> {
+            try {
+                Thread.sleep(5_000);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(ex, 200, "slow-1");
+        });
+        server.start();
+
+        project = new Project("test");
+        repositories = new ArrayList<>();
+
+        properties = new ExternalSearchProperties();
+        properties.setQueryTimeout(Duration.ofSeconds(1));
+
+        var registry = new ExternalSearchProviderRegistry()
+        {
+            @Override
+            public List<ExternalSearchProviderFactory<?>> getExternalSearchProviderFactories()
+            {
+                return List.of(new StubProviderFactory());
+            }
+
+            @Override
+            public ExternalSearchProviderFactory<?> getExternalSearchProviderFactory(String aId)
+            {
+                return new StubProviderFactory();
+            }
+
+            @Override
+            public ExternalSearchProviderFactory<?> getDefaultExternalSearchProviderFactory()
+            {
+                return new StubProviderFactory();
+            }
+        };
+
+        sut = new ExternalSearchServiceImpl(registry, properties, null)
+        {
+            @Override
+            public List<DocumentRepository> listDocumentRepositories(Project aProject)
+            {
+                return repositories;
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void thatResultsOfAllRepositoriesAreInterleaved()
+    {
+        repositories.add(repository("fast"));
+        repositories.add(repository("other"));
+
+        var result = sut.queryAll(null, project, "query");
+
+        assertThat(result.failures()).isEmpty();
+        assertThat(result.results()) //
+                .extracting(ExternalSearchResult::getDocumentId) //
+                .containsExactly("fast-1", "other-1", "fast-2", "fast-3");
+    }
+
+    @Test
+    void thatSlowAndBrokenRepositoriesDoNotBlockOtherRepositories()
+    {
+        repositories.add(repository("slow"));
+        repositories.add(repository("broken"));
+        repositories.add(repository("fast"));
+
+        var start = System.nanoTime();
+        var result = sut.queryAll(null, project, "query");
+        var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(elapsed).isLessThan(Duration.ofSeconds(4));
+        assertThat(result.failures()).containsOnlyKeys("slow", "broken");
+        assertThat(result.results()) //
+                .extracting(ExternalSearchResult::getDocumentId) //
+                .containsExactly("fast-1", "fast-2", "fast-3");
+    }
+
+    @Test
+    void thatRequestsAreRateLimitedPerProviderType() throws Exception
+    {
+        properties.getRateLimits().put(STUB_TYPE, 10.0);
+        var repository = repository("other");
+
+        var start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            sut.getDocumentText(repository, "collection", "doc-" + i);
+        }
+        var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(requestCount.get()).isEqualTo(5);
+        // The first request is sent immediately, the others are spaced by 100ms each
+        assertThat(elapsed).isGreaterThanOrEqualTo(Duration.ofMillis(400));
+    }
+
+    @Test
+    void thatInterleavingRetainsRankingOfEachRepository()
+    {
+        var a = repository("a");
+        var b = repository("b");
+
+        var merged = ExternalSearchServiceImpl.interleave(List.of( //
+                List.of(result(a, "a1"), result(a, "a2")), //
+                List.of(), //
+                List.of(result(b, "b1"), result(b, "b2"), result(b, "b3"))));
+
+        assertThat(merged) //
+                .extracting(ExternalSearchResult::getDocumentId) //
+                .containsExactly("a1", "b1", "a2", "b2", "b3");
+    }
+
+    private DocumentRepository repository(String aName)
+    {
+        var repository = new DocumentRepository(aName, project);
+        repository.setType(STUB_TYPE);
+        repository.setProperties(
+                "http://localhost:" + server.getAddress().getPort() + "/" + aName);
+        return repository;
+    }
+
+    private static ExternalSearchResult result(DocumentRepository aRepository, String aDocumentId)
+    {
+        return new ExternalSearchResult(aRepository, "collection", aDocumentId);
+    }
+
+    private void respond(HttpExchange aExchange, int aStatus, String aBody) throws IOException
+    {
+        requestCount.incrementAndGet();
+        var body = aBody.getBytes(UTF_8);
+        aExchange.sendResponseHeaders(aStatus, body.length);
+        try (var os = aExchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    /**
+     * Provider which queries an HTTP endpoint that returns one document ID per line. The URL of
+     * the endpoint is stored as the traits of the repository.
+     */
+    private static class StubProvider
+        implements ExternalSearchProvider<String>
+    {
+        private final HttpClient client = HttpClient.newHttpClient();
+
+        @Override
+        public List<ExternalSearchResult> executeQuery(DocumentRepository aRepository,
+                String aTraits, String aQuery)
+            throws IOException
+        {
+            return get(aTraits).lines() //
+                    .map(id -> new ExternalSearchResult(aRepository, "collection", id)) //
+                    .toList();
+        }
+
+        @Override
+        public String getDocumentText(DocumentRepository aRepository, String aTraits,
+                String aCollectionId, String aDocumentId)
+            throws IOException
+        {
+            return get(aTraits);
+        }
+
+        @Override
+        public InputStream getDocumentAsStream(DocumentRepository aRepository, String aTraits,
+                String aCollectionId, String aDocumentId)
+            throws IOException
+        {
+            return new ByteArrayInputStream(get(aTraits).getBytes(UTF_8));
+        }
+
+        @Override
+        public String getDocumentFormat(DocumentRepository aRepository, String aTraits,
+                String aCollectionId, String aDocumentId)
+        {
+            return "text";
+        }
+
+        @Override
+        public ExternalSearchResult getDocumentResult(DocumentRepository aRepository,
+                String aTraits, String aCollectionId, String aDocumentId)
+        {
+            return new ExternalSearchResult(aRepository, aCollectionId, aDocumentId);
+        }
+
+        private String get(String aUrl) throws IOException
+        {
+            try {
+                var response = client.send(HttpRequest.newBuilder(URI.create(aUrl)).build(),
+                        BodyHandlers.ofString());
+                if (response.statusCode() != 200) {
+                    throw new IOException("Server returned status " + response.statusCode());
+                }
+                return response.body();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+    }
+
+    private static class StubProviderFactory
+        implements ExternalSearchProviderFactory<String>
+    {
+        @Override
+        public String getBeanName()
+        {
+            return STUB_TYPE;
+        }
+
+        @Override
+        public String getDisplayName()
+        {
+            return "Stub";
+        }
+
+        @Override
+        public ExternalSearchProvider<?> getNewExternalSearchProvider()
+        {
+            return new StubProvider();
+        }
+
+        @Override
+        public Panel createTraitsEditor(String aId,
+                IModel<DocumentRepository> aDocumentRepository)
+        {
+            return null;
+        }
+
+        @Override
+        public String readTraits(DocumentRepository aDocumentRepository)
+        {
+            return aDocumentRepository.getProperties();
+        }
+
+        @Override
+        public void writeTraits(DocumentRepository aDocumentRepository, String aTraits)
+        {
+            aDocumentRepository.setProperties(aTraits);
+        }
+    }
+}
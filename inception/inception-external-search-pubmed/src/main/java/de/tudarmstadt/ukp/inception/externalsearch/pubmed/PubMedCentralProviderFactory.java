@@ -97,6 +97,13 @@ public class PubMedCentralProviderFactory
         return new PubMedProviderTraitsEditor(aId, aDocumentRepository);
     }
 
+    @Override
+    public double getMaxRequestsPerSecond()
+    {
+        // NCBI asks clients without an API key not to send more than three requests per second
+        return 3;
+    }
+
     @Override
     public PubMedProviderTraits readTraits(DocumentRepository aDocumentRepository)
     {
@@ -22,6 +22,7 @@ import static org.apache.uima.cas.CAS.TYPE_NAME_STRING;
 import org.apache.wicket.markup.html.panel.Panel;
 import org.apache.wicket.model.IModel;
 import org.apache.wicket.model.util.ListModel;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationFeature;
 import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationLayer;
@@ -31,6 +32,7 @@ import de.tudarmstadt.ukp.inception.recommendation.api.model.Recommender;
 import de.tudarmstadt.ukp.inception.recommendation.api.recommender.RecommendationEngine;
 import de.tudarmstadt.ukp.inception.recommendation.api.recommender.RecommendationEngineFactoryImplBase;
 import de.tudarmstadt.ukp.inception.recommendation.imls.llm.AnnotationTaskCodecExtensionPoint;
+import de.tudarmstadt.ukp.inception.recommendation.imls.llm.cache.LlmResponseCache;
 import de.tudarmstadt.ukp.inception.recommendation.imls.llm.client.LlmChatClientExtensionPoint;
 import de.tudarmstadt.ukp.inception.recommendation.imls.llm.support.preset.Presets;
 import de.tudarmstadt.ukp.inception.schema.api.AnnotationSchemaService;
@@ -46,6 +48,8 @@ public class AzureAiOpenAiRecommenderFactory
     private final AnnotationTaskCodecExtensionPoint responseExtractorExtensionPoint;
     private final LlmChatClientExtensionPoint chatClientExtensionPoint;
 
+    private LlmResponseCache responseCache;
+
     public AzureAiOpenAiRecommenderFactory(AnnotationSchemaService aSchemaService,
             AnnotationTaskCodecExtensionPoint aResponseExtractorExtensionPoint,
             LlmChatClientExtensionPoint aChatClientExtensionPoint)
@@ -55,6 +59,12 @@ public class AzureAiOpenAiRecommenderFactory
         chatClientExtensionPoint = aChatClientExtensionPoint;
     }
 
+    @Autowired(required = false)
+    public void setResponseCache(LlmResponseCache aResponseCache)
+    {
+        responseCache = aResponseCache;
+    }
+
     @Override
     public String getId()
     {
@@ -71,8 +81,10 @@ public class AzureAiOpenAiRecommenderFactory
     public RecommendationEngine build(Recommender aRecommender)
     {
         var traits = readTraits(aRecommender);
-        return new AzureAiOpenAiRecommender(aRecommender, traits, schemaService,
+        var engine = new AzureAiOpenAiRecommender(aRecommender, traits, schemaService,
                 responseExtractorExtensionPoint, chatClientExtensionPoint);
+        engine.setResponseCache(responseCache);
+        return engine;
     }
 
     @Override
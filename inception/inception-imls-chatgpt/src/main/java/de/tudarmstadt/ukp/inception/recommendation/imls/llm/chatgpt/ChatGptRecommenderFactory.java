@@ -22,6 +22,7 @@ import static org.apache.uima.cas.CAS.TYPE_NAME_STRING;
 import org.apache.wicket.markup.html.panel.Panel;
 import org.apache.wicket.model.IModel;
 import org.apache.wicket.model.util.ListModel;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationFeature;
 import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationLayer;
@@ -31,6 +32,7 @@ import de.tudarmstadt.ukp.inception.recommendation.api.model.Recommender;
 import de.tudarmstadt.ukp.inception.recommendation.api.recommender.RecommendationEngine;
 import de.tudarmstadt.ukp.inception.recommendation.api.recommender.RecommendationEngineFactoryImplBase;
 import de.tudarmstadt.ukp.inception.recommendation.imls.llm.AnnotationTaskCodecExtensionPoint;
+import de.tudarmstadt.ukp.inception.recommendation.imls.llm.cache.LlmResponseCache;
 import de.tudarmstadt.ukp.inception.recommendation.imls.llm.chatgpt.client.ChatCompletionRequest;
 import de.tudarmstadt.ukp.inception.recommendation.imls.llm.client.LlmChatClientExtensionPoint;
 import de.tudarmstadt.ukp.inception.recommendation.imls.llm.support.preset.Presets;
@@ -47,6 +49,8 @@ public class ChatGptRecommenderFactory
     private final AnnotationTaskCodecExtensionPoint responseExtractorExtensionPoint;
     private final LlmChatClientExtensionPoint chatClientExtensionPoint;
 
+    private LlmResponseCache responseCache;
+
     public ChatGptRecommenderFactory(AnnotationSchemaService aSchemaService,
             AnnotationTaskCodecExtensionPoint aResponseExtractorExtensionPoint,
             LlmChatClientExtensionPoint aChatClientExtensionPoint)
@@ -56,6 +60,12 @@ public class ChatGptRecommenderFactory
         chatClientExtensionPoint = aChatClientExtensionPoint;
     }
 
+    @Autowired(required = false)
+    public void setResponseCache(LlmResponseCache aResponseCache)
+    {
+        responseCache = aResponseCache;
+    }
+
     @Override
     public String getId()
     {
@@ -72,8 +82,10 @@ public class ChatGptRecommenderFactory
     public RecommendationEngine build(Recommender aRecommender)
     {
         var traits = readTraits(aRecommender);
-        return new ChatGptRecommender(aRecommender, traits, schemaService,
+        var engine = new ChatGptRecommender(aRecommender, traits, schemaService,
                 responseExtractorExtensionPoint, chatClientExtensionPoint);
+        engine.setResponseCache(responseCache);
+        return engine;
     }
 
     @Override
@@ -96,11 +96,11 @@ public class ExternalRecommender
     private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
     private static final int HTTP_TOO_MANY_REQUESTS = 429;
-    private static final int HTTP_BAD_REQUEST = 400;
+    protected static final int HTTP_BAD_REQUEST = 400;
 
-    private final ExternalRecommenderProperties properties;
-    private final ExternalRecommenderTraits traits;
-    private final AnnotationSchemaService schemaService;
+    protected final ExternalRecommenderProperties properties;
+    protected final ExternalRecommenderTraits traits;
+    protected final AnnotationSchemaService schemaService;
 
     private HttpClient _client;
 
@@ -114,7 +114,7 @@ public class ExternalRecommender
         schemaService = aSchemaService;
     }
 
-    private HttpClient getClient() throws RecommendationException
+    protected synchronized HttpClient getClient() throws RecommendationException
     {
         try {
             if (_client == null) {
@@ -224,7 +224,7 @@ public class ExternalRecommender
         aContext.put(KEY_TRAINING_COMPLETE, true);
     }
 
-    private RecommendationException communicationFailedException(HttpResponse<String> response)
+    protected RecommendationException communicationFailedException(HttpResponse<String> response)
     {
         var responseBody = getResponseBody(response);
         var msg = format("Request to external recommender failed: [%d] - [%s]",
@@ -273,7 +273,7 @@ public class ExternalRecommender
         return Range.rangeCoveringDocument(aCas);
     }
 
-    private List<MTagset> buildTagsets(CAS aCas, PredictionContext aContext)
+    protected List<MTagset> buildTagsets(CAS aCas, PredictionContext aContext)
         throws RecommendationException
     {
         // The context project is authoritative. The CAS-metadata projectId is not
@@ -317,7 +317,7 @@ public class ExternalRecommender
         return result;
     }
 
-    private String serializeTypeSystem(CAS aCas) throws RecommendationException
+    protected String serializeTypeSystem(CAS aCas) throws RecommendationException
     {
         var layer = recommender.getLayer();
         var feature = recommender.getFeature();
@@ -366,7 +366,7 @@ public class ExternalRecommender
         return new Document(xmi, documentId, userId);
     }
 
-    private CASMetadata getCasMetadata(CAS aCas) throws RecommendationException
+    protected CASMetadata getCasMetadata(CAS aCas) throws RecommendationException
     {
         try {
             return JCasUtil.selectSingle(aCas.getJCas(), CASMetadata.class);
@@ -376,7 +376,7 @@ public class ExternalRecommender
         }
     }
 
-    private Metadata buildMetadata(CAS aCas, Range aRange) throws RecommendationException
+    protected Metadata buildMetadata(CAS aCas, Range aRange) throws RecommendationException
     {
         var casMetadata = getCasMetadata(aCas);
         var layer = recommender.getLayer();
@@ -396,7 +396,7 @@ public class ExternalRecommender
         }
     }
 
-    private String toJson(Object aObject) throws RecommendationException
+    protected String toJson(Object aObject) throws RecommendationException
     {
         try {
             return JSONUtil.toJsonString(aObject);
@@ -406,7 +406,7 @@ public class ExternalRecommender
         }
     }
 
-    private HttpResponse<String> sendRequest(HttpClient aClient, HttpRequest aRequest)
+    protected HttpResponse<String> sendRequest(HttpClient aClient, HttpRequest aRequest)
         throws RecommendationException
     {
         try {
@@ -28,6 +28,8 @@ import de.tudarmstadt.ukp.inception.recommendation.api.recommender.Recommendatio
 import de.tudarmstadt.ukp.inception.recommendation.api.recommender.RecommendationEngineFactoryImplBase;
 import de.tudarmstadt.ukp.inception.recommendation.imls.external.v1.config.ExternalRecommenderAutoConfiguration;
 import de.tudarmstadt.ukp.inception.recommendation.imls.external.v1.config.ExternalRecommenderProperties;
+import de.tudarmstadt.ukp.inception.recommendation.imls.external.v2.ExternalRecommenderV2;
+import de.tudarmstadt.ukp.inception.recommendation.imls.external.v2.ExternalTypeSystemRegistry;
 import de.tudarmstadt.ukp.inception.schema.api.AnnotationSchemaService;
 
 /**
@@ -45,6 +47,7 @@ public class ExternalRecommenderFactory
 
     private final ExternalRecommenderProperties properties;
     private final AnnotationSchemaService schemaService;
+    private final ExternalTypeSystemRegistry typeSystemRegistry = new ExternalTypeSystemRegistry();
 
     public ExternalRecommenderFactory(ExternalRecommenderProperties aProperties,
             AnnotationSchemaService aSchemaService)
@@ -63,6 +66,11 @@ public class ExternalRecommenderFactory
     public RecommendationEngine build(Recommender aRecommender)
     {
         var traits = readTraits(aRecommender);
+        if (traits.getProtocol() == ExternalRecommenderProtocol.V2) {
+            return new ExternalRecommenderV2(properties, aRecommender, traits, schemaService,
+                    typeSystemRegistry);
+        }
+
         return new ExternalRecommender(properties, aRecommender, traits, schemaService);
     }
 
@@ -112,6 +120,13 @@ public class ExternalRecommenderFactory
         return false;
     }
 
+    @Override
+    public boolean isConcurrentPredictionSupported(Recommender aRecommender)
+    {
+        // Each prediction is an independent request to the external service
+        return true;
+    }
+
     @Override
     public boolean isRanker(Recommender aRecommender)
     {
@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.recommendation.imls.external.v1;
+
+/**
+ * Protocol used to communicate with an external recommender.
+ */
+public enum ExternalRecommenderProtocol
+{
+    /**
+     * Documents are sent as XMI together with the full type system on every request. The
+     * response contains the full document including the predictions as XMI.
+     */
+    V1,
+
+    /**
+     * Documents are sent in the UIMA JSON CAS format. The type system is registered once with the
+     * remote and only referred to by its hash afterwards. The response contains only the
+     * predictions.
+     */
+    V2;
+}
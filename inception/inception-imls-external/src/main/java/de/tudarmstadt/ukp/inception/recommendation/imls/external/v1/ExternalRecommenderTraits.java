@@ -35,7 +35,9 @@ public class ExternalRecommenderTraits
     private static final long serialVersionUID = -3109239605741337123L;
 
     private String remoteUrl = "http://localhost:5000/<INSERT RECOMMENDER ENDPOINT>";
+    private ExternalRecommenderProtocol protocol = ExternalRecommenderProtocol.V1;
     private boolean verifyCertificates = true;
+    private boolean compressRequests = false;
     private boolean ranker = false;
     private TrainingCapability trainingCapability = TRAINING_SUPPORTED;
     private boolean universalExtraction = false;
@@ -60,6 +62,16 @@ public class ExternalRecommenderTraits
         remoteUrl = aRemoteUrl;
     }
 
+    public ExternalRecommenderProtocol getProtocol()
+    {
+        return protocol;
+    }
+
+    public void setProtocol(ExternalRecommenderProtocol aProtocol)
+    {
+        protocol = aProtocol;
+    }
+
     @Deprecated
     public boolean isTrainable()
     {
@@ -88,6 +100,16 @@ public class ExternalRecommenderTraits
         return verifyCertificates;
     }
 
+    public boolean isCompressRequests()
+    {
+        return compressRequests;
+    }
+
+    public void setCompressRequests(boolean aCompressRequests)
+    {
+        compressRequests = aCompressRequests;
+    }
+
     public void setRanker(boolean aRanker)
     {
         ranker = aRanker;
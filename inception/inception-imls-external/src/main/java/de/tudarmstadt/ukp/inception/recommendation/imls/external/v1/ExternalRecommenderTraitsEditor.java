@@ -74,10 +74,25 @@ public class ExternalRecommenderTraitsEditor
         remoteUrl.add(new UrlValidator());
         form.add(remoteUrl);
 
+        var protocol = new DropDownChoice<ExternalRecommenderProtocol>("protocol");
+        protocol.setRequired(true);
+        protocol.setChoiceRenderer(new EnumChoiceRenderer<>(protocol));
+        protocol.setChoices(asList(ExternalRecommenderProtocol.values()));
+        form.add(protocol);
+
         var verifyCertificates = new CheckBox("verifyCertificates");
         verifyCertificates.setOutputMarkupId(true);
         form.add(verifyCertificates);
 
+        var compressRequests = new CheckBox("compressRequests");
+        compressRequests.setOutputMarkupPlaceholderTag(true);
+        compressRequests.add(
+                visibleWhen(() -> protocol.getModelObject() == ExternalRecommenderProtocol.V2));
+        form.add(compressRequests);
+
+        protocol.add(new LambdaAjaxFormComponentUpdatingBehavior(CHANGE_EVENT,
+                _target -> _target.add(compressRequests)));
+
         var trainingCapability = new DropDownChoice<TrainingCapability>("trainingCapability");
         trainingCapability.setOutputMarkupId(true);
         trainingCapability.setChoiceRenderer(new EnumChoiceRenderer<>(trainingCapability));
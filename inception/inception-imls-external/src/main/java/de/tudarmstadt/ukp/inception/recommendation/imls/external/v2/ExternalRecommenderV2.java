@@ -0,0 +1,352 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.recommendation.imls.external.v2;
+
+import static de.tudarmstadt.ukp.inception.annotation.layer.relation.api.RelationLayerSupport.FEAT_REL_SOURCE;
+import static de.tudarmstadt.ukp.inception.annotation.layer.relation.api.RelationLayerSupport.FEAT_REL_TARGET;
+import static de.tudarmstadt.ukp.inception.support.uima.WebAnnoCasUtil.getRealCas;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.lang3.Strings.CS;
+import static org.apache.uima.fit.util.CasUtil.getType;
+import static org.apache.uima.fit.util.CasUtil.selectAt;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_XML_VALUE;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.json.jsoncas2.JsonCas2Serializer;
+import org.apache.uima.json.jsoncas2.mode.FeatureStructuresMode;
+import org.apache.uima.json.jsoncas2.mode.OffsetConversionMode;
+import org.apache.uima.json.jsoncas2.mode.SofaMode;
+import org.apache.uima.json.jsoncas2.mode.TypeSystemMode;
+import org.apache.uima.json.jsoncas2.ref.FullyQualifiedTypeRefGenerator;
+import org.apache.uima.json.jsoncas2.ref.SequentialIdRefGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+
+import de.tudarmstadt.ukp.inception.annotation.layer.relation.api.RelationLayerSupport;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.Recommender;
+import de.tudarmstadt.ukp.inception.recommendation.api.recommender.PredictionContext;
+import de.tudarmstadt.ukp.inception.recommendation.api.recommender.RecommendationException;
+import de.tudarmstadt.ukp.inception.recommendation.api.recommender.RecommenderContext;
+import de.tudarmstadt.ukp.inception.recommendation.imls.external.v1.ExternalRecommender;
+import de.tudarmstadt.ukp.inception.recommendation.imls.external.v1.ExternalRecommenderTraits;
+import de.tudarmstadt.ukp.inception.recommendation.imls.external.v1.config.ExternalRecommenderProperties;
+import de.tudarmstadt.ukp.inception.recommendation.imls.external.v2.ExternalTypeSystemRegistry.TypeSystemInfo;
+import de.tudarmstadt.ukp.inception.recommendation.imls.external.v2.messages.MDocument;
+import de.tudarmstadt.ukp.inception.recommendation.imls.external.v2.messages.MOffsets;
+import de.tudarmstadt.ukp.inception.recommendation.imls.external.v2.messages.MPrediction;
+import de.tudarmstadt.ukp.inception.recommendation.imls.external.v2.messages.MPredictionRequest;
+import de.tudarmstadt.ukp.inception.recommendation.imls.external.v2.messages.MPredictionResponse;
+import de.tudarmstadt.ukp.inception.recommendation.imls.external.v2.messages.MTrainingRequest;
+import de.tudarmstadt.ukp.inception.schema.api.AnnotationSchemaService;
+import de.tudarmstadt.ukp.inception.support.json.JSONUtil;
+import de.tudarmstadt.ukp.inception.support.uima.Range;
+
+/**
+ * External recommender speaking the second version of the protocol. In contrast to the first
+ * version:
+ * <ul>
+ * <li>documents are sent in the UIMA JSON CAS format instead of XMI;</li>
+ * <li>the type system is uploaded once to {@code v2/typesystems/<id>} and afterwards only referred
+ * to by its ID (the SHA-256 hash of the type system XML). If the remote responds with {@code 412}
+ * because it does not know the type system (e.g. after a restart), the type system is uploaded
+ * again and the request is retried once;</li>
+ * <li>the prediction response contains only the predicted annotations instead of the full
+ * document.</li>
+ * </ul>
+ */
+public class ExternalRecommenderV2
+    extends ExternalRecommender
+{
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final int HTTP_PRECONDITION_FAILED = 412;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final String GZIP = "gzip";
+
+    private final ExternalTypeSystemRegistry typeSystemRegistry;
+
+    public ExternalRecommenderV2(ExternalRecommenderProperties aProperties,
+            Recommender aRecommender, ExternalRecommenderTraits aTraits,
+            AnnotationSchemaService aSchemaService, ExternalTypeSystemRegistry aTypeSystemRegistry)
+    {
+        super(aProperties, aRecommender, aTraits, aSchemaService);
+        typeSystemRegistry = aTypeSystemRegistry;
+    }
+
+    @Override
+    public void train(RecommenderContext aContext, List<CAS> aCasses) throws RecommendationException
+    {
+        // We assume that the type system for all CAS are the same - see the v1 implementation
+        var representativeCas = aCasses.get(0);
+        var typeSystem = getTypeSystem(representativeCas);
+
+        var trainingRequest = new MTrainingRequest();
+        trainingRequest.setTypeSystemId(typeSystem.id());
+        trainingRequest.setMetadata(
+                buildMetadata(representativeCas, Range.rangeCoveringDocument(representativeCas)));
+
+        var documents = new ArrayList<MDocument>();
+        for (var cas : aCasses) {
+            documents.add(buildDocument(cas));
+        }
+        trainingRequest.setDocuments(documents);
+
+        var response = post("v2/train", toJson(trainingRequest), typeSystem);
+        if (response.statusCode() == HTTP_TOO_MANY_REQUESTS) {
+            LOG.info("External recommender is already training");
+        }
+        else if (response.statusCode() >= HTTP_BAD_REQUEST) {
+            throw communicationFailedException(response);
+        }
+
+        aContext.put(KEY_TRAINING_COMPLETE, true);
+    }
+
+    @Override
+    public Range predict(PredictionContext aContext, CAS aCas, int aBegin, int aEnd)
+        throws RecommendationException
+    {
+        var typeSystem = getTypeSystem(aCas);
+
+        var predictionRequest = new MPredictionRequest();
+        predictionRequest.setTypeSystemId(typeSystem.id());
+        predictionRequest.setDocument(buildDocument(aCas));
+        predictionRequest.setMetadata(buildMetadata(aCas, new Range(aBegin, aEnd)));
+        predictionRequest.setTagsets(buildTagsets(aCas, aContext));
+
+        var response = post("v2/predict", toJson(predictionRequest), typeSystem);
+        if (response.statusCode() >= HTTP_BAD_REQUEST) {
+            throw communicationFailedException(response);
+        }
+
+        MPredictionResponse predictionResponse;
+        try {
+            predictionResponse = JSONUtil.fromJsonString(MPredictionResponse.class,
+                    response.body());
+        }
+        catch (IOException e) {
+            throw new RecommendationException("Error while deserializing prediction response!", e);
+        }
+
+        if (predictionResponse != null && predictionResponse.getPredictions() != null) {
+            applyPredictions(aCas, predictionResponse.getPredictions());
+        }
+
+        return Range.rangeCoveringDocument(aCas);
+    }
+
+    private void applyPredictions(CAS aCas, List<MPrediction> aPredictions)
+    {
+        var predictedType = getPredictedType(aCas);
+        var predictedFeature = getPredictedFeature(aCas);
+        var isPredictionFeature = getIsPredictionFeature(aCas);
+        var scoreFeature = getScoreFeature(aCas);
+        var explanationFeature = getScoreExplanationFeature(aCas);
+        var modeFeature = getModeFeature(aCas);
+
+        var isRelation = RelationLayerSupport.TYPE.equals(recommender.getLayer().getType());
+        var governorFeature = isRelation ? predictedType.getFeatureByBaseName(FEAT_REL_SOURCE)
+                : null;
+        var dependentFeature = isRelation ? predictedType.getFeatureByBaseName(FEAT_REL_TARGET)
+                : null;
+        var attachType = isRelation
+                ? getType(aCas, recommender.getLayer().getAttachType().getName())
+                : null;
+        var documentLength = aCas.getDocumentText().length();
+
+        for (var prediction : aPredictions) {
+            AnnotationFS annotation;
+            if (isRelation) {
+                var governor = findEndpoint(aCas, attachType, prediction.getGovernor());
+                var dependent = findEndpoint(aCas, attachType, prediction.getDependent());
+                if (governor == null || dependent == null) {
+                    LOG.debug("Skipping relation prediction with unknown endpoints: {} -> {}",
+                            prediction.getGovernor(), prediction.getDependent());
+                    continue;
+                }
+
+                // Relations are anchored on their dependent
+                annotation = aCas.createAnnotation(predictedType, dependent.getBegin(),
+                        dependent.getEnd());
+                annotation.setFeatureValue(governorFeature, governor);
+                annotation.setFeatureValue(dependentFeature, dependent);
+            }
+            else {
+                if (prediction.getBegin() < 0 || prediction.getEnd() > documentLength
+                        || prediction.getBegin() > prediction.getEnd()) {
+                    LOG.debug("Skipping span prediction with invalid offsets: [{}-{}]",
+                            prediction.getBegin(), prediction.getEnd());
+                    continue;
+                }
+
+                annotation = aCas.createAnnotation(predictedType, prediction.getBegin(),
+                        prediction.getEnd());
+            }
+
+            annotation.setFeatureValueFromString(predictedFeature, prediction.getLabel());
+            annotation.setBooleanValue(isPredictionFeature, true);
+            if (prediction.getScore() != null && scoreFeature != null) {
+                annotation.setDoubleValue(scoreFeature, prediction.getScore());
+            }
+            if (prediction.getExplanation() != null && explanationFeature != null) {
+                annotation.setStringValue(explanationFeature, prediction.getExplanation());
+            }
+            if (prediction.getAutoAccept() != null && modeFeature != null) {
+                annotation.setStringValue(modeFeature, prediction.getAutoAccept());
+            }
+            aCas.addFsToIndexes(annotation);
+        }
+    }
+
+    private AnnotationFS findEndpoint(CAS aCas, Type aAttachType, MOffsets aOffsets)
+    {
+        if (aOffsets == null) {
+            return null;
+        }
+
+        var candidates = selectAt(aCas, aAttachType, aOffsets.begin(), aOffsets.end());
+        return candidates.isEmpty() ? null : candidates.get(0);
+    }
+
+    private TypeSystemInfo getTypeSystem(CAS aCas) throws RecommendationException
+    {
+        var layer = recommender.getLayer();
+        var feature = recommender.getFeature();
+        // The serialized type system includes the layer and feature descriptions, so these are
+        // part of the cache key
+        var variant = String.join("\u0000", layer.getName(), String.valueOf(layer.getDescription()),
+                feature.getName(), String.valueOf(feature.getDescription()));
+        return typeSystemRegistry.getTypeSystem(aCas.getTypeSystem(), variant,
+                () -> serializeTypeSystem(aCas));
+    }
+
+    private HttpResponse<String> post(String aPath, String aBody, TypeSystemInfo aTypeSystem)
+        throws RecommendationException
+    {
+        var remoteUrl = traits.getRemoteUrl();
+        if (!typeSystemRegistry.isRegistered(remoteUrl, aTypeSystem)) {
+            registerTypeSystem(aTypeSystem);
+        }
+
+        var request = buildRequest("POST", resolve(aPath), APPLICATION_JSON_VALUE, aBody);
+
+        var response = sendRequest(getClient(), request);
+        if (response.statusCode() != HTTP_PRECONDITION_FAILED) {
+            return response;
+        }
+
+        // The remote does not (or no longer) know the type system - upload it again and retry
+        LOG.debug("External recommender does not know type system [{}] - registering again",
+                aTypeSystem.id());
+        typeSystemRegistry.forget(remoteUrl, aTypeSystem);
+        registerTypeSystem(aTypeSystem);
+        return sendRequest(getClient(), request);
+    }
+
+    private void registerTypeSystem(TypeSystemInfo aTypeSystem) throws RecommendationException
+    {
+        var request = buildRequest("PUT", resolve("v2/typesystems/" + aTypeSystem.id()),
+                APPLICATION_XML_VALUE, aTypeSystem.xml());
+
+        var response = sendRequest(getClient(), request);
+        if (response.statusCode() >= HTTP_BAD_REQUEST) {
+            throw communicationFailedException(response);
+        }
+
+        typeSystemRegistry.markRegistered(traits.getRemoteUrl(), aTypeSystem);
+    }
+
+    private HttpRequest buildRequest(String aMethod, URI aUri, String aContentType, String aBody)
+        throws RecommendationException
+    {
+        var builder = HttpRequest.newBuilder() //
+                .uri(aUri) //
+                .header(HttpHeaders.CONTENT_TYPE, aContentType) //
+                .timeout(properties.getReadTimeout());
+
+        if (!traits.isCompressRequests()) {
+            return builder.method(aMethod, BodyPublishers.ofString(aBody, UTF_8)).build();
+        }
+
+        // The CAS is sent in full, so compressing it is the main lever on the payload size. It is
+        // opt-in because the remote has to be able to handle the Content-Encoding.
+        return builder //
+                .header(HttpHeaders.CONTENT_ENCODING, GZIP) //
+                .method(aMethod, BodyPublishers.ofByteArray(gzip(aBody))) //
+                .build();
+    }
+
+    private static byte[] gzip(String aBody) throws RecommendationException
+    {
+        var buffer = new ByteArrayOutputStream();
+        try (var out = new GZIPOutputStream(buffer)) {
+            out.write(aBody.getBytes(UTF_8));
+        }
+        catch (IOException e) {
+            throw new RecommendationException("Error while compressing request!", e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private URI resolve(String aPath)
+    {
+        return URI.create(CS.appendIfMissing(traits.getRemoteUrl(), "/")).resolve(aPath);
+    }
+
+    private MDocument buildDocument(CAS aCas) throws RecommendationException
+    {
+        var casMetadata = getCasMetadata(aCas);
+        return new MDocument(casMetadata.getSourceDocumentId(), casMetadata.getUsername(),
+                serializeCas(aCas));
+    }
+
+    private String serializeCas(CAS aCas) throws RecommendationException
+    {
+        var serializer = new JsonCas2Serializer();
+        serializer.setFsMode(FeatureStructuresMode.AS_ARRAY);
+        serializer.setSofaMode(SofaMode.AS_REGULAR_FEATURE_STRUCTURE);
+        serializer.setTypeRefGeneratorSupplier(FullyQualifiedTypeRefGenerator::new);
+        serializer.setIdRefGeneratorSupplier(SequentialIdRefGenerator::new);
+        serializer.setOffsetConversionMode(OffsetConversionMode.UTF_16);
+        // The type system is registered separately and referenced by its ID
+        serializer.setTypeSystemMode(TypeSystemMode.NONE);
+
+        try (var out = new ByteArrayOutputStream()) {
+            serializer.serialize(getRealCas(aCas), out);
+            return out.toString(UTF_8);
+        }
+        catch (IOException e) {
+            throw new RecommendationException("Error while serializing CAS!", e);
+        }
+    }
+}
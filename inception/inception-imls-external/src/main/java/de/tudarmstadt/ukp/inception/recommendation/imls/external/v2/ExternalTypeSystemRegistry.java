@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.recommendation.imls.external.v2;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.uima.cas.TypeSystem;
+
+import de.tudarmstadt.ukp.inception.recommendation.api.recommender.RecommendationException;
+
+/**
+ * Keeps track of the serialized type systems and of the remote recommenders that a type system has
+ * already been registered with. The serialized form of a type system is cached per type system
+ * instance, so that it is only calculated once for all CASes sharing the same type system. The
+ * registrations are kept per remote URL, so a remote that is restarted and loses its registrations
+ * is detected through a {@code 412} response and receives the type system again.
+ */
+public class ExternalTypeSystemRegistry
+{
+    private final Map<TypeSystem, Map<String, TypeSystemInfo>> typeSystems = new WeakHashMap<>();
+    private final Set<String> registrations = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param aTypeSystem
+     *            the type system.
+     * @param aVariant
+     *            a key identifying the variant of the serialized type system, e.g. because layer
+     *            or feature descriptions were added for a particular recommender.
+     * @param aSerializer
+     *            used to serialize the type system if it is not cached yet.
+     * @return the serialized type system together with its ID.
+     */
+    public TypeSystemInfo getTypeSystem(TypeSystem aTypeSystem, String aVariant,
+            TypeSystemSerializer aSerializer)
+        throws RecommendationException
+    {
+        synchronized (typeSystems) {
+            var variants = typeSystems.computeIfAbsent(aTypeSystem, $ -> new HashMap<>());
+            var info = variants.get(aVariant);
+            if (info == null) {
+                var xml = aSerializer.serialize();
+                info = new TypeSystemInfo(sha256(xml), xml);
+                variants.put(aVariant, info);
+            }
+            return info;
+        }
+    }
+
+    public boolean isRegistered(String aRemoteUrl, TypeSystemInfo aTypeSystem)
+    {
+        return registrations.contains(key(aRemoteUrl, aTypeSystem));
+    }
+
+    public void markRegistered(String aRemoteUrl, TypeSystemInfo aTypeSystem)
+    {
+        registrations.add(key(aRemoteUrl, aTypeSystem));
+    }
+
+    public void forget(String aRemoteUrl, TypeSystemInfo aTypeSystem)
+    {
+        registrations.remove(key(aRemoteUrl, aTypeSystem));
+    }
+
+    private static String key(String aRemoteUrl, TypeSystemInfo aTypeSystem)
+    {
+        return aRemoteUrl + " " + aTypeSystem.id();
+    }
+
+    static String sha256(String aValue)
+    {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(aValue.getBytes(UTF_8)));
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record TypeSystemInfo(String id, String xml) {}
+
+    @FunctionalInterface
+    public interface TypeSystemSerializer
+    {
+        String serialize() throws RecommendationException;
+    }
+}
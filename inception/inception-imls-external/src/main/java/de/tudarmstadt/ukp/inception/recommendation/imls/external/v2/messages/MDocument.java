@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.recommendation.imls.external.v2.messages;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+public class MDocument
+{
+    @JsonProperty("documentId")
+    private long documentId;
+
+    @JsonProperty("userId")
+    private String userId;
+
+    /**
+     * The document in the UIMA JSON CAS format. It is embedded as a JSON object, not as a string.
+     */
+    @JsonRawValue
+    @JsonProperty("cas")
+    private String cas;
+
+    public MDocument(long aDocumentId, String aUserId, String aCas)
+    {
+        documentId = aDocumentId;
+        userId = aUserId;
+        cas = aCas;
+    }
+
+    public long getDocumentId()
+    {
+        return documentId;
+    }
+
+    public String getUserId()
+    {
+        return userId;
+    }
+
+    public String getCas()
+    {
+        return cas;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.recommendation.imls.external.v2.messages;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A single suggestion produced by the external recommender. For span layers, {@link #getBegin()}
+ * and {@link #getEnd()} locate the suggested span. For relation layers, {@link #getGovernor()}
+ * and {@link #getDependent()} locate the endpoints of the suggested relation.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class MPrediction
+{
+    @JsonProperty("begin")
+    private int begin;
+
+    @JsonProperty("end")
+    private int end;
+
+    @JsonProperty("governor")
+    private MOffsets governor;
+
+    @JsonProperty("dependent")
+    private MOffsets dependent;
+
+    @JsonProperty("label")
+    private String label;
+
+    @JsonProperty("score")
+    private Double score;
+
+    @JsonProperty("explanation")
+    private String explanation;
+
+    @JsonProperty("autoAccept")
+    private String autoAccept;
+
+    public int getBegin()
+    {
+        return begin;
+    }
+
+    public void setBegin(int aBegin)
+    {
+        begin = aBegin;
+    }
+
+    public int getEnd()
+    {
+        return end;
+    }
+
+    public void setEnd(int aEnd)
+    {
+        end = aEnd;
+    }
+
+    public MOffsets getGovernor()
+    {
+        return governor;
+    }
+
+    public void setGovernor(MOffsets aGovernor)
+    {
+        governor = aGovernor;
+    }
+
+    public MOffsets getDependent()
+    {
+        return dependent;
+    }
+
+    public void setDependent(MOffsets aDependent)
+    {
+        dependent = aDependent;
+    }
+
+    public String getLabel()
+    {
+        return label;
+    }
+
+    public void setLabel(String aLabel)
+    {
+        label = aLabel;
+    }
+
+    public Double getScore()
+    {
+        return score;
+    }
+
+    public void setScore(Double aScore)
+    {
+        score = aScore;
+    }
+
+    public String getExplanation()
+    {
+        return explanation;
+    }
+
+    public void setExplanation(String aExplanation)
+    {
+        explanation = aExplanation;
+    }
+
+    public String getAutoAccept()
+    {
+        return autoAccept;
+    }
+
+    public void setAutoAccept(String aAutoAccept)
+    {
+        autoAccept = aAutoAccept;
+    }
+}
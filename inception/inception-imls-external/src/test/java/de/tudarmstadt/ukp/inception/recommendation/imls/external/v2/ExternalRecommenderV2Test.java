@@ -0,0 +1,297 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.recommendation.imls.external.v2;
+
+import static de.tudarmstadt.ukp.inception.annotation.storage.CasMetadataUtils.getInternalTypeSystem;
+import static de.tudarmstadt.ukp.inception.support.test.recommendation.RecommenderTestHelper.addPredictionFeatures;
+import static de.tudarmstadt.ukp.inception.support.test.recommendation.RecommenderTestHelper.getPredictions;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.apache.uima.fit.factory.TypeSystemDescriptionFactory.createTypeSystemDescription;
+import static org.apache.uima.util.CasCreationUtils.mergeTypeSystems;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.jcas.JCas;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import de.tudarmstadt.ukp.clarin.webanno.api.casstorage.session.CasStorageSession;
+import de.tudarmstadt.ukp.clarin.webanno.api.type.CASMetadata;
+import de.tudarmstadt.ukp.clarin.webanno.model.AnchoringMode;
+import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationFeature;
+import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationLayer;
+import de.tudarmstadt.ukp.dkpro.core.api.ner.type.NamedEntity;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.Recommender;
+import de.tudarmstadt.ukp.inception.recommendation.api.recommender.PredictionContext;
+import de.tudarmstadt.ukp.inception.recommendation.api.recommender.RecommenderContext;
+import de.tudarmstadt.ukp.inception.recommendation.imls.external.v1.ExternalRecommenderProtocol;
+import de.tudarmstadt.ukp.inception.recommendation.imls.external.v1.ExternalRecommenderTraits;
+import de.tudarmstadt.ukp.inception.recommendation.imls.external.v1.config.ExternalRecommenderPropertiesImpl;
+import de.tudarmstadt.ukp.inception.schema.api.AnnotationSchemaService;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+@ExtendWith(MockitoExtension.class)
+class ExternalRecommenderV2Test
+{
+    private static final String TYPE = "de.tudarmstadt.ukp.dkpro.core.api.ner.type.NamedEntity";
+    private static final String TYPE_SYSTEMS_PATH = "/v2/typesystems/";
+    private static final Pattern TYPE_SYSTEM_ID = Pattern
+            .compile("\"typeSystemId\"\\s*:\\s*\"([0-9a-f]+)\"");
+
+    private static final String PREDICTIONS = """
+            { "predictions": [
+              { "begin": 0, "end": 4, "label": "PER", "score": 0.9, "explanation": "name" },
+              { "begin": 9, "end": 13, "label": "PER" } ] }
+            """;
+
+    private @Mock AnnotationSchemaService schemaService;
+
+    private Recommender recommender;
+    private RecommenderContext context;
+    private ExternalRecommenderTraits traits;
+    private ExternalTypeSystemRegistry registry;
+    private ExternalRecommenderV2 sut;
+    private MockWebServer server;
+    private CasStorageSession casStorageSession;
+
+    private Set<String> knownTypeSystems;
+    private List<String> requests;
+    private List<String> contentEncodings;
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        casStorageSession = CasStorageSession.open();
+        recommender = buildRecommender();
+        context = new RecommenderContext();
+        knownTypeSystems = ConcurrentHashMap.newKeySet();
+        requests = new CopyOnWriteArrayList<>();
+        contentEncodings = new CopyOnWriteArrayList<>();
+
+        server = new MockWebServer();
+        server.setDispatcher(buildDispatcher());
+        server.start();
+
+        traits = new ExternalRecommenderTraits();
+        traits.setProtocol(ExternalRecommenderProtocol.V2);
+        traits.setRemoteUrl(server.url("/").toString());
+
+        registry = new ExternalTypeSystemRegistry();
+        sut = new ExternalRecommenderV2(new ExternalRecommenderPropertiesImpl(), recommender,
+                traits, schemaService, registry);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        casStorageSession.close();
+        server.shutdown();
+    }
+
+    @Test
+    void thatTypeSystemIsRegisteredOnlyOnce() throws Exception
+    {
+        var cas = createCas();
+
+        sut.train(context, asList(cas));
+        sut.train(context, asList(cas));
+        sut.predict(new PredictionContext(context), cas);
+
+        assertThat(requests).containsExactly( //
+                "PUT " + TYPE_SYSTEMS_PATH, //
+                "POST /v2/train", //
+                "POST /v2/train", //
+                "POST /v2/predict");
+    }
+
+    @Test
+    void thatTypeSystemIsRegisteredAgainWhenRemoteDoesNotKnowIt() throws Exception
+    {
+        var cas = createCas();
+
+        sut.train(context, asList(cas));
+
+        // Simulate a restart of the remote which loses all registered type systems
+        knownTypeSystems.clear();
+        requests.clear();
+
+        sut.train(context, asList(cas));
+
+        assertThat(requests).containsExactly( //
+                "POST /v2/train", //
+                "PUT " + TYPE_SYSTEMS_PATH, //
+                "POST /v2/train");
+    }
+
+    @Test
+    void thatPredictionsAreApplied() throws Exception
+    {
+        var cas = createCas();
+        addPredictionFeatures(cas, NamedEntity.class, "value");
+
+        sut.predict(new PredictionContext(context), cas);
+
+        assertThat(getPredictions(cas, NamedEntity.class)) //
+                .extracting(NamedEntity::getCoveredText, NamedEntity::getValue) //
+                .containsExactly(tuple("John", "PER"), tuple("Mary", "PER"));
+    }
+
+    @Test
+    void thatRequestsAreCompressedWhenEnabled() throws Exception
+    {
+        traits.setCompressRequests(true);
+        sut = new ExternalRecommenderV2(new ExternalRecommenderPropertiesImpl(), recommender,
+                traits, schemaService, registry);
+
+        var cas = createCas();
+        addPredictionFeatures(cas, NamedEntity.class, "value");
+
+        sut.train(context, asList(cas));
+        sut.predict(new PredictionContext(context), cas);
+
+        assertThat(requests).containsExactly( //
+                "PUT " + TYPE_SYSTEMS_PATH, //
+                "POST /v2/train", //
+                "POST /v2/predict");
+        assertThat(contentEncodings).containsOnly("gzip").hasSize(3);
+        assertThat(getPredictions(cas, NamedEntity.class)) //
+                .extracting(NamedEntity::getCoveredText, NamedEntity::getValue) //
+                .containsExactly(tuple("John", "PER"), tuple("Mary", "PER"));
+    }
+
+    @Test
+    void thatRequestsAreNotCompressedByDefault() throws Exception
+    {
+        sut.train(context, asList(createCas()));
+
+        assertThat(contentEncodings).isEmpty();
+    }
+
+    private String readBody(RecordedRequest aRequest)
+    {
+        var encoding = aRequest.getHeader("Content-Encoding");
+        if (encoding == null) {
+            return aRequest.getBody().readUtf8();
+        }
+
+        contentEncodings.add(encoding);
+        try (var in = new GZIPInputStream(aRequest.getBody().inputStream())) {
+            return new String(in.readAllBytes(), UTF_8);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Dispatcher buildDispatcher()
+    {
+        return new Dispatcher()
+        {
+            @Override
+            public MockResponse dispatch(RecordedRequest aRequest)
+            {
+                var path = aRequest.getPath();
+                var body = readBody(aRequest);
+
+                if ("PUT".equals(aRequest.getMethod()) && path.startsWith(TYPE_SYSTEMS_PATH)) {
+                    requests.add("PUT " + TYPE_SYSTEMS_PATH);
+                    var id = path.substring(TYPE_SYSTEMS_PATH.length());
+                    assertThat(id).isEqualTo(ExternalTypeSystemRegistry.sha256(body));
+                    knownTypeSystems.add(id);
+                    return new MockResponse().setResponseCode(204);
+                }
+
+                requests.add(aRequest.getMethod() + " " + path);
+
+                // Documents must be embedded as JSON objects, not as strings
+                assertThat(body).contains("\"cas\":{");
+
+                var matcher = TYPE_SYSTEM_ID.matcher(body);
+                if (!matcher.find() || !knownTypeSystems.contains(matcher.group(1))) {
+                    return new MockResponse().setResponseCode(412);
+                }
+
+                switch (path) {
+                case "/v2/train":
+                    return new MockResponse().setResponseCode(204);
+                case "/v2/predict":
+                    return new MockResponse().setResponseCode(200) //
+                            .setHeader("Content-Type", "application/json") //
+                            .setBody(PREDICTIONS);
+                default:
+                    return new MockResponse().setResponseCode(404);
+                }
+            }
+        };
+    }
+
+    private CAS createCas() throws Exception
+    {
+        var jcas = JCasFactory.createJCas(
+                mergeTypeSystems(asList(createTypeSystemDescription(), getInternalTypeSystem())));
+        jcas.setDocumentText("John met Mary .");
+        addCasMetadata(jcas, 1l);
+        return jcas.getCas();
+    }
+
+    private static Recommender buildRecommender()
+    {
+        var layer = new AnnotationLayer();
+        layer.setName(TYPE);
+        layer.setCrossSentence(true);
+        layer.setAnchoringMode(AnchoringMode.TOKENS);
+
+        var feature = new AnnotationFeature();
+        feature.setName("value");
+
+        var recommender = new Recommender();
+        recommender.setLayer(layer);
+        recommender.setFeature(feature);
+        recommender.setMaxRecommendations(3);
+
+        return recommender;
+    }
+
+    private void addCasMetadata(JCas aJCas, long aDocumentId)
+    {
+        var cmd = new CASMetadata(aJCas);
+        cmd.setUsername("test_user");
+        cmd.setProjectId(42L);
+        cmd.setSourceDocumentId(aDocumentId);
+        aJCas.addFsToIndexes(cmd);
+    }
+}
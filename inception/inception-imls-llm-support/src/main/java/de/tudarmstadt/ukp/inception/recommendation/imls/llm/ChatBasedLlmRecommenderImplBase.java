@@ -38,6 +38,7 @@ import de.tudarmstadt.ukp.inception.recommendation.api.model.Recommender;
 import de.tudarmstadt.ukp.inception.recommendation.api.recommender.NonTrainableRecommenderEngineImplBase;
 import de.tudarmstadt.ukp.inception.recommendation.api.recommender.PredictionContext;
 import de.tudarmstadt.ukp.inception.recommendation.api.recommender.RecommendationException;
+import de.tudarmstadt.ukp.inception.recommendation.imls.llm.cache.LlmResponseCache;
 import de.tudarmstadt.ukp.inception.recommendation.imls.llm.client.ChatOptions;
 import de.tudarmstadt.ukp.inception.recommendation.imls.llm.client.LlmChatClientExtensionPoint;
 import de.tudarmstadt.ukp.inception.recommendation.imls.llm.client.LlmEndpoint;
@@ -66,6 +67,8 @@ public abstract class ChatBasedLlmRecommenderImplBase<T extends LlmRecommenderTr
     protected final LlmChatClientExtensionPoint chatClientExtensionPoint;
     protected final JinjaPromptRenderer promptRenderer;
 
+    private LlmResponseCache responseCache;
+
     public ChatBasedLlmRecommenderImplBase(Recommender aRecommender, T aTraits,
             AnnotationSchemaService aSchemaService,
             AnnotationTaskCodecExtensionPoint aResponseExtractorExtensionPoint,
@@ -80,6 +83,16 @@ public abstract class ChatBasedLlmRecommenderImplBase<T extends LlmRecommenderTr
         promptRenderer = new JinjaPromptRenderer();
     }
 
+    /**
+     * @param aResponseCache
+     *            cache for the responses of the LLM. If {@code null}, every prompt is sent to the
+     *            LLM.
+     */
+    public void setResponseCache(LlmResponseCache aResponseCache)
+    {
+        responseCache = aResponseCache;
+    }
+
     /**
      * Identifier of the {@code LlmChatClient} that handles this recommender's provider. Must match
      * the {@code getId()} of the registered adapter.
@@ -169,7 +182,9 @@ public abstract class ChatBasedLlmRecommenderImplBase<T extends LlmRecommenderTr
                 .withOptions(options) //
                 .build();
 
-        var result = client.chat(endpoint, aPrompt, chatOptions);
+        var result = responseCache != null
+                ? responseCache.chat(client, endpoint, aPrompt, chatOptions)
+                : client.chat(endpoint, aPrompt, chatOptions);
         LOG.trace("[{}] response: [{}]", providerId, result.message().content());
         return result.message().content();
     }
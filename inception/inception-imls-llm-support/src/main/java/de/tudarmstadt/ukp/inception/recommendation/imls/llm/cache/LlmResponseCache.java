@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.recommendation.imls.llm.cache;
+
+import java.io.IOException;
+import java.util.List;
+
+import de.tudarmstadt.ukp.inception.recommendation.imls.llm.ChatMessage;
+import de.tudarmstadt.ukp.inception.recommendation.imls.llm.client.ChatOptions;
+import de.tudarmstadt.ukp.inception.recommendation.imls.llm.client.ChatResult;
+import de.tudarmstadt.ukp.inception.recommendation.imls.llm.client.LlmChatClient;
+import de.tudarmstadt.ukp.inception.recommendation.imls.llm.client.LlmEndpoint;
+
+/**
+ * Cache for the responses of LLM chat exchanges. Responses are keyed by the provider, endpoint,
+ * model, options and messages of the exchange. Only exchanges which are expected to produce
+ * reproducible results (i.e. with a temperature of {@code 0} or a fixed seed) and which do not
+ * involve tool calls are cached.
+ */
+public interface LlmResponseCache
+{
+    /**
+     * Returns the cached response for the given exchange or performs the exchange using the given
+     * client and caches its response.
+     * 
+     * @param aClient
+     *            the client to use if the response is not cached.
+     * @param aEndpoint
+     *            the endpoint.
+     * @param aMessages
+     *            the messages.
+     * @param aOptions
+     *            the options.
+     * @return the response.
+     * @throws IOException
+     *             if the exchange failed.
+     */
+    ChatResult chat(LlmChatClient aClient, LlmEndpoint aEndpoint, List<ChatMessage> aMessages,
+            ChatOptions aOptions)
+        throws IOException;
+
+    /**
+     * Removes all cached responses.
+     */
+    void clear();
+}
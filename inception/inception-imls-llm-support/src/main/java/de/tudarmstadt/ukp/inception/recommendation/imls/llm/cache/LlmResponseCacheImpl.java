@@ -0,0 +1,415 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.recommendation.imls.llm.cache;
+
+import static de.tudarmstadt.ukp.inception.recommendation.imls.llm.ChatMessage.Role.ASSISTANT;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Comparator.comparing;
+import static org.springframework.jmx.support.MetricType.COUNTER;
+import static org.springframework.jmx.support.MetricType.GAUGE;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jmx.export.annotation.ManagedMetric;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.util.FileSystemUtils;
+
+import de.tudarmstadt.ukp.inception.documents.api.RepositoryProperties;
+import de.tudarmstadt.ukp.inception.recommendation.imls.llm.ChatMessage;
+import de.tudarmstadt.ukp.inception.recommendation.imls.llm.client.ChatOptions;
+import de.tudarmstadt.ukp.inception.recommendation.imls.llm.client.ChatResult;
+import de.tudarmstadt.ukp.inception.recommendation.imls.llm.client.FinishReason;
+import de.tudarmstadt.ukp.inception.recommendation.imls.llm.client.LlmChatClient;
+import de.tudarmstadt.ukp.inception.recommendation.imls.llm.client.LlmEndpoint;
+import de.tudarmstadt.ukp.inception.recommendation.imls.llm.config.LlmResponseCacheAutoConfiguration;
+import de.tudarmstadt.ukp.inception.recommendation.imls.llm.config.LlmResponseCacheProperties;
+
+/**
+ * Stores the responses of LLM chat exchanges on disk, one file per response. The file name is
+ * derived from a hash over everything that may influence the response.
+ * <p>
+ * If the total size of the stored responses exceeds the configured limit, the least recently used
+ * responses are removed. Responses older than the configured time-to-live are treated as misses.
+ * <p>
+ * This class is exposed as a Spring Component via
+ * {@link LlmResponseCacheAutoConfiguration#llmResponseCache}.
+ */
+@ManagedResource
+public class LlmResponseCacheImpl
+    implements LlmResponseCache
+{
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    public static final String CACHE_FOLDER = "llm-cache";
+
+    private static final String RESPONSE_SUFFIX = ".response";
+
+    private static final String OPT_TEMPERATURE = "temperature";
+    private static final String OPT_SEED = "seed";
+
+    private final Path root;
+    private final long maxSize;
+    private final Duration timeToLive;
+
+    // Access-ordered, i.e. the least recently used response comes first. Maps the key to the size
+    // of the response file.
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private boolean loaded;
+    private long size;
+
+    private long hitCount;
+    private long missCount;
+    private long uncacheableCount;
+
+    public LlmResponseCacheImpl(RepositoryProperties aRepositoryProperties,
+            LlmResponseCacheProperties aProperties)
+    {
+        this(aRepositoryProperties.getPath().toPath().resolve(CACHE_FOLDER),
+                aProperties.getSize().toBytes(), aProperties.getTimeToLive());
+    }
+
+    public LlmResponseCacheImpl(Path aRoot, long aMaxSize, Duration aTimeToLive)
+    {
+        root = aRoot;
+        maxSize = aMaxSize;
+        timeToLive = aTimeToLive;
+    }
+
+    @Override
+    public ChatResult chat(LlmChatClient aClient, LlmEndpoint aEndpoint,
+            List<ChatMessage> aMessages, ChatOptions aOptions)
+        throws IOException
+    {
+        if (!isCacheable(aOptions)) {
+            synchronized (this) {
+                uncacheableCount++;
+            }
+            return aClient.chat(aEndpoint, aMessages, aOptions);
+        }
+
+        var key = key(aEndpoint, aMessages, aOptions);
+        var cached = get(key);
+        if (cached.isPresent()) {
+            LOG.trace("[{}] response served from cache [{}]", aEndpoint.providerId(), key);
+            return ChatResult.of(new ChatMessage(ASSISTANT, cached.get()));
+        }
+
+        var result = aClient.chat(aEndpoint, aMessages, aOptions);
+
+        // Do not cache incomplete or failed responses
+        if (result.message() != null && result.message().content() != null
+                && result.toolCalls().isEmpty()
+                && (result.finishReason() == null || result.finishReason() == FinishReason.STOP)) {
+            put(key, result.message().content());
+        }
+
+        return result;
+    }
+
+    synchronized Optional<String> get(String aKey)
+    {
+        ensureLoaded();
+
+        if (!entries.containsKey(aKey)) {
+            missCount++;
+            return Optional.empty();
+        }
+
+        var file = responseFile(aKey);
+        try {
+            if (isExpired(Files.getLastModifiedTime(file))) {
+                remove(aKey);
+                missCount++;
+                return Optional.empty();
+            }
+
+            var response = Files.readString(file, UTF_8);
+            hitCount++;
+            return Optional.of(response);
+        }
+        catch (IOException e) {
+            LOG.warn("Unable to read cached response [{}] - discarding it", aKey, e);
+            remove(aKey);
+            missCount++;
+            return Optional.empty();
+        }
+    }
+
+    synchronized void put(String aKey, String aResponse)
+    {
+        ensureLoaded();
+
+        var data = aResponse.getBytes(UTF_8);
+        if (data.length > maxSize) {
+            return;
+        }
+
+        try {
+            var file = responseFile(aKey);
+            Files.createDirectories(file.getParent());
+            var temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(temp, data);
+            Files.move(temp, file, REPLACE_EXISTING, ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            LOG.warn("Unable to cache response [{}]", aKey, e);
+            return;
+        }
+
+        var previous = entries.put(aKey, (long) data.length);
+        size += data.length - (previous != null ? previous : 0);
+
+        evict();
+    }
+
+    @Override
+    @ManagedOperation
+    public synchronized void clear()
+    {
+        entries.clear();
+        size = 0;
+        loaded = true;
+
+        try {
+            FileSystemUtils.deleteRecursively(root);
+        }
+        catch (IOException e) {
+            LOG.warn("Unable to clear LLM response cache", e);
+        }
+    }
+
+    @ManagedOperation
+    public synchronized void resetStatistics()
+    {
+        hitCount = 0;
+        missCount = 0;
+        uncacheableCount = 0;
+    }
+
+    @ManagedMetric(metricType = COUNTER)
+    public synchronized long getHitCount()
+    {
+        return hitCount;
+    }
+
+    @ManagedMetric(metricType = COUNTER)
+    public synchronized long getMissCount()
+    {
+        return missCount;
+    }
+
+    @ManagedMetric(metricType = COUNTER)
+    public synchronized long getUncacheableCount()
+    {
+        return uncacheableCount;
+    }
+
+    @ManagedMetric(metricType = GAUGE)
+    public synchronized int getEntryCount()
+    {
+        return entries.size();
+    }
+
+    @ManagedMetric(metricType = GAUGE, unit = "bytes")
+    public synchronized long getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Populates the in-memory index from the files left by a previous run. The least recently
+     * modified files are considered the least recently used ones.
+     */
+    private void ensureLoaded()
+    {
+        if (loaded) {
+            return;
+        }
+
+        loaded = true;
+
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+
+        var files = new ArrayList<CachedFile>();
+        try (var paths = Files.walk(root, 2)) {
+            for (var file : (Iterable<Path>) paths::iterator) {
+                var name = file.getFileName().toString();
+                if (!name.endsWith(RESPONSE_SUFFIX) || !Files.isRegularFile(file)) {
+                    continue;
+                }
+
+                var modified = Files.getLastModifiedTime(file);
+                if (isExpired(modified)) {
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+
+                var key = name.substring(0, name.length() - RESPONSE_SUFFIX.length());
+                files.add(new CachedFile(key, Files.size(file), modified));
+            }
+        }
+        catch (IOException e) {
+            LOG.warn("Unable to scan LLM response cache at [{}]", root, e);
+        }
+
+        files.sort(comparing(CachedFile::modified));
+        for (var file : files) {
+            entries.put(file.key(), file.size());
+            size += file.size();
+        }
+
+        evict();
+
+        LOG.debug("Loaded {} cached LLM responses ({} bytes)", entries.size(), size);
+    }
+
+    private void evict()
+    {
+        var i = entries.entrySet().iterator();
+        while (size > maxSize && i.hasNext()) {
+            var entry = i.next();
+            i.remove();
+            size -= entry.getValue();
+            deleteFile(entry.getKey());
+        }
+    }
+
+    private void remove(String aKey)
+    {
+        var removed = entries.remove(aKey);
+        if (removed != null) {
+            size -= removed;
+        }
+
+        deleteFile(aKey);
+    }
+
+    private void deleteFile(String aKey)
+    {
+        try {
+            Files.deleteIfExists(responseFile(aKey));
+        }
+        catch (IOException e) {
+            LOG.warn("Unable to delete cached response [{}]", aKey, e);
+        }
+    }
+
+    private boolean isExpired(FileTime aModified)
+    {
+        if (timeToLive == null || timeToLive.isZero() || timeToLive.isNegative()) {
+            return false;
+        }
+
+        return aModified.toInstant().plus(timeToLive).isBefore(Instant.now());
+    }
+
+    private Path responseFile(String aKey)
+    {
+        return root.resolve(aKey.substring(0, 2)).resolve(aKey + RESPONSE_SUFFIX);
+    }
+
+    /**
+     * @param aOptions
+     *            the options of an exchange.
+     * @return whether the response of an exchange using the given options can be expected to be
+     *         reproducible, i.e. if the temperature is {@code 0} or a seed is set. Exchanges using
+     *         tools are never cached.
+     */
+    static boolean isCacheable(ChatOptions aOptions)
+    {
+        if (!aOptions.tools().isEmpty()) {
+            return false;
+        }
+
+        var temperature = aOptions.options().containsKey(OPT_TEMPERATURE)
+                ? aOptions.options().get(OPT_TEMPERATURE)
+                : aOptions.temperature();
+        if (temperature instanceof Number number && number.doubleValue() == 0.0d) {
+            return true;
+        }
+
+        return aOptions.options().get(OPT_SEED) != null;
+    }
+
+    /**
+     * @return a hash over everything that may influence the response of an exchange. The
+     *         authentication is not included.
+     */
+    static String key(LlmEndpoint aEndpoint, List<ChatMessage> aMessages, ChatOptions aOptions)
+    {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        update(digest, "E", aEndpoint.providerId(), aEndpoint.url(), aEndpoint.model());
+
+        update(digest, "O", String.valueOf(aOptions.responseFormat()),
+                String.valueOf(aOptions.jsonSchema()), String.valueOf(aOptions.temperature()),
+                String.valueOf(aOptions.topP()), String.valueOf(aOptions.topK()),
+                String.valueOf(aOptions.repeatPenalty()), String.valueOf(aOptions.contextLength()),
+                String.valueOf(aOptions.reasoningEffort()));
+        for (var option : new TreeMap<>(aOptions.options()).entrySet()) {
+            update(digest, "P", option.getKey(), String.valueOf(option.getValue()));
+        }
+
+        for (var message : aMessages) {
+            update(digest, "M", message.role().getName(), message.content(), message.thinking(),
+                    message.toolCallId());
+        }
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest aDigest, String... aValues)
+    {
+        for (var value : aValues) {
+            if (value != null) {
+                aDigest.update(value.getBytes(UTF_8));
+            }
+            // Separator ensures that e.g. ["ab", "c"] and ["a", "bc"] produce different digests
+            aDigest.update((byte) 0);
+        }
+    }
+
+    private record CachedFile(String key, long size, FileTime modified) {}
+}
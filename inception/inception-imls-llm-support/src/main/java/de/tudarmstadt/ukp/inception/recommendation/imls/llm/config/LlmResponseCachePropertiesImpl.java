@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.recommendation.imls.llm.config;
+
+import static java.time.temporal.ChronoUnit.DAYS;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * <p>
+ * This class is exposed as a Spring Component via {@link LlmResponseCacheAutoConfiguration}.
+ * </p>
+ */
+@ConfigurationProperties("recommender.llm.cache")
+public class LlmResponseCachePropertiesImpl
+    implements LlmResponseCacheProperties
+{
+    /** Whether responses of LLM-based recommenders are cached on disk. */
+    private boolean enabled = true;
+
+    /** Maximum disk space used by cached responses. */
+    private DataSize size = DataSize.ofMegabytes(256);
+
+    /** Time after which a cached response is discarded. Zero means never. */
+    private Duration timeToLive = Duration.of(30, DAYS);
+
+    @Override
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public void setEnabled(boolean aEnabled)
+    {
+        enabled = aEnabled;
+    }
+
+    @Override
+    public DataSize getSize()
+    {
+        return size;
+    }
+
+    public void setSize(DataSize aSize)
+    {
+        size = aSize;
+    }
+
+    @Override
+    public Duration getTimeToLive()
+    {
+        return timeToLive;
+    }
+
+    public void setTimeToLive(Duration aTimeToLive)
+    {
+        timeToLive = aTimeToLive;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.recommendation.imls.llm.cache;
+
+import static de.tudarmstadt.ukp.inception.recommendation.imls.llm.ChatMessage.Role.ASSISTANT;
+import static de.tudarmstadt.ukp.inception.recommendation.imls.llm.ChatMessage.Role.USER;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.tudarmstadt.ukp.inception.recommendation.imls.llm.ChatMessage;
+import de.tudarmstadt.ukp.inception.recommendation.imls.llm.client.ChatOptions;
+import de.tudarmstadt.ukp.inception.recommendation.imls.llm.client.ChatResult;
+import de.tudarmstadt.ukp.inception.recommendation.imls.llm.client.LlmChatClient;
+import de.tudarmstadt.ukp.inception.recommendation.imls.llm.client.LlmEndpoint;
+
+class LlmResponseCacheImplTest
+{
+    private static final ChatOptions DETERMINISTIC = ChatOptions.builder() //
+            .withOptions(Map.of("temperature", 0.0d)) //
+            .build();
+
+    private @TempDir Path tempDir;
+
+    private CountingClient client;
+    private LlmEndpoint endpoint;
+
+    @BeforeEach
+    void setup()
+    {
+        client = new CountingClient();
+        endpoint = new LlmEndpoint("test", "http://localhost", "model", null);
+    }
+
+    @Test
+    void thatResponseIsServedFromCacheAfterRestart() throws Exception
+    {
+        var sut = new LlmResponseCacheImpl(tempDir, Long.MAX_VALUE, Duration.ZERO);
+        var first = sut.chat(client, endpoint, prompt("a"), DETERMINISTIC);
+
+        var restarted = new LlmResponseCacheImpl(tempDir, Long.MAX_VALUE, Duration.ZERO);
+        var second = restarted.chat(client, endpoint, prompt("a"), DETERMINISTIC);
+
+        assertThat(second.message().content()).isEqualTo(first.message().content());
+        assertThat(client.calls).isEqualTo(1);
+        assertThat(sut.getMissCount()).isEqualTo(1);
+        assertThat(restarted.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void thatDifferentPromptsOrModelsAreNotConfused() throws Exception
+    {
+        var sut = new LlmResponseCacheImpl(tempDir, Long.MAX_VALUE, Duration.ZERO);
+        sut.chat(client, endpoint, prompt("a"), DETERMINISTIC);
+        sut.chat(client, endpoint, prompt("b"), DETERMINISTIC);
+        sut.chat(client, new LlmEndpoint("test", "http://localhost", "other", null), prompt("a"),
+                DETERMINISTIC);
+
+        assertThat(client.calls).isEqualTo(3);
+        assertThat(sut.getEntryCount()).isEqualTo(3);
+    }
+
+    @Test
+    void thatNonDeterministicExchangesAreNotCached() throws Exception
+    {
+        var sut = new LlmResponseCacheImpl(tempDir, Long.MAX_VALUE, Duration.ZERO);
+        var options = ChatOptions.builder() //
+                .withOptions(Map.of("temperature", 0.7d)) //
+                .build();
+
+        sut.chat(client, endpoint, prompt("a"), options);
+        sut.chat(client, endpoint, prompt("a"), options);
+
+        assertThat(client.calls).isEqualTo(2);
+        assertThat(sut.getUncacheableCount()).isEqualTo(2);
+        assertThat(sut.getEntryCount()).isZero();
+    }
+
+    @Test
+    void thatLeastRecentlyUsedResponsesAreEvicted() throws Exception
+    {
+        // Each response of the counting client takes 10 bytes
+        var sut = new LlmResponseCacheImpl(tempDir, 25, Duration.ZERO);
+        sut.chat(client, endpoint, prompt("a"), DETERMINISTIC);
+        sut.chat(client, endpoint, prompt("b"), DETERMINISTIC);
+        sut.chat(client, endpoint, prompt("a"), DETERMINISTIC);
+        sut.chat(client, endpoint, prompt("c"), DETERMINISTIC);
+
+        assertThat(sut.getEntryCount()).isEqualTo(2);
+        assertThat(sut.getSize()).isEqualTo(20);
+
+        sut.chat(client, endpoint, prompt("a"), DETERMINISTIC);
+        assertThat(client.calls).isEqualTo(3);
+
+        sut.chat(client, endpoint, prompt("b"), DETERMINISTIC);
+        assertThat(client.calls).isEqualTo(4);
+    }
+
+    private static List<ChatMessage> prompt(String aText)
+    {
+        return List.of(new ChatMessage(USER, aText));
+    }
+
+    private static class CountingClient
+        implements LlmChatClient
+    {
+        private int calls;
+
+        @Override
+        public String getId()
+        {
+            return "test";
+        }
+
+        @Override
+        public ChatResult chat(LlmEndpoint aEndpoint, List<ChatMessage> aMessages,
+                ChatOptions aOptions)
+            throws IOException
+        {
+            calls++;
+            return ChatResult.of(new ChatMessage(ASSISTANT, String.format("response%02d", calls)));
+        }
+    }
+}
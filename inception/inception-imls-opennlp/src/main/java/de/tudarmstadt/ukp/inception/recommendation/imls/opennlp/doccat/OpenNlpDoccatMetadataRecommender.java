@@ -59,26 +59,24 @@ public class OpenNlpDoccatMetadataRecommender
     }
 
     @Override
-    protected List<DocumentSample> extractSamples(List<CAS> aCasses)
+    protected List<DocumentSample> createSamples(CAS aCas)
     {
         var samples = new ArrayList<DocumentSample>();
 
-        for (var cas : aCasses) {
-            var tokenTexts = cas.select(Token.class).map(AnnotationFS::getCoveredText)
-                    .toArray(String[]::new);
+        var annotationType = getType(aCas, layerName);
+        var annotation = aCas.select(annotationType).nullOK().get();
+        if (annotation == null) {
+            return samples;
+        }
 
-            var annotationType = getType(cas, layerName);
-            var annotation = cas.select(annotationType).nullOK().get();
-            if (annotation == null) {
-                continue;
-            }
+        var tokenTexts = aCas.select(Token.class).map(AnnotationFS::getCoveredText)
+                .toArray(String[]::new);
 
-            var feature = annotationType.getFeatureByBaseName(featureName);
-            var label = annotation.getFeatureValueAsString(feature);
-            var nameSample = new DocumentSample(label != null ? label : NO_CATEGORY, tokenTexts);
-            if (nameSample.getCategory() != null) {
-                samples.add(nameSample);
-            }
+        var feature = annotationType.getFeatureByBaseName(featureName);
+        var label = annotation.getFeatureValueAsString(feature);
+        var nameSample = new DocumentSample(label != null ? label : NO_CATEGORY, tokenTexts);
+        if (nameSample.getCategory() != null) {
+            samples.add(nameSample);
         }
 
         return samples;
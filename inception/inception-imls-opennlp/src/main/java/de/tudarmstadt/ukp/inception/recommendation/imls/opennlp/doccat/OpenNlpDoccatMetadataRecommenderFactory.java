@@ -50,7 +50,9 @@ public class OpenNlpDoccatMetadataRecommenderFactory
     public RecommendationEngine build(Recommender aRecommender)
     {
         OpenNlpDoccatRecommenderTraits traits = new OpenNlpDoccatRecommenderTraits();
-        return new OpenNlpDoccatMetadataRecommender(aRecommender, traits);
+        var engine = new OpenNlpDoccatMetadataRecommender(aRecommender, traits);
+        engine.setTrainingSampleCache(getTrainingSampleCache());
+        return engine;
     }
 
     @Override
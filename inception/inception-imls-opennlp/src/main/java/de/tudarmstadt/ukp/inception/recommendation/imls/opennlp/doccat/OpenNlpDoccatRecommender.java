@@ -268,38 +268,49 @@ public class OpenNlpDoccatRecommender
         return result;
     }
 
-    protected List<DocumentSample> extractSamples(List<CAS> aCasses)
+    private List<DocumentSample> extractSamples(List<CAS> aCasses)
     {
         var samples = new ArrayList<DocumentSample>();
         casses: for (CAS cas : aCasses) {
-            var sampleUnitType = getType(cas, getSampleUnit());
-            var tokenType = getType(cas, Token.class);
-
-            var sampleUnits = indexCovered(cas, sampleUnitType, tokenType);
-            for (var e : sampleUnits.entrySet()) {
-                var sampleUnit = e.getKey();
-                var tokens = e.getValue();
-                var tokenTexts = tokens.stream().map(AnnotationFS::getCoveredText)
-                        .toArray(String[]::new);
+            for (var sample : getSamples(cas, this::createSamples)) {
+                if (samples.size() >= traits.getTrainingSetSizeLimit()) {
+                    break casses;
+                }
 
-                var annotationType = getType(cas, layerName);
-                var feature = annotationType.getFeatureByBaseName(featureName);
+                samples.add(sample);
+            }
+        }
 
-                for (var annotation : selectCovered(annotationType, sampleUnit)) {
-                    if (samples.size() >= traits.getTrainingSetSizeLimit()) {
-                        break casses;
-                    }
+        return samples;
+    }
 
-                    if (isBlank(annotation.getCoveredText())) {
-                        continue;
-                    }
+    protected List<DocumentSample> createSamples(CAS aCas)
+    {
+        var samples = new ArrayList<DocumentSample>();
+
+        var sampleUnitType = getType(aCas, getSampleUnit());
+        var tokenType = getType(aCas, Token.class);
+
+        var sampleUnits = indexCovered(aCas, sampleUnitType, tokenType);
+        for (var e : sampleUnits.entrySet()) {
+            var sampleUnit = e.getKey();
+            var tokens = e.getValue();
+            var tokenTexts = tokens.stream().map(AnnotationFS::getCoveredText)
+                    .toArray(String[]::new);
+
+            var annotationType = getType(aCas, layerName);
+            var feature = annotationType.getFeatureByBaseName(featureName);
+
+            for (var annotation : selectCovered(annotationType, sampleUnit)) {
+                if (isBlank(annotation.getCoveredText())) {
+                    continue;
+                }
 
-                    var label = annotation.getFeatureValueAsString(feature);
-                    var nameSample = new DocumentSample(label != null ? label : NO_CATEGORY,
-                            tokenTexts);
-                    if (nameSample.getCategory() != null) {
-                        samples.add(nameSample);
-                    }
+                var label = annotation.getFeatureValueAsString(feature);
+                var nameSample = new DocumentSample(label != null ? label : NO_CATEGORY,
+                        tokenTexts);
+                if (nameSample.getCategory() != null) {
+                    samples.add(nameSample);
                 }
             }
         }
@@ -52,7 +52,9 @@ public class OpenNlpDoccatRecommenderFactory
     public RecommendationEngine build(Recommender aRecommender)
     {
         OpenNlpDoccatRecommenderTraits traits = new OpenNlpDoccatRecommenderTraits();
-        return new OpenNlpDoccatRecommender(aRecommender, traits);
+        var engine = new OpenNlpDoccatRecommender(aRecommender, traits);
+        engine.setTrainingSampleCache(getTrainingSampleCache());
+        return engine;
     }
 
     @Override
@@ -29,7 +29,7 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Objects;
-import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.Feature;
@@ -74,6 +74,9 @@ public class OpenNlpNerRecommender
 
     private static final String NO_NE_TAG = "O";
 
+    private static final String VARIANT_SENTENCES = "sentences";
+    private static final String VARIANT_WINDOW = "window";
+
     static final Class<Token> DATAPOINT_UNIT = Token.class;
 
     private static final int DEFAULT_WINDOW_SIZE = 300;
@@ -279,7 +282,7 @@ public class OpenNlpNerRecommender
         // because with the overlapping sliding window, the evaluation would otherwise train on test
         // data.
         var sampleUnit = Sentence.class.getSimpleName();
-        var data = extractSamples(aCasses, this::extractSamplesFromSentences);
+        var data = extractSamples(aCasses, VARIANT_SENTENCES, this::extractSamplesFromSentences);
         var splits = aDataSplitter.apply(data);
 
         var testSetSize = splits.testSet().size();
@@ -388,64 +391,59 @@ public class OpenNlpNerRecommender
 
     private List<NameSample> extractSamples(RecommenderContext aContext, Iterable<CAS> aCasses)
     {
-        BiFunction<CAS, List<NameSample>, Boolean> extractor;
-
         if (getRecommender().getLayer().isCrossSentence()) {
             if (aContext != null) {
                 aContext.log(LogMessage.info(getRecommender().getName(),
                         "Training using sliding-window since layer permits cross-sentence annotations."));
             }
-            extractor = this::extractSamplesUsingSlidingWindow;
-        }
-        else {
-            extractor = this::extractSamplesFromSentences;
+            return extractSamples(aCasses, VARIANT_WINDOW, this::extractSamplesUsingSlidingWindow);
         }
 
-        return extractSamples(aCasses, extractor);
+        return extractSamples(aCasses, VARIANT_SENTENCES, this::extractSamplesFromSentences);
     }
 
-    private List<NameSample> extractSamples(Iterable<CAS> aCasses,
-            BiFunction<CAS, List<NameSample>, Boolean> aExtractor)
+    private List<NameSample> extractSamples(Iterable<CAS> aCasses, String aVariant,
+            Function<CAS, List<NameSample>> aExtractor)
     {
+        var trainingSetSizeLimit = traits.getTrainingSetSizeLimit();
+
         var nameSamples = new ArrayList<NameSample>();
 
         for (var cas : aCasses) {
-            var processNext = aExtractor.apply(cas, nameSamples);
-            if (!processNext) {
-                break;
+            for (var sample : getSamples(aVariant, cas, aExtractor)) {
+                if (trainingSetSizeLimit > 0 && nameSamples.size() >= trainingSetSizeLimit) {
+                    // Generated maximum number of samples
+                    return nameSamples;
+                }
+
+                nameSamples.add(sample);
             }
         }
 
         return nameSamples;
     }
 
-    private boolean extractSamplesFromSentences(CAS aCas, List<NameSample> aSamples)
+    private List<NameSample> extractSamplesFromSentences(CAS aCas)
     {
-        return generateSamples(aCas, new TokensBySentence(aCas), aSamples);
+        return generateSamples(aCas, new TokensBySentence(aCas));
     }
 
-    private boolean extractSamplesUsingSlidingWindow(CAS aCas, List<NameSample> aSamples)
+    private List<NameSample> extractSamplesUsingSlidingWindow(CAS aCas)
     {
         var windowSize = getWindowSize(aCas);
         var windowOverlap = windowSize / 2;
 
         return generateSamples(aCas,
-                new SlidingWindow<>(aCas, DATAPOINT_UNIT, windowSize, windowOverlap), aSamples);
+                new SlidingWindow<>(aCas, DATAPOINT_UNIT, windowSize, windowOverlap));
     }
 
-    private boolean generateSamples(CAS aCas, Iterable<List<Token>> aUnitProvider,
-            List<NameSample> aSamples)
+    private List<NameSample> generateSamples(CAS aCas, Iterable<List<Token>> aUnitProvider)
     {
-        var trainingSetSizeLimit = traits.getTrainingSetSizeLimit();
+        var samples = new ArrayList<NameSample>();
 
         var firstSampleInCas = true;
 
         for (var tokens : aUnitProvider) {
-            if (trainingSetSizeLimit > 0 && aSamples.size() >= trainingSetSizeLimit) {
-                // Generated maximum number of samples
-                return false;
-            }
-
             var annotatedSpans = extractAnnotatedSpans(aCas, tokens);
 
             if (annotatedSpans.length > 0) {
@@ -453,12 +451,12 @@ public class OpenNlpNerRecommender
                         .map(AnnotationFS::getCoveredText) //
                         .toArray(String[]::new);
                 var nameSample = new NameSample(tokenTexts, annotatedSpans, firstSampleInCas);
-                aSamples.add(nameSample);
+                samples.add(nameSample);
                 firstSampleInCas = false;
             }
         }
 
-        return true;
+        return samples;
     }
 
     private int getWindowSize(CAS aCas)
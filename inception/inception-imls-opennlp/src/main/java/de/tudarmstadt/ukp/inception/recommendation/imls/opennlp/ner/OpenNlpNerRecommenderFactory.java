@@ -55,7 +55,9 @@ public class OpenNlpNerRecommenderFactory
     public RecommendationEngine build(Recommender aRecommender)
     {
         var traits = new OpenNlpNerRecommenderTraits();
-        return new OpenNlpNerRecommender(aRecommender, traits);
+        var engine = new OpenNlpNerRecommender(aRecommender, traits);
+        engine.setTrainingSampleCache(getTrainingSampleCache());
+        return engine;
     }
 
     @Override
@@ -266,21 +266,12 @@ public class OpenNlpPosRecommender
         var posSamples = new ArrayList<POSSample>();
 
         casses: for (CAS cas : aCasses) {
-            var sampleUnitType = getType(cas, SAMPLE_UNIT);
-            var tokenType = getType(cas, Token.class);
-
-            for (var sampleUnit : cas.<Annotation> select(sampleUnitType)) {
+            for (var sample : getSamples(cas, this::createPosSamples)) {
                 if (posSamples.size() >= traits.getTrainingSetSizeLimit()) {
                     break casses;
                 }
 
-                if (isBlank(sampleUnit.getCoveredText())) {
-                    continue;
-                }
-
-                var tokens = cas.<Annotation> select(tokenType).coveredBy(sampleUnit).asList();
-
-                createPosSample(cas, sampleUnit, tokens).map(posSamples::add);
+                posSamples.add(sample);
             }
         }
 
@@ -289,6 +280,26 @@ public class OpenNlpPosRecommender
         return posSamples;
     }
 
+    private List<POSSample> createPosSamples(CAS aCas)
+    {
+        var posSamples = new ArrayList<POSSample>();
+
+        var sampleUnitType = getType(aCas, SAMPLE_UNIT);
+        var tokenType = getType(aCas, Token.class);
+
+        for (var sampleUnit : aCas.<Annotation> select(sampleUnitType)) {
+            if (isBlank(sampleUnit.getCoveredText())) {
+                continue;
+            }
+
+            var tokens = aCas.<Annotation> select(tokenType).coveredBy(sampleUnit).asList();
+
+            createPosSample(aCas, sampleUnit, tokens).map(posSamples::add);
+        }
+
+        return posSamples;
+    }
+
     private Optional<POSSample> createPosSample(CAS aCas, AnnotationFS aSentence,
             Collection<? extends AnnotationFS> aTokens)
     {
@@ -50,7 +50,9 @@ public class OpenNlpPosRecommenderFactory
     @Override
     public RecommendationEngine build(Recommender aRecommender)
     {
-        return new OpenNlpPosRecommender(aRecommender, readTraits(aRecommender));
+        var engine = new OpenNlpPosRecommender(aRecommender, readTraits(aRecommender));
+        engine.setTrainingSampleCache(getTrainingSampleCache());
+        return engine;
     }
 
     @Override
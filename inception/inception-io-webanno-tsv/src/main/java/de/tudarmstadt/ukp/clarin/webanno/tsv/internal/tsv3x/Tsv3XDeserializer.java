@@ -18,6 +18,8 @@
 package de.tudarmstadt.ukp.clarin.webanno.tsv.internal.tsv3x;
 
 import static de.tudarmstadt.ukp.clarin.webanno.tsv.internal.tsv3x.Escaping.unescapeText;
+import static de.tudarmstadt.ukp.clarin.webanno.tsv.internal.tsv3x.Tsv3XFieldTokenizer.findChainSuffix;
+import static de.tudarmstadt.ukp.clarin.webanno.tsv.internal.tsv3x.Tsv3XFieldTokenizer.splitUnescaped;
 import static de.tudarmstadt.ukp.clarin.webanno.tsv.internal.tsv3x.Tsv3XParserState.END;
 import static de.tudarmstadt.ukp.clarin.webanno.tsv.internal.tsv3x.Tsv3XParserState.INTER_SENTENCE_SPACE;
 import static de.tudarmstadt.ukp.clarin.webanno.tsv.internal.tsv3x.Tsv3XParserState.SENTENCE_HEADER;
@@ -115,15 +117,6 @@ public class Tsv3XDeserializer
     private static final Pattern FORMAT_PATTERN = Pattern.compile(
             "^" + quote(HEADER_PREFIX_FORMAT) + "(?<NAME>.*) " + "(?<VERSION>\\d+\\.\\d+)$");
 
-    private static final Pattern STACK_SEP_PATTERN = Pattern
-            .compile("(?<!\\\\)" + Pattern.quote(STACK_SEP));
-
-    private static final Pattern SLOT_SEP_PATTERN = Pattern
-            .compile("(?<!\\\\)" + Pattern.quote(SLOT_SEP));
-
-    private static final Pattern CHAIN_SUFFIX_PATTERN = Pattern
-            .compile("^.*(?<!\\\\)->" + "(?<CHAIN>\\d+-\\d+)$");
-
     private ThreadLocal<List<Runnable>> deferredActions = new ThreadLocal<>();
 
     public void read(LineNumberReader aIn, JCas aJCas) throws IOException
@@ -356,14 +349,16 @@ public class Tsv3XDeserializer
         List<TsvColumn> headerColumns = aDoc.getSchema()
                 .getHeaderColumns(aDoc.getSchema().getColumns());
 
+        // The tokenizer and the offsets buffer are re-used for all lines to avoid allocating
+        // garbage for every line.
+        Tsv3XFieldTokenizer fields = new Tsv3XFieldTokenizer(FIELD_SEPARATOR.charAt(0));
+        int[] offsets = new int[2];
+
         int lineNo = 1;
         String line = aIn.readLine();
         try {
             while (!Tsv3XParserState.END.equals(state)) {
                 // These variables are only used in TOKEN and SUBTOKEN states.
-                String[] fields = null;
-                String id = null;
-                String[] offsets = null;
                 int begin = -1;
                 int end = -1;
 
@@ -379,22 +374,21 @@ public class Tsv3XDeserializer
                     state = INTER_SENTENCE_SPACE;
                 }
                 else {
-                    fields = splitPreserveAllTokens(line, FIELD_SEPARATOR);
+                    int fieldCount = fields.tokenize(line);
                     int expectedFieldCount = headerColumns.size() + 3;
-                    if (fields.length < expectedFieldCount) {
+                    if (fieldCount < expectedFieldCount) {
                         throw new IOException("Unable to parse line [" + lineNo + "] as [" + state
                                 + "]: [" + line + "] - expected [" + expectedFieldCount
-                                + "] fields but only found [" + fields.length + "]");
+                                + "] fields but only found [" + fieldCount + "]");
                     }
 
                     // Get token metadata
-                    id = fields[0];
-                    offsets = split(fields[1], "-");
-                    begin = Integer.valueOf(offsets[0]);
-                    end = Integer.valueOf(offsets[1]);
+                    fields.getOffsets(1, offsets);
+                    begin = offsets[0];
+                    end = offsets[1];
 
                     // TOKEN or SUBTOKEN?
-                    if (id.contains(".")) {
+                    if (fields.fieldContains(0, '.')) {
                         state = SUBTOKEN;
                     }
                     else {
@@ -537,16 +531,17 @@ public class Tsv3XDeserializer
     }
 
     private void parseAnnotations(TsvDocument aDoc, TsvSentence aSentence, TsvUnit aUnit,
-            String[] aFields, List<TsvColumn> aHeaderColumns)
+            Tsv3XFieldTokenizer aFields, List<TsvColumn> aHeaderColumns)
     {
         for (TsvColumn col : aHeaderColumns) {
-            String rawValue = aFields[col.index + 3];
+            int fieldIndex = col.index + 3;
 
-            if (NULL_COLUMN.equals(rawValue)) {
+            if (aFields.fieldEquals(fieldIndex, NULL_COLUMN)) {
                 continue;
             }
 
-            String[] stackedValues = STACK_SEP_PATTERN.split(rawValue);
+            String rawValue = aFields.getField(fieldIndex);
+            String[] stackedValues = splitUnescaped(rawValue, STACK_SEP.charAt(0));
 
             int index = 0;
             for (String val : stackedValues) {
@@ -588,10 +583,10 @@ public class Tsv3XDeserializer
                 value = substringBeforeLast(value, "[");
             }
             else {
-                Matcher m = CHAIN_SUFFIX_PATTERN.matcher(value);
-                if (m.matches()) {
-                    disambiguationInfo = m.group("CHAIN");
-                    value = value.substring(0, m.start("CHAIN") - 2);
+                int chainStart = findChainSuffix(value);
+                if (chainStart != -1) {
+                    disambiguationInfo = value.substring(chainStart);
+                    value = value.substring(0, chainStart - 2);
                 }
             }
         }
@@ -836,7 +831,7 @@ public class Tsv3XDeserializer
             CAS cas = aUnit.getDocument().getJCas().getCas();
             List<FeatureStructure> links = new ArrayList<>();
             if (!NULL_COLUMN.equals(aValue)) {
-                String[] values = SLOT_SEP_PATTERN.split(aValue);
+                String[] values = splitUnescaped(aValue, SLOT_SEP.charAt(0));
                 for (String value : values) {
                     FeatureStructure linkFS = cas.createFS(aCol.getTargetTypeHint());
                     if (!NULL_VALUE.equals(value)) {
@@ -862,7 +857,7 @@ public class Tsv3XDeserializer
                     values = new String[0];
                 }
                 else {
-                    values = SLOT_SEP_PATTERN.split(aValue);
+                    values = splitUnescaped(aValue, SLOT_SEP.charAt(0));
                 }
 
                 FeatureStructure[] links = getFeature(aAnnotation, aCol.uimaFeature.getShortName(),
@@ -0,0 +1,273 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.clarin.webanno.tsv.internal.tsv3x;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Allocation-light tokenizer for the body lines of the TSV3 format. A line is split into fields by
+ * recording the field boundaries in a re-usable offset buffer. Strings are only materialized for
+ * fields that are actually accessed, so e.g. empty columns ({@code _}) never cause an allocation.
+ * <p>
+ * Instances are not thread-safe and are meant to be re-used for all lines of a single document.
+ */
+public class Tsv3XFieldTokenizer
+{
+    private static final char ESCAPE_CHAR = '\\';
+
+    private final char separator;
+
+    private String line;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int fieldCount;
+
+    public Tsv3XFieldTokenizer(char aSeparator)
+    {
+        separator = aSeparator;
+    }
+
+    /**
+     * Splits the given line into fields. All tokens are preserved, i.e. adjacent separators yield
+     * empty fields and a trailing separator yields a trailing empty field.
+     *
+     * @param aLine
+     *            the line to tokenize.
+     * @return the number of fields.
+     */
+    public int tokenize(String aLine)
+    {
+        line = aLine;
+        fieldCount = 0;
+
+        int fieldStart = 0;
+        int len = aLine.length();
+        for (int i = 0; i < len; i++) {
+            if (aLine.charAt(i) == separator) {
+                addField(fieldStart, i);
+                fieldStart = i + 1;
+            }
+        }
+        addField(fieldStart, len);
+
+        return fieldCount;
+    }
+
+    private void addField(int aStart, int aEnd)
+    {
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount * 2);
+            ends = Arrays.copyOf(ends, fieldCount * 2);
+        }
+
+        starts[fieldCount] = aStart;
+        ends[fieldCount] = aEnd;
+        fieldCount++;
+    }
+
+    public int getFieldCount()
+    {
+        return fieldCount;
+    }
+
+    public String getField(int aIndex)
+    {
+        checkIndex(aIndex);
+        return line.substring(starts[aIndex], ends[aIndex]);
+    }
+
+    /**
+     * @return whether the given field is exactly equal to the given value. This does not allocate
+     *         a string for the field.
+     */
+    public boolean fieldEquals(int aIndex, String aValue)
+    {
+        checkIndex(aIndex);
+        int len = ends[aIndex] - starts[aIndex];
+        return len == aValue.length() && line.regionMatches(starts[aIndex], aValue, 0, len);
+    }
+
+    /**
+     * @return whether the given field contains the given character.
+     */
+    public boolean fieldContains(int aIndex, char aChar)
+    {
+        checkIndex(aIndex);
+        for (int i = starts[aIndex]; i < ends[aIndex]; i++) {
+            if (line.charAt(i) == aChar) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses an offset field of the form {@code <begin>-<end>} without allocating intermediate
+     * strings.
+     *
+     * @param aIndex
+     *            the field index.
+     * @param aTarget
+     *            a two-element array receiving the begin and end offsets.
+     */
+    public void getOffsets(int aIndex, int[] aTarget)
+    {
+        checkIndex(aIndex);
+        int start = starts[aIndex];
+        int end = ends[aIndex];
+
+        int dash = -1;
+        for (int i = start; i < end; i++) {
+            if (line.charAt(i) == '-') {
+                dash = i;
+                break;
+            }
+        }
+
+        if (dash == -1) {
+            throw new NumberFormatException(
+                    "Invalid offsets: [" + line.substring(start, end) + "]");
+        }
+
+        aTarget[0] = parseInt(line, start, dash);
+        aTarget[1] = parseInt(line, dash + 1, end);
+    }
+
+    private void checkIndex(int aIndex)
+    {
+        if (aIndex < 0 || aIndex >= fieldCount) {
+            throw new IndexOutOfBoundsException(
+                    "Field index [" + aIndex + "] out of range [0-" + fieldCount + "]");
+        }
+    }
+
+    /**
+     * Parses a non-negative decimal integer from the given region.
+     *
+     * @param aText
+     *            the text.
+     * @param aStart
+     *            the start of the region (inclusive).
+     * @param aEnd
+     *            the end of the region (exclusive).
+     * @return the integer value.
+     */
+    public static int parseInt(CharSequence aText, int aStart, int aEnd)
+    {
+        if (aStart >= aEnd) {
+            throw new NumberFormatException("Empty number");
+        }
+
+        int value = 0;
+        for (int i = aStart; i < aEnd; i++) {
+            char c = aText.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException(
+                        "Invalid number: [" + aText.subSequence(aStart, aEnd) + "]");
+            }
+            value = Math.addExact(Math.multiplyExact(value, 10), c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Splits the given value at every occurrence of the separator which is not directly preceded
+     * by an escape character. Like {@link java.util.regex.Pattern#split(CharSequence)}, trailing
+     * empty strings are not included in the result.
+     *
+     * @param aValue
+     *            the value to split.
+     * @param aSeparator
+     *            the separator character.
+     * @return the split values.
+     */
+    public static String[] splitUnescaped(String aValue, char aSeparator)
+    {
+        // Fast path - most values are not stacked
+        if (aValue.indexOf(aSeparator) == -1) {
+            return new String[] { aValue };
+        }
+
+        List<String> values = new ArrayList<>();
+        int start = 0;
+        int len = aValue.length();
+        for (int i = 0; i < len; i++) {
+            if (aValue.charAt(i) == aSeparator && (i == 0 || aValue.charAt(i - 1) != ESCAPE_CHAR)) {
+                values.add(aValue.substring(start, i));
+                start = i + 1;
+            }
+        }
+        values.add(aValue.substring(start, len));
+
+        int size = values.size();
+        while (size > 0 && values.get(size - 1).isEmpty()) {
+            size--;
+        }
+
+        return values.subList(0, size).toArray(String[]::new);
+    }
+
+    /**
+     * Locates a chain suffix of the form {@code -><chainId>-<elementIndex>} at the end of the given
+     * value where the arrow is not escaped.
+     *
+     * @param aValue
+     *            the value.
+     * @return the position at which the chain ID starts or {@code -1} if there is no chain suffix.
+     */
+    public static int findChainSuffix(String aValue)
+    {
+        int i = aValue.length() - 1;
+
+        // Element index
+        int elementEnd = i;
+        while (i >= 0 && isDigit(aValue.charAt(i))) {
+            i--;
+        }
+        if (i == elementEnd || i < 0 || aValue.charAt(i) != '-') {
+            return -1;
+        }
+        i--;
+
+        // Chain ID
+        int chainEnd = i;
+        while (i >= 0 && isDigit(aValue.charAt(i))) {
+            i--;
+        }
+        if (i == chainEnd) {
+            return -1;
+        }
+
+        // Unescaped arrow
+        if (i < 1 || aValue.charAt(i) != '>' || aValue.charAt(i - 1) != '-') {
+            return -1;
+        }
+        if (i >= 2 && aValue.charAt(i - 2) == ESCAPE_CHAR) {
+            return -1;
+        }
+
+        return i + 1;
+    }
+
+    private static boolean isDigit(char aChar)
+    {
+        return aChar >= '0' && aChar <= '9';
+    }
+}
@@ -82,7 +82,10 @@ public class Tsv3XSerializer
     public void write(PrintWriter aOut, TsvFormatHeader aHeader)
     {
         aOut.print(HEADER_PREFIX_FORMAT);
-        aOut.printf("%s %s\n", aHeader.getName(), aHeader.getVersion());
+        aOut.print(aHeader.getName());
+        aOut.print(' ');
+        aOut.print(aHeader.getVersion());
+        aOut.print(LINE_BREAK);
     }
 
     /**
@@ -126,10 +129,10 @@ public class Tsv3XSerializer
                     // the type system definition but rather by looking at target used by the
                     // first actual annotation. This assumes that relations are always only on
                     // a single type.
-                    aOut.printf(col.getTargetTypeHint().getName());
+                    aOut.print(col.getTargetTypeHint().getName());
                 }
                 else {
-                    aOut.printf(col.uimaFeature.getRange().getName());
+                    aOut.print(col.uimaFeature.getRange().getName());
                 }
             }
             else if (SLOT_TARGET.equals(col.featureType)) {
@@ -152,8 +155,9 @@ public class Tsv3XSerializer
             else if (SLOT_ROLE.equals(col.featureType)) {
                 aOut.print(HEADER_FIELD_SEPARATOR);
                 aOut.print(HEADER_PREFIX_ROLE);
-                aOut.printf("%s_%s", col.uimaFeature.getName(),
-                        col.uimaFeature.getRange().getComponentType().getName());
+                aOut.print(col.uimaFeature.getName());
+                aOut.print('_');
+                aOut.print(col.uimaFeature.getRange().getComponentType().getName());
             }
             else if (SLOT_TARGET.equals(col.featureType)) {
                 aOut.print(HEADER_FIELD_SEPARATOR);
@@ -212,23 +216,29 @@ public class Tsv3XSerializer
     {
         TsvDocument doc = aUnit.getDocument();
 
+        // NOTE: This is called for every token and sub-token, so we avoid going through the
+        // Formatter (printf) here and write the values directly.
+
         // Write unit ID
         aOut.print(aUnit.getId());
         aOut.print(FIELD_SEPARATOR);
 
         // Write unit offset
-        aOut.printf("%d-%d", aUnit.getBegin(), aUnit.getEnd());
+        aOut.print(aUnit.getBegin());
+        aOut.print('-');
+        aOut.print(aUnit.getEnd());
         aOut.print(FIELD_SEPARATOR);
 
-        // Write unit text
-        aOut.print(doc.getJCas().getDocumentText().substring(aUnit.getBegin(), aUnit.getEnd()));
-        aOut.printf(FIELD_SEPARATOR);
+        // Write unit text without creating an intermediate substring
+        aOut.write(doc.getJCas().getDocumentText(), aUnit.getBegin(),
+                aUnit.getEnd() - aUnit.getBegin());
+        aOut.print(FIELD_SEPARATOR);
 
         // Write the remaining columns according to the schema definition
         for (TsvColumn col : aHeaderColumns) {
             // Write all the values in this column - there could be multiple due to stacking
             writeValues(aOut, aUnit, col);
-            aOut.printf(FIELD_SEPARATOR);
+            aOut.print(FIELD_SEPARATOR);
         }
     }
 
@@ -294,7 +304,9 @@ public class Tsv3XSerializer
     {
         Integer disambiguationId = aDoc.getDisambiguationId(aFS);
         if (disambiguationId != null) {
-            aOut.printf("[%d]", disambiguationId);
+            aOut.print('[');
+            aOut.print(disambiguationId.intValue());
+            aOut.print(']');
         }
     }
 
@@ -343,7 +355,11 @@ public class Tsv3XSerializer
         if (sourceId != null || targetId != null) {
             sourceId = sourceId != null ? sourceId : 0;
             targetId = targetId != null ? targetId : 0;
-            aOut.printf("[%d_%d]", sourceId, targetId);
+            aOut.print('[');
+            aOut.print(sourceId.intValue());
+            aOut.print('_');
+            aOut.print(targetId.intValue());
+            aOut.print(']');
         }
     }
 
@@ -407,7 +423,10 @@ public class Tsv3XSerializer
 
         TsvChain chain = aDoc.getChain(aFS);
 
-        aOut.printf("%s[%d]", value, chain.getId());
+        aOut.print(value);
+        aOut.print('[');
+        aOut.print(chain.getId());
+        aOut.print(']');
     }
 
     private static void writeChainLink(PrintWriter aOut, TsvDocument aDoc, TsvColumn aCol,
@@ -418,6 +437,10 @@ public class Tsv3XSerializer
 
         TsvChain chain = aDoc.getChain(aFS);
 
-        aOut.printf("%s->%d-%d", value, chain.getId(), chain.indexOf(aFS) + 1);
+        aOut.print(value);
+        aOut.print("->");
+        aOut.print(chain.getId());
+        aOut.print('-');
+        aOut.print(chain.indexOf(aFS) + 1);
     }
 }
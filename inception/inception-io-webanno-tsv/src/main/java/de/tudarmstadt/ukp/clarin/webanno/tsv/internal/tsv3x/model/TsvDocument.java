@@ -24,8 +24,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.uima.cas.Type;
 import org.apache.uima.cas.text.AnnotationFS;
@@ -36,15 +34,13 @@ import de.tudarmstadt.ukp.dkpro.core.api.segmentation.type.Token;
 
 public class TsvDocument
 {
-    private final Pattern PATTERN_UNIT_ID = Pattern
-            .compile("^(?<SENT>\\d+)-(?<TOKEN>\\d+)(\\.(?<SUBTOKEN>\\d))?$");
-
     private final TsvFormatHeader format;
     private final TsvSchema schema;
     private final JCas jcas;
     private final Map<AnnotationFS, TsvUnit> fs2unitIndex = new HashMap<>();
     private final List<TsvSentence> sentences = new ArrayList<>();
     private final List<TsvChain> chains = new ArrayList<>();
+    private final Map<Integer, TsvChain> id2ChainIndex = new HashMap<>();
     private final Map<AnnotationFS, TsvChain> fs2ChainIndex = new HashMap<>();
     private final Set<TsvColumn> activeColumns = new HashSet<>();
     private final Set<Type> activeTypes = new HashSet<>();
@@ -107,6 +103,7 @@ public class TsvDocument
         TsvChain chain = new TsvChain(chains.size() + 1, aHeadType, aElementType, aElements,
                 fs2ChainIndex);
         chains.add(chain);
+        id2ChainIndex.putIfAbsent(chain.getId(), chain);
         return chain;
     }
 
@@ -114,6 +111,7 @@ public class TsvDocument
     {
         TsvChain chain = new TsvChain(aChainId, aHeadType, aElementType, fs2ChainIndex);
         chains.add(chain);
+        id2ChainIndex.putIfAbsent(chain.getId(), chain);
         return chain;
     }
 
@@ -144,23 +142,47 @@ public class TsvDocument
 
     public TsvUnit getUnit(String aUnitId)
     {
-        Matcher m = PATTERN_UNIT_ID.matcher(aUnitId);
-        if (!m.matches()) {
+        // Unit IDs have the form <sentence>-<token>[.<subtoken>] - this is parsed by hand instead
+        // of using a regular expression because it is called for every relation/slot reference.
+        int dash = aUnitId.indexOf('-');
+        int dot = aUnitId.indexOf('.');
+        int tokenEnd = dot != -1 ? dot : aUnitId.length();
+        if (dash < 1 || tokenEnd <= dash + 1 || dot == aUnitId.length() - 1) {
             throw new IllegalArgumentException("Invalid unit ID: [" + aUnitId + "]");
         }
 
-        TsvToken token = getToken(Integer.valueOf(m.group("SENT")) - 1,
-                Integer.valueOf(m.group("TOKEN")) - 1);
+        TsvToken token;
+        int subTokenId;
+        try {
+            token = getToken(parseNumber(aUnitId, 0, dash) - 1,
+                    parseNumber(aUnitId, dash + 1, tokenEnd) - 1);
+            subTokenId = dot != -1 ? parseNumber(aUnitId, dot + 1, aUnitId.length()) : -1;
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid unit ID: [" + aUnitId + "]", e);
+        }
 
-        String stid = m.group("SUBTOKEN");
-        if (stid != null) {
-            return token.getSubTokens().get(Integer.valueOf(stid) - 1);
+        if (subTokenId != -1) {
+            return token.getSubTokens().get(subTokenId - 1);
         }
         else {
             return token;
         }
     }
 
+    private static int parseNumber(String aText, int aStart, int aEnd)
+    {
+        int value = 0;
+        for (int i = aStart; i < aEnd; i++) {
+            char c = aText.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Invalid number in [" + aText + "]");
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
     public TsvToken getToken(int aSentencePosition, int aTokenPosition)
     {
         return sentences.get(aSentencePosition).getTokens().get(aTokenPosition);
@@ -173,8 +195,7 @@ public class TsvDocument
 
     public TsvChain getChain(int aChainId)
     {
-        // This could be optimized if the chains were stored in a map instead of a list.
-        return chains.stream().filter(c -> c.getId() == aChainId).findAny().orElse(null);
+        return id2ChainIndex.get(aChainId);
     }
 
     public TsvChain getChain(AnnotationFS aTargetFS)
@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.clarin.webanno.tsv.internal.tsv3x;
+
+import static org.apache.commons.lang3.StringUtils.splitPreserveAllTokens;
+import static org.apache.uima.fit.factory.JCasFactory.createJCas;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.LineNumberReader;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.apache.uima.fit.util.JCasUtil;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.tudarmstadt.ukp.dkpro.core.api.lexmorph.type.pos.POS;
+import de.tudarmstadt.ukp.dkpro.core.api.ner.type.NamedEntity;
+import de.tudarmstadt.ukp.dkpro.core.api.segmentation.type.Sentence;
+import de.tudarmstadt.ukp.dkpro.core.api.segmentation.type.Token;
+import de.tudarmstadt.ukp.dkpro.core.api.syntax.type.dependency.Dependency;
+
+/**
+ * Performance benchmark for the TSV3 reader and writer on a generated corpus. It compares the
+ * allocation-light {@link Tsv3XFieldTokenizer} against the regex/commons-lang based line splitting
+ * previously used by the {@link Tsv3XDeserializer} and measures the end-to-end read and write
+ * throughput.
+ * <p>
+ * This is not a correctness test and it does not run during normal builds. It is tagged as
+ * {@code slow} and additionally gated behind the system property
+ * {@code -Dinception.benchmark=true}. Run it with e.g.:
+ *
+ * <pre>
+ * mvn -pl inception/inception-io-webanno-tsv test \
+ *     -Dinception.benchmark=true \
+ *     -DexcludedTestCategories=none \
+ *     -Dtest=Tsv3XBenchmarkTest
+ * </pre>
+ * <p>
+ * The size of the generated corpus can be controlled using {@code inception.benchmark.sentences}
+ * (default {@value #DEFAULT_SENTENCES}).
+ */
+@Tag("slow")
+@EnabledIfSystemProperty(named = "inception.benchmark", matches = "true")
+class Tsv3XBenchmarkTest
+{
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final int DEFAULT_SENTENCES = 20_000;
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 10;
+
+    private static final Pattern LEGACY_STACK_SEP_PATTERN = Pattern.compile("(?<!\\\\)\\|");
+
+    private static String tsv;
+    private static List<String> bodyLines;
+
+    @BeforeAll
+    static void generateCorpus() throws Exception
+    {
+        var sentences = Integer.getInteger("inception.benchmark.sentences", DEFAULT_SENTENCES);
+
+        var jcas = createJCas();
+        var text = new StringBuilder();
+        var tokensPerSentence = 20;
+        for (int s = 0; s < sentences; s++) {
+            var sentenceBegin = text.length();
+            Token prev = null;
+            for (int t = 0; t < tokensPerSentence; t++) {
+                var begin = text.length();
+                text.append("tok").append(t);
+                var token = new Token(jcas, begin, text.length());
+                token.addToIndexes();
+
+                var pos = new POS(jcas, begin, text.length());
+                pos.setPosValue(t % 2 == 0 ? "NN" : "VB");
+                pos.addToIndexes();
+                token.setPos(pos);
+
+                if (t % 5 == 0) {
+                    var ne1 = new NamedEntity(jcas, begin, text.length());
+                    ne1.setValue("PER");
+                    ne1.addToIndexes();
+                    var ne2 = new NamedEntity(jcas, begin, text.length());
+                    ne2.setValue("ORG");
+                    ne2.addToIndexes();
+                }
+
+                if (prev != null) {
+                    var dep = new Dependency(jcas, begin, text.length());
+                    dep.setGovernor(prev);
+                    dep.setDependent(token);
+                    dep.setDependencyType("dep");
+                    dep.addToIndexes();
+                }
+
+                prev = token;
+                text.append(' ');
+            }
+            new Sentence(jcas, sentenceBegin, text.length() - 1).addToIndexes();
+            text.setCharAt(text.length() - 1, '\n');
+        }
+        jcas.setDocumentText(text.toString());
+
+        var out = new StringWriter();
+        var schema = Tsv3XCasSchemaAnalyzer.analyze(jcas.getTypeSystem());
+        var doc = Tsv3XCasDocumentBuilder.of(schema, jcas);
+        try (var pw = new PrintWriter(out)) {
+            new Tsv3XSerializer().write(pw, doc);
+        }
+        tsv = out.toString();
+
+        bodyLines = new ArrayList<>();
+        for (var line : tsv.split("\n")) {
+            if (!line.isEmpty() && !line.startsWith("#")) {
+                bodyLines.add(line);
+            }
+        }
+
+        LOG.info("Generated corpus: {} sentences, {} token lines, {} chars", sentences,
+                bodyLines.size(), tsv.length());
+    }
+
+    @Test
+    void benchmarkLineSplitting()
+    {
+        var legacy = measure("split (legacy)", () -> {
+            long n = 0;
+            for (var line : bodyLines) {
+                for (var field : splitPreserveAllTokens(line, "\t")) {
+                    n += LEGACY_STACK_SEP_PATTERN.split(field).length;
+                }
+            }
+            return n;
+        });
+
+        var tokenizer = new Tsv3XFieldTokenizer('\t');
+        var current = measure("split (tokenizer)", () -> {
+            long n = 0;
+            for (var line : bodyLines) {
+                var count = tokenizer.tokenize(line);
+                for (int i = 0; i < count; i++) {
+                    n += Tsv3XFieldTokenizer.splitUnescaped(tokenizer.getField(i), '|').length;
+                }
+            }
+            return n;
+        });
+
+        LOG.info("Line splitting speed-up: {}x", String.format("%.2f", (double) legacy / current));
+    }
+
+    @Test
+    void benchmarkReadWrite() throws Exception
+    {
+        var jcas = createJCas();
+
+        measure("read", () -> {
+            jcas.reset();
+            new Tsv3XDeserializer().read(new LineNumberReader(new StringReader(tsv)), jcas);
+            return JCasUtil.select(jcas, Token.class).size();
+        });
+
+        var schema = Tsv3XCasSchemaAnalyzer.analyze(jcas.getTypeSystem());
+        measure("write", () -> {
+            var out = new StringWriter(tsv.length());
+            var doc = Tsv3XCasDocumentBuilder.of(schema, jcas);
+            try (var pw = new PrintWriter(out)) {
+                new Tsv3XSerializer().write(pw, doc);
+            }
+            return out.getBuffer().length();
+        });
+
+        // Sanity check to ensure that the benchmark actually measured something meaningful
+        assertThat(JCasUtil.select(jcas, Sentence.class)).isNotEmpty();
+    }
+
+    private static long measure(String aName, Operation aOperation)
+    {
+        try {
+            long sink = 0;
+            for (int i = 0; i < WARMUP; i++) {
+                sink += aOperation.run();
+            }
+
+            long[] times = new long[ITERATIONS];
+            for (int i = 0; i < ITERATIONS; i++) {
+                long start = System.nanoTime();
+                sink += aOperation.run();
+                times[i] = System.nanoTime() - start;
+            }
+
+            Arrays.sort(times);
+            long median = times[ITERATIONS / 2];
+            LOG.info("{}: median {} ms (min {} ms, max {} ms) [{}]", aName, median / 1_000_000,
+                    times[0] / 1_000_000, times[ITERATIONS - 1] / 1_000_000, sink);
+            return median;
+        }
+        catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operation
+    {
+        long run() throws Exception;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.clarin.webanno.tsv.internal.tsv3x;
+
+import static de.tudarmstadt.ukp.clarin.webanno.tsv.internal.tsv3x.Tsv3XFieldTokenizer.findChainSuffix;
+import static de.tudarmstadt.ukp.clarin.webanno.tsv.internal.tsv3x.Tsv3XFieldTokenizer.splitUnescaped;
+import static org.apache.commons.lang3.StringUtils.splitPreserveAllTokens;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class Tsv3XFieldTokenizerTest
+{
+    private static final Pattern STACK_SEP_PATTERN = Pattern.compile("(?<!\\\\)\\|");
+
+    @Test
+    void thatLineIsTokenizedPreservingAllTokens()
+    {
+        var line = "1-1\t0-4\tThis\tPER[1]|ORG[2]\t_\t\t";
+        var sut = new Tsv3XFieldTokenizer('\t');
+
+        var count = sut.tokenize(line);
+
+        var expected = splitPreserveAllTokens(line, '\t');
+        assertThat(count).isEqualTo(expected.length);
+        for (int i = 0; i < count; i++) {
+            assertThat(sut.getField(i)).isEqualTo(expected[i]);
+        }
+
+        assertThat(sut.fieldEquals(4, "_")).isTrue();
+        assertThat(sut.fieldEquals(3, "_")).isFalse();
+        assertThat(sut.fieldContains(0, '.')).isFalse();
+    }
+
+    @Test
+    void thatTokenizerCanBeReused()
+    {
+        var sut = new Tsv3XFieldTokenizer('\t');
+        sut.tokenize("a\tb\tc\td\te\tf\tg\th\ti\tj\tk\tl\tm\tn\to\tp\tq\tr\ts");
+
+        assertThat(sut.tokenize("1-1.1\t0-2\tTh")).isEqualTo(3);
+        assertThat(sut.getField(2)).isEqualTo("Th");
+        assertThat(sut.fieldContains(0, '.')).isTrue();
+        assertThatThrownBy(() -> sut.getField(3)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void thatOffsetsAreParsed()
+    {
+        var sut = new Tsv3XFieldTokenizer('\t');
+        sut.tokenize("1-2\t1234-56789\tfoo");
+
+        var offsets = new int[2];
+        sut.getOffsets(1, offsets);
+
+        assertThat(offsets).containsExactly(1234, 56789);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "a", "", "a|b", "a\\|b|c", "|a", "a|", "a||", "|", "a||b", "\\|",
+            "PER[1]|ORG[2]" })
+    void thatSplitUnescapedMatchesRegexSplit(String aValue)
+    {
+        assertThat(splitUnescaped(aValue, '|')) //
+                .containsExactly(STACK_SEP_PATTERN.split(aValue));
+    }
+
+    @Test
+    void thatChainSuffixIsFound()
+    {
+        assertThat(findChainSuffix("*->1-2")).isEqualTo(3);
+        assertThat(findChainSuffix("a->b->12-34")).isEqualTo(6);
+        assertThat(findChainSuffix("a\\->1-2")).isEqualTo(-1);
+        assertThat(findChainSuffix("a->1")).isEqualTo(-1);
+        assertThat(findChainSuffix("a-1-2")).isEqualTo(-1);
+        assertThat(findChainSuffix("->-2")).isEqualTo(-1);
+        assertThat(findChainSuffix("")).isEqualTo(-1);
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.annotation.layer.behavior;
+
+import static de.tudarmstadt.ukp.inception.support.uima.WebAnnoCasUtil.getRealCas;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.IntPredicate;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.cas.Type;
+
+import de.tudarmstadt.ukp.inception.support.uima.ICasUtil;
+
+/**
+ * Interval index over the offsets of the spans of a span layer. This allows checking whether a new
+ * span would overlap or stack with an existing one without scanning the spans of the layer from
+ * the start of the document and allows finding all overlapping or stacked spans without comparing
+ * every span with every other span that starts before its end.
+ * <p>
+ * The index is an implicit balanced search tree over the spans in annotation index order (i.e.
+ * sorted by begin). Each node carries the maximum end of its subtree which allows finding all
+ * spans overlapping a range in {@code O(log n + k)}.
+ * <p>
+ * Indexes obtained via {@link #get} are cached per CAS and type. Changes to other layers do not
+ * affect the cached index. It is rebuilt when the number of spans changes or when the first or
+ * last span in the annotation index is a different one. Spans that are created, deleted or moved
+ * without changing these are reported by the span and chain adapters via events, upon which
+ * {@link #invalidate} is called (see {@link SpanOffsetChangeListener}). The index only holds
+ * annotation addresses, so it does not keep the CAS from being garbage collected.
+ */
+public final class SpanOffsetIndex
+{
+    private static final Map<CAS, Map<String, SpanOffsetIndex>> CACHE = new WeakHashMap<>();
+
+    private final Type type;
+    private final int size;
+    private final WeakReference<FeatureStructure> first;
+    private final WeakReference<FeatureStructure> last;
+
+    // In annotation index order, i.e. sorted by begin
+    private final int[] begins;
+    private final int[] ends;
+    private final int[] maxEnds;
+    private final int[] addrs;
+
+    private SpanOffsetIndex(CAS aCas, Type aType, int aSize, FeatureStructure aFirst,
+            FeatureStructure aLast)
+    {
+        type = aType;
+        size = aSize;
+        first = new WeakReference<>(aFirst);
+        last = new WeakReference<>(aLast);
+
+        begins = new int[aSize];
+        ends = new int[aSize];
+        maxEnds = new int[aSize];
+        addrs = new int[aSize];
+
+        var i = 0;
+        for (var span : aCas.getAnnotationIndex(aType)) {
+            begins[i] = span.getBegin();
+            ends[i] = span.getEnd();
+            addrs[i] = ICasUtil.getAddr(span);
+            i++;
+        }
+
+        buildMaxEnds(0, aSize - 1);
+    }
+
+    private int buildMaxEnds(int aLo, int aHi)
+    {
+        if (aLo > aHi) {
+            return Integer.MIN_VALUE;
+        }
+
+        var mid = (aLo + aHi) >>> 1;
+        maxEnds[mid] = max(ends[mid], max(buildMaxEnds(aLo, mid - 1), buildMaxEnds(mid + 1, aHi)));
+        return maxEnds[mid];
+    }
+
+    /**
+     * Builds an uncached index over all spans of the given type in the CAS.
+     * 
+     * @param aCas
+     *            the CAS.
+     * @param aType
+     *            the span type.
+     * @return the index.
+     */
+    static SpanOffsetIndex of(CAS aCas, Type aType)
+    {
+        return new SpanOffsetIndex(aCas, null, aCas.getAnnotationIndex(aType).size(), null, null);
+    }
+
+    /**
+     * Obtains the index for all spans of the given type in the CAS. The index is built on first
+     * access and reused until spans of the type are added or removed or until the index is
+     * {@link #invalidate invalidated}.
+     * 
+     * @param aCas
+     *            the CAS.
+     * @param aType
+     *            the span type.
+     * @return the index.
+     */
+    static SpanOffsetIndex get(CAS aCas, Type aType)
+    {
+        var cas = getRealCas(aCas);
+
+        var annotationIndex = aCas.getAnnotationIndex(aType);
+        var size = annotationIndex.size();
+        var it = annotationIndex.iterator();
+        var firstSpan = it.isValid() ? it.get() : null;
+        it.moveToLast();
+        var lastSpan = it.isValid() ? it.get() : null;
+
+        synchronized (CACHE) {
+            var perCas = CACHE.computeIfAbsent(cas, k -> new HashMap<>());
+            var index = perCas.get(aType.getName());
+            if (index != null && index.isUpToDate(aType, size, firstSpan, lastSpan)) {
+                return index;
+            }
+
+            index = new SpanOffsetIndex(aCas, aType, size, firstSpan, lastSpan);
+            perCas.put(aType.getName(), index);
+            return index;
+        }
+    }
+
+    /**
+     * Drops the cached index for the given span type in the given CAS.
+     * 
+     * @param aCas
+     *            the CAS.
+     * @param aType
+     *            the span type.
+     */
+    public static void invalidate(CAS aCas, Type aType)
+    {
+        synchronized (CACHE) {
+            var perCas = CACHE.get(getRealCas(aCas));
+            if (perCas != null) {
+                perCas.remove(aType.getName());
+            }
+        }
+    }
+
+    private boolean isUpToDate(Type aType, int aSize, FeatureStructure aFirst,
+            FeatureStructure aLast)
+    {
+        // Adding or removing a span changes the index size. Replacing or moving one usually
+        // changes either end of the index unless it happens in the middle - this is reported by
+        // an event. Comparing the spans also guards against a CAS that has been reset and refilled.
+        return type == aType && size == aSize && first.get() == aFirst && last.get() == aLast;
+    }
+
+    /**
+     * @param aBegin
+     *            the begin offset.
+     * @param aEnd
+     *            the end offset.
+     * @param aExclude
+     *            a span to ignore (e.g. the span being moved) or {@code null}.
+     * @return whether any indexed span starts before the end of the given range and ends after
+     *         its begin.
+     */
+    boolean hasOverlapping(int aBegin, int aEnd, FeatureStructure aExclude)
+    {
+        var exclude = aExclude != null ? ICasUtil.getAddr(aExclude) : -1;
+        return anyMatch(0, begins.length - 1, aBegin, aEnd, i -> addrs[i] != exclude
+                && begins[i] < aEnd && ends[i] > aBegin);
+    }
+
+    /**
+     * @param aBegin
+     *            the begin offset.
+     * @param aEnd
+     *            the end offset.
+     * @param aExclude
+     *            a span to ignore (e.g. the span being moved) or {@code null}.
+     * @return whether any indexed span overlaps the given range without having exactly the same
+     *         offsets.
+     */
+    boolean hasOverlappingNonStacking(int aBegin, int aEnd, FeatureStructure aExclude)
+    {
+        var exclude = aExclude != null ? ICasUtil.getAddr(aExclude) : -1;
+        return anyMatch(0, begins.length - 1, aBegin, aEnd, i -> addrs[i] != exclude
+                && begins[i] < aEnd && ends[i] > aBegin
+                && !(begins[i] == aBegin && ends[i] == aEnd));
+    }
+
+    /**
+     * @param aBegin
+     *            the begin offset.
+     * @param aEnd
+     *            the end offset.
+     * @param aExclude
+     *            a span to ignore (e.g. the span being moved) or {@code null}.
+     * @return whether any indexed span has exactly the given offsets.
+     */
+    boolean hasStacking(int aBegin, int aEnd, FeatureStructure aExclude)
+    {
+        var exclude = aExclude != null ? ICasUtil.getAddr(aExclude) : -1;
+        return anyMatch(0, begins.length - 1, aBegin, aEnd,
+                i -> addrs[i] != exclude && begins[i] == aBegin && ends[i] == aEnd);
+    }
+
+    /**
+     * Finds all spans which are stacked with or overlap another span.
+     * 
+     * @param aStacking
+     *            receives the addresses of the spans which have the same offsets as another span.
+     *            May be {@code null}.
+     * @param aOverlapping
+     *            receives the addresses of the spans which overlap another span without having
+     *            the same offsets. May be {@code null}.
+     */
+    void overlappingOrStacking(Set<Integer> aStacking, Set<Integer> aOverlapping)
+    {
+        for (int i = 0; i < begins.length; i++) {
+            var span = i;
+            anyMatch(0, begins.length - 1, begins[i], ends[i], other -> {
+                if (other == span) {
+                    return false;
+                }
+
+                if (begins[other] == begins[span] && ends[other] == ends[span]) {
+                    if (aStacking != null) {
+                        aStacking.add(addrs[span]);
+                    }
+                }
+                else if (overlapping(min(span, other), max(span, other))) {
+                    if (aOverlapping != null) {
+                        aOverlapping.add(addrs[span]);
+                    }
+                }
+
+                // Visit all candidates
+                return false;
+            });
+        }
+    }
+
+    /**
+     * Checks whether the span at position {@code aEarlier} overlaps the span at the later position
+     * {@code aLater}. A span touching another one (the end of one being the begin of the other)
+     * does not overlap it.
+     */
+    private boolean overlapping(int aEarlier, int aLater)
+    {
+        return (begins[aEarlier] <= begins[aLater] && begins[aLater] < ends[aEarlier])
+                || (begins[aEarlier] < ends[aLater] && ends[aLater] <= ends[aEarlier]);
+    }
+
+    /**
+     * Visits the spans starting at or before the given end and ending at or after the given begin
+     * in the subtree between the given positions until the predicate matches. Callers apply their
+     * own notion of overlap in the predicate.
+     */
+    private boolean anyMatch(int aLo, int aHi, int aBegin, int aEnd, IntPredicate aPredicate)
+    {
+        if (aLo > aHi) {
+            return false;
+        }
+
+        var mid = (aLo + aHi) >>> 1;
+
+        // Nothing in this subtree reaches into the range
+        if (maxEnds[mid] < aBegin) {
+            return false;
+        }
+
+        if (anyMatch(aLo, mid - 1, aBegin, aEnd, aPredicate)) {
+            return true;
+        }
+
+        // Everything right of this node starts after the range
+        if (begins[mid] > aEnd) {
+            return false;
+        }
+
+        if (ends[mid] >= aBegin && aPredicate.test(mid)) {
+            return true;
+        }
+
+        return anyMatch(mid + 1, aHi, aBegin, aEnd, aPredicate);
+    }
+}
@@ -17,11 +17,10 @@
  */
 package de.tudarmstadt.ukp.inception.annotation.layer.behavior;
 
+import static de.tudarmstadt.ukp.clarin.webanno.model.OverlapMode.ANY_OVERLAP;
 import static de.tudarmstadt.ukp.inception.rendering.vmodel.VCommentType.ERROR;
-import static de.tudarmstadt.ukp.inception.support.uima.WebAnnoCasUtil.selectOverlapping;
+import static de.tudarmstadt.ukp.inception.support.uima.ICasUtil.selectAnnotationByAddr;
 import static org.apache.uima.fit.util.CasUtil.getType;
-import static org.apache.uima.fit.util.CasUtil.select;
-import static org.apache.uima.fit.util.CasUtil.selectAt;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -29,11 +28,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.uima.cas.CAS;
-import org.apache.uima.cas.Type;
 import org.apache.uima.cas.text.AnnotationFS;
 
 import de.tudarmstadt.ukp.clarin.webanno.api.annotation.exception.IllegalPlacementException;
@@ -79,7 +78,7 @@ public class SpanOverlapBehavior
             CreateSpanAnnotationRequest aRequest)
         throws AnnotationException
     {
-        return onRequest(aAdapter, aRequest);
+        return onRequest(aAdapter, aRequest, null);
     }
 
     @Override
@@ -87,17 +86,12 @@ public class SpanOverlapBehavior
             MoveSpanAnnotationRequest aRequest)
         throws AnnotationException
     {
-        try {
-            aRequest.getCas().removeFsFromIndexes(aRequest.getAnnotation());
-            return onRequest(aAdapter, aRequest);
-        }
-        finally {
-            aRequest.getCas().addFsToIndexes(aRequest.getAnnotation());
-        }
+        // The annotation being moved must not count as overlapping or stacking with itself
+        return onRequest(aAdapter, aRequest, aRequest.getAnnotation());
     }
 
     private <T extends SpanAnnotationRequest_ImplBase<T>> T onRequest(TypeAdapter aAdapter,
-            T aRequest)
+            T aRequest, AnnotationFS aExclude)
         throws AnnotationException
     {
         if (Token.class.getName().equals(aAdapter.getAnnotationTypeName())
@@ -108,14 +102,18 @@ public class SpanOverlapBehavior
         final CAS aCas = aRequest.getCas();
         final int aBegin = aRequest.getBegin();
         final int aEnd = aRequest.getEnd();
-        var type = getType(aCas, aAdapter.getAnnotationTypeName());
+        var overlapMode = aAdapter.getLayer().getOverlapMode();
 
-        switch (aAdapter.getLayer().getOverlapMode()) {
-        case ANY_OVERLAP:
+        if (overlapMode == ANY_OVERLAP) {
             // Nothing to check
             return aRequest;
+        }
+
+        var index = SpanOffsetIndex.get(aCas, getType(aCas, aAdapter.getAnnotationTypeName()));
+
+        switch (overlapMode) {
         case NO_OVERLAP:
-            boolean hasAnyOverlapping = !selectOverlapping(aCas, type, aBegin, aEnd).isEmpty();
+            boolean hasAnyOverlapping = index.hasOverlapping(aBegin, aEnd, aExclude);
             if (hasAnyOverlapping) {
                 throw new IllegalPlacementException("Cannot create another annotation of layer ["
                         + aAdapter.getLayer().getUiName()
@@ -123,7 +121,7 @@ public class SpanOverlapBehavior
             }
             break;
         case OVERLAP_ONLY:
-            boolean hasStacking = !selectAt(aCas, type, aBegin, aEnd).isEmpty();
+            boolean hasStacking = index.hasStacking(aBegin, aEnd, aExclude);
             if (hasStacking) {
                 throw new IllegalPlacementException("Cannot create another annotation of layer ["
                         + aAdapter.getLayer().getUiName()
@@ -131,8 +129,7 @@ public class SpanOverlapBehavior
             }
             break;
         case STACKING_ONLY:
-            boolean hasOverlapping = selectOverlapping(aCas, type, aBegin, aEnd).stream()
-                    .filter(fs -> !stacking(aRequest, fs)).findAny().isPresent();
+            boolean hasOverlapping = index.hasOverlappingNonStacking(aBegin, aEnd, aExclude);
             if (hasOverlapping) {
                 throw new IllegalPlacementException("Cannot create another annotation of layer ["
                         + aAdapter.getLayer().getUiName()
@@ -190,39 +187,48 @@ public class SpanOverlapBehavior
     @Override
     public List<Pair<LogMessage, AnnotationFS>> onValidate(TypeAdapter aAdapter, CAS aCas)
     {
-        Type type = getType(aCas, aAdapter.getAnnotationTypeName());
         List<Pair<LogMessage, AnnotationFS>> messages = new ArrayList<>();
 
-        switch (aAdapter.getLayer().getOverlapMode()) {
-        case ANY_OVERLAP:
+        var overlapMode = aAdapter.getLayer().getOverlapMode();
+
+        if (overlapMode == ANY_OVERLAP) {
             // Nothing to check
-            break;
-        case NO_OVERLAP: {
-            Set<AnnotationFS> overlapping = new HashSet<>();
-            Set<AnnotationFS> stacking = new HashSet<>();
+            return messages;
+        }
 
-            overlappingOrStackingSpans(select(aCas, type), stacking, overlapping);
+        // Validation runs rarely and must see the actual state of the CAS, so we do not use the
+        // cached index here
+        var index = SpanOffsetIndex.of(aCas, getType(aCas, aAdapter.getAnnotationTypeName()));
 
-            overlapping.forEach(fs -> Pair.of(LogMessage.error(this,
-                    "Overlapping annotation at [%d-%d]", fs.getBegin(), fs.getEnd()), fs));
+        // Use sorted sets to report the problems in a stable order
+        var overlapping = new TreeSet<Integer>();
+        var stacking = new TreeSet<Integer>();
 
-            stacking.forEach(fs -> messages.add(Pair.of(LogMessage.error(this,
-                    "Stacked annotation at [%d-%d]", fs.getBegin(), fs.getEnd()), fs)));
+        switch (overlapMode) {
+        case NO_OVERLAP:
+            index.overlappingOrStacking(stacking, overlapping);
             break;
-        }
         case STACKING_ONLY:
-            // Here, we must find all overlapping relations because they are not permitted
-            overlappingNonStackingSpans(select(aCas, type))
-                    .forEach(fs -> Pair.of(LogMessage.error(this,
-                            "Overlapping annotation at [%d-%d]", fs.getBegin(), fs.getEnd()), fs));
+            // Here, we must find all overlapping spans because they are not permitted
+            index.overlappingOrStacking(null, overlapping);
             break;
         case OVERLAP_ONLY:
-            stackingSpans(select(aCas, type))
-                    .forEach(fs -> messages.add(Pair.of(LogMessage.error(this,
-                            "Stacked annotation at [%d-%d]", fs.getBegin(), fs.getEnd()), fs)));
+            index.overlappingOrStacking(stacking, null);
             break;
         }
 
+        for (var addr : overlapping) {
+            var fs = selectAnnotationByAddr(aCas, addr);
+            messages.add(Pair.of(LogMessage.error(this, "Overlapping annotation at [%d-%d]",
+                    fs.getBegin(), fs.getEnd()), fs));
+        }
+
+        for (var addr : stacking) {
+            var fs = selectAnnotationByAddr(aCas, addr);
+            messages.add(Pair.of(LogMessage.error(this, "Stacked annotation at [%d-%d]",
+                    fs.getBegin(), fs.getEnd()), fs));
+        }
+
         return messages;
     }
 
@@ -317,11 +323,6 @@ public class SpanOverlapBehavior
                 || (aFS1.getBegin() < aFS2.getEnd() && aFS2.getEnd() <= aFS1.getEnd());
     }
 
-    private static boolean stacking(SpanAnnotationRequest_ImplBase<?> aRequest, AnnotationFS aSpan)
-    {
-        return stacking(aRequest.getBegin(), aRequest.getEnd(), aSpan.getBegin(), aSpan.getEnd());
-    }
-
     private static boolean stacking(AnnotationFS aFS1, AnnotationFS aFS2)
     {
         return stacking(aFS1.getBegin(), aFS1.getEnd(), aFS2.getBegin(), aFS2.getEnd());
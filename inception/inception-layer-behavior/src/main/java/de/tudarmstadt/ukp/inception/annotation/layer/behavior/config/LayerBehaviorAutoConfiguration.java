@@ -24,6 +24,7 @@ import de.tudarmstadt.ukp.clarin.webanno.api.export.DocumentImportExportService;
 import de.tudarmstadt.ukp.inception.annotation.layer.behavior.ProtectedElementBehavior;
 import de.tudarmstadt.ukp.inception.annotation.layer.behavior.SpanAnchoringModeBehavior;
 import de.tudarmstadt.ukp.inception.annotation.layer.behavior.SpanCrossSentenceBehavior;
+import de.tudarmstadt.ukp.inception.annotation.layer.behavior.SpanOffsetChangeListener;
 import de.tudarmstadt.ukp.inception.annotation.layer.behavior.SpanOverlapBehavior;
 import de.tudarmstadt.ukp.inception.documents.api.DocumentService;
 
@@ -48,6 +49,12 @@ public class LayerBehaviorAutoConfiguration
         return new SpanOverlapBehavior();
     }
 
+    @Bean
+    public SpanOffsetChangeListener spanOffsetChangeListener()
+    {
+        return new SpanOffsetChangeListener();
+    }
+
     @Bean
     public ProtectedElementBehavior protectedElementBehavior(DocumentService aDocumentService,
             DocumentImportExportService aDocumentImportExportService)
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.annotation.layer.behavior;
+
+import static org.apache.uima.cas.text.AnnotationPredicates.colocated;
+import static org.apache.uima.cas.text.AnnotationPredicates.overlapping;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.fit.factory.CasFactory;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.tudarmstadt.ukp.inception.support.uima.ICasUtil;
+
+class SpanOffsetIndexTest
+{
+    private Random rnd;
+    private CAS cas;
+
+    @BeforeEach
+    void setup() throws Exception
+    {
+        rnd = new Random(42);
+        cas = CasFactory.createCas();
+    }
+
+    @Test
+    void thatOverlappingOrStackingMatchesNaiveComparison() throws Exception
+    {
+        generateSpans(1000);
+        // Long spans must not degrade the results
+        addSpan(0, 10000);
+        addSpan(5000, 9000);
+
+        var spans = cas.<Annotation> select(cas.getAnnotationType()).asList();
+        var expectedStacked = new HashSet<Integer>();
+        var expectedOverlapping = new HashSet<Integer>();
+        for (var span1 : spans) {
+            for (var span2 : spans) {
+                if (span1.equals(span2)) {
+                    continue;
+                }
+
+                if (colocated(span1, span2)) {
+                    expectedStacked.add(ICasUtil.getAddr(span1));
+                }
+                else if (overlapping(span1, span2)) {
+                    expectedOverlapping.add(ICasUtil.getAddr(span1));
+                }
+            }
+        }
+
+        var actualStacked = new HashSet<Integer>();
+        var actualOverlapping = new HashSet<Integer>();
+        SpanOffsetIndex.of(cas, cas.getAnnotationType()).overlappingOrStacking(actualStacked,
+                actualOverlapping);
+
+        assertThat(actualStacked).containsExactlyInAnyOrderElementsOf(expectedStacked);
+        assertThat(actualOverlapping).containsExactlyInAnyOrderElementsOf(expectedOverlapping);
+    }
+
+    @Test
+    void thatPointQueriesMatchNaiveComparison() throws Exception
+    {
+        generateSpans(300);
+        addSpan(0, 10000);
+
+        var spans = cas.<Annotation> select(cas.getAnnotationType()).asList();
+        var index = SpanOffsetIndex.of(cas, cas.getAnnotationType());
+
+        for (int i = 0; i < 1000; i++) {
+            var begin = rnd.nextInt(10000);
+            var end = begin + rnd.nextInt(100);
+            var exclude = rnd.nextBoolean() ? spans.get(rnd.nextInt(spans.size())) : null;
+
+            var candidates = spans.stream().filter(s -> s != exclude).toList();
+            var expectedOverlapping = candidates.stream()
+                    .anyMatch(s -> s.getBegin() < end && s.getEnd() > begin);
+            var expectedStacking = candidates.stream()
+                    .anyMatch(s -> s.getBegin() == begin && s.getEnd() == end);
+            var expectedNonStacking = candidates.stream()
+                    .anyMatch(s -> s.getBegin() < end && s.getEnd() > begin
+                            && !(s.getBegin() == begin && s.getEnd() == end));
+
+            assertThat(index.hasOverlapping(begin, end, exclude)).isEqualTo(expectedOverlapping);
+            assertThat(index.hasStacking(begin, end, exclude)).isEqualTo(expectedStacking);
+            assertThat(index.hasOverlappingNonStacking(begin, end, exclude))
+                    .isEqualTo(expectedNonStacking);
+        }
+    }
+
+    @Test
+    void thatExcludedSpanIsIgnored() throws Exception
+    {
+        var span = addSpan(10, 20);
+
+        var index = SpanOffsetIndex.of(cas, cas.getAnnotationType());
+
+        assertThat(index.hasStacking(10, 20, null)).isTrue();
+        assertThat(index.hasStacking(10, 20, span)).isFalse();
+        assertThat(index.hasOverlapping(15, 25, span)).isFalse();
+    }
+
+    @Test
+    void thatCachedIndexIsReusedUntilSpansChange() throws Exception
+    {
+        addSpan(10, 20);
+        addSpan(30, 40);
+        addSpan(50, 60);
+
+        var type = cas.getAnnotationType();
+        var index = SpanOffsetIndex.get(cas, type);
+
+        assertThat(SpanOffsetIndex.get(cas, type)).isSameAs(index);
+
+        addSpan(70, 80);
+        var indexAfterAdd = SpanOffsetIndex.get(cas, type);
+        assertThat(indexAfterAdd).isNotSameAs(index);
+        assertThat(indexAfterAdd.hasStacking(70, 80, null)).isTrue();
+
+        // Moving a span in the middle does not change size, first or last span
+        var middle = cas.<Annotation> select(type).at(30, 40).get();
+        cas.removeFsFromIndexes(middle);
+        middle.setBegin(32);
+        middle.setEnd(38);
+        cas.addFsToIndexes(middle);
+        assertThat(SpanOffsetIndex.get(cas, type)).isSameAs(indexAfterAdd);
+
+        SpanOffsetIndex.invalidate(cas, type);
+        var indexAfterInvalidate = SpanOffsetIndex.get(cas, type);
+        assertThat(indexAfterInvalidate).isNotSameAs(indexAfterAdd);
+        assertThat(indexAfterInvalidate.hasStacking(32, 38, null)).isTrue();
+    }
+
+    private void generateSpans(int aCount)
+    {
+        for (int i = 0; i < aCount; i++) {
+            int begin = rnd.nextInt(10000);
+            int end = begin + rnd.nextInt(100);
+            addSpan(begin, end);
+        }
+    }
+
+    private AnnotationFS addSpan(int aBegin, int aEnd)
+    {
+        var span = cas.createAnnotation(cas.getAnnotationType(), aBegin, aEnd);
+        cas.addFsToIndexes(span);
+        return span;
+    }
+}
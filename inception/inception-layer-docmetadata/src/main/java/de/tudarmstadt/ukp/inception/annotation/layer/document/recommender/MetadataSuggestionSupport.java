@@ -51,6 +51,7 @@ import de.tudarmstadt.ukp.inception.recommendation.api.SuggestionSupport_ImplBas
 import de.tudarmstadt.ukp.inception.recommendation.api.model.AnnotationSuggestion;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecord;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordChangeLocation;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordIndex;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordUserAction;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.MetadataSuggestion;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.Predictions;
@@ -191,7 +192,7 @@ public class MetadataSuggestionSupport
                 .toList();
 
         // Get all the skipped/rejected entries for the current layer
-        var recordedAnnotations = learningRecordService.listLearningRecords(aSessionOwner,
+        var recordedAnnotations = learningRecordService.getLearningRecordIndex(aSessionOwner,
                 aDataOwner, aLayer);
 
         var adapter = schemaService.getAdapter(aLayer);
@@ -267,15 +268,11 @@ public class MetadataSuggestionSupport
     }
 
     static void hideSuggestionsRejectedOrSkipped(MetadataSuggestion aSuggestion,
-            List<LearningRecord> aRecordedRecommendations)
+            LearningRecordIndex aRecordedRecommendations)
     {
-        aRecordedRecommendations.stream() //
-                .filter(r -> Objects.equals(r.getLayer().getId(), aSuggestion.getLayerId())) //
-                .filter(r -> Objects.equals(r.getAnnotationFeature().getName(),
-                        aSuggestion.getFeature())) //
-                .filter(r -> Objects.equals(r.getSourceDocument().getId(),
-                        aSuggestion.getDocumentId())) //
-                .filter(r -> aSuggestion.labelEquals(r.getAnnotation())) //
+        // The index only returns records on the same layer, document and feature and with the
+        // same label as the suggestion - offsets do not matter for document metadata
+        aRecordedRecommendations.get(aSuggestion).stream() //
                 .filter(r -> aSuggestion.hideSuggestion(r.getUserAction())) //
                 .findAny();
     }
@@ -18,7 +18,6 @@
 package de.tudarmstadt.ukp.inception.annotation.layer.document.recommender;
 
 import static java.util.Arrays.asList;
-import static java.util.Collections.emptyList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.when;
@@ -54,6 +53,7 @@ import de.tudarmstadt.ukp.inception.recommendation.api.LearningRecordService;
 import de.tudarmstadt.ukp.inception.recommendation.api.RecommendationService;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.AnnotationSuggestion;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecord;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordIndex;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordUserAction;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.MetadataSuggestion;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.Recommender;
@@ -139,8 +139,8 @@ class MetadataSuggestionVisibilityCalculationTest
     void testWithoutExistingAnnotationSuggestionStaysVisible() throws Exception
     {
         when(schemaService.listSupportedFeatures(layer)).thenReturn(asList(singleValueFeature));
-        doReturn(emptyList()).when(learningRecordService).listLearningRecords(TEST_USER, TEST_USER,
-                layer);
+        doReturn(new LearningRecordIndex()).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, layer);
 
         var suggestion = newSuggestion(singleValueRecommender, "happy", 1);
         var groups = groups(suggestion);
@@ -155,8 +155,8 @@ class MetadataSuggestionVisibilityCalculationTest
     void testSingleValuedFeatureWithMatchingLabelHidesSuggestion() throws Exception
     {
         when(schemaService.listSupportedFeatures(layer)).thenReturn(asList(singleValueFeature));
-        doReturn(emptyList()).when(learningRecordService).listLearningRecords(TEST_USER, TEST_USER,
-                layer);
+        doReturn(new LearningRecordIndex()).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, layer);
 
         var ann = cas.createFS(cas.getTypeSystem().getType(typeDesc.getName()));
         FSUtil.setFeature(ann, "value", "happy");
@@ -174,8 +174,8 @@ class MetadataSuggestionVisibilityCalculationTest
     void testSingleValuedFeatureWithDifferentLabelKeepsSuggestionVisible() throws Exception
     {
         when(schemaService.listSupportedFeatures(layer)).thenReturn(asList(singleValueFeature));
-        doReturn(emptyList()).when(learningRecordService).listLearningRecords(TEST_USER, TEST_USER,
-                layer);
+        doReturn(new LearningRecordIndex()).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, layer);
 
         var ann = cas.createFS(cas.getTypeSystem().getType(typeDesc.getName()));
         FSUtil.setFeature(ann, "value", "sad");
@@ -194,8 +194,8 @@ class MetadataSuggestionVisibilityCalculationTest
     {
         traits.setSingleton(true);
         when(schemaService.listSupportedFeatures(layer)).thenReturn(asList(singleValueFeature));
-        doReturn(emptyList()).when(learningRecordService).listLearningRecords(TEST_USER, TEST_USER,
-                layer);
+        doReturn(new LearningRecordIndex()).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, layer);
 
         var ann = cas.createFS(cas.getTypeSystem().getType(typeDesc.getName()));
         FSUtil.setFeature(ann, "value", "anything");
@@ -222,8 +222,8 @@ class MetadataSuggestionVisibilityCalculationTest
         record.setAnnotationFeature(singleValueFeature);
         record.setAnnotation("happy");
         record.setUserAction(LearningRecordUserAction.REJECTED);
-        doReturn(asList(record)).when(learningRecordService).listLearningRecords(TEST_USER,
-                TEST_USER, layer);
+        doReturn(new LearningRecordIndex(asList(record))).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, layer);
 
         var suggestion = newSuggestion(singleValueRecommender, "happy", 1);
         var groups = groups(suggestion);
@@ -237,8 +237,8 @@ class MetadataSuggestionVisibilityCalculationTest
     void testMultiValuedFeatureWithMatchingLabelHidesSuggestion() throws Exception
     {
         when(schemaService.listSupportedFeatures(layer)).thenReturn(asList(multiValueFeature));
-        doReturn(emptyList()).when(learningRecordService).listLearningRecords(TEST_USER, TEST_USER,
-                layer);
+        doReturn(new LearningRecordIndex()).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, layer);
 
         var ann = cas.createFS(cas.getTypeSystem().getType(typeDesc.getName()));
         FSUtil.setFeature(ann, "values", asList("happy", "calm"));
@@ -256,8 +256,8 @@ class MetadataSuggestionVisibilityCalculationTest
     void testMultiValuedFeatureWithDifferentLabelsKeepsSuggestionVisible() throws Exception
     {
         when(schemaService.listSupportedFeatures(layer)).thenReturn(asList(multiValueFeature));
-        doReturn(emptyList()).when(learningRecordService).listLearningRecords(TEST_USER, TEST_USER,
-                layer);
+        doReturn(new LearningRecordIndex()).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, layer);
 
         var ann = cas.createFS(cas.getTypeSystem().getType(typeDesc.getName()));
         FSUtil.setFeature(ann, "values", asList("sad", "angry"));
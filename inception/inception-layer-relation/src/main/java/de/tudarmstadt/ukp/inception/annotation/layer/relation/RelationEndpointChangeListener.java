@@ -17,10 +17,15 @@
  */
 package de.tudarmstadt.ukp.inception.annotation.layer.relation;
 
+import org.apache.uima.cas.FeatureStructure;
 import org.apache.uima.jcas.tcas.Annotation;
 import org.springframework.context.event.EventListener;
 
+import de.tudarmstadt.ukp.inception.annotation.events.FeatureValueUpdatedEvent;
 import de.tudarmstadt.ukp.inception.annotation.layer.relation.api.RelationAdapter;
+import de.tudarmstadt.ukp.inception.annotation.layer.relation.api.RelationLayerSupport;
+import de.tudarmstadt.ukp.inception.annotation.layer.relation.api.event.RelationEvent;
+import de.tudarmstadt.ukp.inception.annotation.layer.relation.behavior.RelationEndpointIndex;
 import de.tudarmstadt.ukp.inception.annotation.layer.span.api.SpanMovedEvent;
 import de.tudarmstadt.ukp.inception.schema.api.AnnotationSchemaService;
 
@@ -33,12 +38,42 @@ public class RelationEndpointChangeListener
         schemaService = aSchemaService;
     }
 
+    @EventListener
+    public void onRelationEvent(RelationEvent aEvent)
+    {
+        invalidateRelationIndexes(aEvent.getAnnotation());
+    }
+
+    @EventListener
+    public void onFeatureValueUpdatedEvent(FeatureValueUpdatedEvent aEvent)
+    {
+        // Changes to other layers do not affect the relation indexes
+        if (!RelationLayerSupport.TYPE.equals(aEvent.getLayer().getType())) {
+            return;
+        }
+
+        invalidateRelationIndexes(aEvent.getFS());
+    }
+
+    private void invalidateRelationIndexes(FeatureStructure aRelation)
+    {
+        if (aRelation == null) {
+            return;
+        }
+
+        RelationEndpointIndex.invalidate(aRelation.getCAS(), aRelation.getType());
+        RelationExtentIndex.invalidate(aRelation.getCAS(), aRelation.getType());
+    }
+
     @EventListener
     public void onSpanMovedEvent(SpanMovedEvent aEvent)
     {
         var span = aEvent.getAnnotation();
         var cas = span.getCAS();
 
+        // Moving an end point changes the extent of the attached relations
+        RelationExtentIndex.invalidate(cas);
+
         for (var relLayer : schemaService.listAttachedRelationLayers(aEvent.getLayer())) {
             var relAdapter = (RelationAdapter) schemaService.getAdapter(relLayer);
             var maybeRelType = relAdapter.getAnnotationType(cas);
@@ -0,0 +1,290 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.annotation.layer.relation;
+
+import static de.tudarmstadt.ukp.inception.support.uima.WebAnnoCasUtil.getRealCas;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.cas.Type;
+import org.apache.uima.jcas.tcas.Annotation;
+
+import de.tudarmstadt.ukp.inception.support.uima.ICasUtil;
+
+/**
+ * Interval index over the extents of the relations of a relation layer. The extent of a relation
+ * reaches from the start of its leftmost end point to the end of its rightmost end point. Unlike
+ * the offsets of the relation annotation itself (which are those of the target), the extent
+ * covers the whole arc, so the index can be used to find all relations that need to be drawn when
+ * long arcs are enabled.
+ * <p>
+ * The index is an implicit balanced search tree over the relations sorted by the start of their
+ * extent. Each node carries the maximum extent end of its subtree which allows finding all
+ * relations overlapping a window in {@code O(log n + k)}.
+ * <p>
+ * Indexes are cached per CAS and layer. Changes to other layers do not affect the cached index. It
+ * is rebuilt when the number of relations changes or when the first or last relation in the
+ * annotation index is a different one. Relations updated in place and moved end points do not
+ * change these, so the {@code RelationEndpointChangeListener} calls {@link #invalidate} for them.
+ * The index only holds annotation addresses, so it does not keep the CAS from being garbage
+ * collected.
+ */
+public final class RelationExtentIndex
+{
+    private static final Map<CAS, Map<String, RelationExtentIndex>> CACHE = new WeakHashMap<>();
+
+    private final Type type;
+    private final int size;
+    private final WeakReference<FeatureStructure> first;
+    private final WeakReference<FeatureStructure> last;
+
+    // Sorted by begin
+    private final int[] begins;
+    private final int[] ends;
+    private final int[] maxEnds;
+    private final int[] addrs;
+    // Position of the relation in the annotation index - used to return results in index order
+    private final int[] positions;
+
+    private RelationExtentIndex(CAS aCas, Type aType, int aSize, FeatureStructure aFirst,
+            FeatureStructure aLast, Feature aSourceFeature, Feature aTargetFeature,
+            Feature aAttachFeature)
+    {
+        type = aType;
+        size = aSize;
+        first = new WeakReference<>(aFirst);
+        last = new WeakReference<>(aLast);
+
+        var entries = new ArrayList<int[]>(aSize);
+        var pos = 0;
+        for (var rel : aCas.<Annotation> select(aType)) {
+            var source = endpoint(rel, aSourceFeature, aAttachFeature);
+            var target = endpoint(rel, aTargetFeature, aAttachFeature);
+            if (source instanceof Annotation src && target instanceof Annotation tgt) {
+                entries.add(new int[] { min(src.getBegin(), tgt.getBegin()),
+                        max(src.getEnd(), tgt.getEnd()), ICasUtil.getAddr(rel), pos });
+            }
+            pos++;
+        }
+
+        entries.sort((a, b) -> Integer.compare(a[0], b[0]));
+
+        var n = entries.size();
+        begins = new int[n];
+        ends = new int[n];
+        maxEnds = new int[n];
+        addrs = new int[n];
+        positions = new int[n];
+        for (int i = 0; i < n; i++) {
+            var e = entries.get(i);
+            begins[i] = e[0];
+            ends[i] = e[1];
+            addrs[i] = e[2];
+            positions[i] = e[3];
+        }
+
+        buildMaxEnds(0, n - 1);
+    }
+
+    private static FeatureStructure endpoint(FeatureStructure aRelation, Feature aFeature,
+            Feature aAttachFeature)
+    {
+        var fs = aRelation.getFeatureValue(aFeature);
+        if (fs != null && aAttachFeature != null) {
+            return fs.getFeatureValue(aAttachFeature);
+        }
+        return fs;
+    }
+
+    private int buildMaxEnds(int aLo, int aHi)
+    {
+        if (aLo > aHi) {
+            return Integer.MIN_VALUE;
+        }
+
+        var mid = (aLo + aHi) >>> 1;
+        maxEnds[mid] = max(ends[mid], max(buildMaxEnds(aLo, mid - 1), buildMaxEnds(mid + 1, aHi)));
+        return maxEnds[mid];
+    }
+
+    /**
+     * Obtains the extent index for all relations of the given type in the CAS. The index is built
+     * on first access and reused until relations of the type are added or removed or until the
+     * index is {@link #invalidate invalidated}.
+     * 
+     * @param aCas
+     *            the CAS.
+     * @param aType
+     *            the relation type.
+     * @param aSourceFeature
+     *            the source feature of the relation layer.
+     * @param aTargetFeature
+     *            the target feature of the relation layer.
+     * @param aAttachFeature
+     *            the feature of the end points leading to the annotation which provides the
+     *            offsets or {@code null} if the end points themselves provide them.
+     * @return the index.
+     */
+    public static RelationExtentIndex get(CAS aCas, Type aType, Feature aSourceFeature,
+            Feature aTargetFeature, Feature aAttachFeature)
+    {
+        var cas = getRealCas(aCas);
+        var key = aType.getName() + "|" + aSourceFeature.getShortName() + "|"
+                + aTargetFeature.getShortName() + "|"
+                + (aAttachFeature != null ? aAttachFeature.getName() : "");
+
+        var annotationIndex = aCas.getAnnotationIndex(aType);
+        var size = annotationIndex.size();
+        var it = annotationIndex.iterator();
+        var firstRelation = it.isValid() ? it.get() : null;
+        it.moveToLast();
+        var lastRelation = it.isValid() ? it.get() : null;
+
+        synchronized (CACHE) {
+            var perCas = CACHE.computeIfAbsent(cas, k -> new HashMap<>());
+            var index = perCas.get(key);
+            if (index != null && index.isUpToDate(aType, size, firstRelation, lastRelation)) {
+                return index;
+            }
+
+            index = new RelationExtentIndex(aCas, aType, size, firstRelation, lastRelation,
+                    aSourceFeature, aTargetFeature, aAttachFeature);
+            perCas.put(key, index);
+            return index;
+        }
+    }
+
+    /**
+     * Drops all cached extent indexes for the given CAS.
+     * 
+     * @param aCas
+     *            the CAS.
+     */
+    public static void invalidate(CAS aCas)
+    {
+        synchronized (CACHE) {
+            CACHE.remove(getRealCas(aCas));
+        }
+    }
+
+    /**
+     * Drops the cached extent indexes for the given relation type in the given CAS.
+     * 
+     * @param aCas
+     *            the CAS.
+     * @param aType
+     *            the relation type.
+     */
+    public static void invalidate(CAS aCas, Type aType)
+    {
+        var prefix = aType.getName() + "|";
+        synchronized (CACHE) {
+            var perCas = CACHE.get(getRealCas(aCas));
+            if (perCas != null) {
+                perCas.keySet().removeIf(key -> key.startsWith(prefix));
+            }
+        }
+    }
+
+    private boolean isUpToDate(Type aType, int aSize, FeatureStructure aFirst,
+            FeatureStructure aLast)
+    {
+        // Adding or removing a relation changes the index size. Replacing one usually changes
+        // either end of the index unless it happens in the middle - this is reported by an event.
+        // Comparing the relations also guards against a CAS that has been reset and refilled.
+        return type == aType && size == aSize && first.get() == aFirst && last.get() == aLast;
+    }
+
+    /**
+     * @return the number of indexed relations.
+     */
+    public int size()
+    {
+        return begins.length;
+    }
+
+    /**
+     * Selects all relations whose extent starts at or before the given end and ends at or after
+     * the given begin. Callers apply their own notion of overlap to the result. The relations are
+     * returned in the order of the annotation index.
+     * 
+     * @param aCas
+     *            the CAS the index was built from.
+     * @param aBegin
+     *            the window begin.
+     * @param aEnd
+     *            the window end.
+     * @return the relations.
+     */
+    public List<Annotation> select(CAS aCas, int aBegin, int aEnd)
+    {
+        var hits = new ArrayList<Integer>();
+        collect(0, begins.length - 1, aBegin, aEnd, hits);
+
+        var sorted = new int[hits.size()][];
+        for (int i = 0; i < sorted.length; i++) {
+            var hit = hits.get(i);
+            sorted[i] = new int[] { positions[hit], addrs[hit] };
+        }
+        Arrays.sort(sorted, (a, b) -> Integer.compare(a[0], b[0]));
+
+        var result = new ArrayList<Annotation>(sorted.length);
+        for (var hit : sorted) {
+            result.add((Annotation) ICasUtil.selectFsByAddr(aCas, hit[1]));
+        }
+        return result;
+    }
+
+    private void collect(int aLo, int aHi, int aBegin, int aEnd, List<Integer> aHits)
+    {
+        if (aLo > aHi) {
+            return;
+        }
+
+        var mid = (aLo + aHi) >>> 1;
+
+        // Nothing in this subtree reaches into the window
+        if (maxEnds[mid] < aBegin) {
+            return;
+        }
+
+        collect(aLo, mid - 1, aBegin, aEnd, aHits);
+
+        // Everything right of this node starts after the window
+        if (begins[mid] > aEnd) {
+            return;
+        }
+
+        if (ends[mid] >= aBegin) {
+            aHits.add(mid);
+        }
+
+        collect(mid + 1, aHi, aBegin, aEnd, aHits);
+    }
+}
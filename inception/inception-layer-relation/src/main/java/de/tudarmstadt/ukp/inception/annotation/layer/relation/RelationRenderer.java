@@ -130,19 +130,18 @@ public class RelationRenderer
         var windowEnd = aRequest.getWindowEndOffset();
 
         if (aRequest.isLongArcs()) {
+            var index = RelationExtentIndex.get(cas, type, sourceFeature, targetFeature,
+                    attachFeature);
+
             var result = new ArrayList<Annotation>();
-            for (var rel : cas.<Annotation> select(type)) {
-                var sourceFs = getSourceFs(rel);
-                var targetFs = getTargetFs(rel);
-
-                if (sourceFs instanceof Annotation source
-                        && targetFs instanceof Annotation target) {
-                    var relBegin = min(source.getBegin(), target.getBegin());
-                    var relEnd = max(source.getEnd(), target.getEnd());
-
-                    if (overlapping(relBegin, relEnd, windowBegin, windowEnd)) {
-                        result.add(rel);
-                    }
+            for (var rel : index.select(cas, windowBegin, windowEnd)) {
+                var source = (Annotation) getSourceFs(rel);
+                var target = (Annotation) getTargetFs(rel);
+                var relBegin = min(source.getBegin(), target.getBegin());
+                var relEnd = max(source.getEnd(), target.getEnd());
+
+                if (overlapping(relBegin, relEnd, windowBegin, windowEnd)) {
+                    result.add(rel);
                 }
             }
 
@@ -0,0 +1,264 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.annotation.layer.relation.behavior;
+
+import static de.tudarmstadt.ukp.inception.support.uima.WebAnnoCasUtil.getRealCas;
+import static org.apache.uima.fit.util.CasUtil.select;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.text.AnnotationFS;
+
+import de.tudarmstadt.ukp.inception.support.uima.ICasUtil;
+
+/**
+ * Index of the relations of a relation layer by their end points. It maps the address of every
+ * source or target annotation to the relations attached to it and the address pair of source and
+ * target to the relations connecting them. This allows checking whether a new relation would
+ * overlap or stack with an existing one without scanning all relations of the layer and allows
+ * finding all overlapping or stacked relations in a single pass.
+ * <p>
+ * Indexes obtained via {@link #get} are cached per CAS and layer. Changes to other layers do not
+ * affect the cached index. It is rebuilt when the number of relations changes or when the first or
+ * last relation in the annotation index is a different one. Relations that are created, deleted or
+ * updated in place without changing these are reported by the relation adapter via events, upon
+ * which {@link #invalidate} is called (see {@code RelationEndpointChangeListener}). The index only
+ * holds annotation addresses, so it does not keep the CAS from being garbage collected.
+ */
+public final class RelationEndpointIndex
+{
+    private static final Map<CAS, Map<String, RelationEndpointIndex>> CACHE = new WeakHashMap<>();
+
+    private final Type type;
+    private final int size;
+    private final WeakReference<FeatureStructure> first;
+    private final WeakReference<FeatureStructure> last;
+
+    // Relation addresses by the address pair (source, target)
+    private final Map<Long, List<Integer>> byEndpoints = new HashMap<>();
+    // Distinct address pairs (source, target) of the relations attached to an end point
+    private final Map<Integer, Set<Long>> byEndpoint = new HashMap<>();
+
+    private RelationEndpointIndex(Type aType, int aSize, FeatureStructure aFirst,
+            FeatureStructure aLast, Iterable<? extends AnnotationFS> aRelations,
+            Feature aSourceFeature, Feature aTargetFeature)
+    {
+        type = aType;
+        size = aSize;
+        first = new WeakReference<>(aFirst);
+        last = new WeakReference<>(aLast);
+
+        for (var rel : aRelations) {
+            var src = rel.getFeatureValue(aSourceFeature);
+            var tgt = rel.getFeatureValue(aTargetFeature);
+            if (src == null || tgt == null) {
+                continue;
+            }
+
+            var srcAddr = ICasUtil.getAddr(src);
+            var tgtAddr = ICasUtil.getAddr(tgt);
+            var key = key(srcAddr, tgtAddr);
+            byEndpoints.computeIfAbsent(key, k -> new ArrayList<>()).add(ICasUtil.getAddr(rel));
+            byEndpoint.computeIfAbsent(srcAddr, k -> new HashSet<>()).add(key);
+            byEndpoint.computeIfAbsent(tgtAddr, k -> new HashSet<>()).add(key);
+        }
+    }
+
+    /**
+     * Builds an uncached index over the given relations.
+     * 
+     * @param aRelations
+     *            the relations to index.
+     * @param aSourceFeature
+     *            the source feature of the relation layer.
+     * @param aTargetFeature
+     *            the target feature of the relation layer.
+     * @return the index.
+     */
+    static RelationEndpointIndex of(Iterable<? extends AnnotationFS> aRelations,
+            Feature aSourceFeature, Feature aTargetFeature)
+    {
+        return new RelationEndpointIndex(null, -1, null, null, aRelations, aSourceFeature,
+                aTargetFeature);
+    }
+
+    /**
+     * Obtains the index for all relations of the given type in the CAS. The index is built on
+     * first access and reused until relations of the type are added or removed or until the index
+     * is {@link #invalidate invalidated}.
+     * 
+     * @param aCas
+     *            the CAS.
+     * @param aType
+     *            the relation type.
+     * @param aSourceFeature
+     *            the source feature of the relation layer.
+     * @param aTargetFeature
+     *            the target feature of the relation layer.
+     * @return the index.
+     */
+    static RelationEndpointIndex get(CAS aCas, Type aType, Feature aSourceFeature,
+            Feature aTargetFeature)
+    {
+        var cas = getRealCas(aCas);
+        var key = aType.getName() + "|" + aSourceFeature.getShortName() + "|"
+                + aTargetFeature.getShortName();
+
+        var annotationIndex = aCas.getAnnotationIndex(aType);
+        var size = annotationIndex.size();
+        var it = annotationIndex.iterator();
+        var firstRelation = it.isValid() ? it.get() : null;
+        it.moveToLast();
+        var lastRelation = it.isValid() ? it.get() : null;
+
+        synchronized (CACHE) {
+            var perCas = CACHE.computeIfAbsent(cas, k -> new HashMap<>());
+            var index = perCas.get(key);
+            if (index != null && index.isUpToDate(aType, size, firstRelation, lastRelation)) {
+                return index;
+            }
+
+            index = new RelationEndpointIndex(aType, size, firstRelation, lastRelation,
+                    select(aCas, aType), aSourceFeature, aTargetFeature);
+            perCas.put(key, index);
+            return index;
+        }
+    }
+
+    /**
+     * Drops the cached indexes for the given relation type in the given CAS.
+     * 
+     * @param aCas
+     *            the CAS.
+     * @param aType
+     *            the relation type.
+     */
+    public static void invalidate(CAS aCas, Type aType)
+    {
+        var prefix = aType.getName() + "|";
+        synchronized (CACHE) {
+            var perCas = CACHE.get(getRealCas(aCas));
+            if (perCas != null) {
+                perCas.keySet().removeIf(key -> key.startsWith(prefix));
+            }
+        }
+    }
+
+    private boolean isUpToDate(Type aType, int aSize, FeatureStructure aFirst,
+            FeatureStructure aLast)
+    {
+        // Adding or removing a relation changes the index size. Replacing one usually changes
+        // either end of the index unless it happens in the middle - this is reported by an event.
+        // Comparing the relations also guards against a CAS that has been reset and refilled.
+        return type == aType && size == aSize && first.get() == aFirst && last.get() == aLast;
+    }
+
+    /**
+     * @param aSource
+     *            the source of a relation.
+     * @param aTarget
+     *            the target of a relation.
+     * @return whether any indexed relation uses either of the given annotations as an end point.
+     */
+    boolean hasOverlapping(FeatureStructure aSource, FeatureStructure aTarget)
+    {
+        return byEndpoint.containsKey(ICasUtil.getAddr(aSource))
+                || byEndpoint.containsKey(ICasUtil.getAddr(aTarget));
+    }
+
+    /**
+     * @param aSource
+     *            the source of a relation.
+     * @param aTarget
+     *            the target of a relation.
+     * @return whether any indexed relation connects exactly the given source and target.
+     */
+    boolean hasStacking(FeatureStructure aSource, FeatureStructure aTarget)
+    {
+        return byEndpoints
+                .containsKey(key(ICasUtil.getAddr(aSource), ICasUtil.getAddr(aTarget)));
+    }
+
+    /**
+     * @param aSource
+     *            the source of a relation.
+     * @param aTarget
+     *            the target of a relation.
+     * @return whether any indexed relation shares an end point with the given source and target
+     *         without connecting exactly these two.
+     */
+    boolean hasOverlappingNonStacking(FeatureStructure aSource, FeatureStructure aTarget)
+    {
+        var key = key(ICasUtil.getAddr(aSource), ICasUtil.getAddr(aTarget));
+        return hasOtherKey(byEndpoint.get(ICasUtil.getAddr(aSource)), key)
+                || hasOtherKey(byEndpoint.get(ICasUtil.getAddr(aTarget)), key);
+    }
+
+    private static boolean hasOtherKey(Set<Long> aKeys, long aKey)
+    {
+        return aKeys != null && (aKeys.size() > 1 || !aKeys.contains(aKey));
+    }
+
+    /**
+     * @return the addresses of all relations that share both end points with another relation.
+     */
+    Set<Integer> stacking()
+    {
+        var result = new LinkedHashSet<Integer>();
+        for (var rels : byEndpoints.values()) {
+            if (rels.size() > 1) {
+                result.addAll(rels);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the addresses of all relations that share an end point with another relation which
+     *         has a different source or target.
+     */
+    Set<Integer> overlappingNonStacking()
+    {
+        var result = new LinkedHashSet<Integer>();
+        for (var keys : byEndpoint.values()) {
+            if (keys.size() > 1) {
+                for (var key : keys) {
+                    result.addAll(byEndpoints.get(key));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static long key(int aSourceAddr, int aTargetAddr)
+    {
+        return ((long) aSourceAddr << 32) | (aTargetAddr & 0xffffffffL);
+    }
+}
@@ -26,6 +26,7 @@ import static org.apache.uima.fit.util.CasUtil.select;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -52,6 +53,7 @@ import de.tudarmstadt.ukp.inception.rendering.vmodel.VID;
 import de.tudarmstadt.ukp.inception.schema.api.adapter.AnnotationComparator;
 import de.tudarmstadt.ukp.inception.schema.api.adapter.TypeAdapter;
 import de.tudarmstadt.ukp.inception.support.logging.LogMessage;
+import de.tudarmstadt.ukp.inception.support.uima.ICasUtil;
 
 /**
  * Handles the {@link OverlapMode} setting for {@link RelationLayerSupport relation layers}.
@@ -78,13 +80,10 @@ public class RelationOverlapBehavior
         case ANY_OVERLAP:
             return aRequest;
         case NO_OVERLAP: {
-            boolean hasAnyOverlapping = select(cas, type).stream()
-                    // Check if any of the end-points of the requested relation are already used as
-                    // end-points in another relation
-                    .filter(rel -> overlapping(aRequest, rel, sourceFeature, targetFeature))
-                    .findAny().isPresent();
-
-            if (hasAnyOverlapping) {
+            // Check if any of the end-points of the requested relation are already used as
+            // end-points in another relation
+            if (index(cas, type, sourceFeature, targetFeature)
+                    .hasOverlapping(aRequest.getOriginFs(), aRequest.getTargetFs())) {
                 throw new IllegalPlacementException("Cannot create another annotation of layer ["
                         + layer.getUiName()
                         + "] at this location - no overlap or stacking is allowed for this layer.");
@@ -92,13 +91,9 @@ public class RelationOverlapBehavior
             break;
         }
         case OVERLAP_ONLY: {
-            boolean hasStacking = select(cas, type).stream()
-                    // Check if the requested relation has the same end-points as an existing
-                    // relation
-                    .filter(rel -> stacking(aRequest, rel, sourceFeature, targetFeature)).findAny()
-                    .isPresent();
-
-            if (hasStacking) {
+            // Check if the requested relation has the same end-points as an existing relation
+            if (index(cas, type, sourceFeature, targetFeature)
+                    .hasStacking(aRequest.getOriginFs(), aRequest.getTargetFs())) {
                 throw new IllegalPlacementException(
                         "Cannot create another annotation of layer [" + layer.getUiName()
                                 + "] at this location - stacking is not allowed for this layer.");
@@ -106,12 +101,8 @@ public class RelationOverlapBehavior
             break;
         }
         case STACKING_ONLY: {
-            boolean hasOverlapping = select(cas, type).stream()
-                    .filter(rel -> overlapping(aRequest, rel, sourceFeature, targetFeature)
-                            && !stacking(aRequest, rel, sourceFeature, targetFeature))
-                    .findAny().isPresent();
-
-            if (hasOverlapping) {
+            if (index(cas, type, sourceFeature, targetFeature)
+                    .hasOverlappingNonStacking(aRequest.getOriginFs(), aRequest.getTargetFs())) {
                 throw new IllegalPlacementException(
                         "Cannot create another annotation of layer [" + layer.getUiName()
                                 + "] at this location - only stacking is allowed for this layer.");
@@ -149,8 +140,9 @@ public class RelationOverlapBehavior
             Set<AnnotationFS> overlapping = new HashSet<>();
             Set<AnnotationFS> stacking = new HashSet<>();
 
-            overlappingOrStackingRelations(sortedRelations, sourceFeature, targetFeature, stacking,
-                    overlapping);
+            overlappingOrStackingRelations(sortedRelations,
+                    RelationEndpointIndex.of(sortedRelations, sourceFeature, targetFeature),
+                    stacking, overlapping);
 
             overlapping.forEach(fs -> aResponse
                     .add(new VComment(VID.of(fs), ERROR, "Overlap is not permitted.")));
@@ -161,20 +153,18 @@ public class RelationOverlapBehavior
         }
         case STACKING_ONLY: {
             // Here, we must find all overlapping relations because they are not permitted
-            overlappingNonStackingRelations(sortedRelations, sourceFeature, targetFeature)
-                    .forEach(fs -> aResponse
-                            .add(new VComment(VID.of(fs), ERROR, "Only stacking is permitted.")));
+            overlappingNonStackingRelations(sortedRelations,
+                    RelationEndpointIndex.of(sortedRelations, sourceFeature, targetFeature))
+                            .forEach(fs -> aResponse.add(new VComment(VID.of(fs), ERROR,
+                                    "Only stacking is permitted.")));
             break;
         }
         case OVERLAP_ONLY:
             // Here, we must find all stacked relations because they are not permitted.
-            // We go through all relations based on the their offsets. Stacked relations must have
-            // the same offsets (at least if we consider relations as having a direction, i.e.
-            // that a relation A->B does not count as stacked on a relation B->A). But since there
-            // can be multiple relations going out from the same sourceFS, we need to consider all
-            // of them for potential stacking.
-            stackingRelations(sortedRelations, sourceFeature, targetFeature).forEach(fs -> aResponse
-                    .add(new VComment(VID.of(fs), ERROR, "Stacking is not permitted.")));
+            stackingRelations(sortedRelations,
+                    RelationEndpointIndex.of(sortedRelations, sourceFeature, targetFeature))
+                            .forEach(fs -> aResponse.add(
+                                    new VComment(VID.of(fs), ERROR, "Stacking is not permitted.")));
             break;
         }
     }
@@ -189,16 +179,17 @@ public class RelationOverlapBehavior
         final var targetFeature = type.getFeatureByBaseName(adapter.getTargetFeatureName());
 
         var messages = new ArrayList<Pair<LogMessage, AnnotationFS>>();
+        var relations = select(aCas, type);
 
         switch (layer.getOverlapMode()) {
         case ANY_OVERLAP:
             return emptyList();
         case NO_OVERLAP: {
-            var overlapping = new HashSet<AnnotationFS>();
-            var stacking = new HashSet<AnnotationFS>();
+            var overlapping = new LinkedHashSet<AnnotationFS>();
+            var stacking = new LinkedHashSet<AnnotationFS>();
 
-            overlappingOrStackingRelations(select(aCas, type), sourceFeature, targetFeature,
-                    stacking, overlapping);
+            overlappingOrStackingRelations(relations,
+                    index(aCas, type, sourceFeature, targetFeature), stacking, overlapping);
 
             for (var fs : overlapping) {
                 messages.add(Pair.of(LogMessage.error(this, "Overlapping relation at [%d-%d]",
@@ -212,18 +203,15 @@ public class RelationOverlapBehavior
         }
         case STACKING_ONLY:
             // Here, we must find all overlapping relations because they are not permitted
-            overlappingNonStackingRelations(select(aCas, type), sourceFeature, targetFeature)
-                    .forEach(fs -> messages.add(Pair.of(LogMessage.error(this,
-                            "Overlapping relation at [%d-%d]", fs.getBegin(), fs.getEnd()), fs)));
+            overlappingNonStackingRelations(relations,
+                    index(aCas, type, sourceFeature, targetFeature))
+                            .forEach(fs -> messages.add(Pair.of(LogMessage.error(this,
+                                    "Overlapping relation at [%d-%d]", fs.getBegin(),
+                                    fs.getEnd()), fs)));
             break;
         case OVERLAP_ONLY:
             // Here, we must find all stacked relations because they are not permitted.
-            // We go through all relations based on the their offsets. Stacked relations must have
-            // the same offsets (at least if we consider relations as having a direction, i.e.
-            // that a relation A->B does not count as stacked on a relation B->A). But since there
-            // can be multiple relations going out from the same sourceFS, we need to consider all
-            // of them for potential stacking.
-            stackingRelations(select(aCas, type), sourceFeature, targetFeature)
+            stackingRelations(relations, index(aCas, type, sourceFeature, targetFeature))
                     .forEach(fs -> messages.add(Pair.of(LogMessage.error(this,
                             "Stacked relation at [%d-%d]", fs.getBegin(), fs.getEnd()), fs)));
             break;
@@ -232,91 +220,50 @@ public class RelationOverlapBehavior
         return messages;
     }
 
+    private RelationEndpointIndex index(CAS aCas, Type aType, Feature aSourceFeature,
+            Feature aTargetFeature)
+    {
+        return RelationEndpointIndex.get(aCas, aType, aSourceFeature, aTargetFeature);
+    }
+
     private void overlappingOrStackingRelations(Collection<AnnotationFS> aRelations,
-            Feature sourceFeature, Feature targetFeature, Collection<AnnotationFS> aStacking,
+            RelationEndpointIndex aIndex, Collection<AnnotationFS> aStacking,
             Collection<AnnotationFS> aOverlapping)
     {
-        for (var rel1 : aRelations) {
-            for (var rel2 : aRelations) {
-                if (rel1.equals(rel2)) {
-                    continue;
-                }
-
-                if (stacking(rel1, rel2, sourceFeature, targetFeature)) {
-                    aStacking.add(rel1);
-                    aStacking.add(rel2);
-                }
-                else if (overlapping(rel1, rel2, sourceFeature, targetFeature)) {
-                    aOverlapping.add(rel1);
-                    aOverlapping.add(rel2);
-                }
-            }
-        }
+        aStacking.addAll(stackingRelations(aRelations, aIndex));
+        aOverlapping.addAll(overlappingNonStackingRelations(aRelations, aIndex));
     }
 
     private Set<AnnotationFS> overlappingNonStackingRelations(Collection<AnnotationFS> aRelations,
-            Feature sourceFeature, Feature targetFeature)
+            RelationEndpointIndex aIndex)
     {
-        var overlapping = new HashSet<AnnotationFS>();
-        for (var rel1 : aRelations) {
-            for (var rel2 : aRelations) {
-                if (rel1.equals(rel2)) {
-                    continue;
-                }
-
-                if (overlapping(rel1, rel2, sourceFeature, targetFeature)
-                        && !stacking(rel1, rel2, sourceFeature, targetFeature)) {
-                    overlapping.add(rel1);
-                    overlapping.add(rel2);
-                }
-            }
-        }
-        return overlapping;
+        return pick(aRelations, aIndex.overlappingNonStacking());
     }
 
     private Set<AnnotationFS> stackingRelations(Collection<AnnotationFS> aRelations,
-            Feature sourceFeature, Feature targetFeature)
+            RelationEndpointIndex aIndex)
     {
-        // Here, we must find all stacked relations because they are not permitted.
-        // We go through all relations based on the their offsets. Stacked relations must have
-        // the same offsets (at least if we consider relations as having a direction, i.e.
-        // that a relation A->B does not count as stacked on a relation B->A). But since there
-        // can be multiple relations going out from the same sourceFS, we need to consider all
-        // of them for potential stacking.
-        var stacking = new HashSet<AnnotationFS>();
-        var candidates = new ArrayList<AnnotationFS>();
-        for (var fs : aRelations) {
-            var sourceFs = (AnnotationFS) fs.getFeatureValue(sourceFeature);
-            var targetFs = (AnnotationFS) fs.getFeatureValue(targetFeature);
+        // Stacked relations have the same source and target. We consider relations as having a
+        // direction, i.e. a relation A->B does not count as stacked on a relation B->A.
+        return pick(aRelations, aIndex.stacking());
+    }
 
-            // If there are no stacking candidates at the current position yet, collect the
-            // first
-            if (candidates.isEmpty()) {
-                candidates.add(fs);
-            }
-            // If the current FS is at a different position from the current candidates, clear
-            // the candidates list and add the current one as the first new candidate
-            else if (candidates.get(0).getBegin() != fs.getBegin()
-                    || candidates.get(0).getEnd() != fs.getEnd()) {
-                candidates.clear();
-                candidates.add(fs);
-            }
-            // If there are already stacking candidates, check if the current FS is stacking on
-            // any of them. If yes, generate an error message
-            else {
-                for (var cand : candidates) {
-                    var candidateOriginFS = cand.getFeatureValue(sourceFeature);
-                    var candidateTargetFS = cand.getFeatureValue(targetFeature);
+    /**
+     * Picks the relations with the given addresses, retaining the order of the relations.
+     */
+    private Set<AnnotationFS> pick(Collection<AnnotationFS> aRelations, Set<Integer> aAddresses)
+    {
+        var result = new LinkedHashSet<AnnotationFS>();
+        if (aAddresses.isEmpty()) {
+            return result;
+        }
 
-                    if (stacking(candidateOriginFS, candidateTargetFS, sourceFs, targetFs)) {
-                        stacking.add(fs);
-                        stacking.add(cand);
-                    }
-                }
+        for (var rel : aRelations) {
+            if (aAddresses.contains(ICasUtil.getAddr(rel))) {
+                result.add(rel);
             }
         }
-
-        return stacking;
+        return result;
     }
 
     public static boolean stacking(FeatureStructure aRel1Src, FeatureStructure aRel1Tgt,
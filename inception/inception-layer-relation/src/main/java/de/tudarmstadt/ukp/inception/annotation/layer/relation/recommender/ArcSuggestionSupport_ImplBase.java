@@ -23,7 +23,6 @@ import java.lang.invoke.MethodHandles;
 import java.util.Collection;
 
 import org.apache.commons.collections4.MultiValuedMap;
-import org.apache.commons.collections4.multimap.ArrayListValuedHashMap;
 import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.Type;
 import org.apache.uima.cas.text.AnnotationFS;
@@ -45,7 +44,6 @@ import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecord;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordChangeLocation;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordUserAction;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.Position;
-import de.tudarmstadt.ukp.inception.recommendation.api.model.RelationPosition;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.SuggestionGroup;
 import de.tudarmstadt.ukp.inception.schema.api.AnnotationSchemaService;
 import de.tudarmstadt.ukp.inception.schema.api.adapter.TypeAdapter;
@@ -111,15 +109,8 @@ public abstract class ArcSuggestionSupport_ImplBase
                 .toList();
 
         // Get previously rejected suggestions
-        var groupedRecordedAnnotations = new ArrayListValuedHashMap<Position, LearningRecord>();
-        for (var learningRecord : learningRecordService.listLearningRecords(aSessionOwner, aUser,
-                aLayer)) {
-            var relationPosition = new RelationPosition(learningRecord.getOffsetSourceBegin(),
-                    learningRecord.getOffsetSourceEnd(), learningRecord.getOffsetTargetBegin(),
-                    learningRecord.getOffsetTargetEnd());
-
-            groupedRecordedAnnotations.put(relationPosition, learningRecord);
-        }
+        var recordedAnnotations = learningRecordService.getLearningRecordIndex(aSessionOwner,
+                aUser, aLayer);
 
         for (var feature : schemaService.listSupportedFeatures(aLayer)) {
             var maybeFeat = FeatureUtil.getFeature(type, feature);
@@ -178,9 +169,12 @@ public abstract class ArcSuggestionSupport_ImplBase
                 }
 
                 // Hide previously rejected suggestions
-                for (var learningRecord : groupedRecordedAnnotations.get(position)) {
-                    for (var suggestion : group) {
-                        if (suggestion.labelEquals(learningRecord.getAnnotation())) {
+                for (var suggestion : group) {
+                    var pos = suggestion.getPosition();
+                    for (var learningRecord : recordedAnnotations.get(suggestion,
+                            pos.getSourceBegin(), pos.getSourceEnd())) {
+                        if (learningRecord.getOffsetTargetBegin() == pos.getTargetBegin()
+                                && learningRecord.getOffsetTargetEnd() == pos.getTargetEnd()) {
                             suggestion.hideSuggestion(learningRecord.getUserAction());
                         }
                     }
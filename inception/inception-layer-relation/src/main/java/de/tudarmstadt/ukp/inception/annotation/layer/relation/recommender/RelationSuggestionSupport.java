@@ -20,7 +20,6 @@ package de.tudarmstadt.ukp.inception.annotation.layer.relation.recommender;
 import static de.tudarmstadt.ukp.inception.annotation.layer.relation.api.RelationLayerSupport.FEAT_REL_SOURCE;
 import static de.tudarmstadt.ukp.inception.annotation.layer.relation.api.RelationLayerSupport.FEAT_REL_TARGET;
 import static org.apache.uima.cas.text.AnnotationPredicates.colocated;
-import static org.apache.uima.fit.util.CasUtil.select;
 import static org.apache.uima.fit.util.CasUtil.selectAt;
 
 import java.lang.invoke.MethodHandles;
@@ -34,6 +33,7 @@ import org.apache.commons.collections4.MultiValuedMap;
 import org.apache.commons.collections4.multimap.ArrayListValuedHashMap;
 import org.apache.uima.cas.AnnotationBaseFS;
 import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Feature;
 import org.apache.uima.cas.Type;
 import org.apache.uima.cas.text.AnnotationFS;
 import org.apache.uima.fit.util.CasUtil;
@@ -44,6 +44,7 @@ import org.springframework.context.ApplicationEventPublisher;
 
 import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationFeature;
 import de.tudarmstadt.ukp.clarin.webanno.model.SourceDocument;
+import de.tudarmstadt.ukp.inception.annotation.layer.relation.RelationExtentIndex;
 import de.tudarmstadt.ukp.inception.annotation.layer.relation.api.RelationAdapter;
 import de.tudarmstadt.ukp.inception.annotation.layer.relation.api.RelationLayerSupport;
 import de.tudarmstadt.ukp.inception.recommendation.api.LearningRecordService;
@@ -263,7 +264,8 @@ public class RelationSuggestionSupport
             return MultiMapUtils.emptyMultiValuedMap();
         }
 
-        var annotationsInWindow = getAnnotationsInWindow(aCas, type, aWindowBegin, aWindowEnd);
+        var annotationsInWindow = getAnnotationsInWindow(aCas, type, governorFeature,
+                dependentFeature, aWindowBegin, aWindowEnd);
         var groupedAnnotations = new ArrayListValuedHashMap<Position, AnnotationFS>();
         for (var annotationFS : annotationsInWindow) {
             var source = (AnnotationFS) annotationFS.getFeatureValue(governorFeature);
@@ -366,11 +368,15 @@ public class RelationSuggestionSupport
                 .findFirst();
     }
 
-    private List<AnnotationFS> getAnnotationsInWindow(CAS aCas, Type type, int aWindowBegin,
-            int aWindowEnd)
+    private List<AnnotationFS> getAnnotationsInWindow(CAS aCas, Type type,
+            Feature aSourceFeature, Feature aTargetFeature, int aWindowBegin, int aWindowEnd)
     {
-        return select(aCas, type).stream() //
+        // The relation is anchored on its target, so any relation covered by the window has an
+        // extent which overlaps the window
+        return RelationExtentIndex.get(aCas, type, aSourceFeature, aTargetFeature, null) //
+                .select(aCas, aWindowBegin, aWindowEnd).stream() //
                 .filter(fs -> fs.coveredBy(aWindowBegin, aWindowEnd)) //
+                .map(AnnotationFS.class::cast) //
                 .toList();
     }
 }
@@ -295,6 +295,51 @@ public class RelationAdapterTest
                 .doesNotThrowAnyException();
     }
 
+    @Test
+    public void thatRelationOverlapBehaviorOnCreateConsidersChangesToRelations() throws Exception
+    {
+        var builder = new TokenBuilder<>(Token.class, Sentence.class);
+        builder.buildTokens(jcas, "This is a test .");
+
+        for (var t : select(jcas, Token.class)) {
+            var pos = new POS(jcas, t.getBegin(), t.getEnd());
+            t.setPos(pos);
+            pos.addToIndexes();
+        }
+
+        var sut = new RelationAdapterImpl(layerSupportRegistry, featureSupportRegistry, null,
+                depLayer, FEAT_REL_TARGET, FEAT_REL_SOURCE,
+                () -> asList(dependencyLayerGovernor, dependencyLayerDependent), behaviors,
+                constraintsService);
+
+        var posAnnotations = new ArrayList<>(select(jcas, POS.class));
+
+        depLayer.setOverlapMode(NO_OVERLAP);
+        var rel1 = sut.add(document, username, posAnnotations.get(0), posAnnotations.get(1),
+                jcas.getCas());
+
+        assertThatExceptionOfType(AnnotationException.class)
+                .isThrownBy(() -> sut.add(document, username, posAnnotations.get(1),
+                        posAnnotations.get(2), jcas.getCas()))
+                .withMessageContaining("no overlap or stacking");
+
+        // Once the relation is gone, its end points can be used again
+        sut.delete(document, username, jcas.getCas(), VID.of(rel1));
+        assertThatCode(() -> sut.add(document, username, posAnnotations.get(1),
+                posAnnotations.get(2), jcas.getCas())).doesNotThrowAnyException();
+
+        // A relation in the opposite direction is not stacked but it overlaps
+        depLayer.setOverlapMode(OVERLAP_ONLY);
+        assertThatCode(() -> sut.add(document, username, posAnnotations.get(2),
+                posAnnotations.get(1), jcas.getCas())).doesNotThrowAnyException();
+
+        depLayer.setOverlapMode(STACKING_ONLY);
+        assertThatExceptionOfType(AnnotationException.class)
+                .isThrownBy(() -> sut.add(document, username, posAnnotations.get(1),
+                        posAnnotations.get(2), jcas.getCas()))
+                .withMessageContaining("only stacking is allowed");
+    }
+
     @Test
     public void thatRelationOverlapBehaviorOnValidateGeneratesErrors() throws Exception
     {
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.annotation.layer.relation;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.Type;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.tudarmstadt.ukp.dkpro.core.api.lexmorph.type.pos.POS;
+import de.tudarmstadt.ukp.dkpro.core.api.segmentation.type.Token;
+import de.tudarmstadt.ukp.dkpro.core.api.syntax.type.dependency.Dependency;
+
+class RelationExtentIndexTest
+{
+    private JCas jcas;
+    private Type type;
+    private Feature governor;
+    private Feature dependent;
+
+    @BeforeEach
+    void setup() throws Exception
+    {
+        jcas = JCasFactory.createJCas();
+        jcas.setDocumentText("x".repeat(10000));
+        type = jcas.getCasType(Dependency.type);
+        governor = type.getFeatureByBaseName("Governor");
+        dependent = type.getFeatureByBaseName("Dependent");
+    }
+
+    @Test
+    void thatSelectFindsSameRelationsAsScan()
+    {
+        var rnd = new Random(42);
+        var tokens = new ArrayList<Token>();
+        for (int i = 0; i < 2000; i++) {
+            var token = new Token(jcas, i * 5, i * 5 + 4);
+            token.addToIndexes();
+            tokens.add(token);
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            var gov = tokens.get(rnd.nextInt(tokens.size()));
+            var dep = tokens.get(rnd.nextInt(tokens.size()));
+            addDependency(gov, dep);
+        }
+
+        var sut = RelationExtentIndex.get(jcas.getCas(), type, governor, dependent, null);
+
+        assertThat(sut.size()).isEqualTo(1000);
+
+        for (int i = 0; i < 100; i++) {
+            var begin = rnd.nextInt(10000);
+            var end = begin + rnd.nextInt(500);
+
+            var expected = new ArrayList<Annotation>();
+            for (var rel : jcas.select(Dependency.class)) {
+                var relBegin = min(rel.getGovernor().getBegin(), rel.getDependent().getBegin());
+                var relEnd = max(rel.getGovernor().getEnd(), rel.getDependent().getEnd());
+                if (relBegin <= end && relEnd >= begin) {
+                    expected.add(rel);
+                }
+            }
+
+            assertThat(sut.select(jcas.getCas(), begin, end)).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void thatIndexIsRebuiltWhenRelationsChange()
+    {
+        var t1 = new Token(jcas, 0, 4);
+        t1.addToIndexes();
+        var t2 = new Token(jcas, 100, 104);
+        t2.addToIndexes();
+        var t3 = new Token(jcas, 200, 204);
+        t3.addToIndexes();
+
+        var rel1 = addDependency(t1, t2);
+
+        var index1 = RelationExtentIndex.get(jcas.getCas(), type, governor, dependent, null);
+        assertThat(index1.select(jcas.getCas(), 50, 60)).containsExactly(rel1);
+        assertThat(RelationExtentIndex.get(jcas.getCas(), type, governor, dependent, null))
+                .isSameAs(index1);
+
+        var rel2 = addDependency(t1, t3);
+        assertThat(RelationExtentIndex.get(jcas.getCas(), type, governor, dependent, null)
+                .select(jcas.getCas(), 150, 160)).containsExactly(rel2);
+
+        rel2.removeFromIndexes();
+        assertThat(RelationExtentIndex.get(jcas.getCas(), type, governor, dependent, null)
+                .select(jcas.getCas(), 150, 160)).isEmpty();
+    }
+
+    @Test
+    void thatUnrelatedEditsDoNotRebuildIndex()
+    {
+        var t1 = new Token(jcas, 0, 4);
+        t1.addToIndexes();
+        var t2 = new Token(jcas, 100, 104);
+        t2.addToIndexes();
+        addDependency(t1, t2);
+
+        Set<RelationExtentIndex> builds = Collections.newSetFromMap(new IdentityHashMap<>());
+        builds.add(RelationExtentIndex.get(jcas.getCas(), type, governor, dependent, null));
+
+        // Edits to other layers allocate new feature structures and change the CAS
+        for (int i = 0; i < 10; i++) {
+            var token = new Token(jcas, 300 + i * 10, 304 + i * 10);
+            token.addToIndexes();
+            builds.add(RelationExtentIndex.get(jcas.getCas(), type, governor, dependent, null));
+
+            var pos = new POS(jcas, token.getBegin(), token.getEnd());
+            pos.addToIndexes();
+            token.setPos(pos);
+            builds.add(RelationExtentIndex.get(jcas.getCas(), type, governor, dependent, null));
+
+            token.removeFromIndexes();
+            builds.add(RelationExtentIndex.get(jcas.getCas(), type, governor, dependent, null));
+        }
+
+        assertThat(builds).hasSize(1);
+    }
+
+    @Test
+    void thatInvalidateOfTypeDropsIndexAfterInPlaceUpdate()
+    {
+        var t1 = new Token(jcas, 0, 4);
+        t1.addToIndexes();
+        var t2 = new Token(jcas, 100, 104);
+        t2.addToIndexes();
+        var t3 = new Token(jcas, 300, 304);
+        t3.addToIndexes();
+
+        var rel = addDependency(t1, t2);
+
+        assertThat(RelationExtentIndex.get(jcas.getCas(), type, governor, dependent, null)
+                .select(jcas.getCas(), 200, 210)).isEmpty();
+
+        // Changing an end point in place is reported by the relation adapter via an event
+        rel.setDependent(t3);
+        RelationExtentIndex.invalidate(jcas.getCas(), type);
+
+        assertThat(RelationExtentIndex.get(jcas.getCas(), type, governor, dependent, null)
+                .select(jcas.getCas(), 200, 210)).containsExactly(rel);
+    }
+
+    @Test
+    void thatInvalidateDropsIndexAfterMove()
+    {
+        var t1 = new Token(jcas, 0, 4);
+        t1.addToIndexes();
+        var t2 = new Token(jcas, 100, 104);
+        t2.addToIndexes();
+
+        var rel = addDependency(t1, t2);
+
+        assertThat(RelationExtentIndex.get(jcas.getCas(), type, governor, dependent, null)
+                .select(jcas.getCas(), 300, 310)).isEmpty();
+
+        t2.removeFromIndexes();
+        t2.setBegin(300);
+        t2.setEnd(304);
+        t2.addToIndexes();
+        RelationExtentIndex.invalidate(jcas.getCas());
+
+        assertThat(RelationExtentIndex.get(jcas.getCas(), type, governor, dependent, null)
+                .select(jcas.getCas(), 300, 310)).containsExactly(rel);
+    }
+
+    private Dependency addDependency(Token aGovernor, Token aDependent)
+    {
+        var dep = new Dependency(jcas, aDependent.getBegin(), aDependent.getEnd());
+        dep.setGovernor(aGovernor);
+        dep.setDependent(aDependent);
+        dep.addToIndexes();
+        return dep;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.annotation.layer.relation.behavior;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.Type;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.jcas.JCas;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.tudarmstadt.ukp.dkpro.core.api.lexmorph.type.pos.POS;
+import de.tudarmstadt.ukp.dkpro.core.api.segmentation.type.Token;
+import de.tudarmstadt.ukp.dkpro.core.api.syntax.type.dependency.Dependency;
+
+class RelationEndpointIndexTest
+{
+    private JCas jcas;
+    private Type type;
+    private Feature governor;
+    private Feature dependent;
+
+    private Token t1;
+    private Token t2;
+    private Token t3;
+
+    @BeforeEach
+    void setup() throws Exception
+    {
+        jcas = JCasFactory.createJCas();
+        jcas.setDocumentText("x".repeat(1000));
+        type = jcas.getCasType(Dependency.type);
+        governor = type.getFeatureByBaseName("Governor");
+        dependent = type.getFeatureByBaseName("Dependent");
+
+        t1 = addToken(0, 4);
+        t2 = addToken(100, 104);
+        t3 = addToken(200, 204);
+    }
+
+    @Test
+    void thatUnrelatedEditsDoNotRebuildIndex()
+    {
+        addDependency(t1, t2);
+        addDependency(t2, t3);
+
+        Set<RelationEndpointIndex> builds = Collections.newSetFromMap(new IdentityHashMap<>());
+        builds.add(index());
+
+        // Edits to other layers allocate new feature structures and change the CAS
+        for (int i = 0; i < 10; i++) {
+            var token = addToken(300 + i * 10, 304 + i * 10);
+            builds.add(index());
+
+            var pos = new POS(jcas, token.getBegin(), token.getEnd());
+            pos.setPosValue("NN");
+            pos.addToIndexes();
+            token.setPos(pos);
+            builds.add(index());
+
+            token.removeFromIndexes();
+            builds.add(index());
+        }
+
+        assertThat(builds).hasSize(1);
+    }
+
+    @Test
+    void thatIndexIsRebuiltWhenRelationsAreAddedOrRemoved()
+    {
+        var rel1 = addDependency(t1, t2);
+
+        var index1 = index();
+        assertThat(index1.hasOverlapping(t2, t3)).isTrue();
+        assertThat(index1.hasOverlapping(t3, t3)).isFalse();
+
+        var rel2 = addDependency(t3, t3);
+        var index2 = index();
+        assertThat(index2).isNotSameAs(index1);
+        assertThat(index2.hasStacking(t3, t3)).isTrue();
+
+        rel1.removeFromIndexes();
+        var index3 = index();
+        assertThat(index3).isNotSameAs(index2);
+        assertThat(index3.hasOverlapping(t1, t2)).isFalse();
+
+        rel2.removeFromIndexes();
+        assertThat(index().hasStacking(t3, t3)).isFalse();
+    }
+
+    @Test
+    void thatInvalidateDropsIndexAfterInPlaceUpdate()
+    {
+        var rel = addDependency(t1, t2);
+
+        assertThat(index().hasStacking(t1, t3)).isFalse();
+
+        // Changing an end point in place is reported by the relation adapter via an event
+        rel.setDependent(t3);
+        RelationEndpointIndex.invalidate(jcas.getCas(), type);
+
+        assertThat(index().hasStacking(t1, t3)).isTrue();
+    }
+
+    private RelationEndpointIndex index()
+    {
+        return RelationEndpointIndex.get(jcas.getCas(), type, governor, dependent);
+    }
+
+    private Token addToken(int aBegin, int aEnd)
+    {
+        var token = new Token(jcas, aBegin, aEnd);
+        token.addToIndexes();
+        return token;
+    }
+
+    private Dependency addDependency(Token aGovernor, Token aDependent)
+    {
+        var dep = new Dependency(jcas, aDependent.getBegin(), aDependent.getEnd());
+        dep.setGovernor(aGovernor);
+        dep.setDependent(aDependent);
+        dep.addToIndexes();
+        return dep;
+    }
+}
@@ -74,6 +74,7 @@ import de.tudarmstadt.ukp.inception.recommendation.api.SuggestionSupport_ImplBas
 import de.tudarmstadt.ukp.inception.recommendation.api.model.AnnotationSuggestion;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecord;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordChangeLocation;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordIndex;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordUserAction;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.Offset;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.Predictions;
@@ -239,7 +240,7 @@ public class SpanSuggestionSupport
                 .toList();
 
         // Get all the skipped/rejected entries for the current layer
-        var recordedAnnotations = learningRecordService.listLearningRecords(aSessionOwner,
+        var recordedAnnotations = learningRecordService.getLearningRecordIndex(aSessionOwner,
                 aDataOwner, aLayer);
 
         for (var feature : schemaService.listSupportedFeatures(aLayer)) {
@@ -480,17 +481,12 @@ public class SpanSuggestionSupport
     }
 
     static void hideSuggestionsRejectedOrSkipped(SpanSuggestion aSuggestion,
-            List<LearningRecord> aRecordedRecommendations)
+            LearningRecordIndex aRecordedRecommendations)
     {
-        aRecordedRecommendations.stream() //
-                .filter(r -> Objects.equals(r.getLayer().getId(), aSuggestion.getLayerId())) //
-                .filter(r -> Objects.equals(r.getAnnotationFeature().getName(),
-                        aSuggestion.getFeature())) //
-                .filter(r -> Objects.equals(r.getSourceDocument().getId(),
-                        aSuggestion.getDocumentId())) //
-                .filter(r -> aSuggestion.labelEquals(r.getAnnotation())) //
-                .filter(r -> r.getOffsetBegin() == aSuggestion.getBegin()
-                        && r.getOffsetEnd() == aSuggestion.getEnd()) //
+        // The index only returns records on the same layer, document and feature and with the
+        // same label and offsets as the suggestion
+        aRecordedRecommendations.get(aSuggestion, aSuggestion.getBegin(), aSuggestion.getEnd())
+                .stream() //
                 .filter(r -> aSuggestion.hideSuggestion(r.getUserAction())) //
                 .findAny();
     }
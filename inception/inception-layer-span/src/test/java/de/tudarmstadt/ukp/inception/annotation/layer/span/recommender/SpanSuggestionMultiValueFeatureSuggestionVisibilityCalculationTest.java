@@ -19,7 +19,6 @@ package de.tudarmstadt.ukp.inception.annotation.layer.span.recommender;
 
 import static de.tudarmstadt.ukp.inception.annotation.layer.span.recommender.Fixtures.getInvisibleSuggestions;
 import static java.util.Arrays.asList;
-import static java.util.Collections.emptyList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.when;
@@ -45,6 +44,7 @@ import de.tudarmstadt.ukp.clarin.webanno.model.SourceDocument;
 import de.tudarmstadt.ukp.inception.annotation.feature.multistring.MultiValueStringFeatureSupport;
 import de.tudarmstadt.ukp.inception.annotation.feature.string.StringFeatureSupport;
 import de.tudarmstadt.ukp.inception.recommendation.api.LearningRecordService;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordIndex;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.Recommender;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.SpanSuggestion;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.SuggestionDocumentGroup;
@@ -104,8 +104,8 @@ public class SpanSuggestionMultiValueFeatureSuggestionVisibilityCalculationTest
 
         cas = CasFactory.createCas(tsd);
 
-        doReturn(emptyList()).when(learningRecordService).listLearningRecords(TEST_USER, TEST_USER,
-                layer);
+        doReturn(new LearningRecordIndex()).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, layer);
         when(annoService.listSupportedFeatures(layer)).thenReturn(asList(feature));
 
         suggestionTemplate = SpanSuggestion.builder() //
@@ -24,7 +24,6 @@ import static de.tudarmstadt.ukp.inception.annotation.layer.span.recommender.Spa
 import static de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordUserAction.REJECTED;
 import static de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordUserAction.SKIPPED;
 import static java.util.Arrays.asList;
-import static java.util.Collections.emptyList;
 import static java.util.stream.Collectors.toList;
 import static org.apache.uima.cas.CAS.TYPE_NAME_STRING;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -52,6 +51,7 @@ import de.tudarmstadt.ukp.inception.annotation.feature.string.StringFeatureSuppo
 import de.tudarmstadt.ukp.inception.recommendation.api.LearningRecordService;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.AnnotationSuggestion;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecord;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordIndex;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordUserAction;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.Recommender;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.SpanSuggestion;
@@ -107,8 +107,8 @@ public class SpanSuggestionVisibilityCalculationTest
     @Test
     public void testCalculateVisibilityNoRecordsAllHidden() throws Exception
     {
-        doReturn(new ArrayList<>()).when(learningRecordService).listLearningRecords(TEST_USER,
-                TEST_USER, layer);
+        doReturn(new LearningRecordIndex()).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, layer);
 
         var cas = getTestCas();
         var suggestions = makeSpanSuggestionGroup(doc, feature,
@@ -135,8 +135,8 @@ public class SpanSuggestionVisibilityCalculationTest
     @Test
     public void testCalculateVisibilityNoRecordsNotHidden() throws Exception
     {
-        doReturn(new ArrayList<>()).when(learningRecordService).listLearningRecords(TEST_USER,
-                TEST_USER, layer);
+        doReturn(new LearningRecordIndex()).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, layer);
 
         var cas = getTestCas();
         var suggestions = makeSpanSuggestionGroup(doc, feature, new int[][] { { 1, 5, 10 } });
@@ -163,8 +163,8 @@ public class SpanSuggestionVisibilityCalculationTest
         rejectedRecord.setOffsetBegin(5);
         rejectedRecord.setOffsetEnd(10);
         records.add(rejectedRecord);
-        doReturn(records).when(learningRecordService).listLearningRecords(TEST_USER, TEST_USER,
-                layer);
+        doReturn(new LearningRecordIndex(records)).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, layer);
 
         var cas = getTestCas();
         var suggestions = makeSpanSuggestionGroup(doc, feature, new int[][] { { 1, 5, 10 } });
@@ -186,8 +186,8 @@ public class SpanSuggestionVisibilityCalculationTest
     @Test
     public void thatVisibilityIsRestoredWhenOverlappingAnnotationIsRemoved() throws Exception
     {
-        doReturn(new ArrayList<>()).when(learningRecordService).listLearningRecords(TEST_USER,
-                TEST_USER, layer);
+        doReturn(new LearningRecordIndex()).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, layer);
 
         var cas = getTestCas();
         var suggestions = makeSpanSuggestionGroup(doc, feature,
@@ -219,8 +219,8 @@ public class SpanSuggestionVisibilityCalculationTest
     @Test
     public void thatOverlappingSuggestionsAreNotHiddenWhenStackingIsEnabled() throws Exception
     {
-        doReturn(emptyList()).when(learningRecordService).listLearningRecords(TEST_USER, TEST_USER,
-                layer);
+        doReturn(new LearningRecordIndex()).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, layer);
 
         layer.setOverlapMode(OverlapMode.ANY_OVERLAP);
         var rec = Recommender.builder() //
@@ -313,7 +313,7 @@ public class SpanSuggestionVisibilityCalculationTest
                 .withPosition(0, 10) //
                 .build();
         assertThat(docSuggestion.isVisible()).isTrue();
-        hideSuggestionsRejectedOrSkipped(docSuggestion, records);
+        hideSuggestionsRejectedOrSkipped(docSuggestion, new LearningRecordIndex(records));
         assertThat(docSuggestion.isVisible()) //
                 .as("Suggestion in same document/layer/feature should be hidden") //
                 .isFalse();
@@ -326,7 +326,7 @@ public class SpanSuggestionVisibilityCalculationTest
                 .withPosition(0, 10) //
                 .build();
         assertThat(doc2Suggestion.isVisible()).isTrue();
-        hideSuggestionsRejectedOrSkipped(doc2Suggestion, records);
+        hideSuggestionsRejectedOrSkipped(doc2Suggestion, new LearningRecordIndex(records));
         assertThat(doc2Suggestion.isVisible()) //
                 .as("Suggestion in other document should not be hidden") //
                 .isTrue();
@@ -334,7 +334,7 @@ public class SpanSuggestionVisibilityCalculationTest
         var doc3Suggestion = SpanSuggestion.builder().withRecommender(rec2).withDocument(doc)
                 .withLabel(label).withPosition(0, 10).build();
         assertThat(doc3Suggestion.isVisible()).isTrue();
-        hideSuggestionsRejectedOrSkipped(doc3Suggestion, records);
+        hideSuggestionsRejectedOrSkipped(doc3Suggestion, new LearningRecordIndex(records));
         assertThat(doc3Suggestion.isVisible()) //
                 .as("Suggestion in other layer should not be hidden") //
                 .isTrue();
@@ -342,7 +342,7 @@ public class SpanSuggestionVisibilityCalculationTest
         var doc4Suggestion = SpanSuggestion.builder().withRecommender(rec3).withDocument(doc)
                 .withLabel(label).withPosition(0, 10).build();
         assertThat(doc4Suggestion.isVisible()).isTrue();
-        hideSuggestionsRejectedOrSkipped(doc3Suggestion, records);
+        hideSuggestionsRejectedOrSkipped(doc3Suggestion, new LearningRecordIndex(records));
         assertThat(doc4Suggestion.isVisible()) //
                 .as("Suggestion in other feature should not be hidden") //
                 .isTrue();
@@ -378,7 +378,7 @@ public class SpanSuggestionVisibilityCalculationTest
                 .withPosition(0, 10) //
                 .build();
         assertThat(docSuggestion.isVisible()).isTrue();
-        hideSuggestionsRejectedOrSkipped(docSuggestion, records);
+        hideSuggestionsRejectedOrSkipped(docSuggestion, new LearningRecordIndex(records));
         assertThat(docSuggestion.isVisible()) //
                 .as("Suggestion in same document/layer/feature should be hidden") //
                 .isFalse();
@@ -393,14 +393,14 @@ public class SpanSuggestionVisibilityCalculationTest
                 .withPosition(0, 10) //
                 .build();
         assertThat(doc2Suggestion.isVisible()).isTrue();
-        hideSuggestionsRejectedOrSkipped(doc2Suggestion, records);
+        hideSuggestionsRejectedOrSkipped(doc2Suggestion, new LearningRecordIndex(records));
         assertThat(doc2Suggestion.isVisible()) //
                 .as("Suggestion in other document should not be hidden") //
                 .isTrue();
 
         var doc3Suggestion = SpanSuggestion.builder().withRecommender(rec2).withDocument(doc)
                 .withLabel(label).withPosition(0, 10).build();
-        hideSuggestionsRejectedOrSkipped(doc3Suggestion, records);
+        hideSuggestionsRejectedOrSkipped(doc3Suggestion, new LearningRecordIndex(records));
         assertThat(doc3Suggestion.isVisible()) //
                 .as("Suggestion in other layer should not be hidden") //
                 .isTrue();
@@ -408,7 +408,7 @@ public class SpanSuggestionVisibilityCalculationTest
         var doc4Suggestion = SpanSuggestion.builder().withRecommender(rec3).withDocument(doc)
                 .withLabel(label).withPosition(0, 10).build();
         assertThat(doc4Suggestion.isVisible()).isTrue();
-        hideSuggestionsRejectedOrSkipped(doc3Suggestion, records);
+        hideSuggestionsRejectedOrSkipped(doc3Suggestion, new LearningRecordIndex(records));
         assertThat(doc4Suggestion.isVisible()) //
                 .as("Suggestion in other feature should not be hidden") //
                 .isTrue();
@@ -427,8 +427,8 @@ public class SpanSuggestionVisibilityCalculationTest
                 .withType(TYPE_NAME_STRING) //
                 .build();
         doReturn(asList(feature, featureB)).when(annoService).listSupportedFeatures(layer);
-        doReturn(emptyList()).when(learningRecordService).listLearningRecords(TEST_USER, TEST_USER,
-                layer);
+        doReturn(new LearningRecordIndex()).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, layer);
 
         // One recommender (e.g. a multi-feature extractor) producing no-label for two features
         var rec1 = Recommender.builder().withId(1l).withName("Rec1").withLayer(layer)
@@ -476,8 +476,8 @@ public class SpanSuggestionVisibilityCalculationTest
         // the same SuggestionGroup and must both remain visible so the lazy detail can show
         // both recommenders and their scores.
         doReturn(asList(feature)).when(annoService).listSupportedFeatures(layer);
-        doReturn(emptyList()).when(learningRecordService).listLearningRecords(TEST_USER, TEST_USER,
-                layer);
+        doReturn(new LearningRecordIndex()).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, layer);
 
         var rec1 = Recommender.builder().withId(1l).withName("Rec1").withLayer(layer)
                 .withFeature(feature).build();
@@ -529,8 +529,8 @@ public class SpanSuggestionVisibilityCalculationTest
                 .withType(TYPE_NAME_STRING) //
                 .build();
         doReturn(asList(feature, featureB)).when(annoService).listSupportedFeatures(layer);
-        doReturn(emptyList()).when(learningRecordService).listLearningRecords(TEST_USER, TEST_USER,
-                layer);
+        doReturn(new LearningRecordIndex()).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, layer);
 
         var rec1 = Recommender.builder().withId(1l).withName("Rec1").withLayer(layer)
                 .withFeature(feature).build();
@@ -576,8 +576,8 @@ public class SpanSuggestionVisibilityCalculationTest
                 .withType(TYPE_NAME_STRING) //
                 .build();
         doReturn(asList(feature, featureB)).when(annoService).listSupportedFeatures(layer);
-        doReturn(emptyList()).when(learningRecordService).listLearningRecords(TEST_USER, TEST_USER,
-                layer);
+        doReturn(new LearningRecordIndex()).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, layer);
 
         var rec1 = Recommender.builder() //
                 .withId(1l) //
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.processing;
+
+import static java.lang.Thread.MIN_PRIORITY;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.BooleanSupplier;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.tudarmstadt.ukp.clarin.webanno.api.casstorage.session.CasStorageSession;
+import de.tudarmstadt.ukp.clarin.webanno.model.SourceDocument;
+
+/**
+ * Processes documents in a three-stage pipeline:
+ * <ol>
+ * <li><b>prefetch</b> - a single thread loads the data required for the next documents ahead of
+ * time (e.g. annotator CASes);</li>
+ * <li><b>process</b> - a bounded pool of workers processes the prefetched data, one document per
+ * worker;</li>
+ * <li><b>write-behind</b> - the results are handed to a sink on the thread calling
+ * {@link #run}, in the order of the input documents, while the workers already continue with the
+ * next documents.</li>
+ * </ol>
+ * The number of documents in flight is bounded, so only a limited number of documents are held in
+ * memory at any time. The prefetch and process stages each run in their own
+ * {@link CasStorageSession} which is closed when the stage completes. Thus, their results must not
+ * contain CASes obtained with exclusive access. Use shared read-only or unmanaged access instead.
+ * CASes that are written in the write-behind stage are then saved under the exclusive access lock
+ * of the CAS storage which also detects concurrent modifications.
+ *
+ * @param <P>
+ *            the type of the prefetched data.
+ * @param <R>
+ *            the type of the processing result.
+ */
+public class DocumentPipeline<P, R>
+    implements AutoCloseable
+{
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final Stage<SourceDocument, P> prefetchStage;
+    private final Stage<P, R> processStage;
+    private final int maxInFlight;
+
+    private final ExecutorService prefetchExecutor;
+    private final ExecutorService workerExecutor;
+
+    /**
+     * @param aName
+     *            a name used for the pipeline threads.
+     * @param aConcurrency
+     *            the number of workers in the process stage.
+     * @param aPrefetchStage
+     *            the prefetch stage.
+     * @param aProcessStage
+     *            the process stage.
+     */
+    public DocumentPipeline(String aName, int aConcurrency, Stage<SourceDocument, P> aPrefetchStage,
+            Stage<P, R> aProcessStage)
+    {
+        var concurrency = Math.max(1, aConcurrency);
+
+        prefetchStage = aPrefetchStage;
+        processStage = aProcessStage;
+        // Allow the prefetch stage to run ahead of the workers by up to one document per worker
+        maxInFlight = concurrency * 2;
+
+        prefetchExecutor = Executors.newSingleThreadExecutor(threadFactory(aName + "-prefetch"));
+        workerExecutor = Executors.newFixedThreadPool(concurrency,
+                threadFactory(aName + "-worker"));
+    }
+
+    /**
+     * Runs the given documents through the pipeline.
+     * 
+     * @param aDocuments
+     *            the documents to process.
+     * @param aCancelled
+     *            checked before every document. If it returns {@code true}, no further documents
+     *            are scheduled and documents in flight are discarded without being passed to the
+     *            sink.
+     * @param aSink
+     *            the write-behind stage. It is called on the thread calling this method.
+     * @return {@code false} if the run was cancelled.
+     */
+    public boolean run(Collection<SourceDocument> aDocuments, BooleanSupplier aCancelled,
+            Sink<R> aSink)
+    {
+        var pending = aDocuments.iterator();
+        var inFlight = new ArrayDeque<InFlight<R>>();
+
+        try {
+            while (true) {
+                while (inFlight.size() < maxInFlight && pending.hasNext()
+                        && !aCancelled.getAsBoolean()) {
+                    var doc = pending.next();
+                    var future = CompletableFuture //
+                            .supplyAsync(() -> inSession(prefetchStage, doc), prefetchExecutor) //
+                            .thenApplyAsync(p -> inSession(processStage, p), workerExecutor);
+                    inFlight.add(new InFlight<>(doc, future));
+                }
+
+                if (aCancelled.getAsBoolean()) {
+                    return false;
+                }
+
+                var next = inFlight.poll();
+                if (next == null) {
+                    return true;
+                }
+
+                R result;
+                try {
+                    result = next.result().get();
+                }
+                catch (ExecutionException e) {
+                    aSink.failed(next.document(), unwrap(e.getCause()));
+                    continue;
+                }
+
+                try {
+                    aSink.accept(next.document(), result);
+                }
+                catch (Exception e) {
+                    aSink.failed(next.document(), e);
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        finally {
+            inFlight.forEach(f -> f.result().cancel(false));
+        }
+    }
+
+    private static <I, O> O inSession(Stage<I, O> aStage, I aInput)
+    {
+        try (var session = CasStorageSession.open()) {
+            return aStage.apply(aInput);
+        }
+        catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static Throwable unwrap(Throwable aThrowable)
+    {
+        if (aThrowable instanceof CompletionException && aThrowable.getCause() != null) {
+            return aThrowable.getCause();
+        }
+        return aThrowable;
+    }
+
+    @Override
+    public void close()
+    {
+        prefetchExecutor.shutdownNow();
+        workerExecutor.shutdownNow();
+
+        try {
+            if (!prefetchExecutor.awaitTermination(30, SECONDS)
+                    || !workerExecutor.awaitTermination(30, SECONDS)) {
+                LOG.warn("Document pipeline did not terminate in time");
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory threadFactory(String aName)
+    {
+        return new BasicThreadFactory.Builder() //
+                .daemon(true) //
+                .namingPattern(aName + "-%d") //
+                .priority(MIN_PRIORITY) //
+                .build();
+    }
+
+    private record InFlight<R>(SourceDocument document, CompletableFuture<R> result) {}
+
+    @FunctionalInterface
+    public interface Stage<I, O>
+    {
+        O apply(I aInput) throws Exception;
+    }
+
+    public interface Sink<R>
+    {
+        void accept(SourceDocument aDocument, R aResult) throws Exception;
+
+        void failed(SourceDocument aDocument, Throwable aError);
+    }
+}
@@ -28,11 +28,13 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
 
 import de.tudarmstadt.ukp.clarin.webanno.security.UserDao;
+import de.tudarmstadt.ukp.inception.documents.api.RepositoryProperties;
 import de.tudarmstadt.ukp.inception.processing.BulkProcessingPageMenuItem;
 import de.tudarmstadt.ukp.inception.processing.BulkProcessor;
 import de.tudarmstadt.ukp.inception.processing.BulkProcessorRegistry;
 import de.tudarmstadt.ukp.inception.processing.BulkProcessorRegistryImpl;
 import de.tudarmstadt.ukp.inception.processing.curation.BulkCurationProcessor;
+import de.tudarmstadt.ukp.inception.processing.recommender.BulkPredictionCheckpointCleaner;
 import de.tudarmstadt.ukp.inception.processing.recommender.BulkRecommenderProcessor;
 import de.tudarmstadt.ukp.inception.processing.tagset.TagSetExtractionProcessor;
 import de.tudarmstadt.ukp.inception.project.api.ProjectService;
@@ -74,6 +76,13 @@ public class ProcessingAutoConfiguration
         return new BulkRecommenderProcessor();
     }
 
+    @Bean
+    public BulkPredictionCheckpointCleaner bulkPredictionCheckpointCleaner(
+            RepositoryProperties aRepositoryProperties)
+    {
+        return new BulkPredictionCheckpointCleaner(aRepositoryProperties);
+    }
+
     @ConditionalOnProperty(prefix = "bulk-processing.process.extract-tagset", //
             name = "enabled", havingValue = "true", matchIfMissing = true)
     @Bean
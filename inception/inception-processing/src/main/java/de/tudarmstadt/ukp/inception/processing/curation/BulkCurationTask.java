@@ -17,7 +17,7 @@
  */
 package de.tudarmstadt.ukp.inception.processing.curation;
 
-import static de.tudarmstadt.ukp.clarin.webanno.api.casstorage.CasAccessMode.EXCLUSIVE_WRITE_ACCESS;
+import static de.tudarmstadt.ukp.clarin.webanno.api.casstorage.CasAccessMode.UNMANAGED_ACCESS;
 import static de.tudarmstadt.ukp.clarin.webanno.api.casstorage.CasUpgradeMode.FORCE_CAS_UPGRADE;
 import static de.tudarmstadt.ukp.clarin.webanno.curation.casdiff.CasDiff.doDiff;
 import static de.tudarmstadt.ukp.clarin.webanno.model.AnnotationDocumentState.FINISHED;
@@ -27,6 +27,7 @@ import static de.tudarmstadt.ukp.clarin.webanno.model.SourceDocumentState.CURATI
 import static de.tudarmstadt.ukp.clarin.webanno.model.SourceDocumentState.CURATION_IN_PROGRESS;
 import static de.tudarmstadt.ukp.inception.scheduling.ProgressScope.SCOPE_DOCUMENTS;
 import static de.tudarmstadt.ukp.inception.scheduling.TaskScope.PROJECT;
+import static java.lang.System.currentTimeMillis;
 import static java.util.Objects.requireNonNull;
 
 import java.io.IOException;
@@ -34,8 +35,10 @@ import java.lang.invoke.MethodHandles;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
 import org.apache.uima.UIMAException;
 import org.apache.uima.cas.CAS;
 import org.slf4j.Logger;
@@ -45,6 +48,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import de.tudarmstadt.ukp.clarin.webanno.api.casstorage.session.CasStorageSession;
 import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationLayer;
 import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationSet;
+import de.tudarmstadt.ukp.clarin.webanno.model.SourceDocument;
 import de.tudarmstadt.ukp.inception.curation.api.DiffAdapterRegistry;
 import de.tudarmstadt.ukp.inception.curation.merge.strategy.MergeStrategy;
 import de.tudarmstadt.ukp.inception.curation.merge.strategy.MergeStrategyFactory;
@@ -53,7 +57,10 @@ import de.tudarmstadt.ukp.inception.curation.service.CurationDocumentService;
 import de.tudarmstadt.ukp.inception.curation.service.CurationMergeService;
 import de.tudarmstadt.ukp.inception.curation.service.CurationService;
 import de.tudarmstadt.ukp.inception.documents.api.DocumentService;
+import de.tudarmstadt.ukp.inception.processing.DocumentPipeline;
+import de.tudarmstadt.ukp.inception.processing.DocumentPipeline.Sink;
 import de.tudarmstadt.ukp.inception.recommendation.tasks.RecommendationTask_ImplBase;
+import de.tudarmstadt.ukp.inception.scheduling.ProgressScope;
 import de.tudarmstadt.ukp.inception.scheduling.ProjectTask;
 
 public class BulkCurationTask
@@ -64,6 +71,9 @@ public class BulkCurationTask
 
     private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+    private static final int DEFAULT_CONCURRENCY = Math.max(1,
+            Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+
     private @Autowired DocumentService documentService;
     private @Autowired CurationDocumentService curationDocumentService;
     private @Autowired CurationMergeService curationMergeService;
@@ -73,6 +83,7 @@ public class BulkCurationTask
     private final List<AnnotationLayer> annotationLayers;
     private final CurationWorkflow curationWorkflow;
     private final String targetUser;
+    private final int concurrency;
 
     public BulkCurationTask(Builder<? extends Builder<?>> aBuilder)
     {
@@ -81,6 +92,7 @@ public class BulkCurationTask
         targetUser = aBuilder.targetUser;
         annotationLayers = aBuilder.annotationLayers;
         curationWorkflow = aBuilder.curationWorkflow;
+        concurrency = aBuilder.concurrency;
     }
 
     @Override
@@ -103,66 +115,129 @@ public class BulkCurationTask
                 return;
             }
 
-            progress.update(up -> up.info("Preparing to process %d curatable documents...",
-                    curatableDocuments.size()));
-
-            for (var doc : curatableDocuments) {
-                if (getMonitor().isCancelled()) {
-                    progress.update(up -> up.info("Task cancelled"));
-                    return;
-                }
+            progress.update(up -> up.info(
+                    "Preparing to process %d curatable documents using %d workers...",
+                    curatableDocuments.size(), concurrency));
+
+            var startTime = currentTimeMillis();
+            var processed = new AtomicInteger();
+
+            boolean completed;
+            try (var pipeline = new DocumentPipeline<PrefetchedDocument, MergedDocument>(TYPE,
+                    concurrency, this::prefetch, prefetched -> merge(prefetched, mergeStrategy))) {
+                completed = pipeline.run(curatableDocuments, getMonitor()::isCancelled,
+                        new Sink<>()
+                        {
+                            @Override
+                            public void accept(SourceDocument aDocument, MergedDocument aMerged)
+                                throws IOException
+                            {
+                                write(aMerged, progress);
+                                processed.incrementAndGet();
+                                progress.update(up -> up.increment() //
+                                        .status("%s (%s)", aDocument.getName(),
+                                                throughput(processed.get(), startTime)));
+                            }
+
+                            @Override
+                            public void failed(SourceDocument aDocument, Throwable aError)
+                            {
+                                LOG.error("Error auto-curating {}", aDocument, aError);
+                                progress.update(up -> up.increment() //
+                                        .error("Error auto-curating [%s]: %s",
+                                                aDocument.getName(), aError.getMessage()));
+                            }
+                        });
+            }
 
-                progress.update(up -> up.increment() //
-                        .status("%s", doc.getName()) //
-                        .info("Processing [%s]", doc.getName()));
-
-                try (var session = CasStorageSession.openNested()) {
-                    var users = curationDocumentService.listCuratableUsers(doc);
-                    users.removeIf(u -> targetUser.equals(u.getUsername()));
-
-                    var targetCas = documentService.readAnnotationCas(doc,
-                            AnnotationSet.forUser(targetUser), FORCE_CAS_UPGRADE,
-                            EXCLUSIVE_WRITE_ACCESS);
-
-                    var annotatorCasses = documentService.readAllCasesSharedNoUpgrade(doc, users);
-
-                    // FIXME: should merging not overwrite the current users annos? (can result in
-                    // deleting the users annotations!!!), currently fixed by warn message to user
-                    // prepare merged CAS
-                    curationMergeService.mergeCasses(doc, targetUser, targetCas, annotatorCasses,
-                            mergeStrategy, annotationLayers, true);
-
-                    var targetAnnDoc = documentService.createOrGetAnnotationDocument(doc,
-                            AnnotationSet.forUser(targetUser));
-                    documentService.writeAnnotationCas(targetCas, targetAnnDoc,
-                            EXPLICIT_ANNOTATOR_USER_ACTION);
-
-                    var allIsCurated = noUncuratedDifferencesRemaining(targetCas, annotatorCasses);
-                    if (allIsCurated) {
-                        progress.update(
-                                up -> up.info("[%s] has been fully curated", doc.getName()));
-                        LOG.debug("{} has been fully curated", doc);
-                        documentService.setAnnotationDocumentState(targetAnnDoc, FINISHED,
-                                EXPLICIT_ANNOTATOR_USER_ACTION);
-                        documentService.setSourceDocumentState(doc, CURATION_FINISHED);
-                    }
-                    else {
-                        progress.update(up -> up.info(
-                                "[%s] has remaining differences that need to be curated manually",
-                                doc.getName()));
-                        LOG.debug("{} has remaining differences that need to be curated manually",
-                                doc);
-                        documentService.setAnnotationDocumentState(targetAnnDoc, IN_PROGRESS,
-                                EXPLICIT_ANNOTATOR_USER_ACTION);
-                        documentService.setSourceDocumentState(doc, CURATION_IN_PROGRESS);
-                    }
-                }
+            if (!completed) {
+                progress.update(up -> up.info("Task cancelled"));
+                return;
             }
 
-            progress.update(up -> up.status("Curation complete").statusToLog());
+            progress.update(up -> up.status("Curation complete: %d documents (%s)",
+                    processed.get(), throughput(processed.get(), startTime)).statusToLog());
         }
     }
 
+    /**
+     * Prefetch stage: loads the CASes of the annotators. These are obtained in shared read-only
+     * mode, so they remain usable after the session of the stage has been closed.
+     */
+    private PrefetchedDocument prefetch(SourceDocument aDocument) throws IOException
+    {
+        var users = curationDocumentService.listCuratableUsers(aDocument);
+        users.removeIf(u -> targetUser.equals(u.getUsername()));
+
+        var annotatorCasses = documentService.readAllCasesSharedNoUpgrade(aDocument, users);
+
+        return new PrefetchedDocument(aDocument, annotatorCasses);
+    }
+
+    /**
+     * Merge stage: merges the annotator CASes into a private copy of the target CAS. The target CAS
+     * is not locked while merging. Instead, the CAS storage detects if it was concurrently modified
+     * when the merged CAS is written.
+     */
+    private MergedDocument merge(PrefetchedDocument aPrefetched, MergeStrategy aMergeStrategy)
+        throws IOException, UIMAException
+    {
+        var doc = aPrefetched.document();
+        var targetCas = documentService.readAnnotationCas(doc, AnnotationSet.forUser(targetUser),
+                FORCE_CAS_UPGRADE, UNMANAGED_ACCESS);
+
+        // FIXME: should merging not overwrite the current users annos? (can result in
+        // deleting the users annotations!!!), currently fixed by warn message to user
+        // prepare merged CAS
+        curationMergeService.mergeCasses(doc, targetUser, targetCas,
+                aPrefetched.annotatorCasses(), aMergeStrategy, annotationLayers, true);
+
+        var allIsCurated = noUncuratedDifferencesRemaining(targetCas,
+                aPrefetched.annotatorCasses());
+
+        return new MergedDocument(doc, targetCas, allIsCurated);
+    }
+
+    /**
+     * Write-behind stage: saves the merged CAS under the exclusive access lock of the CAS storage
+     * and updates the document states. This runs on the task thread while the workers already
+     * merge the next documents.
+     */
+    private void write(MergedDocument aMerged, ProgressScope aProgress) throws IOException
+    {
+        var doc = aMerged.document();
+
+        try (var session = CasStorageSession.openNested()) {
+            var targetAnnDoc = documentService.createOrGetAnnotationDocument(doc,
+                    AnnotationSet.forUser(targetUser));
+            documentService.writeAnnotationCas(aMerged.targetCas(), targetAnnDoc,
+                    EXPLICIT_ANNOTATOR_USER_ACTION);
+
+            if (aMerged.allIsCurated()) {
+                aProgress.update(up -> up.info("[%s] has been fully curated", doc.getName()));
+                LOG.debug("{} has been fully curated", doc);
+                documentService.setAnnotationDocumentState(targetAnnDoc, FINISHED,
+                        EXPLICIT_ANNOTATOR_USER_ACTION);
+                documentService.setSourceDocumentState(doc, CURATION_FINISHED);
+            }
+            else {
+                aProgress.update(up -> up.info(
+                        "[%s] has remaining differences that need to be curated manually",
+                        doc.getName()));
+                LOG.debug("{} has remaining differences that need to be curated manually", doc);
+                documentService.setAnnotationDocumentState(targetAnnDoc, IN_PROGRESS,
+                        EXPLICIT_ANNOTATOR_USER_ACTION);
+                documentService.setSourceDocumentState(doc, CURATION_IN_PROGRESS);
+            }
+        }
+    }
+
+    private static String throughput(int aCount, long aStartTime)
+    {
+        var seconds = Math.max(1, currentTimeMillis() - aStartTime) / 1000.0;
+        return String.format("%.1f documents/min", aCount * 60 / seconds);
+    }
+
     @SuppressWarnings({ "rawtypes", "unchecked" })
     private MergeStrategy createMergeStrategy()
     {
@@ -200,6 +275,10 @@ public class BulkCurationTask
                 .allMatch($ -> $.getCasGroupIds().contains(targetUser));
     }
 
+    private record PrefetchedDocument(SourceDocument document, Map<String, CAS> annotatorCasses) {}
+
+    private record MergedDocument(SourceDocument document, CAS targetCas, boolean allIsCurated) {}
+
     public static Builder<Builder<?>> builder()
     {
         return new Builder<>();
@@ -211,6 +290,7 @@ public class BulkCurationTask
         private CurationWorkflow curationWorkflow;
         private List<AnnotationLayer> annotationLayers;
         private String targetUser;
+        private int concurrency = DEFAULT_CONCURRENCY;
 
         @SuppressWarnings("unchecked")
         public T withCurationWorkflow(CurationWorkflow aCurationWorkflow)
@@ -233,12 +313,24 @@ public class BulkCurationTask
             return (T) this;
         }
 
+        /**
+         * @param aConcurrency
+         *            the number of documents that are merged in parallel.
+         */
+        @SuppressWarnings("unchecked")
+        public T withConcurrency(int aConcurrency)
+        {
+            concurrency = aConcurrency;
+            return (T) this;
+        }
+
         public BulkCurationTask build()
         {
             requireNonNull(project, "Parameter [project] must be specified");
             requireNonNull(targetUser, "Parameter [targetUser] must be specified");
             requireNonNull(annotationLayers, "Parameter [annotationLayers] must be specified");
             requireNonNull(curationWorkflow, "Parameter [curationWorkflow] must be specified");
+            Validate.isTrue(concurrency > 0, "Parameter [concurrency] must be positive");
 
             return new BulkCurationTask(this);
         }
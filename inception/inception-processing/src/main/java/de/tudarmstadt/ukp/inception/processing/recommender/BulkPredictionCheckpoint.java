@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.processing.recommender;
+
+import static de.tudarmstadt.ukp.inception.project.api.ProjectService.PROJECT_FOLDER;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.tudarmstadt.ukp.clarin.webanno.model.Project;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.Recommender;
+
+/**
+ * Records which documents a {@link BulkPredictionTask} has already processed so that a run which
+ * was cancelled or interrupted by a server restart can be resumed. The checkpoint is an
+ * append-only file in the project folder. The first line holds a fingerprint of the task
+ * parameters, each following line the ID of a processed document. A checkpoint whose fingerprint
+ * does not match the parameters of the current run is deleted. The checkpoints of a recommender
+ * are deleted along with it. Those of a project go away with the project folder.
+ * <p>
+ * Instances are not thread-safe. They are only used from the task thread.
+ */
+class BulkPredictionCheckpoint
+    implements AutoCloseable
+{
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    static final String CHECKPOINT_FOLDER = "bulk-prediction";
+
+    private final File file;
+    private final String fingerprint;
+    private final Set<Long> processedDocuments = new HashSet<>();
+
+    private boolean resumed;
+    private Writer writer;
+
+    BulkPredictionCheckpoint(File aRepositoryPath, Project aProject, long aRecommenderId,
+            String aDataOwner, String aFingerprint)
+    {
+        // The user name is hex-encoded to obtain a name that is safe on any file system
+        var name = aRecommenderId + "-" + HexFormat.of().formatHex(aDataOwner.getBytes(UTF_8));
+        file = new File(getFolder(aRepositoryPath, aProject), name + ".txt");
+        fingerprint = aFingerprint;
+
+        load();
+    }
+
+    private void load()
+    {
+        if (!file.exists()) {
+            return;
+        }
+
+        try {
+            var lines = Files.readAllLines(file.toPath(), UTF_8);
+            if (lines.isEmpty() || !fingerprint.equals(lines.get(0))) {
+                LOG.info("Discarding bulk prediction checkpoint with different parameters: {}",
+                        file);
+                // Delete it right away - a run which processes nothing would never replace it
+                Files.deleteIfExists(file.toPath());
+                return;
+            }
+
+            resumed = true;
+            for (var line : lines.subList(1, lines.size())) {
+                // A line may be incomplete if the server went down while writing it
+                if (!line.isBlank()) {
+                    try {
+                        processedDocuments.add(Long.parseLong(line.strip()));
+                    }
+                    catch (NumberFormatException e) {
+                        LOG.debug("Skipping invalid checkpoint line [{}]", line);
+                    }
+                }
+            }
+        }
+        catch (IOException e) {
+            LOG.warn("Unable to read bulk prediction checkpoint {} - starting from scratch", file,
+                    e);
+            resumed = false;
+            processedDocuments.clear();
+        }
+    }
+
+    static File getFolder(File aRepositoryPath, Project aProject)
+    {
+        return new File(aRepositoryPath,
+                PROJECT_FOLDER + "/" + aProject.getId() + "/" + CHECKPOINT_FOLDER);
+    }
+
+    /**
+     * Deletes the checkpoints of all data owners for the given recommender.
+     * 
+     * @param aRepositoryPath
+     *            the repository path.
+     * @param aRecommender
+     *            the recommender.
+     */
+    static void deleteAll(File aRepositoryPath, Recommender aRecommender)
+    {
+        var folder = getFolder(aRepositoryPath, aRecommender.getProject());
+        var prefix = aRecommender.getId() + "-";
+        var files = folder.listFiles((dir, name) -> name.startsWith(prefix));
+        if (files == null) {
+            return;
+        }
+
+        for (var f : files) {
+            try {
+                Files.deleteIfExists(f.toPath());
+            }
+            catch (IOException e) {
+                LOG.warn("Unable to delete bulk prediction checkpoint {}", f, e);
+            }
+        }
+
+        // Only succeeds if there are no checkpoints of other recommenders left
+        folder.delete();
+    }
+
+    /**
+     * @return the number of documents processed by previous runs.
+     */
+    int size()
+    {
+        return processedDocuments.size();
+    }
+
+    boolean contains(long aDocumentId)
+    {
+        return processedDocuments.contains(aDocumentId);
+    }
+
+    /**
+     * Marks the given document as processed. The entry is written through immediately so that it
+     * survives a server restart.
+     */
+    void add(long aDocumentId) throws IOException
+    {
+        if (!processedDocuments.add(aDocumentId)) {
+            return;
+        }
+
+        if (writer == null) {
+            writer = open();
+        }
+
+        writer.write(aDocumentId + "\n");
+        writer.flush();
+    }
+
+    private Writer open() throws IOException
+    {
+        Files.createDirectories(file.getParentFile().toPath());
+
+        if (!resumed) {
+            // No valid checkpoint was loaded - start a new one
+            var w = Files.newBufferedWriter(file.toPath(), UTF_8, CREATE, TRUNCATE_EXISTING,
+                    WRITE);
+            w.write(fingerprint + "\n");
+            resumed = true;
+            return w;
+        }
+
+        return Files.newBufferedWriter(file.toPath(), UTF_8, CREATE, APPEND);
+    }
+
+    /**
+     * Removes the checkpoint once all documents have been processed.
+     */
+    void delete()
+    {
+        close();
+
+        try {
+            Files.deleteIfExists(file.toPath());
+        }
+        catch (IOException e) {
+            LOG.warn("Unable to delete bulk prediction checkpoint {}", file, e);
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        if (writer == null) {
+            return;
+        }
+
+        try {
+            writer.close();
+        }
+        catch (IOException e) {
+            LOG.warn("Unable to close bulk prediction checkpoint {}", file, e);
+        }
+        finally {
+            writer = null;
+        }
+    }
+}
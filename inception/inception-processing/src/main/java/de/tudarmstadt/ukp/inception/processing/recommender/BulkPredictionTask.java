@@ -17,7 +17,7 @@
  */
 package de.tudarmstadt.ukp.inception.processing.recommender;
 
-import static de.tudarmstadt.ukp.clarin.webanno.api.casstorage.CasAccessMode.EXCLUSIVE_WRITE_ACCESS;
+import static de.tudarmstadt.ukp.clarin.webanno.api.casstorage.CasAccessMode.UNMANAGED_ACCESS;
 import static de.tudarmstadt.ukp.clarin.webanno.api.casstorage.CasUpgradeMode.AUTO_CAS_UPGRADE;
 import static de.tudarmstadt.ukp.clarin.webanno.model.AnnotationDocumentState.FINISHED;
 import static de.tudarmstadt.ukp.clarin.webanno.model.AnnotationDocumentState.IN_PROGRESS;
@@ -26,13 +26,18 @@ import static de.tudarmstadt.ukp.inception.recommendation.api.model.LearningReco
 import static de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordUserAction.ACCEPTED;
 import static de.tudarmstadt.ukp.inception.scheduling.ProgressScope.SCOPE_DOCUMENTS;
 import static de.tudarmstadt.ukp.inception.scheduling.TaskScope.PROJECT;
+import static java.lang.System.currentTimeMillis;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 import java.io.IOException;
 import java.io.Serializable;
 import java.lang.invoke.MethodHandles;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -58,6 +63,10 @@ import de.tudarmstadt.ukp.clarin.webanno.security.UserDao;
 import de.tudarmstadt.ukp.inception.annotation.layer.document.api.DocumentMetadataLayerAdapter;
 import de.tudarmstadt.ukp.inception.annotation.layer.document.api.DocumentMetadataLayerSupport;
 import de.tudarmstadt.ukp.inception.documents.api.DocumentService;
+import de.tudarmstadt.ukp.inception.documents.api.RepositoryProperties;
+import de.tudarmstadt.ukp.inception.processing.DocumentPipeline;
+import de.tudarmstadt.ukp.inception.processing.DocumentPipeline.Sink;
+import de.tudarmstadt.ukp.inception.recommendation.api.RecommendationService;
 import de.tudarmstadt.ukp.inception.recommendation.api.SuggestionSupport;
 import de.tudarmstadt.ukp.inception.recommendation.api.SuggestionSupportQuery;
 import de.tudarmstadt.ukp.inception.recommendation.api.SuggestionSupportRegistry;
@@ -81,17 +90,25 @@ public class BulkPredictionTask
 
     private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+    public static final int DEFAULT_CONCURRENCY = Math.max(1,
+            Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    public static final int MAX_CONCURRENCY = Math.max(1,
+            Runtime.getRuntime().availableProcessors());
+
     private final String dataOwner;
     private final Recommender recommender;
     private final Map<AnnotationFeature, Serializable> processingMetadata;
     private final boolean finishDocumentsWithoutRecommendations;
     private final Set<AnnotationDocumentState> statesToProcess;
+    private final int concurrency;
 
     private @Autowired UserDao userService;
     private @Autowired DocumentService documentService;
     private @Autowired SchedulingService schedulingService;
     private @Autowired SuggestionSupportRegistry suggestionSupportRegistry;
     private @Autowired AnnotationSchemaService schemaService;
+    private @Autowired RepositoryProperties repositoryProperties;
+    private @Autowired RecommendationService recommendationService;
 
     public BulkPredictionTask(Builder<? extends Builder<?>> aBuilder)
     {
@@ -102,6 +119,7 @@ public class BulkPredictionTask
         finishDocumentsWithoutRecommendations = aBuilder.finishDocumentsWithoutRecommendations;
         processingMetadata = new HashMap<>(aBuilder.processingMetadata);
         statesToProcess = new HashSet<>(aBuilder.statesToProcess);
+        concurrency = aBuilder.concurrency;
     }
 
     @Override
@@ -122,9 +140,50 @@ public class BulkPredictionTask
         var annotationsCount = new AtomicInteger(0);
         var suggestionsCount = new AtomicInteger(0);
         var maxProgress = new AtomicInteger(0);
+        var startTime = currentTimeMillis();
+        var workers = getEffectiveConcurrency();
+
+        try (var progress = getMonitor().openScope(SCOPE_DOCUMENTS, 0);
+                var checkpoint = new BulkPredictionCheckpoint(repositoryProperties.getPath(),
+                        getProject(), recommender.getId(), dataOwner, fingerprint());
+                var pipeline = new DocumentPipeline<PrefetchedDocument, PredictedDocument>(TYPE,
+                        workers, this::prefetch, this::predictAndAccept)) {
+
+            if (checkpoint.size() > 0) {
+                progress.update(up -> up.info(
+                        "Resuming - skipping %d documents processed by a previous run",
+                        checkpoint.size()));
+            }
+
+            var sink = new Sink<PredictedDocument>()
+            {
+                @Override
+                public void accept(SourceDocument aDocument, PredictedDocument aPredicted)
+                    throws IOException
+                {
+                    write(aPredicted);
+                    checkpoint.add(aDocument.getId());
+
+                    suggestionsCount.addAndGet(aPredicted.suggestions());
+                    annotationsCount.addAndGet(aPredicted.accepted());
+                    processedDocumentsCount.incrementAndGet();
+                    progress.update(up -> up.increment() //
+                            .status("%s (%s)", aDocument.getName(),
+                                    throughput(processedDocumentsCount.get(), startTime)));
+                }
+
+                @Override
+                public void failed(SourceDocument aDocument, Throwable aError)
+                {
+                    LOG.error("Error processing [{}]@{}", dataOwner, aDocument, aError);
+                    progress.update(up -> up.increment() //
+                            .error("Error processing [%s]: %s", aDocument.getName(),
+                                    aError.getMessage()));
+                }
+            };
 
-        try (var progress = getMonitor().openScope(SCOPE_DOCUMENTS, 0)) {
-            while (true) {
+            var completed = true;
+            while (completed) {
                 // Find all documents currently in the project (which may have changed since the
                 // last iteration)
                 var annotatableDocuments = documentService.listAnnotatableDocuments(getProject(),
@@ -134,75 +193,158 @@ public class BulkPredictionTask
                 var documentsToProcess = annotatableDocuments.entrySet().stream() //
                         .filter(e -> isInProcessableState(e.getKey(), e.getValue())) //
                         .filter(e -> !visitedDocuments.contains(e.getKey())) //
+                        .filter(e -> !checkpoint.contains(e.getKey().getId())) //
                         .map(e -> e.getKey()) //
                         .toList();
 
-                if (documentsToProcess.isEmpty() || monitor.isCancelled()) {
-                    progress.update(up -> {
-                        if (monitor.isCancelled()) {
-                            up.status("Task cancelled");
-                        }
-                        up.progress(maxProgress.get() - documentsToProcess.size()) //
-                                .maxProgress(maxProgress.get()) //
-                                .status("%d annotations generated from %d suggestions in %d documents",
-                                        annotationsCount.get(), suggestionsCount.get(),
-                                        processedDocumentsCount.get())
-                                .statusToLog();
-                    });
+                if (documentsToProcess.isEmpty()) {
                     break;
                 }
 
-                var doc = documentsToProcess.get(0);
-                visitedDocuments.add(doc);
-                var annDoc = documentService.createOrGetAnnotationDocument(doc, dataOwnerUser);
+                visitedDocuments.addAll(documentsToProcess);
 
                 progress.update(up -> up //
                         .progress(maxProgress.get() - documentsToProcess.size()) //
-                        .maxProgress(annotatableDocuments.size()) //
-                        .info("Processing [%s]", doc.getName()) //
-                        .status("%s", doc.getName()));
+                        .maxProgress(maxProgress.get()) //
+                        .info("Processing %d documents using %d workers...",
+                                documentsToProcess.size(), workers));
+
+                completed = pipeline.run(documentsToProcess, monitor::isCancelled, sink);
+            }
+
+            if (completed) {
+                // Only documents added after this point would need to be processed by a new run
+                checkpoint.delete();
+            }
+
+            var cancelled = !completed;
+            progress.update(up -> {
+                if (cancelled) {
+                    up.info("Task cancelled - it can be resumed by starting it again");
+                }
+                up.status("%d annotations generated from %d suggestions in %d documents (%s)",
+                        annotationsCount.get(), suggestionsCount.get(),
+                        processedDocumentsCount.get(),
+                        throughput(processedDocumentsCount.get(), startTime)) //
+                        .statusToLog();
+            });
+        }
+    }
 
-                try (var session = CasStorageSession.openNested()) {
-                    var predictions = generatePredictions(doc);
-                    suggestionsCount.addAndGet(predictions.getNewSuggestionCount());
+    /**
+     * @return the number of documents to predict on in parallel. Recommenders which do not declare
+     *         that they support concurrent predictions are called for one document at a time. The
+     *         pipeline still prefetches and writes documents while that document is predicted.
+     */
+    private int getEffectiveConcurrency()
+    {
+        if (concurrency <= 1) {
+            return 1;
+        }
 
-                    documentService.setAnnotationDocumentState(annDoc, IN_PROGRESS,
-                            EXPLICIT_ANNOTATOR_USER_ACTION);
-                    var cas = documentService.readAnnotationCas(doc,
-                            AnnotationSet.forUser(dataOwner), AUTO_CAS_UPGRADE,
-                            EXCLUSIVE_WRITE_ACCESS);
+        var concurrentPredictionSupported = recommendationService
+                .getRecommenderFactory(recommender) //
+                .map(factory -> factory.isConcurrentPredictionSupported(recommender)) //
+                .orElse(false);
 
-                    addProcessingMetadataAnnotation(doc, cas);
+        if (!concurrentPredictionSupported) {
+            LOG.info("Recommender {} does not support concurrent predictions - using one worker "
+                    + "instead of {}", recommender, concurrency);
+            return 1;
+        }
 
-                    int autoAcceptedSuggestions = autoAccept(doc, predictions, cas);
-                    annotationsCount.addAndGet(autoAcceptedSuggestions);
+        return concurrency;
+    }
+
+    /**
+     * Prefetch stage: loads a private copy of the data owner's CAS into which the suggestions are
+     * accepted. The CAS is not locked while the document is processed. Instead, the CAS storage
+     * detects if it was concurrently modified when the CAS is written.
+     */
+    private PrefetchedDocument prefetch(SourceDocument aDocument) throws IOException
+    {
+        var cas = documentService.readAnnotationCas(aDocument, AnnotationSet.forUser(dataOwner),
+                AUTO_CAS_UPGRADE, UNMANAGED_ACCESS);
+        return new PrefetchedDocument(aDocument, cas);
+    }
 
-                    if (autoAcceptedSuggestions > 0) {
-                        documentService.writeAnnotationCas(cas, doc,
-                                AnnotationSet.forUser(dataOwner), EXPLICIT_ANNOTATOR_USER_ACTION);
-                    }
+    /**
+     * Process stage: generates the predictions for the document and auto-accepts them into the
+     * prefetched CAS.
+     */
+    private PredictedDocument predictAndAccept(PrefetchedDocument aPrefetched)
+        throws AnnotationException
+    {
+        var doc = aPrefetched.document();
+        var cas = aPrefetched.cas();
 
-                    if (autoAcceptedSuggestions > 0 || finishDocumentsWithoutRecommendations) {
-                        documentService.setAnnotationDocumentState(annDoc, FINISHED,
-                                EXPLICIT_ANNOTATOR_USER_ACTION);
-                    }
+        var predictions = generatePredictions(doc);
 
-                    processedDocumentsCount.incrementAndGet();
-                }
-                catch (IOException e) {
-                    progress.update(
-                            up -> up.error("Error saving CAS for document [%s]", doc.getName()));
-                    LOG.error("Error loading/saving CAS for [{}]@{}: {}", dataOwner, doc);
-                }
-                catch (AnnotationException e) {
-                    progress.update(
-                            up -> up.error("Error creating processing metadata annotation"));
-                    LOG.error("Error creating processing metadata annotation", e);
-                }
+        addProcessingMetadataAnnotation(doc, cas);
+
+        var accepted = autoAccept(doc, predictions, cas);
+
+        return new PredictedDocument(doc, cas, predictions.getNewSuggestionCount(), accepted);
+    }
+
+    /**
+     * Write-behind stage: saves the CAS under the exclusive access lock of the CAS storage and
+     * updates the document state. This runs on the task thread while the workers already process
+     * the next documents.
+     */
+    private void write(PredictedDocument aPredicted) throws IOException
+    {
+        var doc = aPredicted.document();
+
+        try (var session = CasStorageSession.openNested()) {
+            var annDoc = documentService.createOrGetAnnotationDocument(doc,
+                    AnnotationSet.forUser(dataOwner));
+
+            if (aPredicted.accepted() > 0) {
+                documentService.writeAnnotationCas(aPredicted.cas(), annDoc,
+                        EXPLICIT_ANNOTATOR_USER_ACTION);
             }
+
+            var state = aPredicted.accepted() > 0 || finishDocumentsWithoutRecommendations
+                    ? FINISHED
+                    : IN_PROGRESS;
+            documentService.setAnnotationDocumentState(annDoc, state,
+                    EXPLICIT_ANNOTATOR_USER_ACTION);
         }
     }
 
+    /**
+     * @return a fingerprint of the parameters which affect the outcome of processing a document. A
+     *         checkpoint is only resumed by a run with the same parameters.
+     */
+    String fingerprint()
+    {
+        var params = new StringBuilder();
+        params.append(recommender.getId()).append('|').append(dataOwner).append('|');
+        params.append(finishDocumentsWithoutRecommendations).append('|');
+        statesToProcess.stream().map(Enum::name).sorted()
+                .forEach(s -> params.append(s).append(','));
+        params.append('|');
+        processingMetadata.entrySet().stream() //
+                .map(e -> e.getKey().getId() + "=" + e.getValue()) //
+                .sorted() //
+                .forEach(s -> params.append(s).append(','));
+
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(params.toString().getBytes(UTF_8)));
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String throughput(int aCount, long aStartTime)
+    {
+        var seconds = Math.max(1, currentTimeMillis() - aStartTime) / 1000.0;
+        return String.format("%.1f documents/min", aCount * 60 / seconds);
+    }
+
     private boolean isInProcessableState(SourceDocument aSourceDocument,
             AnnotationDocument aAnnotationDocument)
     {
@@ -304,6 +446,11 @@ public class BulkPredictionTask
         return accepted;
     }
 
+    private record PrefetchedDocument(SourceDocument document, CAS cas) {}
+
+    private record PredictedDocument(SourceDocument document, CAS cas, int suggestions,
+            int accepted) {}
+
     public static Builder<Builder<?>> builder()
     {
         return new Builder<>();
@@ -317,6 +464,7 @@ public class BulkPredictionTask
         private Map<AnnotationFeature, Serializable> processingMetadata;
         private boolean finishDocumentsWithoutRecommendations;
         private final Set<AnnotationDocumentState> statesToProcess = new HashSet<>();
+        private int concurrency = DEFAULT_CONCURRENCY;
 
         @SuppressWarnings("unchecked")
         public T withRecommender(Recommender aRecommender)
@@ -364,6 +512,18 @@ public class BulkPredictionTask
             return (T) this;
         }
 
+        /**
+         * @param aConcurrency
+         *            the number of documents that are processed in parallel. This is reduced to
+         *            one if the recommender does not support concurrent predictions.
+         */
+        @SuppressWarnings("unchecked")
+        public T withConcurrency(int aConcurrency)
+        {
+            concurrency = aConcurrency;
+            return (T) this;
+        }
+
         public BulkPredictionTask build()
         {
             withProject(recommender.getProject());
@@ -372,6 +532,8 @@ public class BulkPredictionTask
             Validate.notNull(dataOwner, "BulkPredictionTask requires a data owner");
             Validate.notNull(recommender, "BulkPredictionTask requires a recommender");
             Validate.notNull(project, "BulkPredictionTask requires a project");
+            Validate.isTrue(concurrency > 0 && concurrency <= MAX_CONCURRENCY,
+                    "BulkPredictionTask concurrency must be between 1 and %d", MAX_CONCURRENCY);
 
             return new BulkPredictionTask(this);
         }
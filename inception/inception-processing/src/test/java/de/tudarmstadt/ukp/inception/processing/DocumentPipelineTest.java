@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.processing;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import de.tudarmstadt.ukp.clarin.webanno.model.SourceDocument;
+import de.tudarmstadt.ukp.inception.processing.DocumentPipeline.Sink;
+
+class DocumentPipelineTest
+{
+    @Test
+    void thatResultsReachSinkInSubmissionOrder() throws Exception
+    {
+        var docs = documents(20);
+        var sink = new RecordingSink();
+
+        try (var sut = new DocumentPipeline<SourceDocument, String>("test", 4, doc -> doc,
+                doc -> {
+                    // Let later documents overtake earlier ones in the process stage
+                    MILLISECONDS.sleep(ThreadLocalRandom.current().nextInt(10));
+                    return doc.getName();
+                })) {
+            assertThat(sut.run(docs, () -> false, sink)).isTrue();
+        }
+
+        assertThat(sink.accepted).containsExactlyElementsOf(names(docs));
+        assertThat(sink.failed).isEmpty();
+    }
+
+    @Test
+    void thatFailureIsReportedWhileOtherDocumentsComplete() throws Exception
+    {
+        var docs = documents(5);
+        var sink = new RecordingSink();
+
+        try (var sut = new DocumentPipeline<SourceDocument, String>("test", 2, doc -> doc,
+                doc -> {
+                    if ("doc-2".equals(doc.getName())) {
+                        throw new IllegalStateException("boom");
+                    }
+                    return doc.getName();
+                })) {
+            assertThat(sut.run(docs, () -> false, sink)).isTrue();
+        }
+
+        assertThat(sink.accepted).containsExactly("doc-0", "doc-1", "doc-3", "doc-4");
+        assertThat(sink.failed).containsOnlyKeys("doc-2");
+        assertThat(sink.failed.get("doc-2")) //
+                .isInstanceOf(IllegalStateException.class) //
+                .hasMessage("boom");
+    }
+
+    @Test
+    void thatCancellationStopsLoadingNewDocuments() throws Exception
+    {
+        var docs = documents(20);
+        var loaded = new AtomicInteger();
+        var sink = new RecordingSink();
+
+        boolean completed;
+        try (var sut = new DocumentPipeline<SourceDocument, String>("test", 1, doc -> {
+            loaded.incrementAndGet();
+            return doc;
+        }, SourceDocument::getName)) {
+            completed = sut.run(docs, () -> sink.accepted.size() >= 2, sink);
+        }
+
+        assertThat(completed).isFalse();
+        assertThat(sink.accepted).containsExactly("doc-0", "doc-1");
+        // Only the document scheduled after the first result may still have been loaded
+        assertThat(loaded.get()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void thatMaxInFlightLimitsLoadedDocuments() throws Exception
+    {
+        var docs = documents(20);
+        var loaded = new AtomicInteger();
+        var released = new AtomicInteger();
+        var maxLoadedAhead = new AtomicInteger();
+        var loadedDuringFirstSink = new AtomicInteger();
+
+        var sink = new RecordingSink()
+        {
+            @Override
+            public void accept(SourceDocument aDocument, String aResult) throws Exception
+            {
+                released.incrementAndGet();
+                if (accepted.isEmpty()) {
+                    // Give the prefetch stage ample time to run ahead if it is not bounded
+                    MILLISECONDS.sleep(200);
+                    loadedDuringFirstSink.set(loaded.get());
+                }
+                super.accept(aDocument, aResult);
+            }
+        };
+
+        // With one worker, up to two documents may be in flight
+        try (var sut = new DocumentPipeline<SourceDocument, String>("test", 1, doc -> {
+            var ahead = loaded.incrementAndGet() - released.get();
+            maxLoadedAhead.accumulateAndGet(ahead, Math::max);
+            return doc;
+        }, SourceDocument::getName)) {
+            assertThat(sut.run(docs, () -> false, sink)).isTrue();
+        }
+
+        assertThat(loadedDuringFirstSink.get()).isEqualTo(2);
+        assertThat(maxLoadedAhead.get()).isLessThanOrEqualTo(2);
+        assertThat(loaded.get()).isEqualTo(docs.size());
+        assertThat(sink.accepted).containsExactlyElementsOf(names(docs));
+    }
+
+    private static List<SourceDocument> documents(int aCount)
+    {
+        return IntStream.range(0, aCount) //
+                .mapToObj(i -> new SourceDocument("doc-" + i, null, "text")) //
+                .toList();
+    }
+
+    private static List<String> names(List<SourceDocument> aDocuments)
+    {
+        return aDocuments.stream().map(SourceDocument::getName).toList();
+    }
+
+    private static class RecordingSink
+        implements Sink<String>
+    {
+        final List<String> accepted = new ArrayList<>();
+        final Map<String, Throwable> failed = new LinkedHashMap<>();
+
+        @Override
+        public void accept(SourceDocument aDocument, String aResult) throws Exception
+        {
+            accepted.add(aResult);
+        }
+
+        @Override
+        public void failed(SourceDocument aDocument, Throwable aError)
+        {
+            failed.put(aDocument.getName(), aError);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.processing.recommender;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.tudarmstadt.ukp.clarin.webanno.model.Project;
+import de.tudarmstadt.ukp.inception.documents.api.RepositoryPropertiesImpl;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.Recommender;
+import de.tudarmstadt.ukp.inception.recommendation.event.RecommenderDeletedEvent;
+
+class BulkPredictionCheckpointCleanerTest
+{
+    private @TempDir File repositoryPath;
+
+    private Project project;
+    private Recommender deletedRecommender;
+    private Recommender otherRecommender;
+    private BulkPredictionCheckpointCleaner sut;
+
+    @BeforeEach
+    void setup()
+    {
+        project = Project.builder().withId(1L).withName("test").build();
+        deletedRecommender = Recommender.builder().withId(1L).withProject(project).build();
+        otherRecommender = Recommender.builder().withId(2L).withProject(project).build();
+
+        var repositoryProperties = new RepositoryPropertiesImpl();
+        repositoryProperties.setPath(repositoryPath);
+        sut = new BulkPredictionCheckpointCleaner(repositoryProperties);
+    }
+
+    @Test
+    void thatCheckpointsOfDeletedRecommenderAreRemoved() throws Exception
+    {
+        createCheckpoint(deletedRecommender, "alice");
+        createCheckpoint(deletedRecommender, "bob");
+        createCheckpoint(otherRecommender, "alice");
+
+        sut.onRecommenderDeleted(new RecommenderDeletedEvent(this, deletedRecommender));
+
+        assertThat(checkpoint(deletedRecommender, "alice").size()).isZero();
+        assertThat(checkpoint(deletedRecommender, "bob").size()).isZero();
+        assertThat(checkpoint(otherRecommender, "alice").size()).isEqualTo(1);
+    }
+
+    @Test
+    void thatFolderIsRemovedWithLastCheckpoint() throws Exception
+    {
+        createCheckpoint(deletedRecommender, "alice");
+
+        sut.onRecommenderDeleted(new RecommenderDeletedEvent(this, deletedRecommender));
+
+        assertThat(BulkPredictionCheckpoint.getFolder(repositoryPath, project)).doesNotExist();
+    }
+
+    @Test
+    void thatMissingFolderIsIgnored()
+    {
+        sut.onRecommenderDeleted(new RecommenderDeletedEvent(this, deletedRecommender));
+
+        assertThat(BulkPredictionCheckpoint.getFolder(repositoryPath, project)).doesNotExist();
+    }
+
+    private void createCheckpoint(Recommender aRecommender, String aDataOwner) throws Exception
+    {
+        try (var checkpoint = checkpoint(aRecommender, aDataOwner)) {
+            checkpoint.add(10L);
+        }
+    }
+
+    private BulkPredictionCheckpoint checkpoint(Recommender aRecommender, String aDataOwner)
+    {
+        return new BulkPredictionCheckpoint(repositoryPath, project, aRecommender.getId(),
+                aDataOwner, "fp");
+    }
+}
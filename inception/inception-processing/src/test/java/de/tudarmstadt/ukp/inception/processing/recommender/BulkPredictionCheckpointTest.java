@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.processing.recommender;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.tudarmstadt.ukp.clarin.webanno.model.Project;
+
+class BulkPredictionCheckpointTest
+{
+    private @TempDir File repositoryPath;
+
+    private Project project;
+
+    @BeforeEach
+    void setup()
+    {
+        project = Project.builder().withId(1L).withName("test").build();
+    }
+
+    @Test
+    void thatProcessedDocumentsAreResumed() throws Exception
+    {
+        try (var checkpoint = checkpoint("fp")) {
+            assertThat(checkpoint.size()).isZero();
+            checkpoint.add(10L);
+            checkpoint.add(11L);
+        }
+
+        try (var checkpoint = checkpoint("fp")) {
+            assertThat(checkpoint.size()).isEqualTo(2);
+            assertThat(checkpoint.contains(10L)).isTrue();
+            assertThat(checkpoint.contains(11L)).isTrue();
+            assertThat(checkpoint.contains(12L)).isFalse();
+
+            // Entries added by a resumed run are appended to the existing checkpoint
+            checkpoint.add(12L);
+        }
+
+        try (var checkpoint = checkpoint("fp")) {
+            assertThat(checkpoint.size()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void thatCheckpointWithDifferentFingerprintIsDiscarded() throws Exception
+    {
+        try (var checkpoint = checkpoint("fp")) {
+            checkpoint.add(10L);
+        }
+
+        try (var checkpoint = checkpoint("other")) {
+            assertThat(checkpoint.size()).isZero();
+            assertThat(checkpoint.contains(10L)).isFalse();
+        }
+
+        assertThat(checkpointFiles()).isEmpty();
+
+        // The old checkpoint must not come back once the original parameters are used again
+        try (var checkpoint = checkpoint("fp")) {
+            assertThat(checkpoint.size()).isZero();
+        }
+    }
+
+    @Test
+    void thatCheckpointOfOtherDataOwnerIsNotUsed() throws Exception
+    {
+        try (var checkpoint = checkpoint("fp")) {
+            checkpoint.add(10L);
+        }
+
+        try (var checkpoint = new BulkPredictionCheckpoint(repositoryPath, project, 1L, "bob",
+                "fp")) {
+            assertThat(checkpoint.size()).isZero();
+        }
+    }
+
+    @Test
+    void thatCheckpointIsRemovedOnDelete() throws Exception
+    {
+        try (var checkpoint = checkpoint("fp")) {
+            checkpoint.add(10L);
+            checkpoint.delete();
+        }
+
+        assertThat(checkpointFiles()).isEmpty();
+
+        try (var checkpoint = checkpoint("fp")) {
+            assertThat(checkpoint.size()).isZero();
+        }
+    }
+
+    @Test
+    void thatIncompleteLineIsIgnored() throws Exception
+    {
+        try (var checkpoint = checkpoint("fp")) {
+            checkpoint.add(10L);
+        }
+
+        // Simulate the server going down while writing an entry
+        Files.writeString(checkpointFiles()[0].toPath(), "1x", UTF_8,
+                StandardOpenOption.APPEND);
+
+        try (var checkpoint = checkpoint("fp")) {
+            assertThat(checkpoint.size()).isEqualTo(1);
+            assertThat(checkpoint.contains(10L)).isTrue();
+        }
+    }
+
+    private BulkPredictionCheckpoint checkpoint(String aFingerprint)
+    {
+        return new BulkPredictionCheckpoint(repositoryPath, project, 1L, "alice", aFingerprint);
+    }
+
+    private File[] checkpointFiles()
+    {
+        var files = BulkPredictionCheckpoint.getFolder(repositoryPath, project).listFiles();
+        return files != null ? files : new File[0];
+    }
+}
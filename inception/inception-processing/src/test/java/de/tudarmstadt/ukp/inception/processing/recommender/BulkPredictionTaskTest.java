@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.processing.recommender;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationDocument;
+import de.tudarmstadt.ukp.clarin.webanno.model.Project;
+import de.tudarmstadt.ukp.clarin.webanno.model.SourceDocument;
+import de.tudarmstadt.ukp.clarin.webanno.security.UserDao;
+import de.tudarmstadt.ukp.clarin.webanno.security.model.User;
+import de.tudarmstadt.ukp.inception.documents.api.DocumentService;
+import de.tudarmstadt.ukp.inception.documents.api.RepositoryProperties;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.Recommender;
+import de.tudarmstadt.ukp.inception.scheduling.SchedulingService;
+
+class BulkPredictionTaskTest
+{
+    private @TempDir File repositoryPath;
+
+    private @Mock UserDao userService;
+    private @Mock DocumentService documentService;
+    private @Mock SchedulingService schedulingService;
+    private @Mock RepositoryProperties repositoryProperties;
+
+    private User user;
+    private Project project;
+    private Recommender recommender;
+    private SourceDocument doc1;
+    private SourceDocument doc2;
+    private SourceDocument doc3;
+    private AutoCloseable mocks;
+
+    private @InjectMocks BulkPredictionTask sut;
+
+    @BeforeEach
+    void setup()
+    {
+        user = new User("alice");
+        project = Project.builder().withId(1L).withName("test").build();
+        recommender = Recommender.builder().withId(1L).withName("rec").withProject(project)
+                .build();
+        doc1 = SourceDocument.builder().withId(1L).withName("doc1").withProject(project).build();
+        doc2 = SourceDocument.builder().withId(2L).withName("doc2").withProject(project).build();
+        doc3 = SourceDocument.builder().withId(3L).withName("doc3").withProject(project).build();
+
+        sut = buildTask(recommender);
+        mocks = MockitoAnnotations.openMocks(this);
+        sut.afterPropertiesSet();
+
+        var documents = new LinkedHashMap<SourceDocument, AnnotationDocument>();
+        documents.put(doc1, null);
+        documents.put(doc2, null);
+        documents.put(doc3, null);
+
+        when(repositoryProperties.getPath()).thenReturn(repositoryPath);
+        when(userService.get(user.getUsername())).thenReturn(user);
+        when(documentService.listAnnotatableDocuments(project, user)).thenReturn(documents);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        mocks.close();
+    }
+
+    @Test
+    void thatResumedRunSkipsProcessedDocuments() throws Exception
+    {
+        try (var checkpoint = checkpoint(sut.fingerprint())) {
+            checkpoint.add(doc1.getId());
+            checkpoint.add(doc2.getId());
+        }
+
+        sut.execute();
+
+        verify(documentService, never()).readAnnotationCas(eq(doc1), any(), any(), any());
+        verify(documentService, never()).readAnnotationCas(eq(doc2), any(), any(), any());
+        verify(documentService).readAnnotationCas(eq(doc3), any(), any(), any());
+    }
+
+    @Test
+    void thatCheckpointWithDifferentFingerprintIsNotResumed() throws Exception
+    {
+        try (var checkpoint = checkpoint("other")) {
+            checkpoint.add(doc1.getId());
+            checkpoint.add(doc2.getId());
+        }
+
+        sut.execute();
+
+        verify(documentService).readAnnotationCas(eq(doc1), any(), any(), any());
+        verify(documentService).readAnnotationCas(eq(doc2), any(), any(), any());
+        verify(documentService).readAnnotationCas(eq(doc3), any(), any(), any());
+    }
+
+    @Test
+    void thatFingerprintDependsOnRecommenderAndParameters()
+    {
+        var otherRecommender = Recommender.builder().withId(2L).withName("rec")
+                .withProject(project).build();
+
+        var finishing = BulkPredictionTask.builder() //
+                .withSessionOwner(user) //
+                .withTrigger("test") //
+                .withRecommender(recommender) //
+                .withDataOwner(user.getUsername()) //
+                .withProcessingMetadata(Map.of()) //
+                .withFinishDocumentsWithoutRecommendations(true) //
+                .build();
+
+        assertThat(sut.fingerprint()) //
+                .isEqualTo(buildTask(recommender).fingerprint()) //
+                .isNotEqualTo(buildTask(otherRecommender).fingerprint()) //
+                .isNotEqualTo(finishing.fingerprint());
+    }
+
+    @Test
+    void thatCheckpointIsDeletedWhenRunCompletes() throws Exception
+    {
+        try (var checkpoint = checkpoint(sut.fingerprint())) {
+            checkpoint.add(doc1.getId());
+        }
+
+        sut.execute();
+
+        try (var checkpoint = checkpoint(sut.fingerprint())) {
+            assertThat(checkpoint.size()).isZero();
+        }
+        assertThat(BulkPredictionCheckpoint.getFolder(repositoryPath, project).listFiles())
+                .isEmpty();
+    }
+
+    @Test
+    void thatCheckpointIsKeptWhenRunIsCancelled() throws Exception
+    {
+        try (var checkpoint = checkpoint(sut.fingerprint())) {
+            checkpoint.add(doc1.getId());
+        }
+
+        sut.getMonitor().cancel();
+        sut.execute();
+
+        verify(documentService, never()).readAnnotationCas(any(), any(), any(), any());
+        try (var checkpoint = checkpoint(sut.fingerprint())) {
+            assertThat(checkpoint.contains(doc1.getId())).isTrue();
+        }
+    }
+
+    private BulkPredictionTask buildTask(Recommender aRecommender)
+    {
+        return BulkPredictionTask.builder() //
+                .withSessionOwner(user) //
+                .withTrigger("test") //
+                .withRecommender(aRecommender) //
+                .withDataOwner(user.getUsername()) //
+                .withProcessingMetadata(Map.of()) //
+                .withConcurrency(1) //
+                .build();
+    }
+
+    private BulkPredictionCheckpoint checkpoint(String aFingerprint)
+    {
+        return new BulkPredictionCheckpoint(repositoryPath, project, recommender.getId(),
+                user.getUsername(), aFingerprint);
+    }
+}
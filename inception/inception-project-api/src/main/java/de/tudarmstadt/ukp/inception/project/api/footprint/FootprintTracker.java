@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.project.api.footprint;
+
+import java.util.List;
+import java.util.Optional;
+
+import de.tudarmstadt.ukp.clarin.webanno.model.Project;
+
+/**
+ * Keeps track of the storage footprint of projects. Walking the project storage to determine the
+ * footprint can be very expensive for large projects, in particular on network storage. Thus, the
+ * footprints reported by the {@link FootprintProvider footprint providers} are only computed
+ * occasionally (on first access and during periodic reconciliation) and kept up-to-date in
+ * between by the components writing to the storage.
+ */
+public interface FootprintTracker
+{
+    /**
+     * @param aProject
+     *            the project.
+     * @return the tracked footprint of the given project. If the footprint of the project is not
+     *         tracked yet, it is computed in the background and nothing is returned until it is
+     *         available.
+     */
+    Optional<List<Footprint>> getFootprint(Project aProject);
+
+    /**
+     * Adjusts the tracked size of the given footprint category. If the category is not tracked
+     * yet, the adjustment is ignored and the category is picked up during the next
+     * reconciliation.
+     * 
+     * @param aProject
+     *            the project.
+     * @param aCategory
+     *            the footprint category.
+     * @param aDelta
+     *            the number of bytes added (positive) or removed (negative).
+     */
+    void adjust(Project aProject, String aCategory, long aDelta);
+
+    /**
+     * Sets the tracked size of the given footprint category. This can be used by components which
+     * can cheaply determine their total size.
+     * 
+     * @param aProject
+     *            the project.
+     * @param aCategory
+     *            the footprint category.
+     * @param aSize
+     *            the size in bytes.
+     */
+    void update(Project aProject, String aCategory, long aSize);
+
+    /**
+     * Requests that the footprint of the given project is recomputed in the background, e.g.
+     * because a bulk operation was performed which was not tracked incrementally.
+     * 
+     * @param aProject
+     *            the project.
+     */
+    void requestReconciliation(Project aProject);
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.clarin.webanno.project;
+
+import static java.util.Comparator.comparing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import de.tudarmstadt.ukp.clarin.webanno.model.PermissionLevel;
+
+/**
+ * Immutable snapshot of the {@link PermissionLevel permission levels} a user has in a project. The
+ * levels are stored as a bit set over the ordinals of the permission levels.
+ */
+final class PermissionSnapshot
+{
+    static final PermissionSnapshot NONE = new PermissionSnapshot(0);
+
+    private static final PermissionLevel[] LEVELS = PermissionLevel.values();
+
+    static {
+        // The database orders the levels by their persistent ID. We use the same order when
+        // listing the levels to remain compatible with the uncached query.
+        Arrays.sort(LEVELS, comparing(PermissionLevel::getId));
+    }
+
+    private final int bits;
+
+    private PermissionSnapshot(int aBits)
+    {
+        bits = aBits;
+    }
+
+    static PermissionSnapshot of(Collection<PermissionLevel> aLevels)
+    {
+        var bits = bitsOf(aLevels);
+        return bits == 0 ? NONE : new PermissionSnapshot(bits);
+    }
+
+    private static int bitsOf(Collection<PermissionLevel> aLevels)
+    {
+        int bits = 0;
+        for (var level : aLevels) {
+            if (level != null) {
+                bits |= 1 << level.ordinal();
+            }
+        }
+        return bits;
+    }
+
+    boolean isEmpty()
+    {
+        return bits == 0;
+    }
+
+    boolean contains(PermissionLevel aLevel)
+    {
+        return (bits & (1 << aLevel.ordinal())) != 0;
+    }
+
+    boolean containsAny(Collection<PermissionLevel> aLevels)
+    {
+        return (bits & bitsOf(aLevels)) != 0;
+    }
+
+    /**
+     * @return the permission levels contained in the snapshot. The returned list is a new mutable
+     *         list.
+     */
+    List<PermissionLevel> toList()
+    {
+        var levels = new ArrayList<PermissionLevel>(Integer.bitCount(bits));
+        for (var level : LEVELS) {
+            if (contains(level)) {
+                levels.add(level);
+            }
+        }
+        return levels;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.clarin.webanno.project;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+@ManagedResource("de.tudarmstadt.ukp.clarin.webanno.project:type=ProjectServiceImpl,name=permissionCache")
+public class ProjectPermissionCacheAdapter
+{
+    private final ProjectServiceImpl projectService;
+
+    public ProjectPermissionCacheAdapter(ProjectServiceImpl aProjectService)
+    {
+        projectService = aProjectService;
+    }
+
+    @ManagedAttribute
+    public long getHitCount()
+    {
+        return projectService.getPermissionCacheStats().hitCount();
+    }
+
+    @ManagedAttribute
+    public long getMissCount()
+    {
+        return projectService.getPermissionCacheStats().missCount();
+    }
+
+    @ManagedAttribute
+    public double getHitRate()
+    {
+        return projectService.getPermissionCacheStats().hitRate();
+    }
+
+    @ManagedAttribute
+    public double getMissRate()
+    {
+        return projectService.getPermissionCacheStats().missRate();
+    }
+
+    @ManagedAttribute
+    public long getRequestCount()
+    {
+        return projectService.getPermissionCacheStats().requestCount();
+    }
+
+    @ManagedAttribute
+    public long getEvictionCount()
+    {
+        return projectService.getPermissionCacheStats().evictionCount();
+    }
+
+    @ManagedAttribute
+    public long getActiveCount()
+    {
+        return projectService.getPermissionCacheSize();
+    }
+}
@@ -30,6 +30,7 @@ import static java.lang.String.join;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.unmodifiableList;
+import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toCollection;
 import static java.util.stream.Collectors.toList;
@@ -37,6 +38,8 @@ import static org.apache.commons.io.IOUtils.copyLarge;
 import static org.apache.commons.lang3.StringUtils.substringAfter;
 import static org.apache.commons.lang3.Strings.CS;
 import static org.apache.commons.lang3.time.DurationFormatUtils.formatDurationWords;
+import static org.springframework.transaction.support.TransactionSynchronizationManager.isSynchronizationActive;
+import static org.springframework.transaction.support.TransactionSynchronizationManager.registerSynchronization;
 
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -79,6 +82,11 @@ import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 
 import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationDocumentState;
 import de.tudarmstadt.ukp.clarin.webanno.model.PermissionLevel;
@@ -136,6 +144,14 @@ public class ProjectServiceImpl
      */
     private final Set<Long> deletionPending = ConcurrentHashMap.newKeySet();
 
+    /**
+     * Snapshots of the permission levels of users in projects. Authorization checks are performed
+     * very frequently (pages, REST controllers, websocket subscriptions), so we avoid hitting the
+     * database for every check. Entries are invalidated when permissions change or when a project
+     * is removed. The expiry is only a safety net for changes bypassing the service.
+     */
+    private final Cache<PermissionCacheKey, PermissionSnapshot> permissionCache;
+
     private List<ProjectInitializer> projectInitializers;
     private List<FeatureInitializer> featureInitializers;
 
@@ -152,6 +168,11 @@ public class ProjectServiceImpl
         projectInitializerProxy = aProjectInitializerProxy;
         featureInitializerProxy = aFeatureInitializerProxy;
         random = new SecureRandom();
+        permissionCache = Caffeine.newBuilder() //
+                .expireAfterWrite(5, MINUTES) //
+                .maximumSize(10_000) //
+                .recordStats() //
+                .build();
     }
 
     @Override
@@ -196,8 +217,10 @@ public class ProjectServiceImpl
             LOG.info("Created permission [{}] for user [{}] on project {}", aPermission.getLevel(),
                     aPermission.getUser(), aPermission.getProject());
 
-            applicationEventPublisher.publishEvent(new ProjectPermissionsChangedEvent(this,
-                    aPermission.getProject(), asList(aPermission), emptyList()));
+            var event = new ProjectPermissionsChangedEvent(this, aPermission.getProject(),
+                    asList(aPermission), emptyList());
+            invalidatePermissions(event);
+            applicationEventPublisher.publishEvent(event);
         }
     }
 
@@ -274,17 +297,117 @@ public class ProjectServiceImpl
     @Override
     @Transactional(readOnly = true)
     public List<PermissionLevel> listRoles(Project aProject, String aUser)
+    {
+        return getPermissionSnapshot(aUser, aProject).toList();
+    }
+
+    private PermissionSnapshot getPermissionSnapshot(String aUser, Project aProject)
+    {
+        if (aUser == null || aProject == null) {
+            return PermissionSnapshot.NONE;
+        }
+
+        // Projects which have not been saved yet cannot be reliably used as a cache key
+        if (aProject.getId() == null) {
+            return loadPermissionSnapshot(aUser, aProject);
+        }
+
+        return permissionCache.get(new PermissionCacheKey(aUser, aProject.getId()),
+                _key -> loadPermissionSnapshot(aUser, aProject));
+    }
+
+    private PermissionSnapshot loadPermissionSnapshot(String aUser, Project aProject)
     {
         var query = join("\n", //
                 "SELECT level ", //
                 "FROM ProjectPermission ", //
-                "WHERE user =:user AND project =:project ", //
-                "ORDER BY level");
+                "WHERE user =:user AND project =:project");
 
-        return entityManager.createQuery(query, PermissionLevel.class) //
+        return PermissionSnapshot.of(entityManager.createQuery(query, PermissionLevel.class) //
                 .setParameter("user", aUser) //
                 .setParameter("project", aProject) //
-                .getResultList();
+                .getResultList());
+    }
+
+    public CacheStats getPermissionCacheStats()
+    {
+        return permissionCache.stats();
+    }
+
+    public long getPermissionCacheSize()
+    {
+        return permissionCache.estimatedSize();
+    }
+
+    @EventListener
+    public void onProjectPermissionsChanged(ProjectPermissionsChangedEvent aEvent)
+    {
+        invalidatePermissions(aEvent);
+    }
+
+    @EventListener
+    public void onAfterProjectRemoved(AfterProjectRemovedEvent aEvent)
+    {
+        invalidatePermissions(aEvent.getProject());
+    }
+
+    private void invalidatePermissions(ProjectPermissionsChangedEvent aEvent)
+    {
+        var users = new HashSet<String>();
+        aEvent.getAddedPermissions().forEach(p -> users.add(p.getUser()));
+        aEvent.getRemovedPermissions().forEach(p -> users.add(p.getUser()));
+
+        if (users.isEmpty()) {
+            invalidatePermissions(aEvent.getProject());
+            return;
+        }
+
+        for (var user : users) {
+            invalidatePermissions(user, aEvent.getProject());
+        }
+    }
+
+    private void invalidatePermissions(String aUser, Project aProject)
+    {
+        if (aProject == null || aProject.getId() == null) {
+            return;
+        }
+
+        var key = new PermissionCacheKey(aUser, aProject.getId());
+        runNowAndAfterCompletion(() -> permissionCache.invalidate(key));
+    }
+
+    private void invalidatePermissions(Project aProject)
+    {
+        if (aProject == null || aProject.getId() == null) {
+            return;
+        }
+
+        var projectId = aProject.getId();
+        runNowAndAfterCompletion(() -> permissionCache.asMap().keySet()
+                .removeIf(key -> key.projectId() == projectId));
+    }
+
+    /**
+     * Invalidating immediately ensures that subsequent checks in the current transaction see the
+     * change. Invalidating again after the transaction completes discards any snapshot that a
+     * concurrent request may have loaded before the change was committed (or that was loaded
+     * within the transaction before it was rolled back).
+     */
+    private static void runNowAndAfterCompletion(Runnable aAction)
+    {
+        aAction.run();
+
+        if (isSynchronizationActive()) {
+            registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public void afterCompletion(int aStatus)
+                {
+                    aAction.run();
+                }
+            });
+        }
     }
 
     @Override
@@ -405,14 +528,7 @@ public class ProjectServiceImpl
     @Transactional(readOnly = true)
     public boolean hasAnyRole(User aUser, Project aProject)
     {
-        var query = join("\n", //
-                "SELECT COUNT(*) FROM ProjectPermission ", //
-                "WHERE user = :user AND project = :project");
-
-        return entityManager.createQuery(query, Long.class) //
-                .setParameter("user", aUser.getUsername()) //
-                .setParameter("project", aProject) //
-                .getSingleResult() > 0;
+        return !getPermissionSnapshot(aUser.getUsername(), aProject).isEmpty();
     }
 
     @Override
@@ -430,21 +546,13 @@ public class ProjectServiceImpl
     {
         Validate.notNull(aRole, "hasRole() requires at least one role to check");
 
-        var roles = new LinkedHashSet<>();
-        roles.add(aRole);
-        if (aMoreRoles != null) {
-            roles.addAll(asList(aMoreRoles));
-        }
+        var snapshot = getPermissionSnapshot(aUser, aProject);
 
-        var query = join("\n", //
-                "SELECT COUNT(*) FROM ProjectPermission ", //
-                "WHERE user = :user AND project = :project AND level IN (:roles)");
+        if (snapshot.contains(aRole)) {
+            return true;
+        }
 
-        return entityManager.createQuery(query, Long.class) //
-                .setParameter("user", aUser) //
-                .setParameter("project", aProject) //
-                .setParameter("roles", roles) //
-                .getSingleResult() > 0;
+        return aMoreRoles != null && snapshot.containsAny(asList(aMoreRoles));
     }
 
     @Override
@@ -574,8 +682,10 @@ public class ProjectServiceImpl
                         aProject);
             }
 
-            applicationEventPublisher.publishEvent(new ProjectPermissionsChangedEvent(this,
-                    aProject, grantedPermissions, revokedPermissions));
+            var event = new ProjectPermissionsChangedEvent(this, aProject, grantedPermissions,
+                    revokedPermissions);
+            invalidatePermissions(event);
+            applicationEventPublisher.publishEvent(event);
         }
     }
 
@@ -830,6 +940,7 @@ public class ProjectServiceImpl
             for (var permissions : getProjectPermissions(project)) {
                 entityManager.remove(permissions);
             }
+            invalidatePermissions(project);
 
             entityManager.remove(project);
 
@@ -879,8 +990,10 @@ public class ProjectServiceImpl
             LOG.info("Removed permission [{}] for user [{}] on project {}", aPermission.getLevel(),
                     aPermission.getUser(), aPermission.getProject());
 
-            applicationEventPublisher.publishEvent(new ProjectPermissionsChangedEvent(this,
-                    aPermission.getProject(), emptyList(), asList(aPermission)));
+            var event = new ProjectPermissionsChangedEvent(this, aPermission.getProject(),
+                    emptyList(), asList(aPermission));
+            invalidatePermissions(event);
+            applicationEventPublisher.publishEvent(event);
         }
     }
 
@@ -1346,4 +1459,6 @@ public class ProjectServiceImpl
             return new Realm(aRealmId, "<Project (deleted)>: " + projectId + ">");
         }
     }
+
+    private record PermissionCacheKey(String user, long projectId) {}
 }
@@ -26,6 +26,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
 
 import de.tudarmstadt.ukp.clarin.webanno.project.ProjectAccessImpl;
+import de.tudarmstadt.ukp.clarin.webanno.project.ProjectPermissionCacheAdapter;
 import de.tudarmstadt.ukp.clarin.webanno.project.ProjectPermissionExtension;
 import de.tudarmstadt.ukp.clarin.webanno.project.ProjectServiceImpl;
 import de.tudarmstadt.ukp.clarin.webanno.project.exporters.ProjectPermissionsExporter;
@@ -37,7 +38,9 @@ import de.tudarmstadt.ukp.inception.project.api.ProjectInitializer;
 import de.tudarmstadt.ukp.inception.project.api.ProjectService;
 import de.tudarmstadt.ukp.inception.project.api.footprint.FootprintProvider;
 import de.tudarmstadt.ukp.inception.project.api.footprint.FootprintProviderRegistry;
+import de.tudarmstadt.ukp.inception.project.api.footprint.FootprintTracker;
 import de.tudarmstadt.ukp.inception.project.footprint.FootprintProviderRegistryImpl;
+import de.tudarmstadt.ukp.inception.project.footprint.FootprintTrackerImpl;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 
@@ -58,6 +61,13 @@ public class ProjectServiceAutoConfiguration
                 entityManager);
     }
 
+    @Bean
+    public ProjectPermissionCacheAdapter projectPermissionCacheAdapter(
+            ProjectServiceImpl aProjectService)
+    {
+        return new ProjectPermissionCacheAdapter(aProjectService);
+    }
+
     @Bean
     public ProjectPermissionExtension projectPermissionExtension(UserDao aUserService,
             ProjectService aProjectService)
@@ -85,4 +95,12 @@ public class ProjectServiceAutoConfiguration
         return new FootprintProviderRegistryImpl(aExtensions);
     }
 
+    @Bean
+    public FootprintTracker footprintTracker(FootprintProviderRegistry aFootprintProviderRegistry,
+            ProjectService aProjectService, RepositoryProperties aRepositoryProperties)
+    {
+        return new FootprintTrackerImpl(aFootprintProviderRegistry, aProjectService,
+                aRepositoryProperties);
+    }
+
 }
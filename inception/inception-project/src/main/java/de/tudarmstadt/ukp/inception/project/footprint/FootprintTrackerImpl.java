@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.project.footprint;
+
+import static de.tudarmstadt.ukp.inception.project.api.ProjectService.PROJECT_FOLDER;
+import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.event.EventListener;
+
+import de.tudarmstadt.ukp.clarin.webanno.model.Project;
+import de.tudarmstadt.ukp.clarin.webanno.project.config.ProjectServiceAutoConfiguration;
+import de.tudarmstadt.ukp.inception.documents.api.RepositoryProperties;
+import de.tudarmstadt.ukp.inception.project.api.ProjectService;
+import de.tudarmstadt.ukp.inception.project.api.event.AfterProjectRemovedEvent;
+import de.tudarmstadt.ukp.inception.project.api.footprint.Footprint;
+import de.tudarmstadt.ukp.inception.project.api.footprint.FootprintProviderRegistry;
+import de.tudarmstadt.ukp.inception.project.api.footprint.FootprintTracker;
+import de.tudarmstadt.ukp.inception.support.json.JSONUtil;
+
+/**
+ * Tracks project footprints in memory and persists them to a file in the project folder.
+ * <p>
+ * The footprint of a project is computed in the background using the
+ * {@link FootprintProviderRegistry footprint providers} when it is first requested and no
+ * persisted footprint exists. Until then, the footprint is reported as unknown. Afterwards, it is
+ * maintained incrementally. Since not all storage changes are reported (e.g. bulk deletions of
+ * document folders), footprints are periodically reconciled in the background.
+ * <p>
+ * This class is exposed as a Spring Component via
+ * {@link ProjectServiceAutoConfiguration#footprintTracker}.
+ */
+public class FootprintTrackerImpl
+    implements FootprintTracker, DisposableBean
+{
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    static final String FOOTPRINT_FILE = "footprint.json";
+
+    private static final Duration FLUSH_INTERVAL = Duration.ofSeconds(30);
+    private static final Duration RECONCILIATION_CHECK_INTERVAL = Duration.ofMinutes(10);
+    private static final Duration RECONCILIATION_INTERVAL = Duration.ofHours(24);
+
+    private final FootprintProviderRegistry footprintProviderRegistry;
+    private final ProjectService projectService;
+    private final RepositoryProperties repositoryProperties;
+    private final ConcurrentMap<Long, TrackedFootprint> footprints = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    public FootprintTrackerImpl(FootprintProviderRegistry aFootprintProviderRegistry,
+            ProjectService aProjectService, RepositoryProperties aRepositoryProperties)
+    {
+        footprintProviderRegistry = aFootprintProviderRegistry;
+        projectService = aProjectService;
+        repositoryProperties = aRepositoryProperties;
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(new BasicThreadFactory.Builder() //
+                .daemon(true) //
+                .namingPattern("footprint-tracker-%d") //
+                .build());
+        scheduler.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL.toMillis(),
+                FLUSH_INTERVAL.toMillis(), MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::reconcileOutdated,
+                RECONCILIATION_CHECK_INTERVAL.toMillis(), RECONCILIATION_CHECK_INTERVAL.toMillis(),
+                MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() throws Exception
+    {
+        scheduler.shutdownNow();
+        flush();
+    }
+
+    @EventListener
+    public void onAfterProjectRemoved(AfterProjectRemovedEvent aEvent)
+    {
+        footprints.remove(aEvent.getProject().getId());
+    }
+
+    @Override
+    public Optional<List<Footprint>> getFootprint(Project aProject)
+    {
+        if (aProject.getId() == null) {
+            return Optional.of(computeFootprint(aProject));
+        }
+
+        var projectId = aProject.getId();
+        var tracked = getTrackedFootprint(projectId);
+        if (!tracked.isInitialized()) {
+            // Walking the storage may take long - do not block the caller (e.g. the UI)
+            if (tracked.requestReconciliation()) {
+                scheduler.execute(() -> reconcile(projectId));
+            }
+            return Optional.empty();
+        }
+
+        return Optional.of(tracked.toList());
+    }
+
+    @Override
+    public void adjust(Project aProject, String aCategory, long aDelta)
+    {
+        if (aProject.getId() == null) {
+            return;
+        }
+
+        getTrackedFootprint(aProject.getId()).adjust(aCategory, aDelta);
+    }
+
+    @Override
+    public void update(Project aProject, String aCategory, long aSize)
+    {
+        if (aProject.getId() == null) {
+            return;
+        }
+
+        getTrackedFootprint(aProject.getId()).update(aCategory, aSize);
+    }
+
+    @Override
+    public void requestReconciliation(Project aProject)
+    {
+        if (aProject.getId() == null) {
+            return;
+        }
+
+        var projectId = aProject.getId();
+        var tracked = getTrackedFootprint(projectId);
+        if (tracked.isInitialized() && tracked.requestReconciliation()) {
+            scheduler.execute(() -> reconcile(projectId));
+        }
+    }
+
+    private TrackedFootprint getTrackedFootprint(long aProjectId)
+    {
+        return footprints.computeIfAbsent(aProjectId, this::load);
+    }
+
+    private List<Footprint> computeFootprint(Project aProject)
+    {
+        return footprintProviderRegistry.getExtensions(aProject).stream() //
+                .flatMap(provider -> provider.getFootprint(aProject).stream()) //
+                .toList();
+    }
+
+    private void reconcile(Project aProject)
+    {
+        var start = currentTimeMillis();
+        var footprint = computeFootprint(aProject);
+
+        var tracked = getTrackedFootprint(aProject.getId());
+        tracked.reset(footprint, currentTimeMillis());
+        tracked.clearReconciliationRequest();
+
+        LOG.debug("Reconciled footprint of project {} in {}ms", aProject,
+                currentTimeMillis() - start);
+    }
+
+    private void reconcile(long aProjectId)
+    {
+        if (projectService.isProjectDeletionPending(aProjectId)) {
+            return;
+        }
+
+        try {
+            reconcile(projectService.getProject(aProjectId));
+        }
+        catch (Exception e) {
+            LOG.warn("Unable to reconcile footprint of project [{}]", aProjectId, e);
+            footprints.remove(aProjectId);
+        }
+    }
+
+    private void reconcileOutdated()
+    {
+        var threshold = currentTimeMillis() - RECONCILIATION_INTERVAL.toMillis();
+        for (var entry : new ArrayList<>(footprints.entrySet())) {
+            var tracked = entry.getValue();
+            if (tracked.isInitialized() && (tracked.getReconciled() < threshold
+                    || tracked.isReconciliationRequested())) {
+                reconcile(entry.getKey());
+            }
+        }
+    }
+
+    private File getFootprintFile(long aProjectId)
+    {
+        return new File(repositoryProperties.getPath(),
+                PROJECT_FOLDER + "/" + aProjectId + "/" + FOOTPRINT_FILE);
+    }
+
+    private TrackedFootprint load(long aProjectId)
+    {
+        var tracked = new TrackedFootprint();
+
+        var file = getFootprintFile(aProjectId);
+        if (!file.exists()) {
+            return tracked;
+        }
+
+        try (var is = Files.newInputStream(file.toPath())) {
+            var persisted = JSONUtil.fromJsonStream(PersistedFootprint.class, is);
+            tracked.reset(persisted.footprints(), persisted.reconciled());
+            // Nothing to write back yet
+            tracked.checkAndClearDirty();
+
+            if (persisted.reconciled() < currentTimeMillis() - RECONCILIATION_INTERVAL.toMillis()
+                    && tracked.requestReconciliation()) {
+                scheduler.execute(() -> reconcile(aProjectId));
+            }
+        }
+        catch (Exception e) {
+            LOG.warn("Unable to read footprint of project [{}] - will recompute", aProjectId, e);
+            return new TrackedFootprint();
+        }
+
+        return tracked;
+    }
+
+    private void flush()
+    {
+        for (var entry : footprints.entrySet()) {
+            var tracked = entry.getValue();
+            if (!tracked.isInitialized() || !tracked.checkAndClearDirty()) {
+                continue;
+            }
+
+            var file = getFootprintFile(entry.getKey());
+            // Do not re-create the folder of a project which has been removed
+            if (!file.getParentFile().isDirectory()) {
+                continue;
+            }
+
+            try {
+                JSONUtil.generatePrettyJson(
+                        new PersistedFootprint(tracked.getReconciled(), tracked.toList()), file);
+            }
+            catch (IOException e) {
+                LOG.warn("Unable to persist footprint of project [{}]", entry.getKey(), e);
+            }
+        }
+    }
+
+    record PersistedFootprint(long reconciled, List<Footprint> footprints) {}
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.project.footprint;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.tudarmstadt.ukp.inception.project.api.footprint.Footprint;
+
+/**
+ * Mutable, thread-safe footprint of a single project.
+ * <p>
+ * On {@link #reset}, a new set of counters is built and swapped in as a whole. Thus, readers never
+ * see a partially reset footprint and adjustments are never applied to a cleared category.
+ * Adjustments which race with a reset may be applied to the replaced counters and get lost, but
+ * the footprint was computed concurrently with them anyway.
+ */
+class TrackedFootprint
+{
+    private volatile Map<String, Category> categories = emptyMap();
+    private final AtomicBoolean reconciliationRequested = new AtomicBoolean();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    private volatile boolean initialized;
+    private volatile long reconciled;
+
+    /**
+     * @return whether the footprint has been computed at least once. An uninitialized footprint
+     *         is used to remember that there is no persisted footprint for a project.
+     */
+    boolean isInitialized()
+    {
+        return initialized;
+    }
+
+    long getReconciled()
+    {
+        return reconciled;
+    }
+
+    void reset(List<Footprint> aFootprints, long aTimestamp)
+    {
+        var newCategories = new HashMap<String, Category>();
+        for (var footprint : aFootprints) {
+            newCategories.merge(footprint.category(),
+                    new Category(footprint.size(), footprint.color()),
+                    (a, b) -> new Category(a.size.get() + b.size.get(), a.color));
+        }
+        categories = unmodifiableMap(newCategories);
+        reconciled = aTimestamp;
+        initialized = true;
+        dirty.set(true);
+    }
+
+    void adjust(String aCategory, long aDelta)
+    {
+        var category = categories.get(aCategory);
+        if (category != null && aDelta != 0) {
+            category.size.addAndGet(aDelta);
+            dirty.set(true);
+        }
+    }
+
+    void update(String aCategory, long aSize)
+    {
+        var category = categories.get(aCategory);
+        if (category != null && category.size.getAndSet(aSize) != aSize) {
+            dirty.set(true);
+        }
+    }
+
+    /**
+     * @return {@code true} if the reconciliation was not requested before.
+     */
+    boolean requestReconciliation()
+    {
+        return reconciliationRequested.compareAndSet(false, true);
+    }
+
+    boolean isReconciliationRequested()
+    {
+        return reconciliationRequested.get();
+    }
+
+    void clearReconciliationRequest()
+    {
+        reconciliationRequested.set(false);
+    }
+
+    /**
+     * @return whether the footprint has changed since the last call to this method.
+     */
+    boolean checkAndClearDirty()
+    {
+        return dirty.getAndSet(false);
+    }
+
+    List<Footprint> toList()
+    {
+        var current = categories;
+        var result = new ArrayList<Footprint>(current.size());
+        for (var entry : current.entrySet()) {
+            // Drift may cause negative values until the next reconciliation
+            var size = Math.max(entry.getValue().size.get(), 0);
+            result.add(new Footprint(entry.getKey(), size, entry.getValue().color));
+        }
+        return result;
+    }
+
+    private static final class Category
+    {
+        private final AtomicLong size;
+        private final String color;
+
+        Category(long aSize, String aColor)
+        {
+            size = new AtomicLong(aSize);
+            color = aColor;
+        }
+    }
+}
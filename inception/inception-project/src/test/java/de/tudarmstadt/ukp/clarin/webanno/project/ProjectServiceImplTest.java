@@ -290,6 +290,26 @@ public class ProjectServiceImplTest
         assertThat(sut.listRoles(testProject, beate)).isEmpty();
     }
 
+    @Test
+    void thatPermissionChecksAreServedFromCacheUntilPermissionsChange()
+    {
+        var impl = (ProjectServiceImpl) sut;
+
+        assertThat(sut.hasRole(kevin, testProject, ANNOTATOR)).isTrue();
+        var hitsBefore = impl.getPermissionCacheStats().hitCount();
+        assertThat(sut.hasRole(kevin, testProject, ANNOTATOR)).isTrue();
+        assertThat(sut.hasAnyRole(kevin, testProject)).isTrue();
+        assertThat(impl.getPermissionCacheStats().hitCount()).isEqualTo(hitsBefore + 2);
+
+        sut.revokeRole(testProject, kevin, ANNOTATOR);
+        assertThat(sut.hasRole(kevin, testProject, ANNOTATOR)).isFalse();
+        assertThat(sut.hasAnyRole(kevin, testProject)).isFalse();
+
+        sut.assignRole(testProject, kevin, CURATOR);
+        assertThat(sut.hasRole(kevin, testProject, ANNOTATOR, CURATOR)).isTrue();
+        assertThat(sut.listRoles(testProject, kevin)).containsExactly(CURATOR);
+    }
+
     @Test
     public void thatRemovingProjectAlsoDeletesProjectLogFile() throws Exception
     {
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.project.footprint;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.tudarmstadt.ukp.clarin.webanno.model.Project;
+import de.tudarmstadt.ukp.inception.documents.api.RepositoryProperties;
+import de.tudarmstadt.ukp.inception.project.api.ProjectService;
+import de.tudarmstadt.ukp.inception.project.api.footprint.Footprint;
+import de.tudarmstadt.ukp.inception.project.api.footprint.FootprintProvider;
+import de.tudarmstadt.ukp.inception.project.api.footprint.FootprintProviderRegistry;
+
+class FootprintTrackerImplTest
+{
+    private @TempDir File repositoryDir;
+
+    private Project project;
+    private CountDownLatch walkAllowed;
+    private FootprintTrackerImpl sut;
+
+    @BeforeEach
+    void setup()
+    {
+        project = Project.builder().withId(1l).withName("Test project").build();
+        walkAllowed = new CountDownLatch(1);
+
+        var provider = new FootprintProvider()
+        {
+            @Override
+            public List<Footprint> getFootprint(Project aProject)
+            {
+                try {
+                    walkAllowed.await();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return List.of(new Footprint("Documents", 100, "red"));
+            }
+
+            @Override
+            public String getId()
+            {
+                return "test";
+            }
+
+            @Override
+            public boolean accepts(Project aContext)
+            {
+                return true;
+            }
+        };
+
+        var providerRegistry = mock(FootprintProviderRegistry.class);
+        when(providerRegistry.getExtensions(project)).thenReturn(List.of(provider));
+        var projectService = mock(ProjectService.class);
+        when(projectService.getProject(project.getId())).thenReturn(project);
+        var repositoryProperties = mock(RepositoryProperties.class);
+        when(repositoryProperties.getPath()).thenReturn(repositoryDir);
+
+        sut = new FootprintTrackerImpl(providerRegistry, projectService, repositoryProperties);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        walkAllowed.countDown();
+        sut.destroy();
+    }
+
+    @Test
+    void thatInitialFootprintIsComputedInBackground() throws Exception
+    {
+        // The caller must not be blocked by the walk
+        assertThat(sut.getFootprint(project)).isEmpty();
+        assertThat(sut.getFootprint(project)).isEmpty();
+
+        walkAllowed.countDown();
+
+        var deadline = System.currentTimeMillis() + SECONDS.toMillis(10);
+        while (sut.getFootprint(project).isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(sut.getFootprint(project))
+                .contains(List.of(new Footprint("Documents", 100, "red")));
+
+        sut.adjust(project, "Documents", 20);
+
+        assertThat(sut.getFootprint(project))
+                .contains(List.of(new Footprint("Documents", 120, "red")));
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.project.footprint;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import de.tudarmstadt.ukp.inception.project.api.footprint.Footprint;
+
+class TrackedFootprintTest
+{
+    @Test
+    void thatAdjustmentsAreAppliedToKnownCategoriesOnly()
+    {
+        var sut = new TrackedFootprint();
+        sut.reset(asList(new Footprint("A", 100, "red"), new Footprint("B", 10, "blue")), 1);
+        sut.checkAndClearDirty();
+
+        sut.adjust("A", 50);
+        sut.adjust("B", -20);
+        sut.adjust("C", 1000);
+
+        assertThat(sut.checkAndClearDirty()).isTrue();
+        assertThat(sut.toList()).containsExactlyInAnyOrder( //
+                new Footprint("A", 150, "red"), //
+                new Footprint("B", 0, "blue"));
+    }
+
+    @Test
+    void thatResetReplacesDriftedValues()
+    {
+        var sut = new TrackedFootprint();
+        assertThat(sut.isInitialized()).isFalse();
+
+        sut.reset(asList(new Footprint("A", 100, "red")), 1);
+        sut.adjust("A", 42);
+        sut.reset(asList(new Footprint("A", 120, "red")), 2);
+
+        assertThat(sut.isInitialized()).isTrue();
+        assertThat(sut.getReconciled()).isEqualTo(2);
+        assertThat(sut.toList()).containsExactly(new Footprint("A", 120, "red"));
+    }
+
+    @Test
+    void thatResetIsNeverObservedHalfway() throws Exception
+    {
+        var footprints = asList(new Footprint("A", 100, "red"), new Footprint("B", 10, "blue"));
+
+        var sut = new TrackedFootprint();
+        sut.reset(footprints, 1);
+
+        var stop = new AtomicBoolean();
+        var resetter = new Thread(() -> {
+            while (!stop.get()) {
+                sut.reset(footprints, 2);
+            }
+        });
+        resetter.start();
+
+        try {
+            for (int i = 0; i < 100_000; i++) {
+                assertThat(sut.toList()).hasSize(2);
+            }
+        }
+        finally {
+            stop.set(true);
+            resetter.join();
+        }
+    }
+
+    @Test
+    void thatResetDropsRemovedCategories()
+    {
+        var sut = new TrackedFootprint();
+        sut.reset(asList(new Footprint("A", 100, "red"), new Footprint("B", 10, "blue")), 1);
+        sut.reset(asList(new Footprint("A", 120, "red")), 2);
+
+        sut.adjust("B", 5);
+
+        assertThat(sut.toList()).containsExactly(new Footprint("A", 120, "red"));
+    }
+
+    @Test
+    void thatReconciliationIsOnlyRequestedOnce()
+    {
+        var sut = new TrackedFootprint();
+
+        assertThat(sut.requestReconciliation()).isTrue();
+        assertThat(sut.requestReconciliation()).isFalse();
+
+        sut.clearReconciliationRequest();
+
+        assertThat(sut.requestReconciliation()).isTrue();
+    }
+}
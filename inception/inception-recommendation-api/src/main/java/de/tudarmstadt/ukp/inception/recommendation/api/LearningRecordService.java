@@ -27,6 +27,7 @@ import de.tudarmstadt.ukp.clarin.webanno.security.model.User;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.AnnotationSuggestion;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecord;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordChangeLocation;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordIndex;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordUserAction;
 
 public interface LearningRecordService
@@ -56,6 +57,21 @@ public interface LearningRecordService
     List<LearningRecord> listLearningRecords(String aSessionOwner, String aDataOwner,
             AnnotationLayer aLayer, int aLimit);
 
+    /**
+     * @return an index over the learning records of the given user and layer which can be used to
+     *         quickly find the records applying to a suggestion. Learning records with the action
+     *         {@link LearningRecordUserAction#SHOWN} are <b>not</b> included. The index is kept up
+     *         to date when records are logged or deleted and must not be modified by the caller.
+     * @param aSessionOwner
+     *            the user performing the action
+     * @param aDataOwner
+     *            the annotator user
+     * @param aLayer
+     *            the layer
+     */
+    LearningRecordIndex getLearningRecordIndex(String aSessionOwner, String aDataOwner,
+            AnnotationLayer aLayer);
+
     void deleteLearningRecord(LearningRecord learningRecord);
 
     /**
@@ -188,6 +188,35 @@ public interface RecommendationService
      */
     void putContext(User aSessionOwner, Recommender aRecommender, RecommenderContext aContext);
 
+    /**
+     * Returns a context previously trained by the given recommender on the given training data,
+     * possibly on behalf of another user.
+     *
+     * @param aRecommender
+     *            The recommender to which the desired context belongs.
+     * @param aTrainingDataFingerprint
+     *            The fingerprint of the training data.
+     * @return The trained context if there is one.
+     */
+    Optional<RecommenderContext> getTrainedContext(Recommender aRecommender,
+            String aTrainingDataFingerprint);
+
+    /**
+     * Publishes a new context for the given recommender. Contexts published with a fingerprint of
+     * their training data can be persisted and shared with other users training on the same data.
+     *
+     * @param aSessionOwner
+     *            The owner of the context.
+     * @param aRecommender
+     *            The recommender to which the desired context belongs.
+     * @param aTrainingDataFingerprint
+     *            The fingerprint of the training data.
+     * @param aContext
+     *            The new active context of the given recommender.
+     */
+    void putContext(User aSessionOwner, Recommender aRecommender, String aTrainingDataFingerprint,
+            RecommenderContext aContext);
+
     /**
      * Uses the given suggestion to create a new annotation or to update a feature in an existing
      * annotation. However, the given suggestion is not the one actually produced by a recommender
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.recommendation.api.model;
+
+import static java.util.Collections.emptyList;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Index over learning records which allows looking up the records that apply to a suggestion
+ * without scanning all records. Records are grouped by layer, document, feature and label and then
+ * by their (first) offsets. Within each group, records are kept in the order in which they were
+ * added, except that records added via {@link #add(LearningRecord)} come first.
+ * <p>
+ * The index is thread-safe.
+ */
+public class LearningRecordIndex
+{
+    private final Map<GroupKey, Map<OffsetKey, List<LearningRecord>>> groups = new HashMap<>();
+
+    public LearningRecordIndex()
+    {
+        // Empty index
+    }
+
+    /**
+     * @param aRecords
+     *            the records to index, typically ordered from the most recent to the oldest.
+     */
+    public LearningRecordIndex(Iterable<LearningRecord> aRecords)
+    {
+        for (var record : aRecords) {
+            bucket(record).add(record);
+        }
+    }
+
+    /**
+     * Adds a record as the most recent one.
+     * 
+     * @param aRecord
+     *            the record.
+     */
+    public synchronized void add(LearningRecord aRecord)
+    {
+        bucket(aRecord).add(0, aRecord);
+    }
+
+    /**
+     * Removes all records which are duplicates of the given record. Records are duplicates if they
+     * refer to the same suggestion, irrespective of the action the user performed on it.
+     * 
+     * @param aRecord
+     *            the record.
+     */
+    public synchronized void removeDuplicates(LearningRecord aRecord)
+    {
+        var offsets = groups.get(GroupKey.of(aRecord));
+        if (offsets == null) {
+            return;
+        }
+
+        var offsetKey = OffsetKey.of(aRecord);
+        var records = offsets.get(offsetKey);
+        if (records == null) {
+            return;
+        }
+
+        records.removeIf(r -> Objects.equals(r.getUser(), aRecord.getUser()) && //
+                r.getOffsetBegin2() == aRecord.getOffsetBegin2() && //
+                r.getOffsetEnd2() == aRecord.getOffsetEnd2() && //
+                Objects.equals(r.getSuggestionType(), aRecord.getSuggestionType()));
+
+        if (records.isEmpty()) {
+            offsets.remove(offsetKey);
+        }
+    }
+
+    /**
+     * Removes all records matching the given filter. This requires a scan over all records.
+     * 
+     * @param aFilter
+     *            the filter.
+     */
+    public synchronized void removeIf(Predicate<LearningRecord> aFilter)
+    {
+        for (var offsets : groups.values()) {
+            for (var records : offsets.values()) {
+                records.removeIf(aFilter);
+            }
+            offsets.values().removeIf(List::isEmpty);
+        }
+        groups.values().removeIf(Map::isEmpty);
+    }
+
+    /**
+     * @param aSuggestion
+     *            a suggestion.
+     * @param aBegin
+     *            the begin offset the records must have.
+     * @param aEnd
+     *            the end offset the records must have.
+     * @return the records on the layer, document and feature of the suggestion which have the
+     *         label of the suggestion and the given offsets.
+     */
+    public synchronized List<LearningRecord> get(AnnotationSuggestion aSuggestion, int aBegin,
+            int aEnd)
+    {
+        var offsets = groups.get(GroupKey.of(aSuggestion));
+        if (offsets == null) {
+            return emptyList();
+        }
+
+        var records = offsets.get(new OffsetKey(aBegin, aEnd));
+        if (records == null) {
+            return emptyList();
+        }
+
+        return List.copyOf(records);
+    }
+
+    /**
+     * @param aSuggestion
+     *            a suggestion.
+     * @return the records on the layer, document and feature of the suggestion which have the
+     *         label of the suggestion, irrespective of their offsets.
+     */
+    public synchronized List<LearningRecord> get(AnnotationSuggestion aSuggestion)
+    {
+        var offsets = groups.get(GroupKey.of(aSuggestion));
+        if (offsets == null) {
+            return emptyList();
+        }
+
+        var result = new ArrayList<LearningRecord>();
+        offsets.values().forEach(result::addAll);
+        return result;
+    }
+
+    private List<LearningRecord> bucket(LearningRecord aRecord)
+    {
+        return groups.computeIfAbsent(GroupKey.of(aRecord), $ -> new HashMap<>()) //
+                .computeIfAbsent(OffsetKey.of(aRecord), $ -> new ArrayList<>());
+    }
+
+    private record GroupKey(Long layerId, Long documentId, String feature, String label)
+    {
+        static GroupKey of(LearningRecord aRecord)
+        {
+            return new GroupKey( //
+                    aRecord.getLayer() != null ? aRecord.getLayer().getId() : null, //
+                    aRecord.getSourceDocument() != null ? aRecord.getSourceDocument().getId()
+                            : null, //
+                    aRecord.getAnnotationFeature() != null
+                            ? aRecord.getAnnotationFeature().getName()
+                            : null, //
+                    aRecord.getAnnotation());
+        }
+
+        static GroupKey of(AnnotationSuggestion aSuggestion)
+        {
+            return new GroupKey(aSuggestion.getLayerId(), aSuggestion.getDocumentId(),
+                    aSuggestion.getFeature(), aSuggestion.getLabel());
+        }
+    }
+
+    private record OffsetKey(int begin, int end)
+    {
+        static OffsetKey of(LearningRecord aRecord)
+        {
+            return new OffsetKey(aRecord.getOffsetBegin(), aRecord.getOffsetEnd());
+        }
+    }
+}
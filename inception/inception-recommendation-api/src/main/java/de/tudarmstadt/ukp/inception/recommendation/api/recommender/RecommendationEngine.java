@@ -28,7 +28,9 @@ import static org.apache.uima.fit.util.CasUtil.getType;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.Serializable;
 import java.util.List;
+import java.util.function.Function;
 
 import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.Feature;
@@ -49,6 +51,8 @@ public abstract class RecommendationEngine
     protected final String featureName;
     protected final int maxRecommendations;
 
+    private TrainingSampleCache trainingSampleCache;
+
     public RecommendationEngine(Recommender aRecommender)
     {
         recommender = aRecommender;
@@ -63,6 +67,45 @@ public abstract class RecommendationEngine
         return recommender;
     }
 
+    public void setTrainingSampleCache(TrainingSampleCache aTrainingSampleCache)
+    {
+        trainingSampleCache = aTrainingSampleCache;
+    }
+
+    /**
+     * @see #getSamples(String, CAS, Function)
+     */
+    protected <T extends Serializable> List<T> getSamples(CAS aCas,
+            Function<CAS, List<T>> aExtractor)
+    {
+        return getSamples(null, aCas, aExtractor);
+    }
+
+    /**
+     * Extracts the samples from the given CAS. If a {@link TrainingSampleCache} is available, the
+     * samples are only extracted if the document has changed since they were last extracted.
+     * 
+     * @param <T>
+     *            the sample type.
+     * @param aVariant
+     *            an identifier for the extractor, e.g. if the engine extracts samples in different
+     *            ways for training and evaluation.
+     * @param aCas
+     *            the CAS.
+     * @param aExtractor
+     *            the function extracting all samples from the CAS.
+     * @return the samples. The list must not be modified.
+     */
+    protected <T extends Serializable> List<T> getSamples(String aVariant, CAS aCas,
+            Function<CAS, List<T>> aExtractor)
+    {
+        if (trainingSampleCache == null) {
+            return aExtractor.apply(aCas);
+        }
+
+        return trainingSampleCache.get(recommender, aVariant, aCas, aExtractor);
+    }
+
     // tag::methodDefinition[]
     /**
      * Given training data in {@code aCasses}, train a model. In order to save data between runs,
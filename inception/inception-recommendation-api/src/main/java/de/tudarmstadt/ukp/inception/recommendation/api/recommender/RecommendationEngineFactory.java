@@ -58,6 +58,17 @@ public interface RecommendationEngineFactory<T>
         return true;
     }
 
+    /**
+     * @return {@code true} if the engines built by this factory for the given recommender may be
+     *         used to predict on several documents in parallel, e.g. during bulk processing. This
+     *         should only be the case if prediction does not modify shared state such as the
+     *         trained model. If {@code false} is returned, documents are predicted one at a time.
+     */
+    default boolean isConcurrentPredictionSupported(Recommender aRecommender)
+    {
+        return false;
+    }
+
     default boolean isModelExportSupported()
     {
         return false;
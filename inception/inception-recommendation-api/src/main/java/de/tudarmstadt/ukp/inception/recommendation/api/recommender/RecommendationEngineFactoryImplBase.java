@@ -26,6 +26,7 @@ import java.lang.invoke.MethodHandles;
 import org.apache.wicket.model.IModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import de.tudarmstadt.ukp.inception.recommendation.api.model.Recommender;
 
@@ -34,6 +35,19 @@ public abstract class RecommendationEngineFactoryImplBase<T>
 {
     private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+    private TrainingSampleCache trainingSampleCache;
+
+    @Autowired(required = false)
+    public void setTrainingSampleCache(TrainingSampleCache aTrainingSampleCache)
+    {
+        trainingSampleCache = aTrainingSampleCache;
+    }
+
+    public TrainingSampleCache getTrainingSampleCache()
+    {
+        return trainingSampleCache;
+    }
+
     @Override
     public AbstractTraitsEditor createTraitsEditor(String aId, IModel<Recommender> aModel)
     {
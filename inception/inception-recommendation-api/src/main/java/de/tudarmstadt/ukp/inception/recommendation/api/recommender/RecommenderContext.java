@@ -71,6 +71,14 @@ public class RecommenderContext
         return messages;
     }
 
+    /**
+     * @return a copy of the data stored in the context, e.g. to persist a trained model.
+     */
+    synchronized public Map<String, Object> getData()
+    {
+        return new HashMap<>(store);
+    }
+
     /**
      * Close the context. Further modifications to the context are not permitted.
      */
@@ -120,6 +128,17 @@ public class RecommenderContext
         project = aProject;
     }
 
+    /**
+     * Closed context holding the given data, e.g. a previously persisted trained model.
+     */
+    public static RecommenderContext restore(Map<String, Object> aData)
+    {
+        var ctx = new RecommenderContext();
+        ctx.store.putAll(aData);
+        ctx.close();
+        return ctx;
+    }
+
     /**
      * Empty context which starts out being closed.
      */
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.recommendation.api.recommender;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Function;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.uima.cas.CAS;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.tudarmstadt.ukp.inception.recommendation.api.model.Recommender;
+
+/**
+ * Cache for training samples extracted from CASes. Samples are cached per recommender
+ * configuration and per document version, i.e. when a document changes, only the samples of that
+ * document need to be extracted again. The samples are kept in a compressed serialized form and
+ * the least recently used entries are dropped when the cache exceeds its size limit.
+ * <p>
+ * The document version is determined from the {@code CASMetadata} of the CAS. Samples from CASes
+ * that do not carry a valid on-disk timestamp are not cached.
+ */
+public class TrainingSampleCache
+{
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final String TYPE_CAS_METADATA = //
+            "de.tudarmstadt.ukp.clarin.webanno.api.type.CASMetadata";
+    private static final String FEAT_SOURCE_DOCUMENT_ID = "sourceDocumentId";
+    private static final String FEAT_USERNAME = "username";
+    private static final String FEAT_LAST_CHANGED_ON_DISK = "lastChangedOnDisk";
+
+    private final long maxSize;
+
+    // Access-ordered, i.e. the least recently used entry comes first
+    private final LinkedHashMap<SampleKey, byte[]> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+
+    /**
+     * @param aMaxSize
+     *            maximum size of the cached (compressed) samples in bytes.
+     */
+    public TrainingSampleCache(long aMaxSize)
+    {
+        maxSize = aMaxSize;
+    }
+
+    /**
+     * Returns the samples for the given CAS, extracting them only if they are not cached yet.
+     * 
+     * @param <T>
+     *            the sample type.
+     * @param aRecommender
+     *            the recommender for which the samples are extracted. Its layer, feature and traits
+     *            are part of the cache key.
+     * @param aVariant
+     *            an identifier for the extractor, e.g. if an engine extracts samples in different
+     *            ways for training and evaluation.
+     * @param aCas
+     *            the CAS.
+     * @param aExtractor
+     *            the function extracting all samples from the CAS.
+     * @return the samples.
+     */
+    public <T extends Serializable> List<T> get(Recommender aRecommender, String aVariant,
+            CAS aCas, Function<CAS, List<T>> aExtractor)
+    {
+        var key = SampleKey.of(aRecommender, aVariant, aCas);
+        if (key == null) {
+            return aExtractor.apply(aCas);
+        }
+
+        byte[] data;
+        synchronized (this) {
+            data = cache.get(key);
+        }
+
+        if (data != null) {
+            try {
+                return deserialize(data);
+            }
+            catch (IOException | ClassNotFoundException | ClassCastException e) {
+                LOG.warn("Unable to read cached samples - extracting them again", e);
+                remove(key);
+            }
+        }
+
+        var samples = aExtractor.apply(aCas);
+
+        try {
+            put(key, serialize(samples));
+        }
+        catch (IOException e) {
+            LOG.debug("Unable to cache samples: {}", e.getMessage());
+        }
+
+        return samples;
+    }
+
+    public synchronized long getSize()
+    {
+        return size;
+    }
+
+    public synchronized void clear()
+    {
+        cache.clear();
+        size = 0;
+    }
+
+    private synchronized void put(SampleKey aKey, byte[] aData)
+    {
+        var previous = cache.put(aKey, aData);
+        if (previous != null) {
+            size -= previous.length;
+        }
+        size += aData.length;
+
+        var i = cache.entrySet().iterator();
+        while (size > maxSize && i.hasNext()) {
+            size -= i.next().getValue().length;
+            i.remove();
+        }
+    }
+
+    private synchronized void remove(SampleKey aKey)
+    {
+        var previous = cache.remove(aKey);
+        if (previous != null) {
+            size -= previous.length;
+        }
+    }
+
+    private static byte[] serialize(List<? extends Serializable> aSamples) throws IOException
+    {
+        var buffer = new ByteArrayOutputStream();
+        try (var out = new ObjectOutputStream(new DeflaterOutputStream(buffer))) {
+            out.writeObject(new ArrayList<>(aSamples));
+        }
+        return buffer.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> deserialize(byte[] aData) throws IOException, ClassNotFoundException
+    {
+        try (var in = new ObjectInputStream(
+                new InflaterInputStream(new ByteArrayInputStream(aData)))) {
+            return (List<T>) in.readObject();
+        }
+    }
+
+    private record SampleKey(long recommenderId, String layer, String feature, String traits,
+            String variant, long documentId, String username, long timestamp)
+    {
+        static SampleKey of(Recommender aRecommender, String aVariant, CAS aCas)
+        {
+            if (aRecommender == null || aRecommender.getId() == null) {
+                return null;
+            }
+
+            var type = aCas.getTypeSystem().getType(TYPE_CAS_METADATA);
+            if (type == null) {
+                return null;
+            }
+
+            var documentIdFeature = type.getFeatureByBaseName(FEAT_SOURCE_DOCUMENT_ID);
+            var usernameFeature = type.getFeatureByBaseName(FEAT_USERNAME);
+            var timestampFeature = type.getFeatureByBaseName(FEAT_LAST_CHANGED_ON_DISK);
+            if (documentIdFeature == null || usernameFeature == null || timestampFeature == null) {
+                return null;
+            }
+
+            var cmd = aCas.select(type).nullOK().get();
+            if (cmd == null) {
+                return null;
+            }
+
+            // Negative timestamps mark CASes which have not been written to disk (yet)
+            var timestamp = cmd.getLongValue(timestampFeature);
+            if (timestamp < 0) {
+                return null;
+            }
+
+            return new SampleKey(aRecommender.getId(),
+                    aRecommender.getLayer() != null ? aRecommender.getLayer().getName() : null,
+                    aRecommender.getFeature() != null ? aRecommender.getFeature().getName() : null,
+                    aRecommender.getTraits(), aVariant, cmd.getLongValue(documentIdFeature),
+                    cmd.getStringValue(usernameFeature), timestamp);
+        }
+    }
+}
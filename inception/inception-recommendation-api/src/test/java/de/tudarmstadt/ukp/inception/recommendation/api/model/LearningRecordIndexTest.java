@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.recommendation.api.model;
+
+import static de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordUserAction.ACCEPTED;
+import static de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordUserAction.REJECTED;
+import static de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordUserAction.SKIPPED;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationFeature;
+import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationLayer;
+import de.tudarmstadt.ukp.clarin.webanno.model.SourceDocument;
+
+class LearningRecordIndexTest
+{
+    private AnnotationLayer layer;
+    private AnnotationFeature feature;
+    private SourceDocument doc;
+    private Recommender rec;
+
+    @BeforeEach
+    void setup()
+    {
+        layer = AnnotationLayer.builder().withId(5l).withName("layer").build();
+        feature = AnnotationFeature.builder().withId(6l).withName("feature").withLayer(layer)
+                .build();
+        rec = Recommender.builder().withId(4l).withName("rec").withLayer(layer)
+                .withFeature(feature).build();
+        doc = SourceDocument.builder().withId(8l).withName("doc").build();
+    }
+
+    @Test
+    void thatRecordsAreFoundByLabelAndOffsets()
+    {
+        var r1 = record("A", 0, 5, REJECTED);
+        var r2 = record("B", 0, 5, REJECTED);
+        var r3 = record("A", 6, 9, SKIPPED);
+
+        var sut = new LearningRecordIndex(asList(r1, r2, r3));
+
+        assertThat(sut.get(suggestion("A", 0, 5), 0, 5)).containsExactly(r1);
+        assertThat(sut.get(suggestion("B", 0, 5), 0, 5)).containsExactly(r2);
+        assertThat(sut.get(suggestion("A", 6, 9), 6, 9)).containsExactly(r3);
+        assertThat(sut.get(suggestion("A", 0, 5))).containsExactlyInAnyOrder(r1, r3);
+        assertThat(sut.get(suggestion("C", 0, 5), 0, 5)).isEmpty();
+    }
+
+    @Test
+    void thatAddedRecordsComeFirst()
+    {
+        var r1 = record("A", 0, 5, REJECTED);
+        var r2 = record("A", 0, 5, ACCEPTED);
+
+        var sut = new LearningRecordIndex(asList(r1));
+        sut.add(r2);
+
+        assertThat(sut.get(suggestion("A", 0, 5), 0, 5)).containsExactly(r2, r1);
+    }
+
+    @Test
+    void thatDuplicatesAreRemoved()
+    {
+        var r1 = record("A", 0, 5, REJECTED);
+        var r2 = record("A", 0, 5, SKIPPED);
+        var r3 = record("A", 6, 9, REJECTED);
+
+        var sut = new LearningRecordIndex(asList(r1, r2, r3));
+        sut.removeDuplicates(record("A", 0, 5, ACCEPTED));
+
+        assertThat(sut.get(suggestion("A", 0, 5), 0, 5)).isEmpty();
+        assertThat(sut.get(suggestion("A", 6, 9), 6, 9)).containsExactly(r3);
+    }
+
+    @Test
+    void thatRecordsAreRemovedByFilter()
+    {
+        var r1 = record("A", 0, 5, REJECTED);
+        var r2 = record("A", 0, 5, SKIPPED);
+
+        var sut = new LearningRecordIndex(asList(r1, r2));
+        sut.removeIf(r -> r.getUserAction() == SKIPPED);
+
+        assertThat(sut.get(suggestion("A", 0, 5), 0, 5)).containsExactly(r1);
+    }
+
+    private LearningRecord record(String aLabel, int aBegin, int aEnd,
+            LearningRecordUserAction aAction)
+    {
+        return LearningRecord.builder() //
+                .withUser("user") //
+                .withLayer(layer) //
+                .withAnnotationFeature(feature) //
+                .withSourceDocument(doc) //
+                .withAnnotation(aLabel) //
+                .withOffsetBegin(aBegin) //
+                .withOffsetEnd(aEnd) //
+                .withOffsetBegin2(-1) //
+                .withOffsetEnd2(-1) //
+                .withSuggestionType("span") //
+                .withUserAction(aAction) //
+                .build();
+    }
+
+    private SpanSuggestion suggestion(String aLabel, int aBegin, int aEnd)
+    {
+        return SpanSuggestion.builder() //
+                .withRecommender(rec) //
+                .withDocument(doc) //
+                .withLabel(aLabel) //
+                .withPosition(aBegin, aEnd) //
+                .build();
+    }
+}
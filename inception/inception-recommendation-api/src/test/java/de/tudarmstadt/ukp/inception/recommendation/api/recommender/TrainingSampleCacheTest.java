@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.recommendation.api.recommender;
+
+import static org.apache.uima.cas.CAS.TYPE_NAME_ANNOTATION_BASE;
+import static org.apache.uima.cas.CAS.TYPE_NAME_LONG;
+import static org.apache.uima.cas.CAS.TYPE_NAME_STRING;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.fit.factory.CasFactory;
+import org.apache.uima.resource.metadata.impl.TypeSystemDescription_impl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.tudarmstadt.ukp.inception.recommendation.api.model.Recommender;
+
+class TrainingSampleCacheTest
+{
+    private static final String TYPE_CAS_METADATA = //
+            "de.tudarmstadt.ukp.clarin.webanno.api.type.CASMetadata";
+
+    private Recommender recommender;
+    private AtomicInteger extractions;
+
+    @BeforeEach
+    void setup()
+    {
+        recommender = new Recommender();
+        recommender.setId(1l);
+        extractions = new AtomicInteger();
+    }
+
+    @Test
+    void thatSamplesOfUnchangedDocumentAreNotExtractedAgain() throws Exception
+    {
+        var sut = new TrainingSampleCache(1024 * 1024);
+        var cas = createCas(1, 1000);
+
+        assertThat(sut.get(recommender, null, cas, this::extract)).containsExactly("a", "b");
+        assertThat(sut.get(recommender, null, cas, this::extract)).containsExactly("a", "b");
+        assertThat(extractions).hasValue(1);
+        assertThat(sut.getSize()).isPositive();
+    }
+
+    @Test
+    void thatSamplesOfChangedDocumentAreExtractedAgain() throws Exception
+    {
+        var sut = new TrainingSampleCache(1024 * 1024);
+
+        sut.get(recommender, null, createCas(1, 1000), this::extract);
+        sut.get(recommender, null, createCas(1, 2000), this::extract);
+        sut.get(recommender, "other", createCas(1, 2000), this::extract);
+
+        assertThat(extractions).hasValue(3);
+    }
+
+    @Test
+    void thatTransientDocumentsAreNotCached() throws Exception
+    {
+        var sut = new TrainingSampleCache(1024 * 1024);
+        var cas = createCas(1, -2);
+
+        sut.get(recommender, null, cas, this::extract);
+        sut.get(recommender, null, cas, this::extract);
+
+        assertThat(extractions).hasValue(2);
+        assertThat(sut.getSize()).isZero();
+    }
+
+    @Test
+    void thatCacheSizeIsLimited() throws Exception
+    {
+        var sut = new TrainingSampleCache(1);
+
+        sut.get(recommender, null, createCas(1, 1000), this::extract);
+        sut.get(recommender, null, createCas(1, 1000), this::extract);
+
+        assertThat(extractions).hasValue(2);
+        assertThat(sut.getSize()).isZero();
+    }
+
+    private List<String> extract(CAS aCas)
+    {
+        extractions.incrementAndGet();
+        return List.of("a", "b");
+    }
+
+    private static CAS createCas(long aDocumentId, long aTimestamp) throws Exception
+    {
+        var tsd = new TypeSystemDescription_impl();
+        var cmdType = tsd.addType(TYPE_CAS_METADATA, "", TYPE_NAME_ANNOTATION_BASE);
+        cmdType.addFeature("sourceDocumentId", "", TYPE_NAME_LONG);
+        cmdType.addFeature("username", "", TYPE_NAME_STRING);
+        cmdType.addFeature("lastChangedOnDisk", "", TYPE_NAME_LONG);
+
+        var cas = CasFactory.createCas(tsd);
+        var type = cas.getTypeSystem().getType(TYPE_CAS_METADATA);
+        var cmd = cas.createFS(type);
+        cmd.setLongValue(type.getFeatureByBaseName("sourceDocumentId"), aDocumentId);
+        cmd.setStringValue(type.getFeatureByBaseName("username"), "user");
+        cmd.setLongValue(type.getFeatureByBaseName("lastChangedOnDisk"), aTimestamp);
+        cas.addFsToIndexes(cmd);
+        return cas;
+    }
+}
@@ -17,11 +17,20 @@
  */
 package de.tudarmstadt.ukp.inception.recommendation.config;
 
+import de.tudarmstadt.ukp.inception.recommendation.config.RecommenderPropertiesImpl.Evaluation;
 import de.tudarmstadt.ukp.inception.recommendation.config.RecommenderPropertiesImpl.Messages;
+import de.tudarmstadt.ukp.inception.recommendation.config.RecommenderPropertiesImpl.ModelStore;
+import de.tudarmstadt.ukp.inception.recommendation.config.RecommenderPropertiesImpl.SampleCache;
 
 public interface RecommenderProperties
 {
     boolean isEnabled();
 
     Messages getMessages();
+
+    ModelStore getModelStore();
+
+    SampleCache getSampleCache();
+
+    Evaluation getEvaluation();
 }
@@ -17,7 +17,10 @@
  */
 package de.tudarmstadt.ukp.inception.recommendation.config;
 
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 /**
  * <p>
@@ -33,6 +36,12 @@ public class RecommenderPropertiesImpl
 
     private Messages messages = new Messages();
 
+    private ModelStore modelStore = new ModelStore();
+
+    private SampleCache sampleCache = new SampleCache();
+
+    private Evaluation evaluation = new Evaluation();
+
     @Override
     public boolean isEnabled()
     {
@@ -50,6 +59,132 @@ public class RecommenderPropertiesImpl
         return messages;
     }
 
+    @Override
+    public ModelStore getModelStore()
+    {
+        return modelStore;
+    }
+
+    @Override
+    public SampleCache getSampleCache()
+    {
+        return sampleCache;
+    }
+
+    @Override
+    public Evaluation getEvaluation()
+    {
+        return evaluation;
+    }
+
+    public static class Evaluation
+    {
+        /**
+         * Maximum number of recommenders which are evaluated concurrently when selecting the
+         * recommenders to activate. This is shared by all users. Every thread evaluates on its own
+         * copy of the documents, so more threads also need more memory.
+         */
+        private int threads = 1;
+
+        /**
+         * If set to a value larger than zero and a project contains more documents, the
+         * recommenders are only evaluated on a random (but stable) subset of that many documents.
+         */
+        private int maxDocuments = 0;
+
+        /**
+         * If set, evaluations which did not complete within this time are aborted. The affected
+         * recommenders are treated as if their evaluation could not be performed.
+         */
+        private Duration timeout = Duration.ZERO;
+
+        public int getThreads()
+        {
+            return threads;
+        }
+
+        public void setThreads(int aThreads)
+        {
+            threads = aThreads;
+        }
+
+        public int getMaxDocuments()
+        {
+            return maxDocuments;
+        }
+
+        public void setMaxDocuments(int aMaxDocuments)
+        {
+            maxDocuments = aMaxDocuments;
+        }
+
+        public Duration getTimeout()
+        {
+            return timeout;
+        }
+
+        public void setTimeout(Duration aTimeout)
+        {
+            timeout = aTimeout;
+        }
+    }
+
+    public static class SampleCache
+    {
+        /**
+         * Maximum size of the training samples which are kept in memory (in compressed form) such
+         * that they do not need to be extracted again from unchanged documents on the next training
+         * run.
+         */
+        private DataSize size = DataSize.ofMegabytes(128);
+
+        public DataSize getSize()
+        {
+            return size;
+        }
+
+        public void setSize(DataSize aSize)
+        {
+            size = aSize;
+        }
+    }
+
+    public static class ModelStore
+    {
+        /**
+         * If enabled, trained models are persisted to disk such that they are available right after
+         * a restart and are shared between users training on the same data.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Approximate amount of heap that trained models may occupy. If the budget is exceeded,
+         * the least recently used models are dropped from memory and re-loaded from disk when
+         * needed again.
+         */
+        private DataSize heapBudget = DataSize.ofMegabytes(512);
+
+        public boolean isEnabled()
+        {
+            return enabled;
+        }
+
+        public void setEnabled(boolean aEnabled)
+        {
+            enabled = aEnabled;
+        }
+
+        public DataSize getHeapBudget()
+        {
+            return heapBudget;
+        }
+
+        public void setHeapBudget(DataSize aHeapBudget)
+        {
+            heapBudget = aHeapBudget;
+        }
+    }
+
     public static class Messages
     {
         /**
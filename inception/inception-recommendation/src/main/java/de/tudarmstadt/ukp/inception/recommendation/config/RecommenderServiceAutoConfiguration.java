@@ -40,6 +40,7 @@ import org.springframework.security.core.session.SessionRegistry;
 
 import de.tudarmstadt.ukp.clarin.webanno.security.UserDao;
 import de.tudarmstadt.ukp.inception.documents.api.DocumentService;
+import de.tudarmstadt.ukp.inception.documents.api.RepositoryProperties;
 import de.tudarmstadt.ukp.inception.preferences.PreferencesService;
 import de.tudarmstadt.ukp.inception.project.api.ProjectService;
 import de.tudarmstadt.ukp.inception.recommendation.RecommendationEditorExtension;
@@ -50,6 +51,7 @@ import de.tudarmstadt.ukp.inception.recommendation.api.RecommenderFactoryRegistr
 import de.tudarmstadt.ukp.inception.recommendation.api.SuggestionSupport;
 import de.tudarmstadt.ukp.inception.recommendation.api.SuggestionSupportRegistry;
 import de.tudarmstadt.ukp.inception.recommendation.api.recommender.RecommendationEngineFactory;
+import de.tudarmstadt.ukp.inception.recommendation.api.recommender.TrainingSampleCache;
 import de.tudarmstadt.ukp.inception.recommendation.exporter.LearningRecordExporter;
 import de.tudarmstadt.ukp.inception.recommendation.exporter.RecommenderExporter;
 import de.tudarmstadt.ukp.inception.recommendation.footer.RecommendationEventFooterItem;
@@ -62,7 +64,9 @@ import de.tudarmstadt.ukp.inception.recommendation.project.ProjectRecommendersMe
 import de.tudarmstadt.ukp.inception.recommendation.project.RecommenderProjectSettingsPanelFactory;
 import de.tudarmstadt.ukp.inception.recommendation.render.RecommendationRenderer;
 import de.tudarmstadt.ukp.inception.recommendation.service.RecommendationServiceImpl;
+import de.tudarmstadt.ukp.inception.recommendation.service.RecommenderEvaluator;
 import de.tudarmstadt.ukp.inception.recommendation.service.RecommenderFactoryRegistryImpl;
+import de.tudarmstadt.ukp.inception.recommendation.service.RecommenderModelStore;
 import de.tudarmstadt.ukp.inception.recommendation.service.SuggestionSupportRegistryImpl;
 import de.tudarmstadt.ukp.inception.recommendation.sidebar.RecommendationSidebarFactory;
 import de.tudarmstadt.ukp.inception.recommendation.sidebar.llm.InteractiveRecommenderSidebarFactory;
@@ -92,11 +96,32 @@ public class RecommenderServiceAutoConfiguration
             RecommenderFactoryRegistry aRecommenderFactoryRegistry,
             SchedulingService aSchedulingService, AnnotationSchemaService aAnnoService,
             ProjectService aProjectService, ApplicationEventPublisher aApplicationEventPublisher,
-            SuggestionSupportRegistry aLayerRecommendtionSupportRegistry)
+            SuggestionSupportRegistry aLayerRecommendtionSupportRegistry,
+            RecommenderProperties aRecommenderProperties, RecommenderModelStore aModelStore)
     {
         return new RecommendationServiceImpl(aPreferencesService, aSessionRegistry, aUserRepository,
                 aRecommenderFactoryRegistry, aSchedulingService, aAnnoService, aProjectService,
-                entityManager, aApplicationEventPublisher, aLayerRecommendtionSupportRegistry);
+                entityManager, aApplicationEventPublisher, aLayerRecommendtionSupportRegistry,
+                aRecommenderProperties.getModelStore().isEnabled() ? aModelStore : null);
+    }
+
+    @Bean
+    public RecommenderModelStore recommenderModelStore(RepositoryProperties aRepositoryProperties,
+            RecommenderProperties aRecommenderProperties)
+    {
+        return new RecommenderModelStore(aRepositoryProperties, aRecommenderProperties);
+    }
+
+    @Bean
+    public RecommenderEvaluator recommenderEvaluator(RecommenderProperties aRecommenderProperties)
+    {
+        return new RecommenderEvaluator(aRecommenderProperties);
+    }
+
+    @Bean
+    public TrainingSampleCache trainingSampleCache(RecommenderProperties aRecommenderProperties)
+    {
+        return new TrainingSampleCache(aRecommenderProperties.getSampleCache().getSize().toBytes());
     }
 
     @Bean
@@ -78,6 +78,7 @@ import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationFeature;
 import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationLayer;
 import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationLayer_;
 import de.tudarmstadt.ukp.clarin.webanno.model.Project;
+import de.tudarmstadt.ukp.clarin.webanno.model.ProjectPermission;
 import de.tudarmstadt.ukp.clarin.webanno.model.SourceDocument;
 import de.tudarmstadt.ukp.clarin.webanno.security.UserDao;
 import de.tudarmstadt.ukp.clarin.webanno.security.model.User;
@@ -92,6 +93,7 @@ import de.tudarmstadt.ukp.inception.preferences.PreferencesService;
 import de.tudarmstadt.ukp.inception.project.api.ProjectService;
 import de.tudarmstadt.ukp.inception.project.api.event.AfterProjectRemovedEvent;
 import de.tudarmstadt.ukp.inception.project.api.event.BeforeProjectRemovedEvent;
+import de.tudarmstadt.ukp.inception.project.api.event.ProjectPermissionsChangedEvent;
 import de.tudarmstadt.ukp.inception.recommendation.api.LearningRecordService;
 import de.tudarmstadt.ukp.inception.recommendation.api.RecommendationService;
 import de.tudarmstadt.ukp.inception.recommendation.api.RecommenderFactoryRegistry;
@@ -104,6 +106,7 @@ import de.tudarmstadt.ukp.inception.recommendation.api.model.AutoAcceptMode;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.EvaluatedRecommender;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecord;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordChangeLocation;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordIndex;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordUserAction;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.Predictions;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.PredictionsSource;
@@ -163,6 +166,7 @@ public class RecommendationServiceImpl
     private final ApplicationEventPublisher applicationEventPublisher;
     private final PreferencesService preferencesService;
     private final SuggestionSupportRegistry suggestionSupportRegistry;
+    private final RecommenderModelStore modelStore;
 
     private final ConcurrentMap<RecommendationStateKey, AtomicInteger> trainingTaskCounter;
     private final ConcurrentMap<RecommendationStateKey, RecommendationState> states;
@@ -192,7 +196,8 @@ public class RecommendationServiceImpl
             SchedulingService aSchedulingService, AnnotationSchemaService aAnnoService,
             ProjectService aProjectService, EntityManager aEntityManager,
             ApplicationEventPublisher aApplicationEventPublisher,
-            SuggestionSupportRegistry aLayerRecommendtionSupportRegistry)
+            SuggestionSupportRegistry aLayerRecommendtionSupportRegistry,
+            RecommenderModelStore aModelStore)
     {
         preferencesService = aPreferencesService;
         sessionRegistry = aSessionRegistry;
@@ -204,6 +209,7 @@ public class RecommendationServiceImpl
         entityManager = aEntityManager;
         applicationEventPublisher = aApplicationEventPublisher;
         suggestionSupportRegistry = aLayerRecommendtionSupportRegistry;
+        modelStore = aModelStore;
 
         trainingTaskCounter = new ConcurrentHashMap<>();
         states = new ConcurrentHashMap<>();
@@ -218,7 +224,7 @@ public class RecommendationServiceImpl
     {
         this(aPreferencesService, aSessionRegistry, aUserRepository, aRecommenderFactoryRegistry,
                 aSchedulingService, aAnnoService, (ProjectService) null, aEntityManager, null,
-                aLayerRecommendtionSupportRegistry);
+                aLayerRecommendtionSupportRegistry, null);
     }
 
     @Override
@@ -971,6 +977,23 @@ public class RecommendationServiceImpl
         clearState(aEvent.getProject());
     }
 
+    @EventListener
+    public void onProjectPermissionsChanged(ProjectPermissionsChangedEvent aEvent)
+    {
+        if (modelStore == null) {
+            return;
+        }
+
+        // Changing the role of a user also revokes the old role. Only forget the models of users
+        // who have been removed from the project (or deleted).
+        var project = aEvent.getProject();
+        aEvent.getRemovedPermissions().stream() //
+                .map(ProjectPermission::getUser) //
+                .distinct() //
+                .filter(user -> projectService.listRoles(project, user).isEmpty()) //
+                .forEach(user -> modelStore.removeSessionOwner(project.getId(), user));
+    }
+
     @Override
     public void triggerPrediction(String aSessionOwner, String aEventName, SourceDocument aDocument,
             String aDataOwner)
@@ -1280,12 +1303,21 @@ public class RecommendationServiceImpl
     {
         Validate.notNull(aSessionOwner, "Username must be specified");
 
+        var projectIds = new HashSet<Long>();
         synchronized (states) {
             states.entrySet().stream() //
                     .filter(e -> aSessionOwner.equals(e.getKey().user()))
-                    .forEach(e -> e.getValue().reset());
+                    .forEach(e -> {
+                        e.getValue().reset();
+                        projectIds.add(e.getKey().projectId());
+                    });
             trainingTaskCounter.keySet().removeIf(key -> aSessionOwner.equals(key.user()));
         }
+
+        // Only the projects the session owner is working in can have published models
+        if (modelStore != null) {
+            projectIds.forEach(id -> modelStore.removeSessionOwner(id, aSessionOwner));
+        }
     }
 
     private void clearState(String aSessionOwner)
@@ -1309,6 +1341,11 @@ public class RecommendationServiceImpl
             trainingTaskCounter.keySet()
                     .removeIf(key -> Objects.equals(aProject.getId(), key.projectId()));
         }
+
+        // The models may no longer match the layer configuration
+        if (modelStore != null) {
+            modelStore.removeProject(aProject);
+        }
     }
 
     private void clearState(Project aProject)
@@ -1320,6 +1357,10 @@ public class RecommendationServiceImpl
             trainingTaskCounter.keySet()
                     .removeIf(key -> Objects.equals(aProject.getId(), key.projectId()));
         }
+
+        if (modelStore != null) {
+            modelStore.removeProject(aProject);
+        }
     }
 
     private void removePredictions(Recommender aRecommender)
@@ -1332,6 +1373,10 @@ public class RecommendationServiceImpl
                             entry.getKey().projectId()))
                     .forEach(entry -> entry.getValue().removePredictions(aRecommender));
         }
+
+        if (modelStore != null) {
+            modelStore.removeRecommender(aRecommender);
+        }
     }
 
     private void removePredictions(PredictionsSource aSource, Recommender aRecommender)
@@ -1369,8 +1414,15 @@ public class RecommendationServiceImpl
     {
         var state = getState(aSessionOwner, aRecommender.getProject());
         synchronized (state) {
-            return state.getContext(aRecommender);
+            var context = state.getContext(aRecommender);
+            if (context.isPresent() || modelStore == null) {
+                return context;
+            }
         }
+
+        // Contexts which have been persisted are not kept in the state. This also allows
+        // restoring the context after a restart without having to train again.
+        return modelStore.getLatest(aSessionOwner, aRecommender);
     }
 
     @Override
@@ -1383,6 +1435,35 @@ public class RecommendationServiceImpl
         }
     }
 
+    @Override
+    public Optional<RecommenderContext> getTrainedContext(Recommender aRecommender,
+            String aTrainingDataFingerprint)
+    {
+        if (modelStore == null) {
+            return Optional.empty();
+        }
+
+        return modelStore.get(aRecommender, aTrainingDataFingerprint);
+    }
+
+    @Override
+    public void putContext(User aSessionOwner, Recommender aRecommender,
+            String aTrainingDataFingerprint, RecommenderContext aContext)
+    {
+        Validate.isTrue(aContext.isClosed(), "Context must be closed");
+
+        if (modelStore == null || !modelStore.put(aSessionOwner.getUsername(), aRecommender,
+                aTrainingDataFingerprint, aContext)) {
+            putContext(aSessionOwner, aRecommender, aContext);
+            return;
+        }
+
+        var state = getState(aSessionOwner.getUsername(), aRecommender.getProject());
+        synchronized (state) {
+            state.removeContext(aRecommender);
+        }
+    }
+
     @Override
     @Transactional
     public AnnotationFS correctSuggestion(String aSessionOwner, SourceDocument aDocument,
@@ -1497,6 +1578,8 @@ public class RecommendationServiceImpl
 
     private static record RecommendationStateKey(String user, long projectId) {}
 
+    private static record DataOwnerAndLayer(String dataOwner, AnnotationLayer layer) {}
+
     /**
      * We are assuming that the user is actively working on one project at a time. Otherwise, the
      * RecommendationUserState might take up a lot of memory.
@@ -1511,7 +1594,8 @@ public class RecommendationServiceImpl
         private Map<Recommender, RecommenderContext> contexts;
         private Map<PredictionsSource, Predictions> activePredictions;
         private Map<PredictionsSource, Predictions> incomingPredictions;
-        private Map<AnnotationLayer, List<LearningRecord>> learningRecords;
+        private Map<DataOwnerAndLayer, List<LearningRecord>> learningRecords;
+        private Map<DataOwnerAndLayer, LearningRecordIndex> learningRecordIndexes;
         private int predictionsSinceLastEvaluation;
         private int predictionsUntilNextEvaluation;
 
@@ -1521,6 +1605,7 @@ public class RecommendationServiceImpl
             evaluatedRecommenders = new HashSetValuedHashMap<>();
             contexts = new ConcurrentHashMap<>();
             learningRecords = new ConcurrentHashMap<>();
+            learningRecordIndexes = new ConcurrentHashMap<>();
             activePredictions = new ConcurrentHashMap<>();
             incomingPredictions = new ConcurrentHashMap<>();
         }
@@ -1532,6 +1617,7 @@ public class RecommendationServiceImpl
             activePredictions = new ConcurrentHashMap<>();
             incomingPredictions = new ConcurrentHashMap<>();
             learningRecords = new ConcurrentHashMap<>();
+            learningRecordIndexes = new ConcurrentHashMap<>();
             predictionsSinceLastEvaluation = 0;
             predictionsUntilNextEvaluation = 0;
         }
@@ -1676,6 +1762,11 @@ public class RecommendationServiceImpl
             contexts.put(aRecommender, aContext);
         }
 
+        public void removeContext(Recommender aRecommender)
+        {
+            contexts.remove(aRecommender);
+        }
+
         public void removePredictions(Recommender aRecommender)
         {
             var sources = new HashSet<PredictionsSource>();
@@ -1743,24 +1834,47 @@ public class RecommendationServiceImpl
 
         public void logRecord(LearningRecord aRecord)
         {
-            var records = learningRecords.computeIfAbsent(aRecord.getLayer(),
+            var key = new DataOwnerAndLayer(aRecord.getUser(), aRecord.getLayer());
+            var records = learningRecords.computeIfAbsent(key,
                     $ -> RecommendationServiceImpl.this.loadLearningRecords(aRecord.getUser(),
                             aRecord.getLayer(), 0));
             records.add(0, aRecord);
+
+            var index = learningRecordIndexes.get(key);
+            if (index != null && aRecord.getUserAction() != LearningRecordUserAction.SHOWN) {
+                index.add(aRecord);
+            }
         }
 
         public List<LearningRecord> listLearningRecords(String aDataOwner, AnnotationLayer aLayer)
         {
-            return learningRecords.computeIfAbsent(aLayer,
+            return learningRecords.computeIfAbsent(new DataOwnerAndLayer(aDataOwner, aLayer),
                     $ -> RecommendationServiceImpl.this.loadLearningRecords(aDataOwner, aLayer, 0));
         }
 
+        public LearningRecordIndex getLearningRecordIndex(String aDataOwner,
+                AnnotationLayer aLayer)
+        {
+            return learningRecordIndexes.computeIfAbsent(
+                    new DataOwnerAndLayer(aDataOwner, aLayer),
+                    $ -> new LearningRecordIndex(listLearningRecords(aDataOwner, aLayer).stream()
+                            .filter(r -> r.getUserAction() != LearningRecordUserAction.SHOWN)
+                            .toList()));
+        }
+
         public void removeLearningRecords(String aDataOwner, SourceDocument aDocument)
         {
-            for (var records : learningRecords.values()) {
-                records.removeIf(r -> Objects.equals(r.getUser(), aDataOwner) && //
-                        Objects.equals(r.getSourceDocument(), aDocument));
-            }
+            learningRecords.forEach((key, records) -> {
+                if (Objects.equals(key.dataOwner(), aDataOwner)) {
+                    records.removeIf(r -> Objects.equals(r.getSourceDocument(), aDocument));
+                }
+            });
+
+            learningRecordIndexes.forEach((key, index) -> {
+                if (Objects.equals(key.dataOwner(), aDataOwner)) {
+                    index.removeIf(r -> Objects.equals(r.getSourceDocument(), aDocument));
+                }
+            });
         }
 
         public void removeLearningRecords(SourceDocument aDocument)
@@ -1768,11 +1882,21 @@ public class RecommendationServiceImpl
             for (var records : learningRecords.values()) {
                 records.removeIf(r -> Objects.equals(r.getSourceDocument(), aDocument));
             }
+
+            for (var index : learningRecordIndexes.values()) {
+                index.removeIf(r -> Objects.equals(r.getSourceDocument(), aDocument));
+            }
         }
 
         public void removeLearningRecords(LearningRecord aRecord)
         {
-            var records = learningRecords.get(aRecord.getLayer());
+            var key = new DataOwnerAndLayer(aRecord.getUser(), aRecord.getLayer());
+            var index = learningRecordIndexes.get(key);
+            if (index != null) {
+                index.removeDuplicates(aRecord);
+            }
+
+            var records = learningRecords.get(key);
             if (records == null) {
                 return;
             }
@@ -2072,6 +2196,17 @@ public class RecommendationServiceImpl
         return listLearningRecords(aSessionOwner, aDataOwner, aLayer, 0);
     }
 
+    @Transactional
+    @Override
+    public LearningRecordIndex getLearningRecordIndex(String aSessionOwner, String aDataOwner,
+            AnnotationLayer aLayer)
+    {
+        var state = getState(aSessionOwner, aLayer.getProject());
+        synchronized (state) {
+            return state.getLearningRecordIndex(aDataOwner, aLayer);
+        }
+    }
+
     private List<LearningRecord> loadLearningRecords(String aDataOwner, AnnotationLayer aLayer,
             int aLimit)
     {
@@ -2187,9 +2322,14 @@ public class RecommendationServiceImpl
     {
         var state = getState(aSessionOwner, aLayer.getProject());
         synchronized (state) {
-            state.learningRecords.getOrDefault(aLayer, Collections.emptyList())
-                    .removeIf(r -> Objects.equals(r.getUser(), aDataOwner.getUsername())
-                            && r.getUserAction() == SKIPPED);
+            var key = new DataOwnerAndLayer(aDataOwner.getUsername(), aLayer);
+            state.learningRecords.getOrDefault(key, Collections.emptyList())
+                    .removeIf(r -> r.getUserAction() == SKIPPED);
+
+            var index = state.learningRecordIndexes.get(key);
+            if (index != null) {
+                index.removeIf(r -> r.getUserAction() == SKIPPED);
+            }
         }
 
         String sql = String.join("\n", //
@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.recommendation.service;
+
+import static de.tudarmstadt.ukp.inception.support.uima.WebAnnoCasUtil.createCasCopy;
+import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.uima.UIMAException;
+import org.apache.uima.cas.CAS;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import de.tudarmstadt.ukp.inception.recommendation.api.evaluation.EvaluationResult;
+import de.tudarmstadt.ukp.inception.recommendation.config.RecommenderProperties;
+
+/**
+ * Runs recommender evaluations on behalf of the selection tasks.
+ * <p>
+ * By default, the evaluations are run one after the other on the calling thread using the CASes
+ * passed in. If more threads or a timeout are configured, the evaluations are run on a pool that
+ * is shared by all selection tasks. In this case, every worker evaluates serially on its own copy
+ * of the CASes. The CASes passed in are only accessed by the calling thread which owns them.
+ * <p>
+ * Evaluations cannot generally be stopped. When the timeout expires, running evaluations are
+ * interrupted and evaluations which have not started yet are skipped. Evaluations which ignore the
+ * interruption continue on their private CAS copies until they are done and their result is
+ * discarded.
+ */
+public class RecommenderEvaluator
+    implements DisposableBean
+{
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final int threads;
+    private final Duration timeout;
+    private final ExecutorService executor;
+
+    public RecommenderEvaluator(RecommenderProperties aProperties)
+    {
+        this(aProperties.getEvaluation().getThreads(), aProperties.getEvaluation().getTimeout());
+    }
+
+    public RecommenderEvaluator(int aThreads, Duration aTimeout)
+    {
+        threads = Math.max(1, aThreads);
+        timeout = aTimeout != null ? aTimeout : Duration.ZERO;
+        executor = Executors.newFixedThreadPool(threads, new BasicThreadFactory.Builder() //
+                .daemon(true) //
+                .namingPattern("recommender-evaluation-%d") //
+                .build());
+    }
+
+    @Override
+    public void destroy()
+    {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs the given evaluations.
+     * 
+     * @param aEvaluations
+     *            the evaluations.
+     * @param aCasses
+     *            the CASes to evaluate on. Must be owned by the calling thread.
+     * @return the outcomes of the evaluations in the order of the evaluations.
+     */
+    public List<Outcome> evaluate(List<Evaluation> aEvaluations, List<CAS> aCasses)
+    {
+        if (threads == 1 && !timeout.isPositive()) {
+            return aEvaluations.stream() //
+                    .map(evaluation -> run(evaluation, aCasses)) //
+                    .toList();
+        }
+
+        var outcomes = new AtomicReferenceArray<Outcome>(aEvaluations.size());
+        var queue = new ConcurrentLinkedQueue<Integer>();
+        IntStream.range(0, aEvaluations.size()).forEach(queue::add);
+
+        var deadline = System.nanoTime() + timeout.toNanos();
+        var workers = new ArrayList<Future<?>>();
+        try {
+            for (int i = 0; i < Math.min(threads, aEvaluations.size()); i++) {
+                // The copies are made here because the CASes belong to the calling thread
+                var casses = copy(aCasses);
+                workers.add(executor.submit(() -> {
+                    Integer next;
+                    while (!Thread.currentThread().isInterrupted()
+                            && (next = queue.poll()) != null) {
+                        outcomes.compareAndSet(next, null, run(aEvaluations.get(next), casses));
+                    }
+                }));
+            }
+
+            for (var worker : workers) {
+                try {
+                    if (timeout.isPositive()) {
+                        worker.get(Math.max(0, deadline - System.nanoTime()), NANOSECONDS);
+                    }
+                    else {
+                        worker.get();
+                    }
+                }
+                catch (TimeoutException e) {
+                    // Nothing must be started anymore once the deadline has passed
+                    queue.clear();
+                    worker.cancel(true);
+                }
+            }
+        }
+        catch (UIMAException | ExecutionException e) {
+            workers.forEach(worker -> worker.cancel(true));
+            return aEvaluations.stream().map(evaluation -> Outcome.failed(e, 0)).toList();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workers.forEach(worker -> worker.cancel(true));
+            queue.clear();
+            for (int i = 0; i < aEvaluations.size(); i++) {
+                outcomes.compareAndSet(i, null, Outcome.failed(e, 0));
+            }
+        }
+
+        queue.clear();
+        var result = new ArrayList<Outcome>(aEvaluations.size());
+        for (int i = 0; i < aEvaluations.size(); i++) {
+            if (outcomes.compareAndSet(i, null, Outcome.timedOut(timeout))) {
+                LOG.warn("Evaluation did not complete within {}s - its result is discarded",
+                        timeout.toSeconds());
+            }
+            result.add(outcomes.get(i));
+        }
+        return result;
+    }
+
+    private static Outcome run(Evaluation aEvaluation, List<CAS> aCasses)
+    {
+        var start = currentTimeMillis();
+        try {
+            var result = aEvaluation.evaluate(aCasses);
+            return new Outcome(result, null, currentTimeMillis() - start);
+        }
+        // Catching Throwable is intentional here as we want to continue the execution even if a
+        // particular recommender fails.
+        catch (Throwable e) {
+            return Outcome.failed(e, currentTimeMillis() - start);
+        }
+    }
+
+    private static List<CAS> copy(List<CAS> aCasses) throws UIMAException
+    {
+        var copies = new ArrayList<CAS>(aCasses.size());
+        for (var cas : aCasses) {
+            copies.add(createCasCopy(cas));
+        }
+        return copies;
+    }
+
+    @FunctionalInterface
+    public interface Evaluation
+    {
+        EvaluationResult evaluate(List<CAS> aCasses) throws Exception;
+    }
+
+    /**
+     * @param result
+     *            the evaluation result or {@code null} if the evaluation failed.
+     * @param failure
+     *            the reason why the evaluation failed, if it failed.
+     * @param duration
+     *            the time the evaluation took in milliseconds.
+     */
+    public record Outcome(EvaluationResult result, Throwable failure, long duration)
+    {
+        static Outcome failed(Throwable aFailure, long aDuration)
+        {
+            return new Outcome(null, aFailure, aDuration);
+        }
+
+        static Outcome timedOut(Duration aTimeout)
+        {
+            var result = EvaluationResult.skipped();
+            result.setErrorMsg(
+                    "Evaluation did not complete within " + aTimeout.toSeconds() + "s");
+            return new Outcome(result, null, aTimeout.toMillis());
+        }
+    }
+}
@@ -0,0 +1,546 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.recommendation.service;
+
+import static java.io.ObjectInputFilter.Config.createFilter;
+import static java.lang.String.join;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.FileSystemUtils;
+
+import de.tudarmstadt.ukp.clarin.webanno.model.Project;
+import de.tudarmstadt.ukp.inception.documents.api.RepositoryProperties;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.Recommender;
+import de.tudarmstadt.ukp.inception.recommendation.api.recommender.RecommenderContext;
+import de.tudarmstadt.ukp.inception.recommendation.config.RecommenderProperties;
+
+/**
+ * Stores trained recommender contexts on disk so that they survive a restart and can be shared
+ * between users. Models are identified by the fingerprint of the data they were trained on, so
+ * users training the same recommender on the same data (e.g. on the curated documents) share a
+ * single model. For every session owner and recommender, the store additionally remembers the
+ * model that was last published such that it can be restored without retraining.
+ * <p>
+ * Recently used models are kept in memory. If their (approximate) size exceeds the heap budget,
+ * the least recently used models are dropped from memory and re-loaded from disk on demand.
+ * <p>
+ * Only contexts whose data is fully serializable can be stored.
+ * <p>
+ * The store is safe for concurrent use. Models are serialized, written and read without holding a
+ * lock. Updating the references is serialized per project.
+ */
+public class RecommenderModelStore
+{
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    public static final String MODELS_FOLDER = "recommender-models";
+
+    private static final String MODEL_SUFFIX = ".model";
+    private static final String REFS_FILE = "refs.properties";
+
+    // The model files are only written by us, but they live in the repository folder. Restrict
+    // deserialization to the classes used in the contexts of the recommenders.
+    private static final ObjectInputFilter MODEL_INPUT_FILTER = createFilter(join(";", //
+            "java.lang.*", //
+            "java.util.**", //
+            "de.tudarmstadt.ukp.**", //
+            "opennlp.tools.**", //
+            "org.apache.commons.collections4.**", //
+            "org.apache.commons.lang3.tuple.*", //
+            "!*"));
+
+    private final Path root;
+    private final long heapBudget;
+
+    // Access-ordered, i.e. the least recently used model comes first. Guarded by itself.
+    private final LinkedHashMap<ModelKey, CachedModel> cache = new LinkedHashMap<>(16, 0.75f,
+            true);
+    private long cacheSize;
+
+    // Changes to the references of a project are guarded by the lock of the project
+    private final ConcurrentMap<Long, Object> projectLocks = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Object> refsWriteLocks = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Properties> refs = new ConcurrentHashMap<>();
+
+    // Models currently being written to disk which are not yet referenced
+    private final Map<ModelKey, Integer> writing = new ConcurrentHashMap<>();
+
+    public RecommenderModelStore(RepositoryProperties aRepositoryProperties,
+            RecommenderProperties aRecommenderProperties)
+    {
+        this(aRepositoryProperties.getPath().toPath().resolve(MODELS_FOLDER),
+                aRecommenderProperties.getModelStore().getHeapBudget().toBytes());
+    }
+
+    public RecommenderModelStore(Path aRoot, long aHeapBudget)
+    {
+        root = aRoot;
+        heapBudget = aHeapBudget;
+    }
+
+    /**
+     * @param aRecommender
+     *            the recommender.
+     * @param aFingerprint
+     *            the fingerprint of the training data.
+     * @return the context trained by the given recommender on the given data, if available.
+     */
+    public Optional<RecommenderContext> get(Recommender aRecommender, String aFingerprint)
+    {
+        var key = new ModelKey(aRecommender.getProject().getId(), aFingerprint);
+
+        synchronized (cache) {
+            var cached = cache.get(key);
+            if (cached != null) {
+                return Optional.of(cached.context());
+            }
+        }
+
+        var file = modelFile(key);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+
+        try (var in = Files.newInputStream(file)) {
+            var size = Files.size(file);
+            var ctx = RecommenderContext.restore(deserialize(in));
+            ctx.setProject(aRecommender.getProject());
+            cache(key, ctx, size);
+            LOG.debug("Loaded model [{}] of {} from disk", aFingerprint, aRecommender);
+            return Optional.of(ctx);
+        }
+        catch (NoSuchFileException e) {
+            // Concurrently removed because it is no longer referenced
+            return Optional.empty();
+        }
+        catch (IOException | ClassNotFoundException | ClassCastException e) {
+            // E.g. the model classes have changed in an incompatible way after an upgrade
+            LOG.warn("Unable to load model [{}] of {} - discarding it", aFingerprint, aRecommender,
+                    e);
+            synchronized (projectLock(key.projectId())) {
+                if (!writing.containsKey(key)) {
+                    deleteModel(key);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @param aSessionOwner
+     *            the session owner.
+     * @param aRecommender
+     *            the recommender.
+     * @return the context last published for the given session owner and recommender, if
+     *         available.
+     */
+    public Optional<RecommenderContext> getLatest(String aSessionOwner, Recommender aRecommender)
+    {
+        var fingerprint = refs(aRecommender.getProject().getId())
+                .getProperty(refKey(aSessionOwner, aRecommender));
+        if (fingerprint == null) {
+            return Optional.empty();
+        }
+
+        return get(aRecommender, fingerprint);
+    }
+
+    /**
+     * Stores the given context and makes it the latest one for the given session owner and
+     * recommender.
+     * <p>
+     * The context is serialized and written to disk without holding any lock. Only updating the
+     * references and the in-memory cache is serialized, and only per project.
+     * 
+     * @param aSessionOwner
+     *            the session owner.
+     * @param aRecommender
+     *            the recommender.
+     * @param aFingerprint
+     *            the fingerprint of the training data.
+     * @param aContext
+     *            the trained context. Must be closed.
+     * @return whether the context could be stored. If not, e.g. because the context contains data
+     *         that cannot be serialized, the caller must keep the context itself.
+     */
+    public boolean put(String aSessionOwner, Recommender aRecommender, String aFingerprint,
+            RecommenderContext aContext)
+    {
+        var projectId = aRecommender.getProject().getId();
+        var key = new ModelKey(projectId, aFingerprint);
+        var projectRefs = refs(projectId);
+
+        boolean known;
+        synchronized (cache) {
+            var cached = cache.get(key);
+            known = cached != null && cached.context() == aContext;
+        }
+
+        long size = 0;
+        if (!known) {
+            // Keep the garbage collection from deleting the file before it is referenced
+            synchronized (projectLock(projectId)) {
+                writing.merge(key, 1, Integer::sum);
+            }
+
+            try {
+                var data = serialize(aContext.getData());
+                write(modelFile(key), data);
+                size = data.length;
+            }
+            catch (NotSerializableException e) {
+                LOG.trace("Context of {} cannot be serialized: {}", aRecommender, e.getMessage());
+                doneWriting(key);
+                return false;
+            }
+            catch (IOException e) {
+                LOG.warn("Unable to persist model [{}] of {}", aFingerprint, aRecommender, e);
+                doneWriting(key);
+                return false;
+            }
+        }
+
+        String previous;
+        synchronized (projectLock(projectId)) {
+            if (!known) {
+                writing.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+                cache(key, aContext, size);
+            }
+
+            previous = (String) projectRefs.setProperty(refKey(aSessionOwner, aRecommender),
+                    aFingerprint);
+            if (aFingerprint.equals(previous)) {
+                return true;
+            }
+
+            if (previous != null) {
+                collectGarbage(projectId, List.of(previous));
+            }
+        }
+
+        writeRefs(projectId);
+
+        return true;
+    }
+
+    /**
+     * Forgets all models of the given recommender, e.g. because it was deleted or its
+     * configuration has changed.
+     * 
+     * @param aRecommender
+     *            the recommender.
+     */
+    public void removeRecommender(Recommender aRecommender)
+    {
+        var prefix = aRecommender.getId() + "/";
+        removeRefs(aRecommender.getProject().getId(), key -> key.startsWith(prefix));
+    }
+
+    /**
+     * Forgets which models were last published for the given session owner in the given project.
+     * The models themselves are kept as long as they are used by other users.
+     * 
+     * @param aProjectId
+     *            the project.
+     * @param aSessionOwner
+     *            the session owner.
+     */
+    public void removeSessionOwner(long aProjectId, String aSessionOwner)
+    {
+        var suffix = "/" + aSessionOwner;
+        removeRefs(aProjectId, key -> key.endsWith(suffix));
+    }
+
+    /**
+     * Removes all models of the given project.
+     * 
+     * @param aProject
+     *            the project.
+     */
+    public void removeProject(Project aProject)
+    {
+        var projectId = aProject.getId();
+
+        synchronized (projectLock(projectId)) {
+            refs.remove(projectId);
+            synchronized (cache) {
+                var i = cache.entrySet().iterator();
+                while (i.hasNext()) {
+                    var entry = i.next();
+                    if (entry.getKey().projectId() == projectId) {
+                        cacheSize -= entry.getValue().size();
+                        i.remove();
+                    }
+                }
+            }
+        }
+
+        try {
+            FileSystemUtils.deleteRecursively(projectFolder(projectId));
+        }
+        catch (IOException e) {
+            LOG.warn("Unable to remove models of {}", aProject, e);
+        }
+    }
+
+    long getCacheSize()
+    {
+        synchronized (cache) {
+            return cacheSize;
+        }
+    }
+
+    int getCachedModelCount()
+    {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private Object projectLock(long aProjectId)
+    {
+        return projectLocks.computeIfAbsent(aProjectId, id -> new Object());
+    }
+
+    private void doneWriting(ModelKey aKey)
+    {
+        synchronized (projectLock(aKey.projectId())) {
+            writing.computeIfPresent(aKey, (k, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    private void removeRefs(long aProjectId, Predicate<String> aFilter)
+    {
+        var projectRefs = refs(aProjectId);
+
+        // Listing the folder is done before taking the lock - models that are stored in the
+        // meantime are referenced and the garbage collection would not touch them anyway
+        var stored = listModels(aProjectId);
+
+        synchronized (projectLock(aProjectId)) {
+            if (!projectRefs.keySet().removeIf(key -> aFilter.test((String) key))) {
+                return;
+            }
+
+            collectGarbage(aProjectId, stored);
+        }
+
+        writeRefs(aProjectId);
+    }
+
+    private void cache(ModelKey aKey, RecommenderContext aContext, long aSize)
+    {
+        synchronized (cache) {
+            var previous = cache.put(aKey, new CachedModel(aContext, aSize));
+            if (previous != null) {
+                cacheSize -= previous.size();
+            }
+            cacheSize += aSize;
+
+            // Always keep at least the model that has just been added
+            var i = cache.entrySet().iterator();
+            while (cacheSize > heapBudget && cache.size() > 1) {
+                var eldest = i.next();
+                cacheSize -= eldest.getValue().size();
+                i.remove();
+                LOG.trace("Dropped model [{}] from memory", eldest.getKey().fingerprint());
+            }
+        }
+    }
+
+    /**
+     * Deletes those of the given models of the given project which are no longer referenced by
+     * any user. Must be called while holding the lock of the project.
+     */
+    private void collectGarbage(long aProjectId, Collection<String> aCandidates)
+    {
+        var referenced = new HashSet<>(refs(aProjectId).values());
+
+        for (var fingerprint : aCandidates) {
+            var key = new ModelKey(aProjectId, fingerprint);
+            if (!referenced.contains(fingerprint) && !writing.containsKey(key)) {
+                deleteModel(key);
+            }
+        }
+    }
+
+    private List<String> listModels(long aProjectId)
+    {
+        var folder = projectFolder(aProjectId);
+        if (!Files.isDirectory(folder)) {
+            return List.of();
+        }
+
+        try (var files = Files.list(folder)) {
+            return files.map(file -> file.getFileName().toString()) //
+                    .filter(name -> name.endsWith(MODEL_SUFFIX)) //
+                    .map(name -> name.substring(0, name.length() - MODEL_SUFFIX.length())) //
+                    .toList();
+        }
+        catch (IOException e) {
+            LOG.warn("Unable to list models of project [{}]", aProjectId, e);
+            return List.of();
+        }
+    }
+
+    private void deleteModel(ModelKey aKey)
+    {
+        synchronized (cache) {
+            var cached = cache.remove(aKey);
+            if (cached != null) {
+                cacheSize -= cached.size();
+            }
+        }
+
+        try {
+            Files.deleteIfExists(modelFile(aKey));
+        }
+        catch (IOException e) {
+            LOG.warn("Unable to delete model [{}]", aKey.fingerprint(), e);
+        }
+    }
+
+    private Properties refs(long aProjectId)
+    {
+        var projectRefs = refs.get(aProjectId);
+        if (projectRefs != null) {
+            return projectRefs;
+        }
+
+        // Read outside the map such that loading one project does not block the others. If
+        // another thread was faster, its instance wins.
+        var props = new Properties();
+        var file = projectFolder(aProjectId).resolve(REFS_FILE);
+        if (Files.exists(file)) {
+            try (var in = Files.newInputStream(file)) {
+                props.load(in);
+            }
+            catch (IOException e) {
+                LOG.warn("Unable to read model references of project [{}]", aProjectId, e);
+            }
+        }
+
+        var existing = refs.putIfAbsent(aProjectId, props);
+        return existing != null ? existing : props;
+    }
+
+    /**
+     * Writes the references of the given project to disk. Must not be called while holding the
+     * lock of the project. The snapshot is taken while holding the write lock of the project, so
+     * the last write always contains the latest state.
+     */
+    private void writeRefs(long aProjectId)
+    {
+        synchronized (refsWriteLocks.computeIfAbsent(aProjectId, id -> new Object())) {
+            try {
+                var buffer = new ByteArrayOutputStream();
+                synchronized (projectLock(aProjectId)) {
+                    var projectRefs = refs.get(aProjectId);
+                    if (projectRefs == null) {
+                        // Project has been removed in the meantime
+                        return;
+                    }
+                    projectRefs.store(buffer, null);
+                }
+                write(projectFolder(aProjectId).resolve(REFS_FILE), buffer.toByteArray());
+            }
+            catch (IOException e) {
+                LOG.warn("Unable to write model references of project [{}]", aProjectId, e);
+            }
+        }
+    }
+
+    private Path projectFolder(long aProjectId)
+    {
+        return root.resolve(String.valueOf(aProjectId));
+    }
+
+    private Path modelFile(ModelKey aKey)
+    {
+        return projectFolder(aKey.projectId()).resolve(aKey.fingerprint() + MODEL_SUFFIX);
+    }
+
+    private static String refKey(String aSessionOwner, Recommender aRecommender)
+    {
+        return aRecommender.getId() + "/" + aSessionOwner;
+    }
+
+    private static void write(Path aFile, byte[] aData) throws IOException
+    {
+        Files.createDirectories(aFile.getParent());
+        var temp = aFile.resolveSibling(aFile.getFileName() + ".tmp");
+        Files.write(temp, aData);
+        Files.move(temp, aFile, REPLACE_EXISTING, ATOMIC_MOVE);
+    }
+
+    private static byte[] serialize(Map<String, Object> aData) throws IOException
+    {
+        for (var entry : aData.entrySet()) {
+            if (entry.getValue() != null && !(entry.getValue() instanceof Serializable)) {
+                throw new NotSerializableException(entry.getKey());
+            }
+        }
+
+        var buffer = new ByteArrayOutputStream();
+        try (var out = new ObjectOutputStream(buffer)) {
+            out.writeObject(new HashMap<>(aData));
+        }
+        return buffer.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> deserialize(InputStream aIn)
+        throws IOException, ClassNotFoundException
+    {
+        try (var in = new ObjectInputStream(aIn)) {
+            in.setObjectInputFilter(MODEL_INPUT_FILTER);
+            return (Map<String, Object>) in.readObject();
+        }
+    }
+
+    private record ModelKey(long projectId, String fingerprint) {}
+
+    private record CachedModel(RecommenderContext context, long size) {}
+}
@@ -20,13 +20,19 @@ package de.tudarmstadt.ukp.inception.recommendation.tasks;
 import static de.tudarmstadt.ukp.clarin.webanno.api.casstorage.CasAccessMode.SHARED_READ_ONLY_ACCESS;
 import static de.tudarmstadt.ukp.clarin.webanno.api.casstorage.CasUpgradeMode.AUTO_CAS_UPGRADE;
 import static de.tudarmstadt.ukp.clarin.webanno.model.AnnotationDocumentState.NEW;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Comparator.comparing;
 
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
@@ -71,6 +77,53 @@ public class LazyCasLoader
                 .toList();
     }
 
+    /**
+     * Calculates a fingerprint of the data the given recommender would be trained on. The
+     * fingerprint is based on the recommender configuration, the data owner and the state and
+     * last modification time of the documents. It can be calculated without loading the CASes.
+     *
+     * @param aRecommender
+     *            the recommender.
+     * @return the fingerprint.
+     * @throws IOException
+     *             if the modification time of a document cannot be determined.
+     */
+    public String getTrainingDataFingerprint(Recommender aRecommender) throws IOException
+    {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        update(digest, aRecommender.getId(), aRecommender.getTool(), aRecommender.getTraits(),
+                aRecommender.getLayer().getName(), aRecommender.getFeature().getName(),
+                aRecommender.getStatesIgnoredForTraining().stream().sorted().toList(),
+                dataOwner);
+
+        var documents = get().stream() //
+                .filter(e -> isStateAllowingForTraining(aRecommender, e)) //
+                .sorted(comparing(e -> e.document.getId())) //
+                .toList();
+        for (var doc : documents) {
+            update(digest, doc.document.getId(), doc.state, doc.getTimestamp().orElse(null));
+        }
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest aDigest, Object... aValues)
+    {
+        for (var value : aValues) {
+            if (value != null) {
+                aDigest.update(String.valueOf(value).getBytes(UTF_8));
+            }
+            aDigest.update((byte) 0);
+        }
+    }
+
     private boolean isStateAllowingForTraining(Recommender aRecommender, TrainingDocument e)
     {
         var result = !aRecommender.getStatesIgnoredForTraining().contains(e.state);
@@ -143,6 +196,7 @@ public class LazyCasLoader
 
         private boolean attemptedLoading = false;
         private CAS _cas;
+        private Optional<Long> _timestamp;
 
         TrainingDocument(SourceDocument aDocument, String aDataOwner,
                 AnnotationDocumentState aState)
@@ -172,6 +226,15 @@ public class LazyCasLoader
             return _cas;
         }
 
+        private Optional<Long> getTimestamp() throws IOException
+        {
+            if (_timestamp == null) {
+                _timestamp = documentService.getAnnotationCasTimestamp(document, set);
+            }
+
+            return _timestamp;
+        }
+
         @Override
         public String toString()
         {
@@ -25,8 +25,12 @@ import static java.text.MessageFormat.format;
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.concurrent.ConcurrentException;
@@ -49,10 +53,13 @@ import de.tudarmstadt.ukp.inception.recommendation.api.evaluation.EvaluationResu
 import de.tudarmstadt.ukp.inception.recommendation.api.evaluation.PercentageBasedSplitter;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.EvaluatedRecommender;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.Recommender;
+import de.tudarmstadt.ukp.inception.recommendation.api.recommender.RecommendationEngine;
 import de.tudarmstadt.ukp.inception.recommendation.api.recommender.RecommendationException;
 import de.tudarmstadt.ukp.inception.recommendation.config.RecommenderProperties;
 import de.tudarmstadt.ukp.inception.recommendation.event.RecommenderEvaluationResultEvent;
 import de.tudarmstadt.ukp.inception.recommendation.event.RecommenderTaskNotificationEvent;
+import de.tudarmstadt.ukp.inception.recommendation.service.RecommenderEvaluator;
+import de.tudarmstadt.ukp.inception.recommendation.service.RecommenderEvaluator.Evaluation;
 import de.tudarmstadt.ukp.inception.scheduling.SchedulingService;
 import de.tudarmstadt.ukp.inception.schema.api.AnnotationSchemaService;
 import de.tudarmstadt.ukp.inception.support.WebAnnoConst;
@@ -80,6 +87,7 @@ public class SelectionTask
     private @Autowired ApplicationEventPublisher appEventPublisher;
     private @Autowired SchedulingService schedulingService;
     private @Autowired RecommenderProperties properties;
+    private @Autowired RecommenderEvaluator evaluator;
 
     private final SourceDocument currentDocument;
     private final String dataOwner;
@@ -119,7 +127,10 @@ public class SelectionTask
                 }
             };
 
+            // First decide on all recommenders which do not need to be evaluated and prepare the
+            // evaluation of the others
             var seenRecommender = false;
+            var candidatesByLayer = new LinkedHashMap<AnnotationLayer, List<Candidate>>();
             var layers = annoService.listAnnotationLayer(getProject());
             try (var progress = getMonitor().openScope("layers", layers.size())) {
                 for (var layer : layers) {
@@ -135,7 +146,7 @@ public class SelectionTask
                         continue;
                     }
 
-                    var evaluatedRecommenders = new ArrayList<EvaluatedRecommender>();
+                    var candidates = new ArrayList<Candidate>();
                     for (var r : recommenders) {
                         // Make sure we have the latest recommender config from the DB - the one
                         // from
@@ -153,21 +164,9 @@ public class SelectionTask
 
                         var recommender = optRecommender.get();
                         try {
-                            long start = System.currentTimeMillis();
-
                             getMonitor().update(up -> up.addMessage(
                                     LogMessage.info(this, "%s", recommender.getName())));
-                            evaluate(sessionOwner, recommender, casLoader)
-                                    .ifPresent(evaluatedRecommender -> {
-                                        var result = evaluatedRecommender.getEvaluationResult();
-
-                                        evaluatedRecommenders.add(evaluatedRecommender);
-                                        appEventPublisher.publishEvent(
-                                                new RecommenderEvaluationResultEvent(this,
-                                                        recommender, sessionOwner.getUsername(),
-                                                        result, currentTimeMillis() - start,
-                                                        evaluatedRecommender.isActive()));
-                                    });
+                            prepare(sessionOwner, recommender).ifPresent(candidates::add);
                         }
 
                         // Catching Throwable is intentional here as we want to continue the
@@ -178,11 +177,47 @@ public class SelectionTask
                         }
                     }
 
-                    recommendationService.setEvaluatedRecommenders(sessionOwner, layer,
-                            evaluatedRecommenders);
+                    candidatesByLayer.put(layer, candidates);
+                }
+            }
+
+            // Then run the evaluations which may happen concurrently
+            evaluate(sessionOwner,
+                    candidatesByLayer.values().stream().flatMap(List::stream).toList(),
+                    casLoader);
+
+            for (var entry : candidatesByLayer.entrySet()) {
+                var evaluatedRecommenders = new ArrayList<EvaluatedRecommender>();
+                for (var candidate : entry.getValue()) {
+                    var recommender = candidate.recommender;
+                    if (candidate.failure != null) {
+                        logEvaluationFailed(project, sessionOwner, recommender.getName(),
+                                candidate.failure);
+                        continue;
+                    }
+
+                    try {
+                        var evaluatedRecommender = candidate.decision != null ? candidate.decision
+                                : select(sessionOwner, recommender, candidate.result);
 
-                    logEvaluationSuccessful(sessionOwner);
+                        evaluatedRecommenders.add(evaluatedRecommender);
+                        appEventPublisher.publishEvent(new RecommenderEvaluationResultEvent(this,
+                                recommender, sessionOwner.getUsername(),
+                                evaluatedRecommender.getEvaluationResult(), candidate.duration,
+                                evaluatedRecommender.isActive()));
+                    }
+
+                    // Catching Throwable is intentional here as we want to continue the execution
+                    // even if a particular recommender fails.
+                    catch (Throwable e) {
+                        logEvaluationFailed(project, sessionOwner, recommender.getName(), e);
+                    }
                 }
+
+                recommendationService.setEvaluatedRecommenders(sessionOwner, entry.getKey(),
+                        evaluatedRecommenders);
+
+                logEvaluationSuccessful(sessionOwner);
             }
 
             if (!seenRecommender) {
@@ -273,11 +308,10 @@ public class SelectionTask
                 layer.getUiName());
     }
 
-    private Optional<EvaluatedRecommender> evaluate(User user, Recommender recommender,
-            LazyInitializer<List<CAS>> aCasses)
-        throws RecommendationException, ConcurrentException
+    private Optional<Candidate> prepare(User user, Recommender recommender)
     {
         var userName = user.getUsername();
+        var candidate = new Candidate(recommender);
 
         var optFactory = recommendationService.getRecommenderFactory(recommender);
         if (optFactory.isEmpty()) {
@@ -287,46 +321,92 @@ public class SelectionTask
 
         var factory = optFactory.get();
         if (!factory.accepts(recommender)) {
-            return Optional.of(skipRecommenderWithInvalidSettings(user, recommender));
+            return Optional.of(
+                    candidate.decide(skipRecommenderWithInvalidSettings(user, recommender)));
         }
 
         if (factory.isInteractive(recommender)) {
-            return Optional.of(activateInteractiveRecommender(user, recommender));
+            return Optional.of(candidate.decide(activateInteractiveRecommender(user, recommender)));
         }
 
         if (recommender.isAlwaysSelected()) {
-            return Optional.of(activateAlwaysOnRecommender(userName, recommender));
+            return Optional.of(
+                    candidate.decide(activateAlwaysOnRecommender(userName, recommender)));
         }
 
         if (!factory.isEvaluable()) {
-            return Optional.of(activateNonEvaluatableRecommender(userName, recommender));
+            return Optional
+                    .of(candidate.decide(activateNonEvaluatableRecommender(userName, recommender)));
+        }
+
+        candidate.engine = factory.build(recommender);
+        return Optional.of(candidate);
+    }
+
+    private void evaluate(User aUser, List<Candidate> aCandidates,
+            LazyInitializer<List<CAS>> aCasses)
+    {
+        var pending = aCandidates.stream() //
+                .filter(c -> c.engine != null) //
+                .toList();
+
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // The CASes are loaded here because the CAS storage session is bound to this thread
+        List<CAS> casses;
+        try {
+            casses = aCasses.get();
         }
+        catch (ConcurrentException e) {
+            pending.forEach(c -> c.failure = e);
+            return;
+        }
+
+        var userName = aUser.getUsername();
+        var evaluations = pending.stream() //
+                .map(c -> (Evaluation) cs -> evaluate(userName, c, cs)) //
+                .toList();
+
+        var outcomes = evaluator.evaluate(evaluations, casses);
+        for (int i = 0; i < pending.size(); i++) {
+            var candidate = pending.get(i);
+            var outcome = outcomes.get(i);
+            candidate.result = outcome.result();
+            candidate.failure = outcome.failure();
+            candidate.duration = outcome.duration();
+        }
+    }
 
-        LOG.info("[{}][{}]: Evaluating...", userName, recommender.getName());
+    private EvaluationResult evaluate(String aUserName, Candidate aCandidate, List<CAS> aCasses)
+        throws RecommendationException
+    {
+        LOG.info("[{}][{}]: Evaluating...", aUserName, aCandidate.recommender.getName());
         var splitter = new PercentageBasedSplitter(0.8, 10);
-        var recommendationEngine = factory.build(recommender);
+        return aCandidate.engine.evaluate(aCasses, splitter);
+    }
 
-        var result = recommendationEngine.evaluate(aCasses.get(), splitter);
+    private EvaluatedRecommender select(User user, Recommender recommender,
+            EvaluationResult result)
+    {
         double threshold = recommender.getThreshold();
 
         if (result.isEvaluationSkipped()) {
             var evaluationIsOptional = recommender.getThreshold() <= 0.0d;
             if (evaluationIsOptional) {
-                return Optional.of(
-                        activateRecommenderAboveThreshold(user, recommender, result, 0, threshold));
+                return activateRecommenderAboveThreshold(user, recommender, result, 0, threshold);
             }
 
-            return Optional.of(skipRecommenderDueToFailedEvaluation(user, recommender, result));
+            return skipRecommenderDueToFailedEvaluation(user, recommender, result);
         }
 
         double score = result.computeF1Score();
         if (score >= threshold) {
-            return Optional.of(
-                    activateRecommenderAboveThreshold(user, recommender, result, score, threshold));
+            return activateRecommenderAboveThreshold(user, recommender, result, score, threshold);
         }
 
-        return Optional
-                .of(skipRecommenderBelowThreshold(user, recommender, result, score, threshold));
+        return skipRecommenderBelowThreshold(user, recommender, result, score, threshold);
     }
 
     private EvaluatedRecommender skipRecommenderBelowThreshold(User user, Recommender recommender,
@@ -423,7 +503,7 @@ public class SelectionTask
     private List<CAS> readCasses(Project aProject, String aUserName)
     {
         var casses = new ArrayList<CAS>();
-        for (var document : documentService.listSourceDocuments(aProject)) {
+        for (var document : sampleDocuments(aProject)) {
             try {
                 // We should not have to modify the CASes... right? Fingers crossed.
                 CAS cas = documentService.readAnnotationCas(document,
@@ -438,6 +518,32 @@ public class SelectionTask
         return casses;
     }
 
+    /**
+     * If the project is larger than the configured maximum number of documents, the evaluation is
+     * only performed on a subset of the documents. The subset is chosen randomly but stays stable
+     * between runs such that the evaluation results remain comparable.
+     */
+    private List<SourceDocument> sampleDocuments(Project aProject)
+    {
+        var documents = documentService.listSourceDocuments(aProject);
+        var maxDocuments = properties.getEvaluation().getMaxDocuments();
+        if (maxDocuments <= 0 || documents.size() <= maxDocuments) {
+            return documents;
+        }
+
+        var sample = new ArrayList<>(documents);
+        Collections.shuffle(sample, new Random(aProject.getId()));
+        var selected = new HashSet<>(sample.subList(0, maxDocuments));
+
+        LOG.info("[{}]: Evaluating on {} of {} documents", aProject.getName(), maxDocuments,
+                documents.size());
+
+        // Retain the original document order
+        return documents.stream() //
+                .filter(selected::contains) //
+                .toList();
+    }
+
     private Optional<Recommender> freshenRecommender(User aUser, Recommender r)
     {
         // Make sure we have the latest recommender config from the DB - the one from
@@ -460,6 +566,30 @@ public class SelectionTask
         return Optional.of(recommender);
     }
 
+    private static class Candidate
+    {
+        private final Recommender recommender;
+        private final long start = currentTimeMillis();
+
+        private EvaluatedRecommender decision;
+        private RecommendationEngine engine;
+        private EvaluationResult result;
+        private Throwable failure;
+        private long duration;
+
+        Candidate(Recommender aRecommender)
+        {
+            recommender = aRecommender;
+        }
+
+        Candidate decide(EvaluatedRecommender aDecision)
+        {
+            decision = aDecision;
+            duration = currentTimeMillis() - start;
+            return this;
+        }
+    }
+
     public static Builder<Builder<?>> builder()
     {
         return new Builder<>();
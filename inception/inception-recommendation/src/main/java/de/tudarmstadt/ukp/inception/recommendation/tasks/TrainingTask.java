@@ -22,6 +22,7 @@ import static de.tudarmstadt.ukp.inception.recommendation.api.recommender.Traini
 import static java.lang.System.currentTimeMillis;
 import static org.apache.commons.lang3.exception.ExceptionUtils.getRootCauseMessage;
 
+import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.util.List;
 
@@ -166,7 +167,7 @@ public class TrainingTask
     }
 
     private void trainRecommender(Recommender aRecommender, LazyCasLoader casLoader)
-        throws ConcurrentException, RecommendationException
+        throws ConcurrentException, RecommendationException, IOException
     {
         var startTime = currentTimeMillis();
         var sessionOwner = getMandatorySessionOwner();
@@ -199,6 +200,18 @@ public class TrainingTask
             return;
         }
 
+        // If the recommender has already been trained on the same data (possibly on behalf of
+        // another user), there is no need to train again
+        var fingerprint = casLoader.getTrainingDataFingerprint(aRecommender);
+        var trainedContext = recommenderService.getTrainedContext(aRecommender, fingerprint);
+        if (trainedContext.isPresent()) {
+            logTrainingReused(aRecommender, currentTimeMillis() - startTime);
+            seenSuccessfulTraining = true;
+            recommenderService.putContext(sessionOwner, aRecommender, fingerprint,
+                    trainedContext.get());
+            return;
+        }
+
         var trainingCasses = casLoader.getRelevantCasses(aRecommender);
 
         // If no data for training is available, but the engine requires training,
@@ -228,7 +241,8 @@ public class TrainingTask
         logTrainingSuccessful(casLoader, aRecommender, trainingCasses, duration);
         seenSuccessfulTraining = true;
 
-        commitContext(sessionOwner, aRecommender, ctx);
+        ctx.close();
+        recommenderService.putContext(sessionOwner, aRecommender, fingerprint, ctx);
     }
 
     private void schedulePredictionTask()
@@ -265,6 +279,15 @@ public class TrainingTask
                 getMandatorySessionOwner().getUsername(), aRecommender.getName());
     }
 
+    private void logTrainingReused(Recommender aRecommender, long aDuration)
+    {
+        LOG.debug("[{}][{}][{}]: Using model already trained on the same data ({} ms)", getId(),
+                getMandatorySessionOwner().getUsername(), aRecommender.getName(), aDuration);
+
+        log(LogMessage.info(aRecommender.getName(),
+                "Using model already trained on the same data (%d ms)", aDuration));
+    }
+
     private void logTrainingNotSupported(Recommender aRecommender)
     {
         LOG.debug("[{}][{}][{}]: Engine does not support training", getId(),
@@ -21,7 +21,6 @@ import static de.tudarmstadt.ukp.inception.recommendation.service.Fixtures.getIn
 import static de.tudarmstadt.ukp.inception.recommendation.service.Fixtures.getVisibleSuggestions;
 import static de.tudarmstadt.ukp.inception.support.uima.AnnotationBuilder.buildAnnotation;
 import static java.util.Arrays.asList;
-import static java.util.Collections.emptyList;
 import static org.apache.uima.util.CasCreationUtils.mergeTypeSystems;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.doReturn;
@@ -52,6 +51,7 @@ import de.tudarmstadt.ukp.inception.annotation.layer.span.SpanLayerSupportImpl;
 import de.tudarmstadt.ukp.inception.annotation.layer.span.api.SpanLayerSupport;
 import de.tudarmstadt.ukp.inception.recommendation.api.LearningRecordService;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.AnnotationSuggestion;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordIndex;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.LinkPosition;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.LinkSuggestion;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.Recommender;
@@ -154,8 +154,8 @@ public class LinkSuggestionVisibilityCalculationTest
     @Test
     public void testCalculateVisibilityNoRecordsAllHidden() throws Exception
     {
-        doReturn(emptyList()).when(learningRecordService).listLearningRecords(TEST_USER, TEST_USER,
-                linkHostLayer);
+        doReturn(new LearningRecordIndex()).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, linkHostLayer);
 
         var slotFiller = buildAnnotation(cas, slotFillerLayer.getName()) //
                 .onMatch("\\btest\\b") //
@@ -188,8 +188,8 @@ public class LinkSuggestionVisibilityCalculationTest
     @Test
     public void thatVisibilityIsRestoredWhenOverlappingAnnotationIsRemoved() throws Exception
     {
-        doReturn(emptyList()).when(learningRecordService).listLearningRecords(TEST_USER, TEST_USER,
-                linkHostLayer);
+        doReturn(new LearningRecordIndex()).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, linkHostLayer);
 
         var slotFiller = buildAnnotation(cas, slotFillerLayer.getName()) //
                 .onMatch("\\btest\\b") //
@@ -21,7 +21,6 @@ import static de.tudarmstadt.ukp.inception.recommendation.api.model.LearningReco
 import static de.tudarmstadt.ukp.inception.recommendation.service.Fixtures.getInvisibleSuggestions;
 import static de.tudarmstadt.ukp.inception.recommendation.service.Fixtures.getVisibleSuggestions;
 import static java.util.Arrays.asList;
-import static java.util.Collections.emptyList;
 import static java.util.stream.Collectors.toList;
 import static org.apache.uima.cas.CAS.TYPE_NAME_STRING;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -54,6 +53,7 @@ import de.tudarmstadt.ukp.inception.annotation.layer.span.SpanLayerSupportImpl;
 import de.tudarmstadt.ukp.inception.recommendation.api.LearningRecordService;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.AnnotationSuggestion;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecord;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.LearningRecordIndex;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.Recommender;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.RelationPosition;
 import de.tudarmstadt.ukp.inception.recommendation.api.model.RelationSuggestion;
@@ -135,8 +135,8 @@ public class RelationSuggestionVisibilityCalculationTest
     @Test
     public void testCalculateVisibilityNoRecordsAllHidden() throws Exception
     {
-        doReturn(emptyList()).when(learningRecordService).listLearningRecords(TEST_USER, TEST_USER,
-                layer);
+        doReturn(new LearningRecordIndex()).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, layer);
 
         var cas = getTestCas();
         var suggestions = makeRelationSuggestionGroup(doc, feature,
@@ -158,8 +158,8 @@ public class RelationSuggestionVisibilityCalculationTest
     @Test
     public void thatVisibilityIsRestoredWhenOverlappingAnnotationIsRemoved() throws Exception
     {
-        doReturn(emptyList()).when(learningRecordService).listLearningRecords(TEST_USER, TEST_USER,
-                layer);
+        doReturn(new LearningRecordIndex()).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, layer);
 
         var cas = getTestCas();
         var suggestions = makeRelationSuggestionGroup(doc, feature,
@@ -242,8 +242,8 @@ public class RelationSuggestionVisibilityCalculationTest
     @Test
     public void thatSuggestionAtFreePositionIsVisible() throws Exception
     {
-        doReturn(emptyList()).when(learningRecordService).listLearningRecords(TEST_USER, TEST_USER,
-                layer);
+        doReturn(new LearningRecordIndex()).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, layer);
 
         // Existing relation in CAS spans (0,3) -> (13,20). Suggestion endpoints differ.
         var cas = getTestCas();
@@ -264,8 +264,8 @@ public class RelationSuggestionVisibilityCalculationTest
     @Test
     public void thatSuggestionWithSameLabelAsExistingRelationIsHidden() throws Exception
     {
-        doReturn(emptyList()).when(learningRecordService).listLearningRecords(TEST_USER, TEST_USER,
-                layer);
+        doReturn(new LearningRecordIndex()).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, layer);
 
         // Existing relation has label "DEP". Suggestion duplicates it.
         var cas = getTestCas();
@@ -288,8 +288,8 @@ public class RelationSuggestionVisibilityCalculationTest
     public void thatSuggestionWithDifferentLabelHiddenWhenStackingDisabled() throws Exception
     {
         layer.setOverlapMode(OverlapMode.NO_OVERLAP);
-        doReturn(emptyList()).when(learningRecordService).listLearningRecords(TEST_USER, TEST_USER,
-                layer);
+        doReturn(new LearningRecordIndex()).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, layer);
 
         // Existing relation has label "DEP". Suggestion has different label, but stacking off.
         var cas = getTestCas();
@@ -311,8 +311,8 @@ public class RelationSuggestionVisibilityCalculationTest
     public void thatSuggestionWithDifferentLabelVisibleWhenStackingEnabled() throws Exception
     {
         layer.setOverlapMode(OverlapMode.ANY_OVERLAP);
-        doReturn(emptyList()).when(learningRecordService).listLearningRecords(TEST_USER, TEST_USER,
-                layer);
+        doReturn(new LearningRecordIndex()).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, layer);
 
         // Existing relation has label "DEP". Suggestion has different label, stacking on.
         var cas = getTestCas();
@@ -335,8 +335,8 @@ public class RelationSuggestionVisibilityCalculationTest
     public void thatSuggestionWithSameLabelHiddenEvenWhenStackingEnabled() throws Exception
     {
         layer.setOverlapMode(OverlapMode.ANY_OVERLAP);
-        doReturn(emptyList()).when(learningRecordService).listLearningRecords(TEST_USER, TEST_USER,
-                layer);
+        doReturn(new LearningRecordIndex()).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, layer);
 
         var cas = getTestCas();
         var suggestions = makeRelationSuggestionGroup(doc, feature,
@@ -362,8 +362,8 @@ public class RelationSuggestionVisibilityCalculationTest
                 .withAnnotation("DEP") //
                 .withUserAction(REJECTED) //
                 .build();
-        doReturn(asList(rejected)).when(learningRecordService).listLearningRecords(TEST_USER,
-                TEST_USER, layer);
+        doReturn(new LearningRecordIndex(asList(rejected))).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, layer);
 
         // Use endpoints with no existing relation in the CAS so the only reason to hide is the
         // learning record.
@@ -392,8 +392,8 @@ public class RelationSuggestionVisibilityCalculationTest
                 .withAnnotation("OTHER") //
                 .withUserAction(REJECTED) //
                 .build();
-        doReturn(asList(rejected)).when(learningRecordService).listLearningRecords(TEST_USER,
-                TEST_USER, layer);
+        doReturn(new LearningRecordIndex(asList(rejected))).when(learningRecordService)
+                .getLearningRecordIndex(TEST_USER, TEST_USER, layer);
 
         var cas = getEmptyCasWithTokens();
         var suggestions = makeRelationSuggestionGroup(doc, feature,
@@ -469,6 +469,35 @@ public class RecommendationServiceImplIntegrationTest
         assertThat(sut.listLearningRecords(USER_NAME, sourceDoc1, "otherUser", feature2)).isEmpty();
     }
 
+    @Test
+    void thatLearningRecordsAreCachedPerDataOwner()
+    {
+        var sourceDoc = createSourceDocument("doc1");
+        var layer = createSpanLayer("layer1");
+        var feature = createAnnotationFeature(layer, "feat1");
+        var rec = buildRecommender(feature);
+
+        var suggestion = SpanSuggestion.builder() //
+                .withRecommender(rec) //
+                .withDocument(sourceDoc) //
+                .withPosition(new Offset(7, 14)) //
+                .withLabel("testLabel") //
+                .withCoveredText("aCoveredText") //
+                .build();
+
+        // Record is created in the session of the other user
+        sut.logRecord("otherUser", sourceDoc, "otherUser", suggestion, feature, ACCEPTED,
+                MAIN_EDITOR);
+
+        // Looking at the own records first must not hide the records of the other user
+        assertThat(sut.listLearningRecords(USER_NAME, USER_NAME, layer)).isEmpty();
+        assertThat(sut.listLearningRecords(USER_NAME, "otherUser", layer)).hasSize(1);
+        assertThat(sut.getLearningRecordIndex(USER_NAME, "otherUser", layer).get(suggestion))
+                .hasSize(1);
+        assertThat(sut.getLearningRecordIndex(USER_NAME, USER_NAME, layer).get(suggestion))
+                .isEmpty();
+    }
+
     // Helper
 
     private SourceDocument createSourceDocument(String aName)
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.recommendation.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.tudarmstadt.ukp.inception.recommendation.api.evaluation.EvaluationResult;
+import de.tudarmstadt.ukp.inception.recommendation.service.RecommenderEvaluator.Evaluation;
+
+class RecommenderEvaluatorTest
+{
+    private List<CAS> casses;
+    private RecommenderEvaluator sut;
+
+    @BeforeEach
+    void setup() throws Exception
+    {
+        casses = List.of(JCasFactory.createText("Document 1").getCas(),
+                JCasFactory.createText("Document 2").getCas());
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        if (sut != null) {
+            sut.destroy();
+        }
+    }
+
+    @Test
+    void thatEvaluationsRunSeriallyOnCallingThreadByDefault()
+    {
+        sut = new RecommenderEvaluator(1, Duration.ZERO);
+
+        var caller = Thread.currentThread();
+        Evaluation evaluation = cs -> {
+            assertThat(Thread.currentThread()).isSameAs(caller);
+            assertThat(cs).isSameAs(casses);
+            return new EvaluationResult();
+        };
+
+        var outcomes = sut.evaluate(List.of(evaluation, evaluation), casses);
+
+        assertThat(outcomes).allSatisfy(outcome -> {
+            assertThat(outcome.failure()).isNull();
+            assertThat(outcome.result()).isNotNull();
+        });
+    }
+
+    @Test
+    void thatConcurrentWorkersDoNotShareCasses() throws Exception
+    {
+        sut = new RecommenderEvaluator(2, Duration.ZERO);
+
+        var seen = Collections.synchronizedList(new ArrayList<List<CAS>>());
+        var bothRunning = new CountDownLatch(2);
+        Evaluation evaluation = cs -> {
+            seen.add(cs);
+            bothRunning.countDown();
+            bothRunning.await();
+            assertThat(cs).extracting(CAS::getDocumentText) //
+                    .containsExactly("Document 1", "Document 2");
+            return new EvaluationResult();
+        };
+
+        var outcomes = sut.evaluate(List.of(evaluation, evaluation), casses);
+
+        assertThat(outcomes).extracting(RecommenderEvaluator.Outcome::failure) //
+                .containsOnlyNulls();
+
+        Set<CAS> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        seen.forEach(distinct::addAll);
+        assertThat(distinct) //
+                .hasSize(4) //
+                .doesNotContainAnyElementsOf(casses);
+    }
+
+    @Test
+    void thatFailureIsReportedPerEvaluation()
+    {
+        sut = new RecommenderEvaluator(2, Duration.ZERO);
+
+        Evaluation failing = cs -> {
+            throw new IllegalStateException("boom");
+        };
+        Evaluation succeeding = cs -> new EvaluationResult();
+
+        var outcomes = sut.evaluate(List.of(failing, succeeding), casses);
+
+        assertThat(outcomes.get(0).failure()).hasMessage("boom");
+        assertThat(outcomes.get(1).failure()).isNull();
+        assertThat(outcomes.get(1).result()).isNotNull();
+    }
+
+    @Test
+    void thatNonInterruptibleEvaluationIsAbandonedOnTimeout() throws Exception
+    {
+        sut = new RecommenderEvaluator(1, Duration.ofMillis(200));
+
+        var release = new AtomicBoolean();
+        var finished = new CountDownLatch(1);
+        var started = new AtomicInteger();
+        Evaluation stuck = cs -> {
+            started.incrementAndGet();
+            // Ignores interruption like many third-party training loops do
+            while (!release.get()) {
+                Thread.onSpinWait();
+            }
+            finished.countDown();
+            return new EvaluationResult();
+        };
+        Evaluation queued = cs -> {
+            started.incrementAndGet();
+            return new EvaluationResult();
+        };
+
+        try {
+            var outcomes = sut.evaluate(List.of(stuck, queued), casses);
+
+            assertThat(outcomes).allSatisfy(outcome -> {
+                assertThat(outcome.failure()).isNull();
+                assertThat(outcome.result().isEvaluationSkipped()).isTrue();
+                assertThat(outcome.result().getErrorMsg()).get().asString()
+                        .contains("did not complete");
+            });
+        }
+        finally {
+            release.set(true);
+        }
+
+        finished.await();
+        // The evaluation queued behind the stuck one must not be started after the deadline
+        Thread.sleep(100);
+        assertThat(started).hasValue(1);
+    }
+}
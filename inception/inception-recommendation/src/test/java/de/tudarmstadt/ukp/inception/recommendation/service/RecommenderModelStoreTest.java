@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.recommendation.service;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.tudarmstadt.ukp.clarin.webanno.model.Project;
+import de.tudarmstadt.ukp.inception.recommendation.api.model.Recommender;
+import de.tudarmstadt.ukp.inception.recommendation.api.recommender.RecommenderContext;
+import de.tudarmstadt.ukp.inception.recommendation.api.recommender.RecommenderContext.Key;
+
+class RecommenderModelStoreTest
+{
+    private static final Key<String> KEY_MODEL = new Key<>("model");
+
+    private @TempDir Path tempDir;
+
+    private Project project;
+    private Recommender recommender;
+
+    @BeforeEach
+    void setup()
+    {
+        project = Project.builder().withId(1l).withName("project").build();
+        recommender = Recommender.builder().withId(2l).withName("rec").withProject(project)
+                .build();
+    }
+
+    @Test
+    void thatModelIsRestoredAfterRestart()
+    {
+        var sut = new RecommenderModelStore(tempDir, Long.MAX_VALUE);
+        assertThat(sut.put("user", recommender, "fp1", context("model1"))).isTrue();
+
+        var restarted = new RecommenderModelStore(tempDir, Long.MAX_VALUE);
+
+        assertThat(restarted.getLatest("user", recommender)) //
+                .hasValueSatisfying(ctx -> {
+                    assertThat(ctx.isClosed()).isTrue();
+                    assertThat(ctx.get(KEY_MODEL)).contains("model1");
+                });
+        assertThat(restarted.getLatest("other", recommender)).isEmpty();
+    }
+
+    @Test
+    void thatModelsAreSharedBetweenUsers()
+    {
+        var sut = new RecommenderModelStore(tempDir, Long.MAX_VALUE);
+        var ctx = context("model1");
+        sut.put("user1", recommender, "fp1", ctx);
+
+        var shared = sut.get(recommender, "fp1");
+        assertThat(shared).containsSame(ctx);
+
+        sut.put("user2", recommender, "fp1", shared.get());
+
+        assertThat(sut.getLatest("user2", recommender)).containsSame(ctx);
+        assertThat(sut.getCachedModelCount()).isEqualTo(1);
+    }
+
+    @Test
+    void thatLeastRecentlyUsedModelsAreDroppedFromMemory()
+    {
+        var sut = new RecommenderModelStore(tempDir, 1);
+        sut.put("user1", recommender, "fp1", context("model1"));
+        sut.put("user2", recommender, "fp2", context("model2"));
+
+        assertThat(sut.getCachedModelCount()).isEqualTo(1);
+
+        // Dropped models are reloaded from disk
+        assertThat(sut.getLatest("user1", recommender)) //
+                .hasValueSatisfying(ctx -> assertThat(ctx.get(KEY_MODEL)).contains("model1"));
+        assertThat(sut.getCachedModelCount()).isEqualTo(1);
+    }
+
+    @Test
+    void thatUnreferencedModelsAreRemoved()
+    {
+        var sut = new RecommenderModelStore(tempDir, Long.MAX_VALUE);
+        sut.put("user", recommender, "fp1", context("model1"));
+        sut.put("user", recommender, "fp2", context("model2"));
+
+        assertThat(sut.get(recommender, "fp1")).isEmpty();
+        assertThat(sut.get(recommender, "fp2")).isPresent();
+
+        sut.removeRecommender(recommender);
+
+        assertThat(sut.get(recommender, "fp2")).isEmpty();
+        assertThat(sut.getLatest("user", recommender)).isEmpty();
+        assertThat(sut.getCacheSize()).isZero();
+    }
+
+    @Test
+    void thatSessionOwnerIsOnlyRemovedFromGivenProject()
+    {
+        var otherProject = Project.builder().withId(3l).withName("other").build();
+        var otherRecommender = Recommender.builder().withId(4l).withName("rec")
+                .withProject(otherProject).build();
+
+        var sut = new RecommenderModelStore(tempDir, Long.MAX_VALUE);
+        sut.put("user", recommender, "fp1", context("model1"));
+        sut.put("user", otherRecommender, "fp2", context("model2"));
+
+        sut.removeSessionOwner(project.getId(), "user");
+
+        assertThat(sut.getLatest("user", recommender)).isEmpty();
+        assertThat(sut.get(recommender, "fp1")).isEmpty();
+        assertThat(sut.getLatest("user", otherRecommender)).isPresent();
+    }
+
+    @Test
+    void thatConcurrentPutsOfDifferentUsersAreAllStored() throws Exception
+    {
+        var sut = new RecommenderModelStore(tempDir, Long.MAX_VALUE);
+
+        var users = 8;
+        var executor = Executors.newFixedThreadPool(users);
+        try {
+            var start = new CountDownLatch(1);
+            var futures = new ArrayList<Future<Boolean>>();
+            for (var i = 0; i < users; i++) {
+                var user = "user" + i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    var stored = true;
+                    for (var n = 0; n < 10; n++) {
+                        stored &= sut.put(user, recommender, user + "-fp" + n,
+                                context(user + "-model" + n));
+                    }
+                    return stored;
+                }));
+            }
+            start.countDown();
+
+            for (var future : futures) {
+                assertThat(future.get(30, SECONDS)).isTrue();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        var restarted = new RecommenderModelStore(tempDir, Long.MAX_VALUE);
+        for (var i = 0; i < users; i++) {
+            var user = "user" + i;
+            assertThat(restarted.getLatest(user, recommender)) //
+                    .hasValueSatisfying(ctx -> assertThat(ctx.get(KEY_MODEL)) //
+                            .contains(user + "-model9"));
+            // Superseded models have been collected
+            assertThat(restarted.get(recommender, user + "-fp0")).isEmpty();
+        }
+    }
+
+    @Test
+    void thatNonSerializableContextIsRejected()
+    {
+        var sut = new RecommenderModelStore(tempDir, Long.MAX_VALUE);
+        var ctx = new RecommenderContext();
+        ctx.put(new Key<Object>("model"), new Object());
+        ctx.close();
+
+        assertThat(sut.put("user", recommender, "fp1", ctx)).isFalse();
+        assertThat(sut.getLatest("user", recommender)).isEmpty();
+    }
+
+    @Test
+    void thatModelWithUnexpectedClassesIsDiscarded() throws Exception
+    {
+        var modelFile = tempDir.resolve("1").resolve("fp1.model");
+        Files.createDirectories(modelFile.getParent());
+        try (var out = new ObjectOutputStream(Files.newOutputStream(modelFile))) {
+            out.writeObject(new HashMap<>(Map.of("model", new File("model"))));
+        }
+
+        var sut = new RecommenderModelStore(tempDir, Long.MAX_VALUE);
+
+        assertThat(sut.get(recommender, "fp1")).isEmpty();
+        assertThat(modelFile).doesNotExist();
+    }
+
+    @Test
+    void thatModelsOfRemovedProjectAreDeleted()
+    {
+        var sut = new RecommenderModelStore(tempDir, Long.MAX_VALUE);
+        sut.put("user", recommender, "fp1", context("model1"));
+
+        sut.removeProject(project);
+
+        assertThat(tempDir.resolve("1")).doesNotExist();
+        assertThat(new RecommenderModelStore(tempDir, Long.MAX_VALUE).getLatest("user",
+                recommender)).isEmpty();
+    }
+
+    private static RecommenderContext context(String aModel)
+    {
+        var ctx = new RecommenderContext();
+        ctx.put(KEY_MODEL, aModel);
+        ctx.close();
+        return ctx;
+    }
+}
@@ -26,17 +26,29 @@ import static de.tudarmstadt.ukp.inception.remoteapi.AnnotationDocumentStateUtil
 import static de.tudarmstadt.ukp.inception.remoteapi.AnnotationDocumentStateUtils.annotationDocumentStateToString;
 import static de.tudarmstadt.ukp.inception.remoteapi.AnnotationDocumentStateUtils.parseAnnotationDocumentState;
 import static java.lang.invoke.MethodHandles.lookup;
+import static java.util.Comparator.comparing;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_OCTET_STREAM_VALUE;
 import static org.springframework.http.MediaType.MULTIPART_FORM_DATA_VALUE;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -46,10 +58,16 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import de.tudarmstadt.ukp.clarin.webanno.api.format.FormatSupport;
+import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationDocument;
+import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationSet;
 import de.tudarmstadt.ukp.clarin.webanno.model.Mode;
+import de.tudarmstadt.ukp.clarin.webanno.model.Project;
+import de.tudarmstadt.ukp.clarin.webanno.webapp.remoteapi.aero.exception.UnsupportedFormatException;
 import de.tudarmstadt.ukp.clarin.webanno.webapp.remoteapi.aero.model.RAnnotation;
 import de.tudarmstadt.ukp.clarin.webanno.webapp.remoteapi.aero.model.RResponse;
 import de.tudarmstadt.ukp.clarin.webanno.webapp.remoteapi.config.RemoteApiAutoConfiguration;
@@ -60,6 +78,8 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import tools.jackson.core.json.JsonFactory;
 
 /**
  * <p>
@@ -76,6 +96,13 @@ public class AeroAnnotationController
 {
     private final static Logger LOG = LoggerFactory.getLogger(lookup().lookupClass());
 
+    private static final String PARAM_MODIFIED_SINCE = "modifiedSince";
+
+    private static final String STREAM = "stream";
+
+    private static final String MEDIA_TYPE_ZIP = "application/zip";
+    private static final String MEDIA_TYPE_NDJSON = "application/x-ndjson";
+
     @Operation(summary = "List annotations of a document in a project")
     @GetMapping( //
             value = "/" + PROJECTS + "/{" + PARAM_PROJECT_ID + "}/" + DOCUMENTS + "/{"
@@ -198,7 +225,7 @@ public class AeroAnnotationController
             value = "/" + PROJECTS + "/{" + PARAM_PROJECT_ID + "}/" + DOCUMENTS + "/{"
                     + PARAM_DOCUMENT_ID + "}/" + ANNOTATIONS + "/{" + PARAM_ANNOTATOR_ID + "}", //
             produces = { APPLICATION_OCTET_STREAM_VALUE, APPLICATION_JSON_VALUE })
-    public ResponseEntity<byte[]> read( //
+    public ResponseEntity<InputStreamResource> read( //
             @PathVariable(PARAM_PROJECT_ID) //
             @Schema(description = """
                     Project identifier - either the numeric project ID or the project
@@ -226,15 +253,213 @@ public class AeroAnnotationController
 
                     Additional format identifiers can be found in the format section of the user's guide.
                     """) //
-            Optional<String> aFormat)
+            Optional<String> aFormat, //
+            WebRequest aRequest)
+        throws Exception
+    {
+        // Get project (this also ensures that it exists and that the current user can access it
+        var project = getProject(aProjectId, MANAGER);
+
+        return readAnnotation(project, aDocumentId, aAnnotatorId, Mode.ANNOTATION, aFormat,
+                aRequest);
+    }
+
+    @Operation(summary = "Get annotations of all documents in a project as a ZIP file")
+    @GetMapping( //
+            value = "/" + PROJECTS + "/{" + PARAM_PROJECT_ID + "}/" + ANNOTATIONS, //
+            produces = MEDIA_TYPE_ZIP)
+    public void readAllAsZip( //
+            @PathVariable(PARAM_PROJECT_ID) //
+            @Schema(description = """
+                    Project identifier - either the numeric project ID or the project
+                    URL slug.
+                    """) //
+            String aProjectId, //
+            @RequestParam(name = PARAM_ANNOTATOR_ID, required = false) //
+            @Schema(description = """
+                    Usernames of the annotators. If not specified, the annotations of all
+                    users are included.
+                    """) //
+            List<String> aAnnotatorIds, //
+            @RequestParam(PARAM_FORMAT) //
+            @Schema(description = """
+                    The document format. If not specified, the original format of each document
+                    is used. See the single document endpoint for valid values.
+                    """) //
+            Optional<String> aFormat, //
+            @RequestParam(PARAM_MODIFIED_SINCE) //
+            @Schema(description = """
+                    Only include annotations which have been modified after the given time
+                    (milliseconds since the epoch).
+                    """) //
+            Optional<Long> aModifiedSince, //
+            HttpServletResponse aResponse)
+        throws Exception
+    {
+        // Get project (this also ensures that it exists and that the current user can access it
+        var project = getProject(aProjectId, MANAGER);
+
+        // Everything that could fail with a proper error response is checked before we start
+        // streaming
+        var items = listExportItems(project, aAnnotatorIds, aFormat, aModifiedSince);
+
+        aResponse.setContentType(MEDIA_TYPE_ZIP);
+        aResponse.setHeader("Content-Disposition",
+                "attachment; filename=\"" + project.getSlug() + "-annotations.zip\"");
+
+        var bulkOperationContext = new HashMap<Pair<Project, String>, Object>();
+        try (var zos = new ZipOutputStream(aResponse.getOutputStream())) {
+            for (var item : items) {
+                var doc = item.annotationDocument().getDocument();
+                var user = item.annotationDocument().getUser();
+
+                File exportedFile;
+                try {
+                    exportedFile = importExportService.exportAnnotationDocument(doc, user,
+                            item.format(), Mode.ANNOTATION, true, bulkOperationContext);
+                }
+                catch (Exception e) {
+                    LOG.error("Unable to export annotations of [{}]@{}", user, doc, e);
+                    continue;
+                }
+
+                try {
+                    var entry = new ZipEntry(doc.getName() + "/" + user + "."
+                            + FilenameUtils.getExtension(exportedFile.getName()));
+                    entry.setTime(item.timestamp());
+                    zos.putNextEntry(entry);
+                    Files.copy(exportedFile.toPath(), zos);
+                    zos.closeEntry();
+                }
+                finally {
+                    FileUtils.forceDelete(exportedFile);
+                }
+            }
+        }
+    }
+
+    @Operation(summary = "Get annotations of all documents in a project as NDJSON stream")
+    @GetMapping( //
+            value = "/" + PROJECTS + "/{" + PARAM_PROJECT_ID + "}/" + ANNOTATIONS + "/" + STREAM, //
+            produces = MEDIA_TYPE_NDJSON)
+    public void readAllAsNdjson( //
+            @PathVariable(PARAM_PROJECT_ID) //
+            @Schema(description = """
+                    Project identifier - either the numeric project ID or the project
+                    URL slug.
+                    """) //
+            String aProjectId, //
+            @RequestParam(name = PARAM_ANNOTATOR_ID, required = false) //
+            @Schema(description = """
+                    Usernames of the annotators. If not specified, the annotations of all
+                    users are included.
+                    """) //
+            List<String> aAnnotatorIds, //
+            @RequestParam(PARAM_FORMAT) //
+            @Schema(description = """
+                    The document format. If not specified, the original format of each document
+                    is used. See the single document endpoint for valid values.
+                    """) //
+            Optional<String> aFormat, //
+            @RequestParam(PARAM_MODIFIED_SINCE) //
+            @Schema(description = """
+                    Only include annotations which have been modified after the given time
+                    (milliseconds since the epoch).
+                    """) //
+            Optional<Long> aModifiedSince, //
+            HttpServletResponse aResponse)
         throws Exception
     {
         // Get project (this also ensures that it exists and that the current user can access it
         var project = getProject(aProjectId, MANAGER);
 
-        return readAnnotation(project, aDocumentId, aAnnotatorId, Mode.ANNOTATION, aFormat);
+        // Everything that could fail with a proper error response is checked before we start
+        // streaming
+        var items = listExportItems(project, aAnnotatorIds, aFormat, aModifiedSince);
+
+        aResponse.setContentType(MEDIA_TYPE_NDJSON);
+
+        var jsonFactory = new JsonFactory();
+        var bulkOperationContext = new HashMap<Pair<Project, String>, Object>();
+        var out = aResponse.getOutputStream();
+        for (var item : items) {
+            var doc = item.annotationDocument().getDocument();
+            var user = item.annotationDocument().getUser();
+
+            // One JSON object per line - the exported file is embedded as Base64
+            try (var jg = jsonFactory.createGenerator(CloseShieldOutputStream.wrap(out))) {
+                jg.writeStartObject();
+                jg.writeNumberProperty("document", doc.getId());
+                jg.writeStringProperty("documentName", doc.getName());
+                jg.writeStringProperty("user", user);
+                jg.writeStringProperty("state",
+                        annotationDocumentStateToString(item.annotationDocument().getState()));
+                jg.writeNumberProperty("timestamp", item.timestamp());
+                jg.writeStringProperty("format", item.format().getId());
+
+                File exportedFile = null;
+                try {
+                    exportedFile = importExportService.exportAnnotationDocument(doc, user,
+                            item.format(), Mode.ANNOTATION, true, bulkOperationContext);
+                }
+                catch (Exception e) {
+                    LOG.error("Unable to export annotations of [{}]@{}", user, doc, e);
+                    jg.writeStringProperty("error", e.getMessage());
+                }
+
+                if (exportedFile != null) {
+                    try (var is = Files.newInputStream(exportedFile.toPath())) {
+                        jg.writeStringProperty("filename", exportedFile.getName());
+                        jg.writeName("content");
+                        jg.writeBinary(is, -1);
+                    }
+                    finally {
+                        FileUtils.forceDelete(exportedFile);
+                    }
+                }
+
+                jg.writeEndObject();
+            }
+            out.write('\n');
+        }
+        out.flush();
     }
 
+    private List<ExportItem> listExportItems(Project aProject, List<String> aAnnotatorIds,
+            Optional<String> aFormat, Optional<Long> aModifiedSince)
+        throws IOException, UnsupportedFormatException
+    {
+        var items = new ArrayList<ExportItem>();
+        for (var annDoc : documentService.listAnnotationDocuments(aProject)) {
+            if (aAnnotatorIds != null && !aAnnotatorIds.isEmpty()
+                    && !aAnnotatorIds.contains(annDoc.getUser())) {
+                continue;
+            }
+
+            var doc = annDoc.getDocument();
+            var timestamp = documentService.getAnnotationCasTimestamp(doc,
+                    AnnotationSet.forUser(annDoc.getUser()));
+            if (timestamp.isEmpty()) {
+                // No annotations have been stored for this user yet
+                continue;
+            }
+
+            if (aModifiedSince.isPresent() && timestamp.get() <= aModifiedSince.get()) {
+                continue;
+            }
+
+            items.add(new ExportItem(annDoc, getWritableFormat(doc, aFormat), timestamp.get()));
+        }
+
+        items.sort(comparing((ExportItem i) -> i.annotationDocument().getName())
+                .thenComparing(i -> i.annotationDocument().getUser()));
+
+        return items;
+    }
+
+    private record ExportItem(AnnotationDocument annotationDocument, FormatSupport format,
+            long timestamp) {}
+
     @Operation(summary = "Delete a user's annotations of one document from a project")
     @DeleteMapping( //
             value = "/" + PROJECTS + "/{" + PARAM_PROJECT_ID + "}/" + DOCUMENTS + "/{"
@@ -33,6 +33,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -42,6 +43,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -173,7 +175,7 @@ public class AeroCurationController
             value = "/" + PROJECTS + "/{" + PARAM_PROJECT_ID + "}/" + DOCUMENTS + "/{"
                     + PARAM_DOCUMENT_ID + "}/" + CURATION, //
             produces = { APPLICATION_OCTET_STREAM_VALUE, APPLICATION_JSON_VALUE })
-    public ResponseEntity<byte[]> read( //
+    public ResponseEntity<InputStreamResource> read( //
             @PathVariable(PARAM_PROJECT_ID) //
             @Schema(description = """
                     Project identifier - either the numeric project ID or the project
@@ -196,11 +198,13 @@ public class AeroCurationController
 
                     Additional format identifiers can be found in the format section of the user's guide.
                     """) //
-            Optional<String> aFormat)
+            Optional<String> aFormat, //
+            WebRequest aRequest)
         throws Exception
     {
         var project = getProject(aProjectId, MANAGER);
-        return readAnnotation(project, aDocumentId, CURATION_USER, Mode.CURATION, aFormat);
+        return readAnnotation(project, aDocumentId, CURATION_USER, Mode.CURATION, aFormat,
+                aRequest);
     }
 
     @Operation(summary = "Delete a user's annotations of one document from a project")
@@ -17,6 +17,7 @@
  */
 package de.tudarmstadt.ukp.clarin.webanno.webapp.remoteapi.aero;
 
+import static de.tudarmstadt.ukp.clarin.webanno.model.AnnotationSet.INITIAL_SET;
 import static de.tudarmstadt.ukp.clarin.webanno.model.PermissionLevel.MANAGER;
 import static de.tudarmstadt.ukp.clarin.webanno.webapp.remoteapi.aero.model.RMessageLevel.INFO;
 import static de.tudarmstadt.ukp.inception.remoteapi.SourceDocumentStateUtils.DOCUMENT_STATE_ANNOTATION_COMPLETE;
@@ -32,7 +33,7 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_OCTET_STREAM_VALUE;
 import static org.springframework.http.MediaType.MULTIPART_FORM_DATA_VALUE;
 
-import java.io.File;
+import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
 import java.util.List;
@@ -54,6 +55,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -246,7 +248,8 @@ public class AeroDocumentController
 
                     Additional format identifiers can be found in the format section of the user's guide.
                     """) //
-            Optional<String> aFormat)
+            Optional<String> aFormat, //
+            WebRequest aRequest)
         throws Exception
     {
         // Get project (this also ensures that it exists and that the current user can access it
@@ -275,6 +278,14 @@ public class AeroDocumentController
             // Export the original file - no temporary file created here, we export directly from
             // the file system
             var docFile = documentStorageService.getSourceDocumentFile(doc);
+            var lastModified = docFile.lastModified();
+            var etag = etag(String.valueOf(doc.getId()), VAL_ORIGINAL,
+                    String.valueOf(lastModified));
+            // This also adds the ETag and Last-Modified headers to the response
+            if (aRequest.checkNotModified(etag, lastModified)) {
+                return null;
+            }
+
             var resource = new FileSystemResource(docFile);
             var httpHeaders = new HttpHeaders();
             httpHeaders.setContentLength(resource.contentLength());
@@ -285,7 +296,7 @@ public class AeroDocumentController
         }
 
         // Export a converted file - here we first export to a local temporary file and then
-        // send that back to the client
+        // stream that back to the client
 
         // Check if the format is supported
         var format = importExportService.getWritableFormatById(formatId)
@@ -294,28 +305,32 @@ public class AeroDocumentController
                         importExportService.getWritableFormats().stream().map(FormatSupport::getId)
                                 .sorted().collect(Collectors.toList()).toString()));
 
+        // If the initial CAS has not changed since the client last fetched the document, we can
+        // skip the conversion
+        var timestamp = documentService.getAnnotationCasTimestamp(doc, INITIAL_SET);
+        if (timestamp.isPresent() && aRequest.checkNotModified(
+                etag(project, doc, INITIAL_CAS_PSEUDO_USER, format, timestamp.get()),
+                timestamp.get())) {
+            return null;
+        }
+
         // Create a temporary export file from the annotations
         var cas = documentService.createOrReadInitialCas(doc);
 
-        File exportedFile = null;
+        var exportedFile = importExportService.exportCasToFile(cas, doc, INITIAL_CAS_PSEUDO_USER,
+                format);
         try {
-            // Load the converted file into memory
-            exportedFile = importExportService.exportCasToFile(cas, doc, INITIAL_CAS_PSEUDO_USER,
-                    format);
-            var resource = FileUtils.readFileToByteArray(exportedFile);
-
             // Send it back to the client
             var httpHeaders = new HttpHeaders();
-            httpHeaders.setContentLength(resource.length);
+            httpHeaders.setContentLength(exportedFile.length());
             httpHeaders.set("Content-Disposition",
                     "attachment; filename=\"" + exportedFile.getName() + "\"");
 
-            return new ResponseEntity<>(resource, httpHeaders, OK);
+            return new ResponseEntity<>(autoDeletingResource(exportedFile), httpHeaders, OK);
         }
-        finally {
-            if (exportedFile != null) {
-                FileUtils.forceDelete(exportedFile);
-            }
+        catch (IOException | RuntimeException e) {
+            FileUtils.forceDelete(exportedFile);
+            throw e;
         }
     }
 
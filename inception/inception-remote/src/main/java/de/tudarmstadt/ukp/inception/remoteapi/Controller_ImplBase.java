@@ -22,6 +22,7 @@ import static de.tudarmstadt.ukp.inception.support.uima.ICasUtil.forceOverwriteS
 import static de.tudarmstadt.ukp.inception.support.uima.WebAnnoCasUtil.selectSentences;
 import static de.tudarmstadt.ukp.inception.support.uima.WebAnnoCasUtil.selectTokens;
 import static java.io.File.createTempFile;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.stream.Collectors.toList;
 import static org.apache.commons.io.FilenameUtils.getExtension;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
@@ -30,9 +31,14 @@ import static org.springframework.http.HttpStatus.OK;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Collection;
+import java.util.HexFormat;
 import java.util.Iterator;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -44,20 +50,24 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.uima.UIMAException;
 import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.resource.ResourceInitializationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import de.tudarmstadt.ukp.clarin.webanno.api.export.DocumentImportExportService;
 import de.tudarmstadt.ukp.clarin.webanno.api.format.FormatSupport;
 import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationDocument;
+import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationSet;
 import de.tudarmstadt.ukp.clarin.webanno.model.Mode;
 import de.tudarmstadt.ukp.clarin.webanno.model.PermissionLevel;
 import de.tudarmstadt.ukp.clarin.webanno.model.Project;
@@ -73,6 +83,7 @@ import de.tudarmstadt.ukp.clarin.webanno.webapp.remoteapi.aero.exception.Unsuppo
 import de.tudarmstadt.ukp.clarin.webanno.webapp.remoteapi.aero.model.RResponse;
 import de.tudarmstadt.ukp.inception.documents.api.DocumentService;
 import de.tudarmstadt.ukp.inception.project.api.ProjectService;
+import de.tudarmstadt.ukp.inception.schema.api.AnnotationSchemaService;
 import jakarta.persistence.NoResultException;
 
 public abstract class Controller_ImplBase
@@ -118,6 +129,7 @@ public abstract class Controller_ImplBase
     protected @Autowired ProjectService projectService;
     protected @Autowired UserDao userRepository;
     protected @Autowired DocumentImportExportService importExportService;
+    protected @Autowired AnnotationSchemaService schemaService;
 
     @ExceptionHandler(value = RemoteApiException.class)
     public ResponseEntity<RResponse<Void>> handleException(RemoteApiException aException)
@@ -363,64 +375,141 @@ public abstract class Controller_ImplBase
         return annotationCas;
     }
 
-    protected ResponseEntity<byte[]> readAnnotation(Project aProject, long aDocumentId,
-            String aAnnotatorId, Mode aMode, Optional<String> aFormat)
+    protected ResponseEntity<InputStreamResource> readAnnotation(Project aProject,
+            long aDocumentId, String aAnnotatorId, Mode aMode, Optional<String> aFormat,
+            WebRequest aRequest)
         throws RemoteApiException, ClassNotFoundException, IOException, UIMAException
     {
         var doc = getDocument(aProject, aDocumentId);
 
+        var format = getWritableFormat(doc, aFormat);
+
+        // In principle we don't need this call - but it makes sure that we check that the
+        // annotation document entry is actually properly set up in the database.
+        if (Mode.ANNOTATION.equals(aMode)) {
+            getAnnotation(doc, aAnnotatorId, false);
+        }
+
+        // If the CAS has not changed since the client last fetched it, we can skip the export.
+        // Otherwise, checkNotModified adds the ETag and Last-Modified headers to the response.
+        var timestamp = documentService.getAnnotationCasTimestamp(doc,
+                AnnotationSet.forUser(aAnnotatorId));
+        if (timestamp.isPresent() && aRequest.checkNotModified(
+                etag(aProject, doc, aAnnotatorId, format, timestamp.get()), timestamp.get())) {
+            return null;
+        }
+
+        // Create a temporary export file from the annotations
+        var exportedAnnoFile = importExportService.exportAnnotationDocument(doc, aAnnotatorId,
+                format, Mode.ANNOTATION);
+        try {
+            var filename = FilenameUtils.removeExtension(doc.getName());
+            filename += "-" + aAnnotatorId;
+            filename += "." + FilenameUtils.getExtension(exportedAnnoFile.getName());
+
+            var httpHeaders = new HttpHeaders();
+            httpHeaders.setContentLength(exportedAnnoFile.length());
+            httpHeaders.set("Content-Disposition", "attachment; filename=\"" + filename + "\"");
+
+            return new ResponseEntity<>(autoDeletingResource(exportedAnnoFile), httpHeaders, OK);
+        }
+        catch (IOException | RuntimeException e) {
+            FileUtils.forceDelete(exportedAnnoFile);
+            throw e;
+        }
+    }
+
+    protected FormatSupport getWritableFormat(SourceDocument aDocument, Optional<String> aFormat)
+        throws UnsupportedFormatException
+    {
         // Check format
         String formatId;
         if (aFormat.isPresent()) {
             if (VAL_ORIGINAL.equals(aFormat.get())) {
-                formatId = doc.getFormat();
+                formatId = aDocument.getFormat();
             }
             else {
                 formatId = aFormat.get();
             }
         }
         else {
-            formatId = doc.getFormat();
+            formatId = aDocument.getFormat();
         }
 
         // Determine the format
-        var format = importExportService.getWritableFormatById(formatId)
+        return importExportService.getWritableFormatById(formatId)
                 .orElseThrow(() -> new UnsupportedFormatException(
                         "Format [%s] is not writable. Acceptable formats are %s.", formatId,
                         importExportService.getWritableFormats().stream() //
                                 .map(FormatSupport::getId) //
                                 .sorted().collect(Collectors.toList())));
+    }
 
-        // In principle we don't need this call - but it makes sure that we check that the
-        // annotation document entry is actually properly set up in the database.
-        if (Mode.ANNOTATION.equals(aMode)) {
-            getAnnotation(doc, aAnnotatorId, false);
+    /**
+     * Calculates an entity tag for an exported CAS. The tag covers the last modification of the CAS
+     * as well as the project type system, so a change to the layer configuration invalidates it as
+     * well.
+     *
+     * @param aProject
+     *            the project.
+     * @param aDocument
+     *            the document.
+     * @param aDataOwner
+     *            the owner of the CAS.
+     * @param aFormat
+     *            the format the CAS is exported to.
+     * @param aTimestamp
+     *            the timestamp of the CAS.
+     * @return the entity tag.
+     * @throws IOException
+     *             if the project type system could not be obtained.
+     */
+    protected String etag(Project aProject, SourceDocument aDocument, String aDataOwner,
+            FormatSupport aFormat, long aTimestamp)
+        throws IOException
+    {
+        try {
+            var typeSystemFingerprint = schemaService.getProjectTypeSystemFingerprint(aProject);
+            return etag(String.valueOf(aDocument.getId()), aDataOwner, aFormat.getId(),
+                    String.valueOf(aTimestamp), typeSystemFingerprint);
         }
+        catch (ResourceInitializationException e) {
+            throw new IOException(e);
+        }
+    }
 
-        // Create a temporary export file from the annotations
-        File exportedAnnoFile = null;
-        byte[] resource;
+    protected static String etag(String... aParts)
+    {
         try {
-            exportedAnnoFile = importExportService.exportAnnotationDocument(doc, aAnnotatorId,
-                    format, Mode.ANNOTATION);
-            resource = FileUtils.readFileToByteArray(exportedAnnoFile);
-
-            var filename = FilenameUtils.removeExtension(doc.getName());
-            filename += "-" + aAnnotatorId;
-            // Actually, exportedAnnoFile cannot be null here - the warning can be ignored.
-            filename += "." + FilenameUtils.getExtension(exportedAnnoFile.getName());
-
-            var httpHeaders = new HttpHeaders();
-            httpHeaders.setContentLength(resource.length);
-            httpHeaders.set("Content-Disposition", "attachment; filename=\"" + filename + "\"");
-
-            return new ResponseEntity<>(resource, httpHeaders, OK);
-        }
-        finally {
-            if (exportedAnnoFile != null) {
-                FileUtils.forceDelete(exportedAnnoFile);
+            var digest = MessageDigest.getInstance("SHA-256");
+            for (var part : aParts) {
+                digest.update(part.getBytes(UTF_8));
+                digest.update((byte) 0);
             }
+            // Half of the digest is plenty to tell versions apart
+            return HexFormat.of().formatHex(digest.digest(), 0, 16);
         }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Turns the file into a resource which is streamed to the client and deletes the file when the
+     * resource closes the stream.
+     */
+    protected static InputStreamResource autoDeletingResource(File aFile)
+        throws FileNotFoundException
+    {
+        return new InputStreamResource(new FileInputStream(aFile)
+        {
+            @Override
+            public void close() throws IOException
+            {
+                super.close();
+                FileUtils.forceDelete(aFile);
+            }
+        });
     }
 
     private static <T extends AnnotationFS> void assertCompatibleOffsets(Collection<T> aExpected,
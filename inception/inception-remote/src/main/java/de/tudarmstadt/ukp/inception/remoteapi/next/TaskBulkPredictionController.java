@@ -53,7 +53,6 @@ import de.tudarmstadt.ukp.inception.remoteapi.next.model.RMetadataAnnotation;
 import de.tudarmstadt.ukp.inception.remoteapi.next.model.RTaskState;
 import de.tudarmstadt.ukp.inception.scheduling.SchedulingService;
 import de.tudarmstadt.ukp.inception.scheduling.TaskAccess;
-import de.tudarmstadt.ukp.inception.schema.api.AnnotationSchemaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -75,9 +74,9 @@ public class TaskBulkPredictionController
     private static final String PARAM_METADATA = "metadata";
     private static final String PARAM_STATES_TO_PROCESS = "statesToProcess";
     private static final String PARAM_RECOMMENDER_NAME = "recommender";
+    private static final String PARAM_CONCURRENCY = "concurrency";
 
     private @Autowired RecommendationService recommendationService;
-    private @Autowired AnnotationSchemaService schemaService;
     private @Autowired SchedulingService schedulingService;
     private @Autowired TaskAccess taskAccess;
 
@@ -130,7 +129,16 @@ public class TaskBulkPredictionController
                     Whether to mark annotations as finished even if no recommendations
                     were generated for them.
                     """) //
-            boolean aFinishDocumentsWithoutRecommendations)
+            boolean aFinishDocumentsWithoutRecommendations, //
+            @RequestParam( //
+                    name = PARAM_CONCURRENCY, //
+                    required = false) //
+            @Schema(description = """
+                    Number of documents to process in parallel. If not specified, a default
+                    based on the number of available processors is used. Recommenders which
+                    do not support concurrent predictions process one document at a time.
+                    """) //
+            Integer aConcurrency)
         throws Exception
     {
         var project = getProject(aProjectId, MANAGER);
@@ -149,6 +157,13 @@ public class TaskBulkPredictionController
 
         var metadata = convertMetadata(aProjectId, aMetadata, project);
 
+        var concurrency = aConcurrency != null ? aConcurrency
+                : BulkPredictionTask.DEFAULT_CONCURRENCY;
+        if (concurrency < 1 || concurrency > BulkPredictionTask.MAX_CONCURRENCY) {
+            throw new IllegalArgumentException("Concurrency must be between 1 and "
+                    + BulkPredictionTask.MAX_CONCURRENCY);
+        }
+
         var task = BulkPredictionTask.builder() //
                 .withSessionOwner(sessionOwner) //
                 .withRecommender(recommender) //
@@ -157,6 +172,7 @@ public class TaskBulkPredictionController
                 .withProcessingMetadata(metadata) //
                 .withStatesToProcess(statesToProcess) //
                 .withFinishDocumentsWithoutRecommendations(aFinishDocumentsWithoutRecommendations) //
+                .withConcurrency(concurrency) //
                 .build();
         schedulingService.enqueue(task);
 
@@ -20,8 +20,13 @@ package de.tudarmstadt.ukp.clarin.webanno.webapp.remoteapi.aero;
 import static de.tudarmstadt.ukp.clarin.webanno.security.model.Role.ROLE_ADMIN;
 import static de.tudarmstadt.ukp.clarin.webanno.security.model.Role.ROLE_REMOTE;
 import static de.tudarmstadt.ukp.clarin.webanno.security.model.Role.ROLE_USER;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.LAST_MODIFIED;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -141,6 +146,55 @@ public class AeroAnnotationControllerTest
                 .andExpect(jsonPath("$.body.timestamp").doesNotExist());
     }
 
+    @Test
+    void testConditionalAnnotationRead() throws Exception
+    {
+        adminActor.createAnnotations(1, 1, "admin", "This is a test.") //
+                .andExpect(status().isCreated());
+
+        var etag = adminActor.readAnnotations(1, 1, "admin", null) //
+                .andExpect(status().isOk()) //
+                .andExpect(header().exists(ETAG)) //
+                .andExpect(header().exists(LAST_MODIFIED)) //
+                .andExpect(content().string(containsString("This is a test."))) //
+                .andReturn().getResponse().getHeader(ETAG);
+
+        adminActor.readAnnotations(1, 1, "admin", etag) //
+                .andExpect(status().isNotModified());
+
+        adminActor.createAnnotations(1, 1, "admin", "This is a test.") //
+                .andExpect(status().isCreated());
+
+        adminActor.readAnnotations(1, 1, "admin", etag) //
+                .andExpect(status().isOk()) //
+                .andExpect(header().string(ETAG, not(etag)));
+    }
+
+    @Test
+    void testBulkAnnotationRead() throws Exception
+    {
+        adminActor.createAnnotations(1, 1, "admin", "This is a test.") //
+                .andExpect(status().isCreated());
+
+        adminActor.streamAllAnnotations(1, "application/x-ndjson") //
+                .andExpect(status().isOk()) //
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson")) //
+                .andExpect(content().string(containsString("\"user\":\"admin\""))) //
+                .andExpect(content().string(containsString("\"documentName\":\"test.txt\"")));
+
+        adminActor.streamAllAnnotations(1, "*/*") //
+                .andExpect(status().isOk()) //
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"));
+
+        adminActor.readAllAnnotations(1, "application/zip") //
+                .andExpect(status().isOk()) //
+                .andExpect(content().contentTypeCompatibleWith("application/zip"));
+
+        adminActor.readAllAnnotations(1, "*/*") //
+                .andExpect(status().isOk()) //
+                .andExpect(content().contentTypeCompatibleWith("application/zip"));
+    }
+
     @SpringBootConfiguration
     static class TestContext
     {
@@ -275,6 +275,41 @@ class MockAeroClient
                 .with(user(username).roles(roles)));
     }
 
+    ResultActions readAnnotations(Object aProjectId, long aDocId, String aUser, String aIfNoneMatch)
+        throws Exception
+    {
+        var url = API_BASE + "/projects/" + aProjectId + "/documents/" + aDocId + "/annotations/"
+                + aUser;
+        var request = get(url) //
+                .with(csrf().asHeader()) //
+                .with(user(username).roles(roles)) //
+                .param("format", "text");
+        if (aIfNoneMatch != null) {
+            request.header("If-None-Match", aIfNoneMatch);
+        }
+        return mvc.perform(request);
+    }
+
+    ResultActions readAllAnnotations(Object aProjectId, String aMediaType) throws Exception
+    {
+        var url = API_BASE + "/projects/" + aProjectId + "/annotations";
+        return mvc.perform(get(url) //
+                .with(csrf().asHeader()) //
+                .with(user(username).roles(roles)) //
+                .accept(aMediaType) //
+                .param("format", "text"));
+    }
+
+    ResultActions streamAllAnnotations(Object aProjectId, String aMediaType) throws Exception
+    {
+        var url = API_BASE + "/projects/" + aProjectId + "/annotations/stream";
+        return mvc.perform(get(url) //
+                .with(csrf().asHeader()) //
+                .with(user(username).roles(roles)) //
+                .accept(aMediaType) //
+                .param("format", "text"));
+    }
+
     ResultActions importCurations(Object aProjectId, long aDocId, String aContent, String aState)
         throws Exception, UnsupportedEncodingException
     {
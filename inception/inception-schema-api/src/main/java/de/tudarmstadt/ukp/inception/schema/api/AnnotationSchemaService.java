@@ -24,6 +24,7 @@ import java.util.Optional;
 import org.apache.uima.UIMAException;
 import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.cas.TypeSystem;
 import org.apache.uima.cas.text.AnnotationFS;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.apache.uima.resource.metadata.TypeSystemDescription;
@@ -537,6 +538,38 @@ public interface AnnotationSchemaService
     TypeSystemDescription getFullProjectTypeSystem(Project aProject, boolean aIncludeInternalTypes)
         throws ResourceInitializationException;
 
+    /**
+     * @param aProject
+     *            a project
+     * @return the compiled full type system for the project including internal types. The type
+     *         system is compiled once per schema version and shared by all callers. CASes created
+     *         from it share the same type system instance.
+     * @throws ResourceInitializationException
+     *             if there was an UIMA-level problem
+     */
+    TypeSystem getProjectTypeSystem(Project aProject) throws ResourceInitializationException;
+
+    /**
+     * @param aProject
+     *            a project
+     * @return a stable fingerprint of the full project type system. CASes which are known to be
+     *         compatible with the project type system are stamped with this fingerprint in their
+     *         {@link CASMetadata}.
+     * @throws ResourceInitializationException
+     *             if there was an UIMA-level problem
+     */
+    String getProjectTypeSystemFingerprint(Project aProject)
+        throws ResourceInitializationException;
+
+    /**
+     * @param aProject
+     *            a project
+     * @return the schema version of the project. The version increases monotonically whenever the
+     *         layer configuration of the project changes. It is not persisted and only valid for
+     *         the lifetime of the application.
+     */
+    long getSchemaVersion(Project aProject);
+
     /**
      * Upgrade the CAS to the current project type system. This also compacts the CAS and removes
      * any unreachable feature structures. This should be called at key points such as when the user
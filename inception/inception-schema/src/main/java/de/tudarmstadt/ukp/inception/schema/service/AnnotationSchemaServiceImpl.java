@@ -25,7 +25,6 @@ import static de.tudarmstadt.ukp.inception.schema.api.AttachedAnnotation.Directi
 import static de.tudarmstadt.ukp.inception.schema.api.AttachedAnnotation.Direction.OUTGOING;
 import static de.tudarmstadt.ukp.inception.support.WebAnnoConst.RESTRICTED_FEATURE_NAMES;
 import static de.tudarmstadt.ukp.inception.support.uima.ICasUtil.selectByAddr;
-import static de.tudarmstadt.ukp.inception.support.uima.WebAnnoCasUtil.getRealCas;
 import static de.tudarmstadt.ukp.inception.support.uima.WebAnnoCasUtil.isNativeUimaType;
 import static de.tudarmstadt.ukp.inception.support.uima.WebAnnoCasUtil.isSame;
 import static java.lang.String.join;
@@ -37,24 +36,24 @@ import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
 import static org.apache.commons.lang3.StringUtils.isBlank;
-import static org.apache.uima.cas.impl.Serialization.deserializeCASComplete;
-import static org.apache.uima.cas.impl.Serialization.serializeCASComplete;
-import static org.apache.uima.cas.impl.Serialization.serializeWithCompression;
 import static org.apache.uima.fit.factory.TypeSystemDescriptionFactory.createTypeSystemDescription;
 import static org.apache.uima.fit.util.FSUtil.setFeature;
 import static org.apache.uima.util.CasCreationUtils.mergeTypeSystems;
 import static org.apache.uima.util.TypeSystemUtil.isFeatureName;
+import static org.springframework.transaction.support.TransactionSynchronizationManager.isSynchronizationActive;
+import static org.springframework.transaction.support.TransactionSynchronizationManager.registerSynchronization;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.uima.UIMAException;
 import org.apache.uima.cas.CAS;
@@ -62,9 +61,7 @@ import org.apache.uima.cas.Feature;
 import org.apache.uima.cas.FeatureStructure;
 import org.apache.uima.cas.Type;
 import org.apache.uima.cas.TypeSystem;
-import org.apache.uima.cas.impl.CASImpl;
 import org.apache.uima.cas.text.AnnotationFS;
-import org.apache.uima.fit.factory.CasFactory;
 import org.apache.uima.fit.util.CasUtil;
 import org.apache.uima.jcas.tcas.Annotation;
 import org.apache.uima.resource.ResourceInitializationException;
@@ -73,13 +70,15 @@ import org.apache.uima.resource.metadata.TypeDescription;
 import org.apache.uima.resource.metadata.TypeSystemDescription;
 import org.apache.uima.resource.metadata.impl.TypeSystemDescription_impl;
 import org.apache.uima.util.CasCreationUtils;
-import org.apache.uima.util.CasIOUtils;
 import org.apache.wicket.validation.ValidationError;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
 
@@ -109,11 +108,13 @@ import de.tudarmstadt.ukp.inception.annotation.layer.relation.api.RelationLayerS
 import de.tudarmstadt.ukp.inception.annotation.layer.span.api.SpanAdapter;
 import de.tudarmstadt.ukp.inception.annotation.layer.span.api.SpanLayerSupport;
 import de.tudarmstadt.ukp.inception.annotation.storage.CasMetadataUtils;
+import de.tudarmstadt.ukp.inception.project.api.event.AfterProjectRemovedEvent;
 import de.tudarmstadt.ukp.inception.schema.api.AnnotationSchemaService;
 import de.tudarmstadt.ukp.inception.schema.api.AttachedAnnotation;
 import de.tudarmstadt.ukp.inception.schema.api.adapter.IllegalFeatureValueException;
 import de.tudarmstadt.ukp.inception.schema.api.adapter.TypeAdapter;
 import de.tudarmstadt.ukp.inception.schema.api.config.AnnotationSchemaProperties;
+import de.tudarmstadt.ukp.inception.schema.api.event.LayerConfigurationChangedEvent;
 import de.tudarmstadt.ukp.inception.schema.api.event.TagCreatedEvent;
 import de.tudarmstadt.ukp.inception.schema.api.event.TagDeletedEvent;
 import de.tudarmstadt.ukp.inception.schema.api.event.TagUpdatedEvent;
@@ -144,6 +145,8 @@ public class AnnotationSchemaServiceImpl
     private final LayerSupportRegistry layerSupportRegistry;
     private final FeatureSupportRegistry featureSupportRegistry;
     private final LoadingCache<TagSet, List<ImmutableTag>> immutableTagsCache;
+    private final Cache<ProjectTypeSystemKey, CompiledProjectTypeSystem> projectTypeSystemCache;
+    private final Map<Long, AtomicLong> schemaVersions = new ConcurrentHashMap<>();
     private final TypeSystemDescription builtInTypes;
     private final AnnotationSchemaProperties annotationEditorProperties;
 
@@ -168,6 +171,11 @@ public class AnnotationSchemaServiceImpl
                 .maximumSize(10 * 1024) //
                 .build(this::loadImmutableTags);
 
+        projectTypeSystemCache = Caffeine.newBuilder() //
+                .expireAfterAccess(30, MINUTES) //
+                .maximumSize(1024) //
+                .build();
+
         try {
             builtInTypes = createTypeSystemDescription();
         }
@@ -323,6 +331,8 @@ public class AnnotationSchemaServiceImpl
                 LOG.info("Updated layer {} in project {}", aLayer, aLayer.getProject());
             }
         }
+
+        schemaChanged(aLayer.getProject());
     }
 
     @Override
@@ -339,6 +349,8 @@ public class AnnotationSchemaServiceImpl
                 LOG.info("Updated feature {} in project {}", aFeature, aFeature.getProject());
             }
         }
+
+        schemaChanged(aFeature.getProject());
     }
 
     @Override
@@ -1033,6 +1045,8 @@ public class AnnotationSchemaServiceImpl
 
             LOG.info("Removed feature {} from project {}", aFeature, aFeature.getProject());
         }
+
+        schemaChanged(aFeature.getProject());
     }
 
     @Override
@@ -1059,6 +1073,8 @@ public class AnnotationSchemaServiceImpl
 
             LOG.info("Removed layer {} from project {}", aLayer, aLayer.getProject());
         }
+
+        schemaChanged(aLayer.getProject());
     }
 
     @Override
@@ -1215,6 +1231,118 @@ public class AnnotationSchemaServiceImpl
     public TypeSystemDescription getFullProjectTypeSystem(Project aProject,
             boolean aIncludeInternalTypes)
         throws ResourceInitializationException
+    {
+        // The cached description is shared, so callers get a copy they are free to modify
+        return (TypeSystemDescription) getCompiledProjectTypeSystem(aProject, aIncludeInternalTypes)
+                .getTypeSystemDescription().clone();
+    }
+
+    @Override
+    public TypeSystem getProjectTypeSystem(Project aProject) throws ResourceInitializationException
+    {
+        return getCompiledProjectTypeSystem(aProject, true).getTypeSystem();
+    }
+
+    @Override
+    public String getProjectTypeSystemFingerprint(Project aProject)
+        throws ResourceInitializationException
+    {
+        return getCompiledProjectTypeSystem(aProject, true).getFingerprint();
+    }
+
+    @Override
+    public long getSchemaVersion(Project aProject)
+    {
+        if (aProject.getId() == null) {
+            return 0;
+        }
+
+        return schemaVersions.computeIfAbsent(aProject.getId(), id -> new AtomicLong()).get();
+    }
+
+    @EventListener
+    public void onLayerConfigurationChanged(LayerConfigurationChangedEvent aEvent)
+    {
+        schemaChanged(aEvent.getProject());
+    }
+
+    private void schemaChanged(Project aProject)
+    {
+        if (aProject == null || aProject.getId() == null) {
+            return;
+        }
+
+        var projectId = aProject.getId();
+        bumpSchemaVersion(projectId);
+
+        // Changes made within a transaction only become visible to others once the transaction
+        // has completed. A type system compiled concurrently in the meantime may still reflect the
+        // old schema, so we bump the version again once the transaction is over.
+        if (isSynchronizationActive()) {
+            registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public void afterCompletion(int aStatus)
+                {
+                    // Do not resurrect the version of a project that has been deleted meanwhile
+                    if (schemaVersions.containsKey(projectId)) {
+                        bumpSchemaVersion(projectId);
+                    }
+                }
+            });
+        }
+    }
+
+    @EventListener
+    public void onAfterProjectRemoved(AfterProjectRemovedEvent aEvent)
+    {
+        // The layers of the project are removed before, so no further schema changes are to be
+        // expected for this project
+        var projectId = aEvent.getProject().getId();
+        schemaVersions.remove(projectId);
+        projectTypeSystemCache.invalidate(new ProjectTypeSystemKey(projectId, true));
+        projectTypeSystemCache.invalidate(new ProjectTypeSystemKey(projectId, false));
+    }
+
+    private void bumpSchemaVersion(long aProjectId)
+    {
+        schemaVersions.computeIfAbsent(aProjectId, id -> new AtomicLong()).incrementAndGet();
+        projectTypeSystemCache.invalidate(new ProjectTypeSystemKey(aProjectId, true));
+        projectTypeSystemCache.invalidate(new ProjectTypeSystemKey(aProjectId, false));
+    }
+
+    private CompiledProjectTypeSystem getCompiledProjectTypeSystem(Project aProject,
+            boolean aIncludeInternalTypes)
+        throws ResourceInitializationException
+    {
+        // Transient projects are not cached
+        if (aProject.getId() == null) {
+            return new CompiledProjectTypeSystem(0,
+                    buildFullProjectTypeSystem(aProject, aIncludeInternalTypes));
+        }
+
+        var key = new ProjectTypeSystemKey(aProject.getId(), aIncludeInternalTypes);
+        var version = getSchemaVersion(aProject);
+
+        var cached = projectTypeSystemCache.getIfPresent(key);
+        if (cached != null && cached.getSchemaVersion() == version) {
+            return cached;
+        }
+
+        var compiled = new CompiledProjectTypeSystem(version,
+                buildFullProjectTypeSystem(aProject, aIncludeInternalTypes));
+
+        // Do not cache the result if the schema has changed while we were compiling it
+        if (getSchemaVersion(aProject) == version) {
+            projectTypeSystemCache.put(key, compiled);
+        }
+
+        return compiled;
+    }
+
+    private TypeSystemDescription buildFullProjectTypeSystem(Project aProject,
+            boolean aIncludeInternalTypes)
+        throws ResourceInitializationException
     {
         var typeSystems = new ArrayList<TypeSystemDescription>();
 
@@ -1281,8 +1409,12 @@ public class AnnotationSchemaServiceImpl
     @Override
     public void upgradeCas(CAS aCas, Project aProject) throws UIMAException, IOException
     {
-        TypeSystemDescription ts = getFullProjectTypeSystem(aProject);
-        upgradeCas(aCas, ts);
+        CasStorageSession.get().assertWritingPermitted(aCas);
+
+        // Use the cached compiled type system instead of compiling the description again
+        var compiled = getCompiledProjectTypeSystem(aProject, true);
+        _upgradeCas(aCas, aCas, compiled.getTypeSystem());
+        CasMetadataUtils.setTypeSystemFingerprint(aCas, compiled.getFingerprint());
     }
 
     @Override
@@ -1303,7 +1435,9 @@ public class AnnotationSchemaServiceImpl
     public boolean upgradeCasIfRequired(Iterable<CAS> aCasIter, Project aProject)
         throws UIMAException, IOException
     {
-        TypeSystemDescription ts = getFullProjectTypeSystem(aProject);
+        var compiled = getCompiledProjectTypeSystem(aProject, true);
+        var ts = compiled.getTypeSystemDescription();
+        var fingerprint = compiled.getFingerprint();
 
         // Check if the current CAS already contains the required type system
         boolean upgradePerformed = false;
@@ -1316,10 +1450,20 @@ public class AnnotationSchemaServiceImpl
             // eventually figure out that no upgrade is required.
             CasStorageSession.get().assertWritingPermitted(cas);
 
+            // If the CAS has been stamped with the fingerprint of the current project type
+            // system, we know it is compatible without having to compare the type systems
+            if (CasMetadataUtils.getTypeSystemFingerprint(cas) //
+                    .map(fingerprint::equals) //
+                    .orElse(false)) {
+                continue nextCas;
+            }
+
             if (isUpgradeRequired(cas, ts)) {
-                upgradeCas(cas, ts);
+                _upgradeCas(cas, cas, compiled.getTypeSystem());
                 upgradePerformed = true;
             }
+
+            CasMetadataUtils.setTypeSystemFingerprint(cas, fingerprint);
         }
 
         return upgradePerformed;
@@ -1352,32 +1496,13 @@ public class AnnotationSchemaServiceImpl
             TypeSystemDescription aTargetTypeSystem)
         throws IOException, ResourceInitializationException
     {
-        // Save source CAS type system (do this early since we might do an in-place upgrade)
-        var sourceTypeSystem = aSourceCas.getTypeSystem();
-
-        // Save source CAS contents
-        var serializedCasContents = new ByteArrayOutputStream();
-        var realSourceCas = getRealCas(aSourceCas);
-        // UIMA-6162 Workaround: synchronize CAS during de/serialization
-        synchronized (((CASImpl) realSourceCas).getBaseCAS()) {
-            // Workaround for https://github.com/apache/uima-uimaj/issues/238
-            try (var context = ((CASImpl) realSourceCas).ll_enableV2IdRefs(false)) {
-                serializeWithCompression(realSourceCas, serializedCasContents, sourceTypeSystem);
-            }
-        }
-
-        // Re-initialize the target CAS with new type system
-        CAS realTargetCas = getRealCas(aTargetCas);
-        // UIMA-6162 Workaround: synchronize CAS during de/serialization
-        synchronized (((CASImpl) realTargetCas).getBaseCAS()) {
-            var tempCas = CasFactory.createCas(aTargetTypeSystem);
-            var serializer = serializeCASComplete((CASImpl) tempCas);
-            deserializeCASComplete(serializer, (CASImpl) realTargetCas);
+        CasUpgradeEngine.upgrade(aSourceCas, aTargetCas, aTargetTypeSystem);
+    }
 
-            // Leniently load the source CAS contents into the target CAS
-            CasIOUtils.load(new ByteArrayInputStream(serializedCasContents.toByteArray()),
-                    getRealCas(aTargetCas), sourceTypeSystem);
-        }
+    private static void _upgradeCas(CAS aSourceCas, CAS aTargetCas, TypeSystem aTargetTypeSystem)
+        throws IOException, ResourceInitializationException
+    {
+        CasUpgradeEngine.upgrade(aSourceCas, aTargetCas, aTargetTypeSystem);
     }
 
     /**
@@ -1937,4 +2062,6 @@ public class AnnotationSchemaServiceImpl
         }
         return true;
     }
+
+    private record ProjectTypeSystemKey(long projectId, boolean includeInternalTypes) {}
 }
@@ -0,0 +1,273 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.schema.service;
+
+import static de.tudarmstadt.ukp.inception.support.uima.WebAnnoCasUtil.getRealCas;
+import static org.apache.uima.cas.impl.Serialization.deserializeCASComplete;
+import static org.apache.uima.cas.impl.Serialization.serializeCASComplete;
+import static org.apache.uima.cas.impl.Serialization.serializeWithCompression;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.cas.impl.CASCompleteSerializer;
+import org.apache.uima.cas.impl.CASImpl;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.CasCreationUtils;
+import org.apache.uima.util.CasIOUtils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Upgrades CASes to a new type system.
+ * <p>
+ * A UIMA CAS cannot change its type system without being re-initialized, so the contents of the
+ * source CAS always need to be saved before the target CAS is reset. To keep the cost of this low:
+ * <ul>
+ * <li>the state of an empty CAS is prepared only once per type system and then shared by all
+ * upgrades to that type system - no temporary CAS needs to be created per upgrade;</li>
+ * <li>type system descriptions are compiled only once per fingerprint, so callers which upgrade
+ * many CASes to equal descriptions share the compiled type system and its empty CAS state;</li>
+ * <li>the CAS contents are serialized into a per-thread buffer which is re-used across upgrades
+ * and read back without copying it;</li>
+ * <li>if the target type system only adds types or features to the source type system (the common
+ * case when a layer or feature was created), the CAS contents are serialized directly against the
+ * target type system and loaded without lenient type mapping.</li>
+ * </ul>
+ */
+final class CasUpgradeEngine
+{
+    /**
+     * Buffers growing beyond this size are not retained after an upgrade to avoid permanently
+     * holding on to the memory required by an exceptionally large CAS.
+     */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 16 * 1024 * 1024;
+
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private static final int MAX_COMPILED_TYPE_SYSTEMS = 32;
+
+    private static final Cache<String, TypeSystem> COMPILED = Caffeine.newBuilder() //
+            .maximumSize(MAX_COMPILED_TYPE_SYSTEMS) //
+            .build();
+
+    private static final Map<TypeSystem, CASCompleteSerializer> TEMPLATES = Collections
+            .synchronizedMap(new WeakHashMap<>());
+
+    private static final ThreadLocal<UpgradeBuffer> BUFFER = ThreadLocal
+            .withInitial(UpgradeBuffer::new);
+
+    private CasUpgradeEngine()
+    {
+        // No instances
+    }
+
+    static void upgrade(CAS aSourceCas, CAS aTargetCas, TypeSystemDescription aTargetTypeSystem)
+        throws IOException, ResourceInitializationException
+    {
+        upgrade(aSourceCas, aTargetCas, getTypeSystem(aTargetTypeSystem));
+    }
+
+    static void upgrade(CAS aSourceCas, CAS aTargetCas, TypeSystem aTargetTypeSystem)
+        throws IOException, ResourceInitializationException
+    {
+        // Save source CAS type system (do this early since we might do an in-place upgrade)
+        var sourceTypeSystem = aSourceCas.getTypeSystem();
+        var additive = isAdditiveChange(sourceTypeSystem, aTargetTypeSystem);
+        var template = getTemplate(aTargetTypeSystem);
+
+        var buffer = BUFFER.get();
+        try {
+            // Save source CAS contents
+            var realSourceCas = (CASImpl) getRealCas(aSourceCas);
+            // UIMA-6162 Workaround: synchronize CAS during de/serialization
+            synchronized (realSourceCas.getBaseCAS()) {
+                // Workaround for https://github.com/apache/uima-uimaj/issues/238
+                try (var context = realSourceCas.ll_enableV2IdRefs(false)) {
+                    serializeWithCompression(realSourceCas, buffer,
+                            additive ? aTargetTypeSystem : sourceTypeSystem);
+                }
+            }
+
+            // Re-initialize the target CAS with new type system
+            var realTargetCas = (CASImpl) getRealCas(aTargetCas);
+            // UIMA-6162 Workaround: synchronize CAS during de/serialization
+            synchronized (realTargetCas.getBaseCAS()) {
+                deserializeCASComplete(template, realTargetCas);
+
+                if (additive) {
+                    // The contents have already been encoded for the target type system
+                    CasIOUtils.load(buffer.toInputStream(), realTargetCas);
+                }
+                else {
+                    // Leniently load the source CAS contents into the target CAS
+                    CasIOUtils.load(buffer.toInputStream(), realTargetCas, sourceTypeSystem);
+                }
+            }
+        }
+        finally {
+            if (buffer.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+                BUFFER.remove();
+            }
+            else {
+                buffer.reset();
+            }
+        }
+    }
+
+    /**
+     * @return the compiled type system for the given description. Descriptions with the same
+     *         fingerprint share the same compiled type system.
+     */
+    static TypeSystem getTypeSystem(TypeSystemDescription aTypeSystemDescription)
+        throws ResourceInitializationException
+    {
+        var fingerprint = CompiledProjectTypeSystem.fingerprint(aTypeSystemDescription);
+        var typeSystem = COMPILED.getIfPresent(fingerprint);
+        if (typeSystem == null) {
+            typeSystem = compile(aTypeSystemDescription);
+            COMPILED.put(fingerprint, typeSystem);
+        }
+        return typeSystem;
+    }
+
+    /**
+     * Compiles the given type system description. Compiling requires creating a CAS, so the state
+     * of that still empty CAS is kept as the template for upgrades to the new type system.
+     */
+    @SuppressWarnings("javadoc")
+    static TypeSystem compile(TypeSystemDescription aTypeSystemDescription)
+        throws ResourceInitializationException
+    {
+        var cas = (CASImpl) CasCreationUtils.createCas(aTypeSystemDescription, null, null);
+        var typeSystem = cas.getTypeSystem();
+        TEMPLATES.putIfAbsent(typeSystem, serializeCASComplete(cas));
+        return typeSystem;
+    }
+
+    /**
+     * @return the serialized state of an empty CAS using the given type system. The state is
+     *         prepared once per type system and retained for as long as the type system is in use.
+     */
+    static CASCompleteSerializer getTemplate(TypeSystem aTypeSystem)
+        throws ResourceInitializationException
+    {
+        var template = TEMPLATES.get(aTypeSystem);
+        if (template == null) {
+            var templateCas = CasCreationUtils.createCas(aTypeSystem, null, null, null);
+            template = serializeCASComplete((CASImpl) templateCas);
+            TEMPLATES.put(aTypeSystem, template);
+        }
+        return template;
+    }
+
+    /**
+     * Checks whether the target type system only adds types or features to the source type system.
+     * That is, every type of the source type system exists in the target type system with the same
+     * supertype and every feature exists with the same range.
+     *
+     * @param aSource
+     *            the source type system.
+     * @param aTarget
+     *            the target type system.
+     * @return whether the change from the source to the target type system is purely additive.
+     */
+    static boolean isAdditiveChange(TypeSystem aSource, TypeSystem aTarget)
+    {
+        if (aSource == aTarget) {
+            return true;
+        }
+
+        var i = aSource.getTypeIterator();
+        while (i.hasNext()) {
+            var sourceType = i.next();
+            var targetType = aTarget.getType(sourceType.getName());
+            if (targetType == null) {
+                return false;
+            }
+
+            if (!Objects.equals(typeName(aSource.getParent(sourceType)),
+                    typeName(aTarget.getParent(targetType)))) {
+                return false;
+            }
+
+            if (!Objects.equals(typeName(sourceType.getComponentType()),
+                    typeName(targetType.getComponentType()))) {
+                return false;
+            }
+
+            for (var sourceFeature : sourceType.getFeatures()) {
+                var targetFeature = targetType.getFeatureByBaseName(sourceFeature.getShortName());
+                if (targetFeature == null) {
+                    return false;
+                }
+
+                if (!Objects.equals(typeName(sourceFeature.getRange()),
+                        typeName(targetFeature.getRange()))) {
+                    return false;
+                }
+
+                if (sourceFeature.isMultipleReferencesAllowed() != targetFeature
+                        .isMultipleReferencesAllowed()) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private static String typeName(Type aType)
+    {
+        return aType != null ? aType.getName() : null;
+    }
+
+    private static final class UpgradeBuffer
+        extends ByteArrayOutputStream
+    {
+        UpgradeBuffer()
+        {
+            super(INITIAL_BUFFER_SIZE);
+        }
+
+        int capacity()
+        {
+            return buf.length;
+        }
+
+        /**
+         * @return a stream reading the buffered data without copying it. The stream must not be
+         *         used after the buffer has been reset.
+         */
+        InputStream toInputStream()
+        {
+            return new ByteArrayInputStream(buf, 0, count);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.schema.service;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Comparator.comparing;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.metadata.FeatureDescription;
+import org.apache.uima.resource.metadata.TypeDescription;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+
+/**
+ * Merged and compiled type system of a project for a particular schema version. The merged type
+ * system description is computed once per schema version. The committed UIMA type system is only
+ * compiled when it is first requested and is then shared by all CASes created from it.
+ */
+class CompiledProjectTypeSystem
+{
+    private final long schemaVersion;
+    private final TypeSystemDescription typeSystemDescription;
+    private final String fingerprint;
+
+    private volatile TypeSystem typeSystem;
+
+    CompiledProjectTypeSystem(long aSchemaVersion, TypeSystemDescription aTypeSystemDescription)
+    {
+        schemaVersion = aSchemaVersion;
+        typeSystemDescription = aTypeSystemDescription;
+        fingerprint = fingerprint(aTypeSystemDescription);
+    }
+
+    public long getSchemaVersion()
+    {
+        return schemaVersion;
+    }
+
+    /**
+     * @return the cached merged type system description. This instance is shared and must not be
+     *         modified.
+     */
+    public TypeSystemDescription getTypeSystemDescription()
+    {
+        return typeSystemDescription;
+    }
+
+    public String getFingerprint()
+    {
+        return fingerprint;
+    }
+
+    public TypeSystem getTypeSystem() throws ResourceInitializationException
+    {
+        var ts = typeSystem;
+        if (ts == null) {
+            synchronized (this) {
+                ts = typeSystem;
+                if (ts == null) {
+                    ts = CasUpgradeEngine.compile(typeSystemDescription);
+                    typeSystem = ts;
+                }
+            }
+        }
+        return ts;
+    }
+
+    /**
+     * Calculates a stable fingerprint of the given type system description. The fingerprint does
+     * not depend on the order in which types or features are declared and ignores descriptions.
+     *
+     * @param aTsd
+     *            a type system description.
+     * @return the fingerprint.
+     */
+    static String fingerprint(TypeSystemDescription aTsd)
+    {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        var types = aTsd.getTypes().clone();
+        Arrays.sort(types, comparing(TypeDescription::getName));
+        for (var type : types) {
+            update(digest, "T", type.getName(), type.getSupertypeName());
+
+            var features = type.getFeatures().clone();
+            Arrays.sort(features, comparing(FeatureDescription::getName));
+            for (var feature : features) {
+                update(digest, "F", feature.getName(), feature.getRangeTypeName(),
+                        feature.getElementType(),
+                        String.valueOf(feature.getMultipleReferencesAllowed()));
+            }
+
+            if (type.getAllowedValues() != null) {
+                for (var value : type.getAllowedValues()) {
+                    update(digest, "V", value.getString());
+                }
+            }
+        }
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest aDigest, String... aValues)
+    {
+        for (var value : aValues) {
+            if (value != null) {
+                aDigest.update(value.getBytes(UTF_8));
+            }
+            // Separator ensures that e.g. ["ab", "c"] and ["a", "bc"] produce different digests
+            aDigest.update((byte) 0);
+        }
+    }
+}
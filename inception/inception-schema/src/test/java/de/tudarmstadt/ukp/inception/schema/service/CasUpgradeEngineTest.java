@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.schema.service;
+
+import static de.tudarmstadt.ukp.inception.schema.service.CasUpgradeEngine.isAdditiveChange;
+import static org.apache.uima.cas.CAS.TYPE_NAME_ANNOTATION;
+import static org.apache.uima.cas.CAS.TYPE_NAME_INTEGER;
+import static org.apache.uima.cas.CAS.TYPE_NAME_STRING;
+import static org.apache.uima.fit.util.CasUtil.getType;
+import static org.apache.uima.fit.util.CasUtil.select;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.fit.factory.CasFactory;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.resource.metadata.impl.TypeSystemDescription_impl;
+import org.apache.uima.util.CasCreationUtils;
+import org.junit.jupiter.api.Test;
+
+class CasUpgradeEngineTest
+{
+    @Test
+    void thatAddingFeatureIsAdditive() throws Exception
+    {
+        var source = typeSystem(false, TYPE_NAME_STRING);
+        var target = typeSystem(true, TYPE_NAME_STRING);
+
+        assertThat(isAdditiveChange(compile(source), compile(target))).isTrue();
+        assertThat(isAdditiveChange(compile(target), compile(source))).isFalse();
+    }
+
+    @Test
+    void thatChangingRangeIsNotAdditive() throws Exception
+    {
+        var source = typeSystem(false, TYPE_NAME_STRING);
+        var target = typeSystem(false, TYPE_NAME_INTEGER);
+
+        assertThat(isAdditiveChange(compile(source), compile(target))).isFalse();
+    }
+
+    @Test
+    void thatAdditiveUpgradePreservesContents() throws Exception
+    {
+        var cas = CasFactory.createCas(typeSystem(false, TYPE_NAME_STRING));
+        createSpan(cas);
+
+        CasUpgradeEngine.upgrade(cas, cas, compile(typeSystem(true, TYPE_NAME_STRING)));
+
+        assertThat(getType(cas, "my.Span").getFeatureByBaseName("extra")).isNotNull();
+        assertSpan(cas);
+    }
+
+    @Test
+    void thatNonAdditiveUpgradePreservesContents() throws Exception
+    {
+        var cas = CasFactory.createCas(typeSystem(true, TYPE_NAME_STRING));
+        createSpan(cas);
+
+        CasUpgradeEngine.upgrade(cas, cas, compile(typeSystem(false, TYPE_NAME_STRING)));
+
+        assertThat(getType(cas, "my.Span").getFeatureByBaseName("extra")).isNull();
+        assertSpan(cas);
+    }
+
+    @Test
+    void thatTemplateIsReusedAcrossUpgradesToEqualDescriptions() throws Exception
+    {
+        // Each call passes a new but equal description, as e.g. the prediction task does
+        var typeSystem = CasUpgradeEngine.getTypeSystem(typeSystem(true, TYPE_NAME_STRING));
+        var template = CasUpgradeEngine.getTemplate(typeSystem);
+
+        for (int i = 0; i < 3; i++) {
+            var cas = CasFactory.createCas(typeSystem(false, TYPE_NAME_STRING));
+            createSpan(cas);
+
+            CasUpgradeEngine.upgrade(cas, cas, typeSystem(true, TYPE_NAME_STRING));
+
+            assertThat(getType(cas, "my.Span").getFeatureByBaseName("extra")).isNotNull();
+            assertSpan(cas);
+        }
+
+        var typeSystemAfter = CasUpgradeEngine.getTypeSystem(typeSystem(true, TYPE_NAME_STRING));
+        assertThat(typeSystemAfter).isSameAs(typeSystem);
+        assertThat(CasUpgradeEngine.getTemplate(typeSystemAfter)).isSameAs(template);
+    }
+
+    @Test
+    void thatDifferentDescriptionsAreCompiledSeparately() throws Exception
+    {
+        var withExtra = CasUpgradeEngine.getTypeSystem(typeSystem(true, TYPE_NAME_STRING));
+        var withoutExtra = CasUpgradeEngine.getTypeSystem(typeSystem(false, TYPE_NAME_STRING));
+
+        assertThat(withExtra).isNotSameAs(withoutExtra);
+        assertThat(withExtra.getType("my.Other")).isNotNull();
+        assertThat(withoutExtra.getType("my.Other")).isNull();
+    }
+
+    private static void createSpan(CAS aCas)
+    {
+        aCas.setDocumentText("This is a test.");
+        var type = getType(aCas, "my.Span");
+        var fs = aCas.createAnnotation(type, 0, 4);
+        fs.setStringValue(type.getFeatureByBaseName("value"), "A");
+        aCas.addFsToIndexes(fs);
+    }
+
+    private static void assertSpan(CAS aCas)
+    {
+        var type = getType(aCas, "my.Span");
+        assertThat(aCas.getDocumentText()).isEqualTo("This is a test.");
+        assertThat(select(aCas, type)) //
+                .extracting(AnnotationFS::getCoveredText) //
+                .containsExactly("This");
+        assertThat(select(aCas, type).get(0).getStringValue(type.getFeatureByBaseName("value")))
+                .isEqualTo("A");
+    }
+
+    private static TypeSystemDescription typeSystem(boolean aWithExtraFeature, String aValueRange)
+    {
+        var tsd = new TypeSystemDescription_impl();
+        var span = tsd.addType("my.Span", "", TYPE_NAME_ANNOTATION);
+        span.addFeature("value", "", aValueRange);
+        if (aWithExtraFeature) {
+            span.addFeature("extra", "", TYPE_NAME_STRING);
+            tsd.addType("my.Other", "", TYPE_NAME_ANNOTATION);
+        }
+        return tsd;
+    }
+
+    private static TypeSystem compile(TypeSystemDescription aTsd) throws Exception
+    {
+        return CasCreationUtils.createCas(aTsd, null, null).getTypeSystem();
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.schema.service;
+
+import static de.tudarmstadt.ukp.inception.schema.service.CompiledProjectTypeSystem.fingerprint;
+import static org.apache.uima.cas.CAS.TYPE_NAME_ANNOTATION;
+import static org.apache.uima.cas.CAS.TYPE_NAME_STRING;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.uima.resource.metadata.impl.TypeSystemDescription_impl;
+import org.junit.jupiter.api.Test;
+
+class CompiledProjectTypeSystemTest
+{
+    @Test
+    void thatFingerprintDoesNotDependOnDeclarationOrder()
+    {
+        var tsd1 = new TypeSystemDescription_impl();
+        var a1 = tsd1.addType("my.A", "", TYPE_NAME_ANNOTATION);
+        a1.addFeature("f1", "", TYPE_NAME_STRING);
+        a1.addFeature("f2", "", TYPE_NAME_STRING);
+        tsd1.addType("my.B", "", TYPE_NAME_ANNOTATION);
+
+        var tsd2 = new TypeSystemDescription_impl();
+        tsd2.addType("my.B", "some description", TYPE_NAME_ANNOTATION);
+        var a2 = tsd2.addType("my.A", "", TYPE_NAME_ANNOTATION);
+        a2.addFeature("f2", "", TYPE_NAME_STRING);
+        a2.addFeature("f1", "other description", TYPE_NAME_STRING);
+
+        assertThat(fingerprint(tsd1)).isEqualTo(fingerprint(tsd2));
+    }
+
+    @Test
+    void thatFingerprintChangesWhenFeatureIsAdded()
+    {
+        var tsd = new TypeSystemDescription_impl();
+        var a = tsd.addType("my.A", "", TYPE_NAME_ANNOTATION);
+        a.addFeature("f1", "", TYPE_NAME_STRING);
+
+        var before = fingerprint(tsd);
+
+        a.addFeature("f2", "", TYPE_NAME_STRING);
+
+        assertThat(fingerprint(tsd)).isNotEqualTo(before);
+    }
+
+    @Test
+    void thatFingerprintChangesWhenSupertypeChanges()
+    {
+        var tsd1 = new TypeSystemDescription_impl();
+        tsd1.addType("my.A", "", TYPE_NAME_ANNOTATION);
+
+        var tsd2 = new TypeSystemDescription_impl();
+        tsd2.addType("my.A", "", "uima.cas.TOP");
+
+        assertThat(fingerprint(tsd1)).isNotEqualTo(fingerprint(tsd2));
+    }
+}
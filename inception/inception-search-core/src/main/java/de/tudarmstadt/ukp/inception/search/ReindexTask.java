@@ -32,7 +32,6 @@ import static de.tudarmstadt.ukp.inception.scheduling.MatchResult.NO_MATCH;
 import static de.tudarmstadt.ukp.inception.scheduling.MatchResult.UNQUEUE_EXISTING_AND_QUEUE_THIS;
 import static de.tudarmstadt.ukp.inception.scheduling.TaskScope.PROJECT;
 import static de.tudarmstadt.ukp.inception.search.model.AnnotationSearchState.KEY_SEARCH_STATE;
-import static de.tudarmstadt.ukp.inception.support.uima.WebAnnoCasUtil.casToByteArray;
 import static java.util.Arrays.asList;
 import static java.util.stream.Collectors.toUnmodifiableSet;
 
@@ -173,10 +172,9 @@ public class ReindexTask
 
                         try (var session = CasStorageSession.openNested()) {
                             // Index source document
-                            var casAsByteArray = casToByteArray(
-                                    documentService.createOrReadInitialCas(doc, casUpgradeMode,
-                                            accessModeInitialCas));
-                            searchService.indexDocument(pooledIndex, doc, casAsByteArray);
+                            var cas = documentService.createOrReadInitialCas(doc,
+                                    casUpgradeMode, accessModeInitialCas);
+                            searchService.indexDocument(pooledIndex, doc, cas);
 
                             // Index curation document (if available)
                             if (documentService.existsCas(doc, CURATION_SET)
@@ -185,11 +183,10 @@ public class ReindexTask
                                 try {
                                     var aDoc = documentService.getAnnotationDocument(doc,
                                             CURATION_SET);
-                                    var curationCasAsByteArray = casToByteArray(
-                                            documentService.readAnnotationCas(doc, CURATION_SET,
-                                                    casUpgradeMode, accessModeInitialCas));
+                                    var curationCas = documentService.readAnnotationCas(doc,
+                                            CURATION_SET, casUpgradeMode, accessModeInitialCas);
                                     searchService.indexDocument(pooledIndex, aDoc, "reindex",
-                                            curationCasAsByteArray);
+                                            curationCas);
                                 }
                                 catch (NoResultException e) {
                                     LOG.warn(
@@ -222,10 +219,9 @@ public class ReindexTask
                                 .statusToLog());
 
                         try (var session = CasStorageSession.openNested()) {
-                            var casAsByteArray = casToByteArray(documentService.readAnnotationCas(
-                                    doc, casUpgradeMode, accessModeAnnotationCas));
-                            searchService.indexDocument(pooledIndex, doc, "reindex",
-                                    casAsByteArray);
+                            var cas = documentService.readAnnotationCas(doc, casUpgradeMode,
+                                    accessModeAnnotationCas);
+                            searchService.indexDocument(pooledIndex, doc, "reindex", cas);
                         }
                         catch (FileNotFoundException e) {
                             // Ignore it if a annotation CAS does not exist yet
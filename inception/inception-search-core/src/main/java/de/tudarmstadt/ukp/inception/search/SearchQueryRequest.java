@@ -39,6 +39,7 @@ public class SearchQueryRequest
     private final long offset;
     private final long limit;
     private final boolean commitRequired;
+    private final String requester;
 
     private SearchQueryRequest(Builder aBuilder)
     {
@@ -51,6 +52,7 @@ public class SearchQueryRequest
         offset = aBuilder.offset;
         limit = aBuilder.limit;
         commitRequired = aBuilder.commitRequired;
+        requester = aBuilder.requester;
     }
 
     public SearchQueryRequest(Project aProject, User aUser, String aQuery)
@@ -77,6 +79,7 @@ public class SearchQueryRequest
         offset = aOffset;
         limit = aCount;
         commitRequired = true;
+        requester = null;
     }
 
     public Project getProject()
@@ -133,6 +136,17 @@ public class SearchQueryRequest
         return commitRequired;
     }
 
+    /**
+     * @return an identifier of the party issuing the query, e.g. a particular search panel in a
+     *         particular browser session. A new query from a requester supersedes any query of the
+     *         same kind that the same requester still has running. Queries without a requester are
+     *         never superseded.
+     */
+    public Optional<String> getRequester()
+    {
+        return Optional.ofNullable(requester);
+    }
+
     public static Builder builder()
     {
         return new Builder();
@@ -149,6 +163,7 @@ public class SearchQueryRequest
         private long offset = 0;
         private long limit = Long.MAX_VALUE;
         private boolean commitRequired = true;
+        private String requester;
 
         private Builder()
         {
@@ -208,6 +223,12 @@ public class SearchQueryRequest
             return this;
         }
 
+        public Builder withRequester(String aRequester)
+        {
+            this.requester = aRequester;
+            return this;
+        }
+
         public SearchQueryRequest build()
         {
             return new SearchQueryRequest(this);
@@ -24,6 +24,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
+import org.apache.uima.cas.CAS;
+
 import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationDocument;
 import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationFeature;
 import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationLayer;
@@ -105,9 +107,9 @@ public interface SearchService
      */
     boolean isIndexValid(Project aProject);
 
-    void indexDocument(SourceDocument aSourceDocument, byte[] aBinaryCas);
+    void indexDocument(SourceDocument aSourceDocument, CAS aCas);
 
-    void indexDocument(AnnotationDocument aAnnotationDocument, byte[] aBinaryCas);
+    void indexDocument(AnnotationDocument aAnnotationDocument, CAS aCas);
 
     Optional<Progress> getIndexProgress(Project aProject);
 
@@ -116,6 +118,9 @@ public interface SearchService
             AnnotationFeature aAnnotationFeature)
         throws ExecutionException, IOException;
 
+    long determineNumOfQueryResults(SearchQueryRequest aRequest)
+        throws ExecutionException, IOException;
+
     /**
      *
      * @param aUser
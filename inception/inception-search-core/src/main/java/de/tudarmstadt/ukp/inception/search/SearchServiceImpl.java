@@ -42,6 +42,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.lang3.Validate;
+import org.apache.uima.cas.CAS;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.DisposableBean;
@@ -486,14 +487,14 @@ public class SearchServiceImpl
 
     @Override
     @Transactional
-    public void indexDocument(SourceDocument aSourceDocument, byte[] aBinaryCas)
+    public void indexDocument(SourceDocument aSourceDocument, CAS aCas)
     {
         try (var pooledIndex = acquireIndex(aSourceDocument.getProject().getId())) {
-            indexDocument(pooledIndex, aSourceDocument, aBinaryCas);
+            indexDocument(pooledIndex, aSourceDocument, aCas);
         }
     }
 
-    void indexDocument(PooledIndex aPooledIndex, SourceDocument aSourceDocument, byte[] aBinaryCas)
+    void indexDocument(PooledIndex aPooledIndex, SourceDocument aSourceDocument, CAS aCas)
     {
         var project = aSourceDocument.getProject();
 
@@ -514,7 +515,7 @@ public class SearchServiceImpl
         // threads to update the index concurrently. The underlying index code should hopefully
         // be thread-safe...
         try {
-            index.getPhysicalIndex().indexDocument(aSourceDocument, aBinaryCas);
+            index.getPhysicalIndex().indexDocument(aSourceDocument, aCas);
         }
         catch (IndexRebuildRequiredException e) {
             invalidateIndexAndForceIndexRebuild(project, index, "indexDocument[error]");
@@ -530,12 +531,12 @@ public class SearchServiceImpl
     }
 
     @Override
-    public void indexDocument(AnnotationDocument aAnnotationDocument, byte[] aBinaryCas)
+    public void indexDocument(AnnotationDocument aAnnotationDocument, CAS aCas)
     {
         Project project = aAnnotationDocument.getProject();
 
         try (var pooledIndex = acquireIndex(project.getId())) {
-            indexDocument(pooledIndex, aAnnotationDocument, "indexDocument", aBinaryCas);
+            indexDocument(pooledIndex, aAnnotationDocument, "indexDocument", aCas);
         }
         catch (Exception e) {
             LOG.error("Error indexing annotation document {} in project {}", aAnnotationDocument,
@@ -553,7 +554,7 @@ public class SearchServiceImpl
     }
 
     void indexDocument(PooledIndex aPooledIndex, AnnotationDocument aAnnotationDocument,
-            String aTrigger, byte[] aBinaryCas)
+            String aTrigger, CAS aCas)
     {
         var project = aAnnotationDocument.getProject();
 
@@ -583,7 +584,7 @@ public class SearchServiceImpl
             // Add annotation document to the index again
             LOG.trace("Indexing new version of annotation document {} in project {}",
                     aAnnotationDocument, project);
-            index.getPhysicalIndex().indexDocument(aAnnotationDocument, aBinaryCas);
+            index.getPhysicalIndex().indexDocument(aAnnotationDocument, aCas);
         }
         catch (IndexRebuildRequiredException e) {
             invalidateIndexAndForceIndexRebuild(project, index, "indexDocument[error]");
@@ -786,18 +787,26 @@ public class SearchServiceImpl
             AnnotationFeature aAnnotationFeature)
         throws IOException, ExecutionException
     {
-        LOG.trace("Count results for query [{}] for user {} in project {}", aQuery, aUser,
-                aProject);
+        return determineNumOfQueryResults(new SearchQueryRequest(aProject, aUser, aQuery,
+                aDocument, aAnnotationLayer, aAnnotationFeature, 0L, 0L));
+    }
 
-        try (var pooledIndex = acquireIndex(aProject.getId())) {
+    @Override
+    public long determineNumOfQueryResults(SearchQueryRequest aRequest)
+        throws IOException, ExecutionException
+    {
+        LOG.trace("Count results for query [{}] for user {} in project {}", aRequest.getQuery(),
+                aRequest.getUser(), aRequest.getProject());
+
+        try (var pooledIndex = acquireIndex(aRequest.getProject().getId())) {
             var index = pooledIndex.get();
 
-            ensureIndexIsCreatedAndValid(aProject, index);
+            ensureIndexIsCreatedAndValid(aRequest.getProject(), index);
 
             // Index is valid, try to execute the query
-            var prefs = preferencesService.loadDefaultTraitsForProject(KEY_SEARCH_STATE, aProject);
-            return index.getPhysicalIndex().numberOfQueryResults(new SearchQueryRequest(aProject,
-                    aUser, aQuery, aDocument, aAnnotationLayer, aAnnotationFeature, 0L, 0L), prefs);
+            var prefs = preferencesService.loadDefaultTraitsForProject(KEY_SEARCH_STATE,
+                    aRequest.getProject());
+            return index.getPhysicalIndex().numberOfQueryResults(aRequest, prefs);
         }
     }
 
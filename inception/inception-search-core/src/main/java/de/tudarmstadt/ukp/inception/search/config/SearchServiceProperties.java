@@ -29,4 +29,11 @@ public interface SearchServiceProperties
      * @return time to keep an index open after it has last been used.
      */
     Duration getIndexKeepOpenTime();
+
+    /**
+     * @return number of threads used to process the segments of an index concurrently when
+     *         running a query. With less than two threads, queries are processed on the calling
+     *         thread.
+     */
+    int getQueryThreads();
 }
@@ -30,6 +30,8 @@ public class SearchServicePropertiesImpl
 
     private Duration indexKeepOpenTime = Duration.ofMinutes(10);
 
+    private int queryThreads = Runtime.getRuntime().availableProcessors();
+
     @Override
     public boolean isEnabled()
     {
@@ -51,4 +53,15 @@ public class SearchServicePropertiesImpl
     {
         indexKeepOpenTime = aIndexKeepOpenTime;
     }
+
+    @Override
+    public int getQueryThreads()
+    {
+        return queryThreads;
+    }
+
+    public void setQueryThreads(int aQueryThreads)
+    {
+        queryThreads = aQueryThreads;
+    }
 }
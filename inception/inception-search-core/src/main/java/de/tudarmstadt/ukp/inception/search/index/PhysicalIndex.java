@@ -23,6 +23,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import org.apache.uima.cas.CAS;
+
 import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationDocument;
 import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationLayer;
 import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationSet;
@@ -132,7 +134,7 @@ public interface PhysicalIndex
     @Deprecated
     void deindexDocument(AnnotationDocument aDocument, String aTimestamp) throws IOException;
 
-    void indexDocument(AnnotationDocument aDocument, byte[] aBinaryCas) throws IOException;
+    void indexDocument(AnnotationDocument aDocument, CAS aCas) throws IOException;
 
     void clear() throws IOException;
 
@@ -161,5 +163,5 @@ public interface PhysicalIndex
      */
     public Optional<String> getTimestamp(long aSrcDocId, long aAnnoDocId) throws IOException;
 
-    void indexDocument(SourceDocument aSourceDocument, byte[] aBinaryCas) throws IOException;
+    void indexDocument(SourceDocument aSourceDocument, CAS aCas) throws IOException;
 }
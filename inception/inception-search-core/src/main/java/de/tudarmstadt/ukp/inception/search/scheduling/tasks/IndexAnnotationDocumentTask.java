@@ -44,7 +44,6 @@ import de.tudarmstadt.ukp.inception.scheduling.Progress;
 import de.tudarmstadt.ukp.inception.scheduling.Task;
 import de.tudarmstadt.ukp.inception.search.ReindexTask;
 import de.tudarmstadt.ukp.inception.search.SearchService;
-import de.tudarmstadt.ukp.inception.support.uima.WebAnnoCasUtil;
 
 /**
  * (Re)indexes the annotation document for a specific user.
@@ -82,7 +81,7 @@ public class IndexAnnotationDocumentTask
             var cas = documentService.readAnnotationCas(aDoc.getDocument(),
                     AnnotationSet.forUser(aDoc.getUser()), AUTO_CAS_UPGRADE,
                     SHARED_READ_ONLY_ACCESS);
-            searchService.indexDocument(aDoc, WebAnnoCasUtil.casToByteArray(cas));
+            searchService.indexDocument(aDoc, cas);
         }
         catch (IOException e) {
             LOG.error("Error indexing annotation document {}", getSourceDocument(), e);
@@ -43,7 +43,6 @@ import de.tudarmstadt.ukp.inception.scheduling.Progress;
 import de.tudarmstadt.ukp.inception.scheduling.Task;
 import de.tudarmstadt.ukp.inception.search.ReindexTask;
 import de.tudarmstadt.ukp.inception.search.SearchService;
-import de.tudarmstadt.ukp.inception.support.uima.WebAnnoCasUtil;
 
 /**
  * Document indexer task. Indexes the given document in a project
@@ -79,7 +78,7 @@ public class IndexSourceDocumentTask
         try (var session = CasStorageSession.open()) {
             var cas = documentService.createOrReadInitialCas(getSourceDocument(), AUTO_CAS_UPGRADE,
                     SHARED_READ_ONLY_ACCESS);
-            searchService.indexDocument(getSourceDocument(), WebAnnoCasUtil.casToByteArray(cas));
+            searchService.indexDocument(getSourceDocument(), cas);
         }
         catch (IOException e) {
             LOG.error("Error indexing source document {}", getSourceDocument(), e);
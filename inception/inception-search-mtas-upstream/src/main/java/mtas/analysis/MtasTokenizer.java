@@ -83,6 +83,9 @@ public final class MtasTokenizer
     /** The token collection iterator. */
     private Iterator<MtasToken> tokenCollectionIterator;
 
+    /** The prebuilt token collection (if any). */
+    private MtasTokenCollection prebuiltTokenCollection;
+
     /**
      * Instantiates a new mtas tokenizer.
      */
@@ -144,6 +147,20 @@ public final class MtasTokenizer
         processConfiguration(config);
     }
 
+    /**
+     * Instantiates a new mtas tokenizer which produces the tokens of the given token collection
+     * instead of parsing its input. This allows indexing a token collection which has been
+     * created directly from the source data, e.g. by passing the tokenizer as the token stream of
+     * a field, without having to encode the source data as text first.
+     *
+     * @param tokenCollection
+     *            the token collection
+     */
+    public MtasTokenizer(final MtasTokenCollection tokenCollection)
+    {
+        prebuiltTokenCollection = tokenCollection;
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -186,7 +203,12 @@ public final class MtasTokenizer
         super.reset();
         currentPosition = -1;
         try {
-            constructTokenCollection(input);
+            if (prebuiltTokenCollection != null) {
+                tokenCollection = prebuiltTokenCollection;
+            }
+            else {
+                constructTokenCollection(input);
+            }
             tokenCollectionIterator = tokenCollection.iterator();
         }
         catch (MtasConfigException | MtasParserException e) {
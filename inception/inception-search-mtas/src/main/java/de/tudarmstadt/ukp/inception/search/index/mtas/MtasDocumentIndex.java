@@ -30,9 +30,12 @@ import static de.tudarmstadt.ukp.inception.search.Metrics.VIRTUAL_LAYER_SEGMENTA
 import static de.tudarmstadt.ukp.inception.search.index.mtas.MtasUimaParser.PARAM_PROJECT_ID;
 import static de.tudarmstadt.ukp.inception.search.index.mtas.MtasUimaParser.getIndexedName;
 import static de.tudarmstadt.ukp.inception.search.index.mtas.MtasUtils.decodeFSAddress;
+import static de.tudarmstadt.ukp.inception.search.index.mtas.footprint.MtasDocumentIndexFootprintProvider.FOOTPRINT_ANNOTATION_INDEX;
+import static de.tudarmstadt.ukp.inception.support.uima.WebAnnoCasUtil.getRealCas;
 import static de.tudarmstadt.ukp.inception.support.WebAnnoConst.CURATION_USER;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
 import static java.util.Comparator.comparing;
 import static java.util.Comparator.comparingLong;
 import static java.util.concurrent.TimeUnit.SECONDS;
@@ -50,8 +53,8 @@ import static org.apache.lucene.search.ScoreMode.COMPLETE_NO_SCORES;
 import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.lang.invoke.MethodHandles;
-import java.lang.reflect.InvocationTargetException;
 import java.text.BreakIterator;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -59,20 +62,24 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.ToStringBuilder;
-import org.apache.commons.lang3.tuple.Pair;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.custom.CustomAnalyzer;
 import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
@@ -81,15 +88,22 @@ import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.document.DateTools;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexUpgrader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.ReaderUtil;
-import org.apache.lucene.index.SegmentReader;
+import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.queries.spans.SpanWeight;
 import org.apache.lucene.queries.spans.Spans;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
@@ -100,6 +114,7 @@ import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.store.FSDirectory;
 import org.apache.lucene.util.BytesRef;
+import org.apache.uima.cas.CAS;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -115,6 +130,7 @@ import de.tudarmstadt.ukp.clarin.webanno.model.SourceDocument;
 import de.tudarmstadt.ukp.dkpro.core.api.segmentation.type.Sentence;
 import de.tudarmstadt.ukp.dkpro.core.api.segmentation.type.Token;
 import de.tudarmstadt.ukp.inception.documents.api.DocumentService;
+import de.tudarmstadt.ukp.inception.project.api.footprint.FootprintTracker;
 import de.tudarmstadt.ukp.inception.schema.api.feature.FeatureSupportRegistry;
 import de.tudarmstadt.ukp.inception.search.DocumentStatistics;
 import de.tudarmstadt.ukp.inception.search.ExecutionException;
@@ -131,15 +147,12 @@ import de.tudarmstadt.ukp.inception.search.index.PhysicalIndex;
 import de.tudarmstadt.ukp.inception.search.model.AnnotationSearchState;
 import de.tudarmstadt.ukp.inception.search.model.BulkIndexingContext;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
-import it.unimi.dsi.fastutil.longs.LongArrayList;
-import it.unimi.dsi.fastutil.longs.LongComparators;
+import mtas.analysis.MtasTokenizer;
 import mtas.analysis.token.MtasTokenString;
+import mtas.analysis.util.MtasConfiguration;
 import mtas.analysis.util.MtasTokenizerFactory;
-import mtas.codec.util.CodecComponent;
 import mtas.codec.util.CodecInfo;
 import mtas.codec.util.CodecUtil;
-import mtas.codec.util.Status;
-import mtas.codec.util.collector.MtasDataItem;
 import mtas.parser.cql.MtasCQLParser;
 import mtas.parser.cql.ParseException;
 import mtas.search.spans.util.MtasSpanQuery;
@@ -154,7 +167,8 @@ public class MtasDocumentIndex
 
     private static final String TOKEN_QUERY = "<Token=\"\"/>";
 
-    static final int CURRENT_SCHEMA_VERSION = 1;
+    // 2: source document ID, annotation document ID and user are also stored as DocValues
+    static final int CURRENT_SCHEMA_VERSION = 2;
 
     /**
      * Constant for the field which carries the unique identifier for the index document consisting:
@@ -193,6 +207,12 @@ public class MtasDocumentIndex
 
     private static final String EMPTY_FEATURE_VALUE_KEY = "<Empty>";
 
+    private static final int STATISTICS_CACHE_SIZE = 8;
+
+    private static final String QUERY_KIND_RESULTS = "results";
+
+    private static final String QUERY_KIND_COUNT = "count";
+
     /**
      * Characters that need to be escaped in CQL queries. Note: Backslash must be first to avoid
      * double-escaping.
@@ -223,9 +243,13 @@ public class MtasDocumentIndex
     private final FeatureIndexingSupportRegistry featureIndexingSupportRegistry;
     private final FeatureSupportRegistry featureSupportRegistry;
     private final DocumentService documentService;
+    private final FootprintTracker footprintTracker;
     private final Project project;
     private final File indexDir;
     private final ScheduledExecutorService schedulerService;
+    private final Executor searchExecutor;
+    private final Map<StatisticsCacheKey, Map<String, LayerStatistics>> statisticsCache;
+    private final RunningQueries runningQueries;
 
     private IndexWriter _indexWriter;
     private ReferenceManager<IndexSearcher> _searcherManager;
@@ -239,14 +263,53 @@ public class MtasDocumentIndex
     public MtasDocumentIndex(Project aProject, DocumentService aDocumentService, File aIndexDir,
             FeatureIndexingSupportRegistry aFeatureIndexingSupportRegistry,
             FeatureSupportRegistry aFeatureSupportRegistry)
+    {
+        this(aProject, aDocumentService, aIndexDir, aFeatureIndexingSupportRegistry,
+                aFeatureSupportRegistry, null);
+    }
+
+    public MtasDocumentIndex(Project aProject, DocumentService aDocumentService, File aIndexDir,
+            FeatureIndexingSupportRegistry aFeatureIndexingSupportRegistry,
+            FeatureSupportRegistry aFeatureSupportRegistry, FootprintTracker aFootprintTracker)
+    {
+        this(aProject, aDocumentService, aIndexDir, aFeatureIndexingSupportRegistry,
+                aFeatureSupportRegistry, aFootprintTracker, null);
+    }
+
+    /**
+     * @param aSearchExecutor
+     *            executor used to process the segments of the index concurrently when running
+     *            queries. If this is {@code null}, segments are processed on the calling thread.
+     */
+    public MtasDocumentIndex(Project aProject, DocumentService aDocumentService, File aIndexDir,
+            FeatureIndexingSupportRegistry aFeatureIndexingSupportRegistry,
+            FeatureSupportRegistry aFeatureSupportRegistry, FootprintTracker aFootprintTracker,
+            Executor aSearchExecutor)
     {
         documentService = aDocumentService;
+        footprintTracker = aFootprintTracker;
         project = aProject;
         featureIndexingSupportRegistry = aFeatureIndexingSupportRegistry;
         featureSupportRegistry = aFeatureSupportRegistry;
         indexDir = aIndexDir;
 
+        searchExecutor = aSearchExecutor;
+        runningQueries = new RunningQueries();
+
         schedulerService = new ScheduledThreadPoolExecutor(0);
+
+        // Statistics are keyed by index generation, so only very few entries are ever live
+        statisticsCache = new LinkedHashMap<>(16, 0.75f, true)
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<StatisticsCacheKey, Map<String, LayerStatistics>> aEldest)
+            {
+                return size() > STATISTICS_CACHE_SIZE;
+            }
+        };
     }
 
     private synchronized IndexWriter getIndexWriter() throws IOException
@@ -279,16 +342,20 @@ public class MtasDocumentIndex
         }
     }
 
-    private IndexWriter createIndexWriter() throws IOException
+    private String getParserArguments()
     {
         // Add the project id to the configuration
         var jsonParserConfiguration = new JSONObject();
         jsonParserConfiguration.put(PARAM_PROJECT_ID, project.getId());
+        return jsonParserConfiguration.toString();
+    }
 
+    private IndexWriter createIndexWriter() throws IOException
+    {
         // Tokenizer parameters
         var tokenizerArguments = new HashMap<String, String>();
         tokenizerArguments.put(ARGUMENT_PARSER, MtasUimaParser.class.getName());
-        tokenizerArguments.put(ARGUMENT_PARSER_ARGS, jsonParserConfiguration.toString());
+        tokenizerArguments.put(ARGUMENT_PARSER_ARGS, getParserArguments());
 
         // Build analyzer
         var mtasAnalyzer = CustomAnalyzer.builder()
@@ -396,6 +463,7 @@ public class MtasDocumentIndex
         finally {
             _indexWriter = null;
             _searcherManager = null;
+            clearStatisticsCache();
             LOG.debug("Closed index for project {}", project);
         }
     }
@@ -404,7 +472,17 @@ public class MtasDocumentIndex
     {
         if (_searcherManager == null) {
             _searcherManager = new SearcherManager(getIndexWriter(), true, true,
-                    new SearcherFactory());
+                    new SearcherFactory()
+                    {
+                        @Override
+                        public IndexSearcher newSearcher(IndexReader aReader,
+                                IndexReader aPreviousReader)
+                        {
+                            // The executor of the searcher is used to process the segments
+                            // concurrently when running queries or collecting statistics
+                            return new IndexSearcher(aReader, searchExecutor);
+                        }
+                    });
         }
 
         return _searcherManager;
@@ -434,6 +512,19 @@ public class MtasDocumentIndex
                 _indexWriter.commit();
                 LOG.debug("Committed changes to index for project {}", project);
 
+                if (footprintTracker != null) {
+                    // The index consists of comparatively few files, so this is cheap
+                    try {
+                        footprintTracker.update(project, FOOTPRINT_ANNOTATION_INDEX,
+                                FileUtils.sizeOfDirectory(indexDir));
+                    }
+                    catch (UncheckedIOException e) {
+                        // Lucene may delete files while we measure the folder. The periodic
+                        // reconciliation of the footprint catches up on the size later.
+                        LOG.debug("Unable to measure index size of project {}", project, e);
+                    }
+                }
+
                 if (_searcherManager != null) {
                     _searcherManager.maybeRefresh();
                 }
@@ -466,14 +557,14 @@ public class MtasDocumentIndex
             AnnotationSearchState aPrefs)
         throws IOException, ExecutionException
     {
-        return _executeQuery(this::doQuery, aRequest, aPrefs);
+        return _executeQuery(QUERY_KIND_RESULTS, this::doQuery, aRequest, aPrefs);
     }
 
     @Override
     public long numberOfQueryResults(SearchQueryRequest aRequest, AnnotationSearchState aPrefs)
         throws ExecutionException, IOException
     {
-        return _executeQuery(this::doCountResults, aRequest, aPrefs);
+        return _executeQuery(QUERY_KIND_COUNT, this::doCountResults, aRequest, aPrefs);
     }
 
     @Override
@@ -483,20 +574,7 @@ public class MtasDocumentIndex
         var fullDocSet = getUniqueDocuments(aStatisticRequest);
         var allStats = new HashMap<String, LayerStatistics>();
         var nonNullStats = new HashMap<String, LayerStatistics>();
-        var features = aStatisticRequest.getFeatures();
-
-        for (var feature : features) {
-            var layer = feature.getLayer();
-            var searchString = "<" + MtasUimaParser.getIndexedName(layer.getUiName()) + "."
-                    + MtasUimaParser.getIndexedName(feature.getUiName()) + "=\"\"/>";
-
-            var results = getLayerStatistics(aStatisticRequest, searchString, fullDocSet);
-            results.setFeature(feature);
-            if (results.getMaximum() > 0) {
-                nonNullStats.put(layer.getUiName() + "." + feature.getUiName(), results);
-            }
-            allStats.put(layer.getUiName() + "." + feature.getUiName(), results);
-        }
+        var features = new ArrayList<>(aStatisticRequest.getFeatures());
 
         var rawText = new AnnotationLayer();
         rawText.setUiName(VIRTUAL_LAYER_SEGMENTATION);
@@ -509,13 +587,34 @@ public class MtasDocumentIndex
         sentence.setUiName(VIRTUAL_FEATURE_SENTENCE);
         sentence.setLayer(rawText);
 
-        var results = getLayerStatistics(aStatisticRequest, TOKEN_QUERY, fullDocSet);
+        // All features are collected in a single pass over the index
+        var queries = new ArrayList<String>();
+        for (var feature : features) {
+            queries.add("<" + MtasUimaParser.getIndexedName(feature.getLayer().getUiName()) + "."
+                    + MtasUimaParser.getIndexedName(feature.getUiName()) + "=\"\"/>");
+        }
+        queries.add(TOKEN_QUERY);
+        queries.add(SENTENCE_QUERY);
+
+        var statistics = collectStatistics(aStatisticRequest, queries, fullDocSet);
+
+        for (var i = 0; i < features.size(); i++) {
+            var feature = features.get(i);
+            var key = feature.getLayer().getUiName() + "." + feature.getUiName();
+            var results = statistics.get(i);
+            results.setFeature(feature);
+            if (results.getMaximum() > 0) {
+                nonNullStats.put(key, results);
+            }
+            allStats.put(key, results);
+        }
 
+        var results = statistics.get(features.size());
         results.setFeature(token);
         allStats.put(VIRTUAL_LAYER_SEGMENTATION + "." + VIRTUAL_FEATURE_TOKEN, results);
         nonNullStats.put(VIRTUAL_LAYER_SEGMENTATION + "." + VIRTUAL_FEATURE_TOKEN, results);
 
-        results = getLayerStatistics(aStatisticRequest, SENTENCE_QUERY, fullDocSet);
+        results = statistics.get(features.size() + 1);
         results.setFeature(sentence);
         allStats.put(VIRTUAL_LAYER_SEGMENTATION + "." + VIRTUAL_FEATURE_SENTENCE, results);
         nonNullStats.put(VIRTUAL_LAYER_SEGMENTATION + "." + VIRTUAL_FEATURE_SENTENCE, results);
@@ -538,32 +637,34 @@ public class MtasDocumentIndex
 
         try {
             searcher = getSearcherManager().acquire();
-            var reader = searcher.getIndexReader();
-            var storedFields = reader.storedFields();
-
-            for (var i = 0; i < reader.maxDoc(); i++) {
-                var rawSourceDocumentId = storedFields.document(i).get(FIELD_SOURCE_DOCUMENT_ID);
-                var sourceDocumentId = Long.valueOf(rawSourceDocumentId);
-                var sourceDocument = sourceDocumentIndex.get(sourceDocumentId);
-                if (sourceDocument == null) {
-                    // Document is not annotatable by this user, so we skip this result
-                    continue;
-                }
 
-                var rawAnnotationDocumentId = storedFields.document(i)
-                        .get(FIELD_ANNOTATION_DOCUMENT_ID);
-                var annotationDocumentId = Long.valueOf(rawAnnotationDocumentId);
-                var matchInSourceDocument = annotationDocumentId == -1L;
-                var documentOwner = storedFields.document(i).get(FIELD_USER);
-
-                var annotationDocument = sourceAnnotationDocPairs.get(sourceDocument);
-                // If there is no annotation document or the annotation document is NEW, we use the
-                // source document
-                if (matchInSourceDocument && !isAnnotationDocumentIndexed(annotationDocument)) {
-                    fullDocSet.add(i);
-                }
-                else if (documentOwner.equals(aRequest.getUser().getUsername())) {
-                    fullDocSet.add(i);
+            for (var leaf : searcher.getIndexReader().leaves()) {
+                var identity = new IdentityFields(leaf.reader());
+
+                for (var i = 0; i < leaf.reader().maxDoc(); i++) {
+                    var sourceDocumentId = identity.sourceDocumentId(i);
+                    var sourceDocument = sourceDocumentId != null
+                            ? sourceDocumentIndex.get(sourceDocumentId)
+                            : null;
+                    if (sourceDocument == null) {
+                        // Document is not annotatable by this user, so we skip this result
+                        continue;
+                    }
+
+                    var annotationDocumentId = identity.annotationDocumentId(i);
+                    var matchInSourceDocument = annotationDocumentId != null
+                            && annotationDocumentId == -1L;
+                    var documentOwner = identity.user(i);
+
+                    var annotationDocument = sourceAnnotationDocPairs.get(sourceDocument);
+                    // If there is no annotation document or the annotation document is NEW, we use
+                    // the source document
+                    if (matchInSourceDocument && !isAnnotationDocumentIndexed(annotationDocument)) {
+                        fullDocSet.add(leaf.docBase + i);
+                    }
+                    else if (aRequest.getUser().getUsername().equals(documentOwner)) {
+                        fullDocSet.add(leaf.docBase + i);
+                    }
                 }
             }
         }
@@ -586,15 +687,17 @@ public class MtasDocumentIndex
     }
 
     private MtasSpanQuery parseQuery(String aQuery, AnnotationSearchState aPrefs)
-        throws ExecutionException, IOException
+        throws ExecutionException
+    {
+        return parsePreprocessedQuery(preprocessQuery(aQuery, aPrefs));
+    }
+
+    private MtasSpanQuery parsePreprocessedQuery(String aQuery) throws ExecutionException
     {
         final MtasSpanQuery mtasSpanQuery;
-        try {
-            var modifiedQuery = preprocessQuery(aQuery, aPrefs);
-            try (var queryReader = new StringReader(modifiedQuery)) {
-                var parser = new MtasCQLParser(queryReader);
-                mtasSpanQuery = parser.parse(FIELD_CONTENT, DEFAULT_PREFIX, null, null, null);
-            }
+        try (var queryReader = new StringReader(aQuery)) {
+            var parser = new MtasCQLParser(queryReader);
+            mtasSpanQuery = parser.parse(FIELD_CONTENT, DEFAULT_PREFIX, null, null, null);
         }
         catch (ParseException | Error e) {
             // The exceptions thrown by the MTAS CQL Parser are inheriting from
@@ -609,139 +712,109 @@ public class MtasDocumentIndex
             String aFeatureQuery, List<Integer> aFullDocSet)
         throws IOException, ExecutionException
     {
-        IndexSearcher searcher = null;
-        Map<String, Object> resultsMap = null;
-        Map<String, Object> resultsMapSentence = null;
+        return collectStatistics(aStatisticRequest, List.of(aFeatureQuery), aFullDocSet).get(0);
+    }
 
-        // Map<Long, Long> annotatableDocuments = listAnnotatableDocuments(
-        // aStatisticRequest.getProject(), aStatisticRequest.getUser());
-        var minToken = aStatisticRequest.getMinTokenPerDoc() != Integer.MIN_VALUE
-                ? (double) aStatisticRequest.getMinTokenPerDoc()
+    /**
+     * Collects the statistics for all given queries in a single pass over the index. The sentence
+     * query is always collected alongside since it is needed for the per-sentence statistics.
+     * Results are cached per index generation, so asking again for the same statistics while the
+     * index has not changed does not touch the index at all.
+     * 
+     * @return the statistics in the order of the given queries. The returned objects are not
+     *         shared and may be modified by the caller.
+     */
+    private List<LayerStatistics> collectStatistics(StatisticRequest aRequest,
+            List<String> aQueries, List<Integer> aDocs)
+        throws IOException, ExecutionException
+    {
+        var prefs = aRequest.getSearchSettings();
+        Long minimum = aRequest.getMinTokenPerDoc() != Integer.MIN_VALUE
+                ? (long) aRequest.getMinTokenPerDoc()
                 : null;
-        var maxToken = aStatisticRequest.getMaxTokenPerDoc() != Integer.MAX_VALUE
-                ? (double) aStatisticRequest.getMaxTokenPerDoc()
+        Long maximum = aRequest.getMaxTokenPerDoc() != Integer.MAX_VALUE
+                ? (long) aRequest.getMaxTokenPerDoc()
                 : null;
+
+        var queries = new ArrayList<String>(aQueries.size());
+        for (var query : aQueries) {
+            queries.add(preprocessQuery(query, prefs));
+        }
+
+        IndexSearcher searcher = null;
         try {
             searcher = getSearcherManager().acquire();
-            var reader = searcher.getIndexReader();
-
-            // what does this parameter do?
-            var fullDocList = new ArrayList<Integer>();
-
-            // there is no real documentation for using mtas directly in Java. This can help:
-            // https://textexploration.github.io/mtas/installation_lucene.html
-            // This describes the functionality better but only for solr:
-            // https://textexploration.github.io/mtas/search_component_stats_spans.html
-
-            // The ComponentField is a big container which can contain many stuff. The only relevant
-            // things for us are statsSpanList and spanQueryList
-            // Source Code:
-            // https://github.com/textexploration/mtas/blob/96c7911e9c591c2bd4a419dbf0e2194813376776/src/main/java/mtas/codec/util/CodecComponent.java
-            var fieldStats = new CodecComponent.ComponentField(FIELD_CONTENT);
-            // The query is either an actual query (if the method is called from
-            // getQueryStatistics in SearchService) or a mock query, e.g. "<Token=\"\"/>"
-            // (if the method shall return statistics for a layer). The second query always
-            // counts the sentences for per sentence statistics.
-            var spanQuerys = new MtasSpanQuery[2];
-
-            // we need two functions. Each function consists of 3 parts
-            // 1. The key. This is just a unique identifier
-            var functionKeys = new String[2];
-            // 2. The actual instructions of the function
-            var functions = new String[2];
-            // 3. Which values the function shall output
-            var functionTypes = new String[2];
-
-            // Add the preprocessed query to the spanQueryList
-            var parsedQuery = parseQuery(aFeatureQuery, aStatisticRequest.getSearchSettings());
-            fieldStats.spanQueryList.add(parsedQuery);
-
-            // maybe using a function for this simple case is too slow...
-            spanQuerys[0] = parsedQuery;
-            functionKeys[0] = "currentLayer";
-            // This is a mock function (mathematically, the identity function).
-            // q0 indicates the result of the first parsed query
-            functions[0] = "$q0";
-            // The output should be all the requested statistics
-            functionTypes[0] = LayerStatistics.STATS;
-
-            // A query which counts sentences
-            var parsedSentQuery = parseQuery(SENTENCE_QUERY, aStatisticRequest.getSearchSettings());
-            fieldStats.spanQueryList.add(parsedSentQuery);
-
-            spanQuerys[1] = parsedSentQuery;
-            functionKeys[1] = "perSentence";
-            // q0 is the result of the actual query. q1 is the result of counting the sentences
-            // We divide them using /
-            functions[1] = "$q0/$q1";
-            // The output should be all the requested statistics
-            functionTypes[1] = LayerStatistics.STATS;
-
-            // Now we are finished with the spanQueryList
-
-            // Next we look at the statsSpanList
-            // We add a ComponentSpan to the statsSpanList which is created using all the things
-            // we defined above
-            // The key is a unique but somewhat arbitrary identifier
-            // minToken and maxToken indicate that only documents with a number of tokens bigger
-            // than minToken and smaller than maxToken should be considered
-            fieldStats.statsSpanList
-                    .add(new CodecComponent.ComponentSpan(spanQuerys, "ax2", minToken, maxToken,
-                            LayerStatistics.STATS, functionKeys, functions, functionTypes));
-
-            // Now we are done with the preparations
-            // Next we actually collect the data and do all the calculations
-            // Only documents in aFullDocSet are considered
-            // I do not know for what Status and fullDocList are needed...
-            CodecUtil.collectField(FIELD_CONTENT, searcher, reader,
-                    (ArrayList<Integer>) fullDocList, (ArrayList<Integer>) aFullDocSet, fieldStats,
-                    new Status());
-            // All that is left now is extracting the statistics from fieldStats
-            // statsSpanList only has one entry and the first function is the perDocument statistics
-            MtasDataItem<?, ?> results = fieldStats.statsSpanList.get(0).functions
-                    .get(0).dataCollector.getResult().getData();
-
-            resultsMap = results.rewrite(true);
-
-            // The second function is the perSentence statistics
-            MtasDataItem<?, ?> resultsPerSentence = fieldStats.statsSpanList.get(0).functions
-                    .get(1).dataCollector.getResult().getData();
-
-            resultsMapSentence = resultsPerSentence.rewrite(true);
-
-            var noOfDocsLong = (Long) resultsMapSentence.get("n");
-            var layerStats = new LayerStatistics((double) resultsMap.get("sum"),
-                    (double) resultsMap.get("max"), (double) resultsMap.get("min"),
-                    (double) resultsMap.get("mean"), (double) resultsMap.get("median"),
-                    (double) resultsMap.get("standarddeviation"),
-                    (double) resultsMapSentence.get("sum"), (double) resultsMapSentence.get("max"),
-                    (double) resultsMapSentence.get("min"), (double) resultsMapSentence.get("mean"),
-                    (double) resultsMapSentence.get("median"),
-                    (double) resultsMapSentence.get("standarddeviation"),
-                    noOfDocsLong.doubleValue());
-
-            return layerStats;
-        }
-        catch (mtas.parser.function.ParseException e) {
-            throw new ExecutionException("Search function could not be parsed!", e);
-        }
-        catch (IllegalAccessException e) {
-            throw new ExecutionException("Collector could not access data!", e);
-        }
-        catch (InvocationTargetException e) {
-            throw new ExecutionException("Problem with collecting the data!", e.getCause());
+            var version = ((DirectoryReader) searcher.getIndexReader()).getVersion();
+            var cached = getStatisticsCacheEntry(
+                    new StatisticsCacheKey(version, List.copyOf(aDocs), minimum, maximum));
+
+            // The sentence query goes first because its counts are the per-sentence denominator
+            var missing = new LinkedHashSet<String>();
+            missing.add(preprocessQuery(SENTENCE_QUERY, prefs));
+            missing.addAll(queries);
+            missing.removeIf(cached::containsKey);
+
+            if (!missing.isEmpty()) {
+                var sentenceQuery = preprocessQuery(SENTENCE_QUERY, prefs);
+                var collected = new ArrayList<String>();
+                collected.add(sentenceQuery);
+                missing.stream().filter(q -> !q.equals(sentenceQuery)).forEach(collected::add);
+
+                var parsedQueries = new ArrayList<MtasSpanQuery>(collected.size());
+                for (var query : collected) {
+                    parsedQueries.add(parsePreprocessedQuery(query));
+                }
+
+                var counts = new SpanStatisticsCollector(searcher).collect(parsedQueries, aDocs);
+
+                for (var i = 0; i < collected.size(); i++) {
+                    cached.put(collected.get(i), SpanStatisticsCollector.summarize(counts[i],
+                            counts[0], minimum, maximum));
+                }
+            }
+
+            var results = new ArrayList<LayerStatistics>(queries.size());
+            for (var query : queries) {
+                results.add(copyOf(cached.get(query)));
+            }
+            return results;
         }
         finally {
             if (searcher != null) {
                 // Releasing and setting to null per recommendation in JavaDoc of
-                // release(searcher)
-                // method
+                // release(searcher) method
                 getSearcherManager().release(searcher);
                 searcher = null;
             }
         }
     }
 
+    private Map<String, LayerStatistics> getStatisticsCacheEntry(StatisticsCacheKey aKey)
+    {
+        synchronized (statisticsCache) {
+            // Entries for older index generations can never be hit again
+            statisticsCache.keySet().removeIf(key -> key.readerVersion() < aKey.readerVersion());
+            return statisticsCache.computeIfAbsent(aKey, $ -> new ConcurrentHashMap<>());
+        }
+    }
+
+    private void clearStatisticsCache()
+    {
+        synchronized (statisticsCache) {
+            statisticsCache.clear();
+        }
+    }
+
+    private static LayerStatistics copyOf(LayerStatistics aStats)
+    {
+        return new LayerStatistics(aStats.getSum(), aStats.getMaximum(), aStats.getMinimum(),
+                aStats.getMean(), aStats.getMedian(), aStats.getStandardDeviation(),
+                aStats.getSumPerSentence(), aStats.getMaximumPerSentence(),
+                aStats.getMinimumPerSentence(), aStats.getMeanPerSentence(),
+                aStats.getMedianPerSentence(), aStats.getStandardDeviationPerSentence(),
+                aStats.getNoOfDocuments());
+    }
+
     static String buildLayerCountQuery(AnnotationLayer aLayer)
     {
         if (aLayer == null) {
@@ -1024,16 +1097,15 @@ public class MtasDocumentIndex
         if (!preferIsInitial) {
             for (var leafCtx : aLeaves) {
                 var leafReader = leafCtx.reader();
-                var storedFields = leafReader.storedFields();
+                var identity = new IdentityFields(leafReader);
                 var liveDocs = leafReader.getLiveDocs();
                 var docBase = leafCtx.docBase;
 
                 for (var localDocId : findLiveDocsByUser(leafReader, aPreferredUser, liveDocs)) {
-                    var rawSrcId = storedFields.document(localDocId).get(FIELD_SOURCE_DOCUMENT_ID);
-                    if (rawSrcId == null) {
+                    var srcDocId = identity.sourceDocumentId(localDocId);
+                    if (srcDocId == null) {
                         continue;
                     }
-                    var srcDocId = Long.valueOf(rawSrcId);
                     if (!aSourceDocIds.contains(srcDocId)) {
                         continue;
                     }
@@ -1045,16 +1117,15 @@ public class MtasDocumentIndex
 
         for (var leafCtx : aLeaves) {
             var leafReader = leafCtx.reader();
-            var storedFields = leafReader.storedFields();
+            var identity = new IdentityFields(leafReader);
             var liveDocs = leafReader.getLiveDocs();
             var docBase = leafCtx.docBase;
 
             for (var localDocId : findLiveDocsByUser(leafReader, "", liveDocs)) {
-                var rawSrcId = storedFields.document(localDocId).get(FIELD_SOURCE_DOCUMENT_ID);
-                if (rawSrcId == null) {
+                var srcDocId = identity.sourceDocumentId(localDocId);
+                if (srcDocId == null) {
                     continue;
                 }
-                var srcDocId = Long.valueOf(rawSrcId);
                 if (!aSourceDocIds.contains(srcDocId)) {
                     continue;
                 }
@@ -1085,7 +1156,7 @@ public class MtasDocumentIndex
      * the curation row, both rows would end up in the result and the doc would be double-counted in
      * pass 2.
      *
-     * Cost: two posting-list iterations per leaf + one stored-fields read per canonical row.
+     * Cost: two posting-list iterations per leaf + one DocValues lookup per canonical row.
      * Independent of annotator count, independent of project size beyond what we actually keep.
      */
     private HashMap<Integer, Long> getSourceDocumentsByDocId(Set<Long> projectSourceDocumentIds,
@@ -1098,16 +1169,15 @@ public class MtasDocumentIndex
         // Pass 1: record all curation rows across every leaf.
         for (var leafCtx : leaves) {
             var leafReader = leafCtx.reader();
-            var storedFields = leafReader.storedFields();
+            var identity = new IdentityFields(leafReader);
             var liveDocs = leafReader.getLiveDocs();
             var docBase = leafCtx.docBase;
 
             for (var localDocId : findLiveDocsByUser(leafReader, CURATION_USER, liveDocs)) {
-                var rawSrcId = storedFields.document(localDocId).get(FIELD_SOURCE_DOCUMENT_ID);
-                if (rawSrcId == null) {
+                var srcDocId = identity.sourceDocumentId(localDocId);
+                if (srcDocId == null) {
                     continue;
                 }
-                var srcDocId = Long.valueOf(rawSrcId);
                 if (!projectSourceDocumentIds.contains(srcDocId)) {
                     continue;
                 }
@@ -1119,16 +1189,15 @@ public class MtasDocumentIndex
         // Pass 2: record source-doc rows only for source docs without a curation row anywhere.
         for (var leafCtx : leaves) {
             var leafReader = leafCtx.reader();
-            var storedFields = leafReader.storedFields();
+            var identity = new IdentityFields(leafReader);
             var liveDocs = leafReader.getLiveDocs();
             var docBase = leafCtx.docBase;
 
             for (var localDocId : findLiveDocsByUser(leafReader, "", liveDocs)) {
-                var rawSrcId = storedFields.document(localDocId).get(FIELD_SOURCE_DOCUMENT_ID);
-                if (rawSrcId == null) {
+                var srcDocId = identity.sourceDocumentId(localDocId);
+                if (srcDocId == null) {
                     continue;
                 }
-                var srcDocId = Long.valueOf(rawSrcId);
                 if (!projectSourceDocumentIds.contains(srcDocId)) {
                     continue;
                 }
@@ -1148,8 +1217,8 @@ public class MtasDocumentIndex
      * per-doc query setup overhead — posting lists are columnar and packed, so the cost is
      * proportional only to the number of matching rows.
      */
-    private static List<Integer> findLiveDocsByUser(org.apache.lucene.index.LeafReader aLeafReader,
-            String aUser, org.apache.lucene.util.Bits aLiveDocs)
+    private static List<Integer> findLiveDocsByUser(LeafReader aLeafReader, String aUser,
+            org.apache.lucene.util.Bits aLiveDocs)
         throws IOException
     {
         var terms = aLeafReader.terms(FIELD_USER);
@@ -1174,8 +1243,8 @@ public class MtasDocumentIndex
         return result;
     }
 
-    private <T> T _executeQuery(QueryRunner<T> aRunner, SearchQueryRequest aRequest,
-            AnnotationSearchState aPrefs)
+    private <T> T _executeQuery(String aQueryKind, QueryRunner<T> aRunner,
+            SearchQueryRequest aRequest, AnnotationSearchState aPrefs)
         throws IOException, ExecutionException
     {
         LOG.debug("Executing query [{}] on index [{}]", aRequest, indexDir);
@@ -1200,16 +1269,28 @@ public class MtasDocumentIndex
             throw e;
         }
 
+        // A new query supersedes any query of the same kind that the same requester still has
+        // running, e.g. because the user did not wait for the results before changing the query.
+        // The user of the request is the owner of the searched data, not the party running the
+        // query, so it cannot be used to identify the requester.
+        var cancelled = runningQueries.start(aRequest.getRequester(), aQueryKind);
+
         IndexSearcher searcher = null;
         try {
             searcher = getSearcherManager().acquire();
-            return aRunner.run(searcher, aRequest, query);
+            return aRunner.run(searcher, aRequest, query, cancelled);
+        }
+        catch (CancellationException e) {
+            throw new ExecutionException("Query [" + aRequest.getQuery()
+                    + "] was cancelled because a newer query has been started", e);
         }
         catch (Exception e) {
             throw new ExecutionException("Unable to execute query [" + aRequest.getQuery() + "]",
                     e);
         }
         finally {
+            runningQueries.finish(aRequest.getRequester(), aQueryKind, cancelled);
+
             if (searcher != null) {
                 // Releasing and setting to null per recommendation in JavaDoc of release(searcher)
                 // method
@@ -1261,116 +1342,82 @@ public class MtasDocumentIndex
         return result;
     }
 
-    private long doCountResults(IndexSearcher searcher, SearchQueryRequest aRequest,
-            MtasSpanQuery q)
+    private long doCountResults(IndexSearcher aSearcher, SearchQueryRequest aRequest,
+            MtasSpanQuery aQuery, AtomicBoolean aCancelled)
         throws IOException
     {
-        var indexReader = searcher.getIndexReader();
-        var leafReaderContextIterator = indexReader.leaves().listIterator();
-
-        var annotatableDocuments = documentService.listAnnotatableDocuments(aRequest.getProject(),
-                aRequest.getUser());
-        var sourceDocumentIndex = new HashMap<Long, SourceDocument>();
-        annotatableDocuments.entrySet().stream()
-                .forEach(e -> sourceDocumentIndex.put(e.getKey().getId(), e.getKey()));
+        var filter = new DocumentFilter(aRequest);
 
         final var boost = 0.0f;
-        var spanweight = q.rewrite(searcher).createWeight(searcher, COMPLETE_NO_SCORES, boost);
-
-        var numResults = 0;
-        var limitedToDocument = aRequest.getLimitedToDocument();
-
-        while (leafReaderContextIterator.hasNext()) {
-            var leafReaderContext = leafReaderContextIterator.next();
-            try {
-                var spans = spanweight.getSpans(leafReaderContext, POSITIONS);
-                var segmentReader = (SegmentReader) leafReaderContext.reader();
-                var storedFields = segmentReader.storedFields();
+        var spanweight = aQuery.rewrite(aSearcher).createWeight(aSearcher, COMPLETE_NO_SCORES,
+                boost);
 
-                if (spans == null) {
-                    continue;
+        var tasks = new ArrayList<Callable<Long>>();
+        for (var leafReaderContext : aSearcher.getIndexReader().leaves()) {
+            tasks.add(() -> {
+                try {
+                    return countLeafResults(spanweight, leafReaderContext, filter, aCancelled);
                 }
+                catch (CancellationException e) {
+                    throw e;
+                }
+                catch (Exception e) {
+                    LOG.error("Unable to process query results", e);
+                    return -1L;
+                }
+            });
+        }
 
-                while (spans.nextDoc() != NO_MORE_DOCS) {
-                    if (segmentReader.numDocs() == segmentReader.maxDoc()
-                            || segmentReader.getLiveDocs().get(spans.docID())) {
-                        var document = storedFields.document(spans.docID());
-
-                        // Retrieve user
-                        var user = document.get(FIELD_USER);
-
-                        // Retrieve source and annotation document ids
-                        var rawSourceDocumentId = document.get(FIELD_SOURCE_DOCUMENT_ID);
-                        var rawAnnotationDocumentId = document.get(FIELD_ANNOTATION_DOCUMENT_ID);
-                        if (!validSourceAndDocumentIds(rawSourceDocumentId,
-                                rawAnnotationDocumentId)) {
-                            continue;
-                        }
-
-                        var sourceDocumentId = Long.valueOf(rawSourceDocumentId);
-                        var annotationDocumentId = Long.valueOf(rawAnnotationDocumentId);
-                        var sourceDocument = sourceDocumentIndex.get(sourceDocumentId);
-                        var annotationDocument = annotatableDocuments.get(sourceDocument);
-
-                        if (sourceDocument == null) {
-                            // Document is not annotatable by this user, so we skip this result
-                            continue;
-                        }
+        var numResults = 0L;
+        for (var leafResults : aSearcher.getTaskExecutor().invokeAll(tasks)) {
+            if (leafResults < 0) {
+                return -1;
+            }
+            numResults += leafResults;
+        }
+        return numResults;
+    }
 
-                        if (annotationDocument != null && IGNORE == annotationDocument.getState()) {
-                            LOG.trace("Skipping results from ignored document {}", sourceDocument);
-                        }
+    private long countLeafResults(SpanWeight aSpanWeight, LeafReaderContext aLeafReaderContext,
+            DocumentFilter aFilter, AtomicBoolean aCancelled)
+        throws IOException
+    {
+        var spans = aSpanWeight.getSpans(aLeafReaderContext, POSITIONS);
+        if (spans == null) {
+            return 0;
+        }
 
-                        if (!isWithinDocumentScope(limitedToDocument, sourceDocument)) {
-                            continue;
-                        }
+        var reader = aLeafReaderContext.reader();
+        var liveDocs = reader.getLiveDocs();
+        var identity = new IdentityFields(reader);
 
-                        var matchInSourceDocument = annotationDocumentId == -1L;
-                        if (matchInSourceDocument
-                                && isAnnotationDocumentIndexed(annotationDocument)) {
-                            // Exclude result if the retrieved document is a sourcedocument
-                            // (that is, has annotationDocument = -1) AND it has a
-                            // corresponding annotation document for this user
-                            LOG.trace("Skipping results from indexed source document {} in"
-                                    + "favor of results from the corresponding annotation "
-                                    + "document", sourceDocument);
-                            continue;
-                        }
+        var numResults = 0L;
+        while (spans.nextDoc() != NO_MORE_DOCS) {
+            checkCancelled(aCancelled);
 
-                        if (!matchInSourceDocument
-                                && !aRequest.getUser().getUsername().equals(user)) {
-                            // Exclude result if the retrieved document is an annotation
-                            // document (that is, annotationDocument != -1 and its username
-                            // is different from the querying user
-                            LOG.trace(
-                                    "Skipping results from annotation document for user [{}] "
-                                            + "which does not match the requested user [{}]",
-                                    user, aRequest.getUser().getUsername());
-                            continue;
-                        }
+            if (liveDocs != null && !liveDocs.get(spans.docID())) {
+                continue;
+            }
 
-                        while (spans.nextStartPosition() != Spans.NO_MORE_POSITIONS) {
-                            numResults++;
-                        }
-                    }
-                }
+            var sourceDocumentId = identity.sourceDocumentId(spans.docID());
+            if (aFilter.accept(identity, spans.docID(), sourceDocumentId) == null) {
+                continue;
             }
-            catch (Exception e) {
-                LOG.error("Unable to process query results", e);
-                numResults = -1;
+
+            while (spans.nextStartPosition() != Spans.NO_MORE_POSITIONS) {
+                numResults++;
             }
         }
         return numResults;
     }
 
-    private boolean validSourceAndDocumentIds(String aRawSourceDocumentId,
-            String aRawAnnotationDocumentId)
+    private boolean validSourceAndDocumentIds(Long aSourceDocumentId, Long aAnnotationDocumentId)
     {
-        if (aRawSourceDocumentId == null || aRawAnnotationDocumentId == null) {
+        if (aSourceDocumentId == null || aAnnotationDocumentId == null) {
             LOG.trace(
                     "Indexed document lacks source/annotation document IDs"
                             + " - source: {}, annotation: {}",
-                    aRawSourceDocumentId, aRawAnnotationDocumentId);
+                    aSourceDocumentId, aAnnotationDocumentId);
             return false;
         }
 
@@ -1393,271 +1440,272 @@ public class MtasDocumentIndex
         return true;
     }
 
-    private List<LeafReaderContext> sortLeaves(List<LeafReaderContext> aLeaves,
-            IndexSearcher aSearcher, MtasSpanQuery aQuery)
+    private Map<String, List<SearchResult>> doQuery(IndexSearcher aSearcher,
+            SearchQueryRequest aRequest, MtasSpanQuery aQuery, AtomicBoolean aCancelled)
         throws IOException
-    { // This method sorts the LeafReaderContexts according to the document ids
-      // they contain. If one does not contain a document for this search, then
-      // it is discarded. If one contains multiple document ids the smallest
-      // is used for comparison.
-
-        List<Pair<LeafReaderContext, List<Long>>> mapToDocIds = new ArrayList<>();
-
-        // Here, the query comes into play
-        var spanweight = aQuery.rewrite(aSearcher).createWeight(aSearcher, COMPLETE_NO_SCORES, 0);
-
-        // cycle through all the leaves
-        for (var leafReaderContext : aLeaves) {
-            var spans = spanweight.getSpans(leafReaderContext, POSITIONS);
-            var segmentReader = (SegmentReader) leafReaderContext.reader();
-            var storedFields = segmentReader.storedFields();
-            var idList = new LongArrayList();
-            // no spans -> no docs
-            if (spans != null) {
-                // go through the docs in iterator span
-                while (spans.nextDoc() != NO_MORE_DOCS) {
-                    // don't know why this if is needed, just copy/pasted it from method doQuery
-                    // below
-                    if (segmentReader.numDocs() == segmentReader.maxDoc()
-                            || segmentReader.getLiveDocs().get(spans.docID())) {
-                        // get a document
-                        var document = storedFields.document(spans.docID());
-
-                        var rawSourceDocumentId = document.get(FIELD_SOURCE_DOCUMENT_ID);
-                        // go to the next document if the docId is not set
-                        if (rawSourceDocumentId == null) {
-                            continue;
-                        }
-                        // add id to the list of ids for this leafReaderContext
-                        idList.add(Long.parseLong(rawSourceDocumentId));
-                    }
+    {
+        var filter = new DocumentFilter(aRequest);
+
+        final var boost = 0.0f;
+        var spanweight = aQuery.rewrite(aSearcher).createWeight(aSearcher, COMPLETE_NO_SCORES,
+                boost);
+
+        var offset = aRequest.getOffset();
+        var count = aRequest.getCount();
+        // No single segment can contribute more than this to the requested page
+        var limit = count > Long.MAX_VALUE - offset ? Long.MAX_VALUE : offset + count;
+
+        // Locate the matches in all segments concurrently
+        var collectTasks = new ArrayList<Callable<LeafHits>>();
+        for (var leafReaderContext : aSearcher.getIndexReader().leaves()) {
+            collectTasks.add(() -> {
+                try {
+                    return collectLeafHits(spanweight, leafReaderContext, filter, limit,
+                            aCancelled);
+                }
+                catch (CancellationException e) {
+                    throw e;
                 }
+                catch (Exception e) {
+                    LOG.error("Unable to process query results", e);
+                    return null;
+                }
+            });
+        }
+
+        var leafHits = new ArrayList<LeafHits>();
+        for (var hits : aSearcher.getTaskExecutor().invokeAll(collectTasks)) {
+            if (hits != null && hits.minSourceDocumentId() != null) {
+                leafHits.add(hits);
+            }
+        }
+
+        // Merge the segments in the order of the smallest source document ID they contain
+        leafHits.sort(comparingLong(LeafHits::minSourceDocumentId));
+
+        var pageHits = new ArrayList<LeafHits>();
+        var current = 0L;
+        for (var hits : leafHits) {
+            if (current >= limit) {
+                break;
             }
-            idList.sort(LongComparators.NATURAL_COMPARATOR);
-            if (!idList.isEmpty()) {
-                mapToDocIds.add(Pair.of(leafReaderContext, idList));
+
+            var size = hits.hits().size();
+            var from = (int) (Math.max(offset, current) - current);
+            var to = (int) (Math.min(limit, current + size) - current);
+            if (from < to) {
+                pageHits.add(new LeafHits(hits.leafReaderContext(), hits.minSourceDocumentId(),
+                        hits.hits().subList(from, to)));
+            }
+            current += size;
+        }
+
+        // Render the matches on the requested page, again concurrently per segment
+        var renderTasks = new ArrayList<Callable<List<GroupedResult>>>();
+        for (var hits : pageHits) {
+            renderTasks.add(() -> {
+                try {
+                    return renderLeafHits(aRequest, hits, aCancelled);
+                }
+                catch (CancellationException e) {
+                    throw e;
+                }
+                catch (Exception e) {
+                    LOG.error("Unable to process query results", e);
+                    return emptyList();
+                }
+            });
+        }
+
+        var resultsByDocument = new LinkedHashMap<String, List<SearchResult>>();
+        for (var results : aSearcher.getTaskExecutor().invokeAll(renderTasks)) {
+            for (var result : results) {
+                for (var group : result.groups()) {
+                    addToResults(resultsByDocument, group, result.result());
+                }
             }
         }
-        // Sort according to docId; take the smallest value in the list
-        mapToDocIds.sort(comparingLong(s -> s.getValue().get(0)));
 
-        // Only return the leaves
-        return mapToDocIds.stream().map(Pair::getKey).collect(Collectors.toList());
+        var sortedResultsByDocument = new LinkedHashMap<String, List<SearchResult>>();
+        var sortedDocuments = resultsByDocument.keySet().stream().sorted().toList();
+        for (var document : sortedDocuments) {
+            sortedResultsByDocument.put(document, resultsByDocument.get(document));
+        }
+
+        return sortedResultsByDocument;
     }
 
-    private Map<String, List<SearchResult>> doQuery(IndexSearcher aSearcher,
-            SearchQueryRequest aRequest, MtasSpanQuery aQuery)
+    private LeafHits collectLeafHits(SpanWeight aSpanWeight, LeafReaderContext aLeafReaderContext,
+            DocumentFilter aFilter, long aLimit, AtomicBoolean aCancelled)
         throws IOException
     {
-        var resultsByDocument = new LinkedHashMap<String, List<SearchResult>>();
+        var spans = aSpanWeight.getSpans(aLeafReaderContext, POSITIONS);
+        if (spans == null) {
+            return new LeafHits(aLeafReaderContext, null, emptyList());
+        }
 
-        var leafReaderContextIterator = sortLeaves(aSearcher.getIndexReader().leaves(), aSearcher,
-                aQuery).listIterator();
+        var reader = aLeafReaderContext.reader();
+        var liveDocs = reader.getLiveDocs();
+        var identity = new IdentityFields(reader);
 
-        var sourceAnnotationDocPairs = documentService
-                .listAnnotatableDocuments(aRequest.getProject(), aRequest.getUser());
-        var sourceDocumentIndex = new HashMap<Long, SourceDocument>();
-        sourceAnnotationDocPairs.entrySet().stream()
-                .forEach(e -> sourceDocumentIndex.put(e.getKey().getId(), e.getKey()));
+        var hits = new ArrayList<Hit>();
+        Long minSourceDocumentId = null;
+        while (spans.nextDoc() != NO_MORE_DOCS) {
+            checkCancelled(aCancelled);
 
-        final var boost = 0;
-        var spanweight = aQuery.rewrite(aSearcher).createWeight(aSearcher, COMPLETE_NO_SCORES,
-                boost);
+            var docId = spans.docID();
+            if (liveDocs != null && !liveDocs.get(docId)) {
+                continue;
+            }
 
-        var offset = aRequest.getOffset();
-        var count = aRequest.getCount();
-        var current = 0;
-        var limitedToDocument = aRequest.getLimitedToDocument();
+            var sourceDocumentId = identity.sourceDocumentId(docId);
+            if (sourceDocumentId == null) {
+                continue;
+            }
 
-        resultIteration: while (leafReaderContextIterator.hasNext()) {
-            var leafReaderContext = leafReaderContextIterator.next();
+            // The segment order depends on all documents matching the query, not only on those
+            // visible to the user, so we need to keep going even once we have enough hits
+            if (minSourceDocumentId == null || sourceDocumentId < minSourceDocumentId) {
+                minSourceDocumentId = sourceDocumentId;
+            }
 
-            try {
-                var spans = spanweight.getSpans(leafReaderContext, POSITIONS);
-                if (spans == null) {
-                    continue;
-                }
+            if (hits.size() >= aLimit) {
+                continue;
+            }
 
-                var segmentReader = (SegmentReader) leafReaderContext.reader();
-                var storedFields = segmentReader.storedFields();
-                var terms = segmentReader.terms(FIELD_CONTENT);
-                var mtasCodecInfo = CodecInfo.getCodecInfoFromTerms(terms);
-                while (spans.nextDoc() != NO_MORE_DOCS) {
-                    if (segmentReader.numDocs() == segmentReader.maxDoc()
-                            || segmentReader.getLiveDocs().get(spans.docID())) {
-                        var document = storedFields.document(spans.docID());
-
-                        // Retrieve user
-                        var user = document.get(FIELD_USER);
-
-                        // Retrieve source and annotation document ids
-                        var rawSourceDocumentId = document.get(FIELD_SOURCE_DOCUMENT_ID);
-                        var rawAnnotationDocumentId = document.get(FIELD_ANNOTATION_DOCUMENT_ID);
-                        if (!validSourceAndDocumentIds(rawSourceDocumentId,
-                                rawAnnotationDocumentId)) {
-                            continue;
-                        }
+            var document = aFilter.accept(identity, docId, sourceDocumentId);
+            if (document == null) {
+                continue;
+            }
 
-                        var sourceDocumentId = Long.valueOf(rawSourceDocumentId);
-                        var annotationDocumentId = Long.valueOf(rawAnnotationDocumentId);
-                        var matchInSourceDocument = annotationDocumentId == -1;
+            while (hits.size() < aLimit
+                    && spans.nextStartPosition() != Spans.NO_MORE_POSITIONS) {
+                hits.add(new Hit(docId, document, spans.startPosition(), spans.endPosition()));
+            }
+        }
 
-                        var sourceDocument = sourceDocumentIndex.get(sourceDocumentId);
-                        if (sourceDocument == null) {
-                            // Document is not annotatable by this user, so we skip this result
-                            continue;
-                        }
+        return new LeafHits(aLeafReaderContext, minSourceDocumentId, hits);
+    }
 
-                        var annotationDocument = sourceAnnotationDocPairs.get(sourceDocument);
+    private List<GroupedResult> renderLeafHits(SearchQueryRequest aRequest, LeafHits aHits,
+            AtomicBoolean aCancelled)
+        throws IOException
+    {
+        var reader = aHits.leafReaderContext().reader();
+        var storedFields = reader.storedFields();
+        var mtasCodecInfo = CodecInfo.getCodecInfoFromTerms(reader.terms(FIELD_CONTENT));
 
-                        if (annotationDocument != null && IGNORE == annotationDocument.getState()) {
-                            LOG.trace("Skipping results from ignored document {}", sourceDocument);
-                        }
+        var groupingLayer = aRequest.getAnnoationLayer();
+        var groupingFeature = aRequest.getAnnotationFeature();
 
-                        if (!isWithinDocumentScope(limitedToDocument, sourceDocument)) {
-                            continue;
-                        }
+        var results = new ArrayList<GroupedResult>();
+        var titleDocId = -1;
+        String documentTitle = null;
+        for (var hit : aHits.hits()) {
+            checkCancelled(aCancelled);
 
-                        if (matchInSourceDocument
-                                && isAnnotationDocumentIndexed(annotationDocument)) {
-                            LOG.trace("Skipping results from indexed source document {} in"
-                                    + "favor of results from the corresponding annotation "
-                                    + "document", sourceDocument);
-                            continue;
-                        }
+            var matchStart = hit.start();
+            var matchEnd = hit.end();
 
-                        if (!matchInSourceDocument
-                                && !aRequest.getUser().getUsername().equals(user)) {
-                            LOG.trace(
-                                    "Skipping results from annotation document for user {} "
-                                            + "which does not match the requested user {}",
-                                    user, aRequest.getUser().getUsername());
-                            continue;
-                        }
+            var windowStart = Math.max(matchStart - RESULT_WINDOW_SIZE, 0);
+            var windowEnd = matchEnd + RESULT_WINDOW_SIZE - 1;
 
-                        // Retrieve document title
-                        var documentTitle = document.get(FIELD_TITLE);
-
-                        // String idValue = segmentReader.document(spans.docID())
-                        // .getField(FIELD_ID).stringValue();
-                        // log.debug("******** New doc {}-{}", + spans.docID(), idValue);
-
-                        while (spans.nextStartPosition() != Spans.NO_MORE_POSITIONS) {
-                            if (current < offset) {
-                                current++;
-                                continue;
-                            }
-                            if (current - offset + 1 > count) {
-                                break resultIteration;
-                            }
-                            current++;
-                            var matchStart = spans.startPosition();
-                            var matchEnd = spans.endPosition();
-
-                            var windowStart = Math.max(matchStart - RESULT_WINDOW_SIZE, 0);
-                            var windowEnd = matchEnd + RESULT_WINDOW_SIZE - 1;
-
-                            // Retrieve all indexed objects within the matching range
-                            var tokens = mtasCodecInfo.getObjectsByPositions(FIELD_CONTENT,
-                                    spans.docID(), windowStart, windowEnd);
-
-                            tokens.sort(comparing(MtasTokenString::getOffsetStart));
-
-                            if (tokens.isEmpty()) {
-                                continue;
-                            }
-
-                            var result = new SearchResult();
-                            var resultText = new StringBuilder();
-                            var leftContext = new StringBuilder();
-                            var rightContext = new StringBuilder();
-                            result.setDocumentId(sourceDocumentId);
-                            result.setDocumentTitle(documentTitle);
-                            result.setOffsetStart(tokens.stream()
-                                    .filter(t -> t.getPositionStart() >= matchStart
-                                            && t.getPositionEnd() < matchEnd)
-                                    .mapToInt(MtasTokenString::getOffsetStart).min()
-                                    .orElse(matchStart));
-                            result.setOffsetEnd(tokens.stream()
-                                    .filter(t -> t.getPositionStart() >= matchStart
-                                            && t.getPositionEnd() < matchEnd)
-                                    .mapToInt(MtasTokenString::getOffsetEnd).max()
-                                    .orElse(matchEnd));
-                            result.setTokenStart(matchStart);
-                            result.setTokenLength(matchEnd - matchStart);
-                            result.setReadOnly(annotationDocument != null
-                                    && FINISHED.equals(annotationDocument.getState()));
-                            result.setSelectedForAnnotation(!result.isReadOnly());
-
-                            MtasTokenString prevToken = null;
-                            for (var token : tokens) {
-                                if (!token.getPrefix().equals(DEFAULT_PREFIX)) {
-                                    continue;
-                                }
-
-                                // When searching for an annotation, we don't get the matching
-                                // text back... not sure why...
-                                var tokenText = CodecUtil.termValue(token.getValue());
-                                if (tokenText == null) {
-                                    continue;
-                                }
-
-                                if (token.getPositionStart() < matchStart) {
-                                    fill(leftContext, prevToken, token);
-                                    leftContext.append(tokenText);
-                                }
-                                else if (token.getPositionStart() >= matchEnd) {
-                                    fill(rightContext, prevToken, token);
-                                    rightContext.append(tokenText);
-                                }
-                                else {
-                                    // Only add the whitespace to the match if we already have
-                                    // added any text to the match - otherwise consider the
-                                    // whitespace to be part of the left context
-                                    if (resultText.length() > 0) {
-                                        fill(resultText, prevToken, token);
-                                    }
-                                    else {
-                                        fill(leftContext, prevToken, token);
-                                    }
-                                    resultText.append(tokenText);
-                                }
-                                prevToken = token;
-                            }
-                            result.setText(resultText.toString());
-                            result.setLeftContext(leftContext.toString());
-                            result.setRightContext(rightContext.toString());
-
-                            var groupingLayer = aRequest.getAnnoationLayer();
-                            var groupingFeature = aRequest.getAnnotationFeature();
-
-                            if (groupingLayer != null && groupingFeature != null) {
-                                var featureValues = featureValuesAtMatch(tokens, matchStart,
-                                        matchEnd, groupingLayer, groupingFeature);
-                                for (var featureValue : featureValues) {
-                                    addToResults(resultsByDocument, featureValue, result);
-                                }
-                            }
-                            else {
-                                // if no annotation feature is specified group by document title
-                                addToResults(resultsByDocument, result.getDocumentTitle(), result);
-                            }
-                        }
+            // Retrieve all indexed objects within the matching range
+            var tokens = mtasCodecInfo.getObjectsByPositions(FIELD_CONTENT, hit.docId(),
+                    windowStart, windowEnd);
+
+            tokens.sort(comparing(MtasTokenString::getOffsetStart));
+
+            if (tokens.isEmpty()) {
+                continue;
+            }
+
+            // Retrieve document title - this is the only stored field we need. The hits of a
+            // document are consecutive, so it is loaded only once per document.
+            if (hit.docId() != titleDocId) {
+                documentTitle = storedFields.document(hit.docId()).get(FIELD_TITLE);
+                titleDocId = hit.docId();
+            }
+
+            var annotationDocument = hit.document().annotationDocument();
+
+            var result = new SearchResult();
+            var resultText = new StringBuilder();
+            var leftContext = new StringBuilder();
+            var rightContext = new StringBuilder();
+            result.setDocumentId(hit.document().sourceDocument().getId());
+            result.setDocumentTitle(documentTitle);
+            result.setOffsetStart(tokens.stream()
+                    .filter(t -> t.getPositionStart() >= matchStart
+                            && t.getPositionEnd() < matchEnd)
+                    .mapToInt(MtasTokenString::getOffsetStart).min().orElse(matchStart));
+            result.setOffsetEnd(tokens.stream()
+                    .filter(t -> t.getPositionStart() >= matchStart
+                            && t.getPositionEnd() < matchEnd)
+                    .mapToInt(MtasTokenString::getOffsetEnd).max().orElse(matchEnd));
+            result.setTokenStart(matchStart);
+            result.setTokenLength(matchEnd - matchStart);
+            result.setReadOnly(annotationDocument != null
+                    && FINISHED.equals(annotationDocument.getState()));
+            result.setSelectedForAnnotation(!result.isReadOnly());
+
+            MtasTokenString prevToken = null;
+            for (var token : tokens) {
+                if (!token.getPrefix().equals(DEFAULT_PREFIX)) {
+                    continue;
+                }
+
+                // When searching for an annotation, we don't get the matching
+                // text back... not sure why...
+                var tokenText = CodecUtil.termValue(token.getValue());
+                if (tokenText == null) {
+                    continue;
+                }
+
+                if (token.getPositionStart() < matchStart) {
+                    fill(leftContext, prevToken, token);
+                    leftContext.append(tokenText);
+                }
+                else if (token.getPositionStart() >= matchEnd) {
+                    fill(rightContext, prevToken, token);
+                    rightContext.append(tokenText);
+                }
+                else {
+                    // Only add the whitespace to the match if we already have
+                    // added any text to the match - otherwise consider the
+                    // whitespace to be part of the left context
+                    if (resultText.length() > 0) {
+                        fill(resultText, prevToken, token);
+                    }
+                    else {
+                        fill(leftContext, prevToken, token);
                     }
+                    resultText.append(tokenText);
                 }
+                prevToken = token;
             }
-            catch (Exception e) {
-                LOG.error("Unable to process query results", e);
+            result.setText(resultText.toString());
+            result.setLeftContext(leftContext.toString());
+            result.setRightContext(rightContext.toString());
+
+            if (groupingLayer != null && groupingFeature != null) {
+                results.add(new GroupedResult(featureValuesAtMatch(tokens, matchStart, matchEnd,
+                        groupingLayer, groupingFeature), result));
+            }
+            else {
+                // if no annotation feature is specified group by document title
+                results.add(new GroupedResult(singletonList(result.getDocumentTitle()), result));
             }
         }
 
-        var sortedResultsByDocument = new LinkedHashMap<String, List<SearchResult>>();
-        var sortedDocuments = resultsByDocument.keySet().stream().sorted().toList();
-        for (var document : sortedDocuments) {
-            sortedResultsByDocument.put(document, resultsByDocument.get(document));
-        }
+        return results;
+    }
 
-        return sortedResultsByDocument;
+    private static void checkCancelled(AtomicBoolean aCancelled)
+    {
+        if (aCancelled.get()) {
+            throw new CancellationException("Query has been superseded by a newer query");
+        }
     }
 
     private void addToResults(Map<String, List<SearchResult>> aResultsMap, String aKey,
@@ -1731,7 +1779,7 @@ public class MtasDocumentIndex
      *            Otherwise just appends.
      */
     private String writeDocument(String aDocumentTitle, long aSourceDocumentId,
-            long aAnnotationDocumentId, String aUser, byte[] aBinaryCas, Term aReplaceByFieldIdTerm)
+            long aAnnotationDocumentId, String aUser, CAS aCas, Term aReplaceByFieldIdTerm)
         throws IOException
     {
         // Calculate timestamp that will be indexed
@@ -1743,8 +1791,9 @@ public class MtasDocumentIndex
                 project.getName(), project.getId(), aSourceDocumentId, aAnnotationDocumentId, aUser,
                 timestamp);
 
-        // Prepare bytearray with document content to be indexed
-        var encodedCAS = new String(MtasUtils.bytesToChars(aBinaryCas));
+        // The token stream is built directly from the CAS. It bypasses the analyzer configured
+        // for FIELD_CONTENT which would otherwise have to decode the CAS from the field text.
+        var tokenStream = createTokenStream(aCas);
 
         // Create new Lucene document
         var doc = new Document();
@@ -1755,12 +1804,15 @@ public class MtasDocumentIndex
                 Field.Store.YES));
         doc.add(new StringField(FIELD_SOURCE_DOCUMENT_ID, String.valueOf(aSourceDocumentId),
                 Field.Store.YES));
+        doc.add(new NumericDocValuesField(FIELD_SOURCE_DOCUMENT_ID, aSourceDocumentId));
         doc.add(new StringField(FIELD_ANNOTATION_DOCUMENT_ID, String.valueOf(aAnnotationDocumentId),
                 Field.Store.YES));
+        doc.add(new NumericDocValuesField(FIELD_ANNOTATION_DOCUMENT_ID, aAnnotationDocumentId));
         doc.add(new StringField(FIELD_TITLE, aDocumentTitle, Field.Store.YES));
         doc.add(new StringField(FIELD_USER, aUser, Field.Store.YES));
+        doc.add(new SortedDocValuesField(FIELD_USER, new BytesRef(aUser)));
         doc.add(new StringField(FIELD_TIMESTAMP, timestamp, Field.Store.YES));
-        doc.add(new TextField(FIELD_CONTENT, encodedCAS, Field.Store.NO));
+        doc.add(new TextField(FIELD_CONTENT, tokenStream));
 
         var indexWriter = getIndexWriter();
         if (aReplaceByFieldIdTerm != null) {
@@ -1773,6 +1825,23 @@ public class MtasDocumentIndex
         return timestamp;
     };
 
+    private MtasTokenizer createTokenStream(CAS aCas) throws IOException
+    {
+        var parserConfiguration = new MtasConfiguration();
+        parserConfiguration.name = "parser";
+        parserConfiguration.attributes.put(ARGUMENT_PARSER_ARGS, getParserArguments());
+
+        // Do not fall back to an empty token collection here. The document would otherwise be
+        // indexed empty with a current timestamp and would never be picked up for re-indexing.
+        try {
+            var parser = new MtasUimaParser(parserConfiguration);
+            return new MtasTokenizer(parser.createTokenCollection(getRealCas(aCas)));
+        }
+        catch (Exception e) {
+            throw new IOException("Unable to create token collection", e);
+        }
+    }
+
     /**
      * Remove document from the index
      * 
@@ -1916,6 +1985,7 @@ public class MtasDocumentIndex
 
         // Delete the index directory
         deleteDirectory(indexDir);
+        clearStatisticsCache();
 
         LOG.debug("Index for project {} has been deleted", project);
     }
@@ -1985,12 +2055,13 @@ public class MtasDocumentIndex
     @FunctionalInterface
     private interface QueryRunner<T>
     {
-        T run(IndexSearcher searcher, SearchQueryRequest aRequest, MtasSpanQuery q)
+        T run(IndexSearcher searcher, SearchQueryRequest aRequest, MtasSpanQuery q,
+                AtomicBoolean aCancelled)
             throws Exception;
     }
 
     @Override
-    public void indexDocument(AnnotationDocument aDocument, byte[] aBinaryCas) throws IOException
+    public void indexDocument(AnnotationDocument aDocument, CAS aCas) throws IOException
     {
         // Atomic delete-by-FIELD_ID + add. The previous add-then-delete-old-by-(timestamp !=
         // current) pattern was meant to avoid a searcher window with no row present, but it broke
@@ -2001,13 +2072,13 @@ public class MtasDocumentIndex
         var srcDocId = aDocument.getDocument().getId();
         var annoDocId = aDocument.getId();
         var replaceByFieldId = new Term(FIELD_ID, srcDocId + "/" + annoDocId);
-        writeDocument(aDocument.getName(), srcDocId, annoDocId, aDocument.getUser(), aBinaryCas,
+        writeDocument(aDocument.getName(), srcDocId, annoDocId, aDocument.getUser(), aCas,
                 replaceByFieldId);
         scheduleCommit();
     }
 
     @Override
-    public void indexDocument(SourceDocument aSourceDocument, byte[] aBinaryCas) throws IOException
+    public void indexDocument(SourceDocument aSourceDocument, CAS aCas) throws IOException
     {
         // Atomic delete-by-FIELD_ID + add. Two concurrent writers for the same source doc (e.g.
         // ReindexTask overlapping IndexSourceDocumentTask) would otherwise be able to interleave
@@ -2015,8 +2086,163 @@ public class MtasDocumentIndex
         // updateDocument() serializes the replace inside the IndexWriter.
         var replaceByFieldId = BulkIndexingContext.isFullReindexInProgress() ? null
                 : new Term(FIELD_ID, aSourceDocument.getId() + "/-1");
-        writeDocument(aSourceDocument.getName(), aSourceDocument.getId(), -1, "", aBinaryCas,
+        writeDocument(aSourceDocument.getName(), aSourceDocument.getId(), -1, "", aCas,
                 replaceByFieldId);
         scheduleCommit();
     }
+
+    /**
+     * Column-wise access to the identity fields of the documents in a segment. The fields are read
+     * from DocValues, so no stored fields need to be decompressed. Documents must be visited in
+     * increasing order of their segment-local IDs.
+     */
+    /**
+     * Decides whether the matches in an indexed document are visible to the user running a query.
+     * Instances are only read after construction, so they can be shared between the tasks
+     * processing the different segments of the index.
+     */
+    private final class DocumentFilter
+    {
+        private final SearchQueryRequest request;
+        private final Map<SourceDocument, AnnotationDocument> annotatableDocuments;
+        private final Map<Long, SourceDocument> sourceDocumentIndex;
+
+        DocumentFilter(SearchQueryRequest aRequest)
+        {
+            request = aRequest;
+            annotatableDocuments = documentService.listAnnotatableDocuments(aRequest.getProject(),
+                    aRequest.getUser());
+            sourceDocumentIndex = new HashMap<>();
+            annotatableDocuments.keySet()
+                    .forEach(doc -> sourceDocumentIndex.put(doc.getId(), doc));
+        }
+
+        /**
+         * @return the matched document or {@code null} if the matches in the given indexed
+         *         document should not be reported to the user.
+         */
+        MatchedDocument accept(IdentityFields aIdentity, int aDocId, Long aSourceDocumentId)
+            throws IOException
+        {
+            // Retrieve user
+            var user = aIdentity.user(aDocId);
+
+            // Retrieve annotation document id
+            var annotationDocumentId = aIdentity.annotationDocumentId(aDocId);
+            if (!validSourceAndDocumentIds(aSourceDocumentId, annotationDocumentId)) {
+                return null;
+            }
+
+            var sourceDocument = sourceDocumentIndex.get(aSourceDocumentId);
+            if (sourceDocument == null) {
+                // Document is not annotatable by this user, so we skip this result
+                return null;
+            }
+
+            var annotationDocument = annotatableDocuments.get(sourceDocument);
+
+            if (annotationDocument != null && IGNORE == annotationDocument.getState()) {
+                LOG.trace("Skipping results from ignored document {}", sourceDocument);
+            }
+
+            if (!isWithinDocumentScope(request.getLimitedToDocument(), sourceDocument)) {
+                return null;
+            }
+
+            var matchInSourceDocument = annotationDocumentId == -1L;
+            if (matchInSourceDocument && isAnnotationDocumentIndexed(annotationDocument)) {
+                // Exclude result if the retrieved document is a sourcedocument
+                // (that is, has annotationDocument = -1) AND it has a
+                // corresponding annotation document for this user
+                LOG.trace("Skipping results from indexed source document {} in"
+                        + "favor of results from the corresponding annotation "
+                        + "document", sourceDocument);
+                return null;
+            }
+
+            if (!matchInSourceDocument && !request.getUser().getUsername().equals(user)) {
+                // Exclude result if the retrieved document is an annotation
+                // document (that is, annotationDocument != -1 and its username
+                // is different from the querying user
+                LOG.trace(
+                        "Skipping results from annotation document for user [{}] "
+                                + "which does not match the requested user [{}]",
+                        user, request.getUser().getUsername());
+                return null;
+            }
+
+            return new MatchedDocument(sourceDocument, annotationDocument);
+        }
+    }
+
+    private record MatchedDocument(SourceDocument sourceDocument,
+            AnnotationDocument annotationDocument) {}
+
+    /**
+     * A match of a query within a segment. The document ID is local to the segment.
+     */
+    private record Hit(int docId, MatchedDocument document, int start, int end) {}
+
+    /**
+     * The matches of a query within a segment. The smallest source document ID of any document in
+     * the segment which matches the query determines the order in which segments are reported.
+     */
+    private record LeafHits(LeafReaderContext leafReaderContext, Long minSourceDocumentId,
+            List<Hit> hits) {}
+
+    private record GroupedResult(List<String> groups, SearchResult result) {}
+
+    private static final class IdentityFields
+    {
+        private final NumericDocValues sourceDocumentIds;
+        private final NumericDocValues annotationDocumentIds;
+        private final SortedDocValues users;
+        private final String[] userByOrd;
+
+        IdentityFields(LeafReader aReader) throws IOException
+        {
+            // These are null if the segment has been written before the fields had DocValues
+            sourceDocumentIds = aReader.getNumericDocValues(FIELD_SOURCE_DOCUMENT_ID);
+            annotationDocumentIds = aReader.getNumericDocValues(FIELD_ANNOTATION_DOCUMENT_ID);
+            users = aReader.getSortedDocValues(FIELD_USER);
+            userByOrd = users != null ? new String[users.getValueCount()] : null;
+        }
+
+        Long sourceDocumentId(int aDocId) throws IOException
+        {
+            return get(sourceDocumentIds, aDocId);
+        }
+
+        Long annotationDocumentId(int aDocId) throws IOException
+        {
+            return get(annotationDocumentIds, aDocId);
+        }
+
+        String user(int aDocId) throws IOException
+        {
+            if (users == null || !users.advanceExact(aDocId)) {
+                return null;
+            }
+
+            var ord = users.ordValue();
+            var user = userByOrd[ord];
+            if (user == null) {
+                user = users.lookupOrd(ord).utf8ToString();
+                userByOrd[ord] = user;
+            }
+            return user;
+        }
+
+        private static Long get(NumericDocValues aValues, int aDocId) throws IOException
+        {
+            if (aValues == null || !aValues.advanceExact(aDocId)) {
+                return null;
+            }
+
+            return aValues.longValue();
+        }
+    }
+
+    private record StatisticsCacheKey(long readerVersion, List<Integer> docs, Long minimum,
+            Long maximum) {}
 }
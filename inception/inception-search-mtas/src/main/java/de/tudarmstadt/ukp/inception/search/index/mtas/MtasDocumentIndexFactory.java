@@ -22,18 +22,26 @@
 package de.tudarmstadt.ukp.inception.search.index.mtas;
 
 import static de.tudarmstadt.ukp.inception.project.api.ProjectService.PROJECT_FOLDER;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.springframework.beans.factory.DisposableBean;
 
 import de.tudarmstadt.ukp.clarin.webanno.model.Project;
 import de.tudarmstadt.ukp.inception.documents.api.DocumentService;
 import de.tudarmstadt.ukp.inception.documents.api.RepositoryProperties;
+import de.tudarmstadt.ukp.inception.project.api.footprint.FootprintTracker;
 import de.tudarmstadt.ukp.inception.schema.api.feature.FeatureSupportRegistry;
 import de.tudarmstadt.ukp.inception.search.FeatureIndexingSupportRegistry;
+import de.tudarmstadt.ukp.inception.search.config.SearchServiceProperties;
 import de.tudarmstadt.ukp.inception.search.index.PhysicalIndex;
 import de.tudarmstadt.ukp.inception.search.index.PhysicalIndexFactoryImplBase;
 import de.tudarmstadt.ukp.inception.search.index.mtas.config.MtasDocumentIndexAutoConfiguration;
@@ -47,6 +55,7 @@ import de.tudarmstadt.ukp.inception.search.index.mtas.config.MtasDocumentIndexAu
  */
 public class MtasDocumentIndexFactory
     extends PhysicalIndexFactoryImplBase
+    implements DisposableBean
 {
     public static final String INDEX = "indexMtas";
 
@@ -54,16 +63,63 @@ public class MtasDocumentIndexFactory
     private final RepositoryProperties repositoryProperties;
     private final FeatureIndexingSupportRegistry featureIndexingSupportRegistry;
     private final FeatureSupportRegistry featureSupportRegistry;
+    private final FootprintTracker footprintTracker;
+    private final ExecutorService searchExecutor;
 
     public MtasDocumentIndexFactory(DocumentService aDocumentService,
             RepositoryProperties aRepositoryProperties,
             FeatureIndexingSupportRegistry aFeatureIndexingSupportRegistry,
             FeatureSupportRegistry aFeatureSupportRegistry)
     {
+        this(aDocumentService, aRepositoryProperties, aFeatureIndexingSupportRegistry,
+                aFeatureSupportRegistry, null);
+    }
+
+    public MtasDocumentIndexFactory(DocumentService aDocumentService,
+            RepositoryProperties aRepositoryProperties,
+            FeatureIndexingSupportRegistry aFeatureIndexingSupportRegistry,
+            FeatureSupportRegistry aFeatureSupportRegistry, FootprintTracker aFootprintTracker)
+    {
+        this(aDocumentService, aRepositoryProperties, aFeatureIndexingSupportRegistry,
+                aFeatureSupportRegistry, aFootprintTracker, null);
+    }
+
+    public MtasDocumentIndexFactory(DocumentService aDocumentService,
+            RepositoryProperties aRepositoryProperties,
+            FeatureIndexingSupportRegistry aFeatureIndexingSupportRegistry,
+            FeatureSupportRegistry aFeatureSupportRegistry, FootprintTracker aFootprintTracker,
+            SearchServiceProperties aSearchServiceProperties)
+    {
+        footprintTracker = aFootprintTracker;
         documentService = aDocumentService;
         repositoryProperties = aRepositoryProperties;
         featureIndexingSupportRegistry = aFeatureIndexingSupportRegistry;
         featureSupportRegistry = aFeatureSupportRegistry;
+
+        // The executor is shared by the indexes of all projects, so the number of threads used
+        // for searching is bounded no matter how many users search concurrently
+        var threads = aSearchServiceProperties != null ? aSearchServiceProperties.getQueryThreads()
+                : 0;
+        if (threads > 1) {
+            var executor = new ThreadPoolExecutor(threads, threads, 60, SECONDS,
+                    new LinkedBlockingQueue<>(), new BasicThreadFactory.Builder() //
+                            .daemon(true) //
+                            .namingPattern("mtas-search-%d") //
+                            .build());
+            executor.allowCoreThreadTimeOut(true);
+            searchExecutor = executor;
+        }
+        else {
+            searchExecutor = null;
+        }
+    }
+
+    @Override
+    public void destroy()
+    {
+        if (searchExecutor != null) {
+            searchExecutor.shutdownNow();
+        }
     }
 
     @Override
@@ -97,6 +153,7 @@ public class MtasDocumentIndexFactory
     public PhysicalIndex getPhysicalIndex(Project aProject)
     {
         return new MtasDocumentIndex(aProject, documentService, getIndexDir(aProject),
-                featureIndexingSupportRegistry, featureSupportRegistry);
+                featureIndexingSupportRegistry, featureSupportRegistry, footprintTracker,
+                searchExecutor);
     }
 }
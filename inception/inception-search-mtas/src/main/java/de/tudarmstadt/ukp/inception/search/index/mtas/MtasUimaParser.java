@@ -34,15 +34,13 @@ import static org.slf4j.LoggerFactory.getLogger;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.NavigableMap;
 import java.util.Optional;
-import java.util.TreeMap;
 
 import org.apache.commons.collections4.MultiValuedMap;
-import org.apache.commons.lang3.tuple.Pair;
 import org.apache.uima.UIMAException;
 import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.text.AnnotationFS;
@@ -110,8 +108,8 @@ public class MtasUimaParser
     private final Map<String, AnnotationLayer> layers = new HashMap<>();
     private final Map<String, List<AnnotationFeature>> layerFeatures = new HashMap<>();
 
-    private NavigableMap<Integer, Pair<AnnotationFS, Integer>> tokenBeginIndex;
-    private NavigableMap<Integer, Pair<AnnotationFS, Integer>> tokenEndIndex;
+    private TokenOffsetIndex tokenBeginIndex;
+    private TokenOffsetIndex tokenEndIndex;
 
     private AnnotationSearchState prefs;
 
@@ -237,13 +235,21 @@ public class MtasUimaParser
 
         // Build indexes over the token start and end positions such that we can quickly locate
         // tokens based on their offsets.
-        tokenBeginIndex = new TreeMap<>();
-        tokenEndIndex = new TreeMap<>();
-        for (AnnotationFS token : select(aJCas, getType(aJCas, Token.class))) {
-            tokenBeginIndex.put(token.getBegin(), Pair.of(token, tokenNum));
-            tokenEndIndex.put(token.getEnd(), Pair.of(token, tokenNum));
+        var tokens = select(aJCas, getType(aJCas, Token.class));
+        var tokenBegins = new int[tokens.size()];
+        var tokenEnds = new int[tokens.size()];
+        for (AnnotationFS token : tokens) {
+            tokenBegins[tokenNum] = token.getBegin();
+            tokenEnds[tokenNum] = token.getEnd();
             tokenNum++;
         }
+        tokenBeginIndex = new TokenOffsetIndex(tokenBegins);
+        tokenEndIndex = new TokenOffsetIndex(tokenEnds);
+
+        // Without tokens, we cannot determine the positions of any annotations
+        if (tokenNum == 0) {
+            return tokenCollection;
+        }
 
         // Loop over the annotations
         for (AnnotationFS annotation : selectAll(aJCas)) {
@@ -265,23 +271,18 @@ public class MtasUimaParser
         // 1) if the first token starts after the first char. For example, when there's
         // a space or line break in the beginning of the document.
         // 2) if the last token ends before the last char. Same as above.
-        Pair<AnnotationFS, Integer> beginToken;
-        if (tokenBeginIndex.floorEntry(aAnnotation.getBegin()) == null) {
-            beginToken = tokenBeginIndex.firstEntry().getValue();
-        }
-        else {
-            beginToken = tokenBeginIndex.floorEntry(aAnnotation.getBegin()).getValue();
+        int beginToken = tokenBeginIndex.floor(aAnnotation.getBegin());
+        if (beginToken == -1) {
+            beginToken = tokenBeginIndex.first();
         }
 
-        Pair<AnnotationFS, Integer> endToken;
-        if (tokenEndIndex.ceilingEntry(aAnnotation.getEnd()) == null) {
-            endToken = tokenEndIndex.lastEntry().getValue();
+        int endToken = tokenEndIndex.ceiling(aAnnotation.getEnd());
+        if (endToken == -1) {
+            endToken = tokenEndIndex.last();
         }
-        else {
-            endToken = tokenEndIndex.ceilingEntry(aAnnotation.getEnd()).getValue();
-        }
-        return new Range(beginToken.getValue(), endToken.getValue(), beginToken.getKey().getBegin(),
-                endToken.getKey().getEnd());
+
+        return new Range(tokenBeginIndex.token(beginToken), tokenEndIndex.token(endToken),
+                tokenBeginIndex.offset(beginToken), tokenEndIndex.offset(endToken));
     }
 
     private int indexAnnotation(MtasTokenCollection aTokenCollection, AnnotationFS aAnnotation,
@@ -517,6 +518,94 @@ public class MtasUimaParser
         return null;
     }
 
+    /**
+     * Maps token offsets to token numbers using sorted primitive arrays. If multiple tokens share
+     * the same offset, the token with the highest number is used.
+     */
+    static final class TokenOffsetIndex
+    {
+        private final int[] offsets;
+        private final int[] tokens;
+
+        /**
+         * @param aOffsets
+         *            the offsets of the tokens indexed by token number.
+         */
+        TokenOffsetIndex(int[] aOffsets)
+        {
+            // Sort the token numbers by offset and for equal offsets by token number
+            var order = new long[aOffsets.length];
+            for (int i = 0; i < aOffsets.length; i++) {
+                order[i] = ((long) aOffsets[i] << 32) | i;
+            }
+            Arrays.sort(order);
+
+            // Collapse tokens with equal offsets, keeping the one with the highest number
+            var offs = new int[order.length];
+            var toks = new int[order.length];
+            int n = 0;
+            for (var entry : order) {
+                int offset = (int) (entry >> 32);
+                int token = (int) entry;
+                if (n > 0 && offs[n - 1] == offset) {
+                    toks[n - 1] = token;
+                }
+                else {
+                    offs[n] = offset;
+                    toks[n] = token;
+                    n++;
+                }
+            }
+
+            offsets = Arrays.copyOf(offs, n);
+            tokens = Arrays.copyOf(toks, n);
+        }
+
+        /**
+         * @return the slot of the greatest offset less than or equal to the given offset or
+         *         {@code -1} if there is none.
+         */
+        int floor(int aOffset)
+        {
+            int i = Arrays.binarySearch(offsets, aOffset);
+            return i >= 0 ? i : -i - 2;
+        }
+
+        /**
+         * @return the slot of the least offset greater than or equal to the given offset or
+         *         {@code -1} if there is none.
+         */
+        int ceiling(int aOffset)
+        {
+            int i = Arrays.binarySearch(offsets, aOffset);
+            if (i >= 0) {
+                return i;
+            }
+            int insertionPoint = -i - 1;
+            return insertionPoint < offsets.length ? insertionPoint : -1;
+        }
+
+        int first()
+        {
+            return 0;
+        }
+
+        int last()
+        {
+            return offsets.length - 1;
+        }
+
+        int offset(int aSlot)
+        {
+            return offsets[aSlot];
+        }
+
+        int token(int aSlot)
+        {
+            return tokens[aSlot];
+        }
+    }
+
     private static class Range
     {
         private final int begin;
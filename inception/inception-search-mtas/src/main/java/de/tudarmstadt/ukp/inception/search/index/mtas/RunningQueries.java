@@ -0,0 +1,73 @@
+/*
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab and FG Language Technology
+ * Technische Universität Darmstadt
+ *
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+package de.tudarmstadt.ukp.inception.search.index.mtas;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * Keeps track of the queries running on an index, so that a new query can supersede a query of the
+ * same kind that the same requester still has running.
+ */
+class RunningQueries
+{
+    private final Map<Pair<String, String>, AtomicBoolean> queries = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a new query. If the requester still has a query of the same kind running, that
+     * query is flagged as cancelled. Queries without a requester are never flagged.
+     * 
+     * @param aRequester
+     *            the party issuing the query.
+     * @param aQueryKind
+     *            the kind of query (e.g. results or count).
+     * @return the cancellation flag of the new query.
+     */
+    AtomicBoolean start(Optional<String> aRequester, String aQueryKind)
+    {
+        var cancelled = new AtomicBoolean();
+
+        if (aRequester.isPresent()) {
+            var superseded = queries.put(Pair.of(aRequester.get(), aQueryKind), cancelled);
+            if (superseded != null) {
+                superseded.set(true);
+            }
+        }
+
+        return cancelled;
+    }
+
+    /**
+     * Unregisters a query that has completed, unless it has already been replaced by a newer query
+     * of the same requester.
+     */
+    @SuppressWarnings("javadoc")
+    void finish(Optional<String> aRequester, String aQueryKind, AtomicBoolean aCancelled)
+    {
+        aRequester.ifPresent(r -> queries.remove(Pair.of(r, aQueryKind), aCancelled));
+    }
+
+    int size()
+    {
+        return queries.size();
+    }
+}
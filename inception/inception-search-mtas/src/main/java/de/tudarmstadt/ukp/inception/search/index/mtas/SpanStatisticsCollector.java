@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.search.index.mtas;
+
+import static org.apache.lucene.queries.spans.SpanWeight.Postings.POSITIONS;
+import static org.apache.lucene.search.DocIdSetIterator.NO_MORE_DOCS;
+import static org.apache.lucene.search.ScoreMode.COMPLETE_NO_SCORES;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.queries.spans.SpanWeight;
+import org.apache.lucene.queries.spans.Spans;
+import org.apache.lucene.search.IndexSearcher;
+
+import de.tudarmstadt.ukp.inception.search.LayerStatistics;
+import mtas.search.spans.util.MtasSpanQuery;
+
+/**
+ * Collects per-document span counts for any number of queries in a single pass over the index.
+ * Each segment is processed by its own task on the task executor of the searcher, so segments are
+ * counted in parallel if the searcher has an executor. The resulting counts can then be summarized
+ * into {@link LayerStatistics} for any query, using one of the queries (typically the sentence
+ * query) as the per-sentence denominator.
+ */
+final class SpanStatisticsCollector
+{
+    private final IndexSearcher searcher;
+
+    SpanStatisticsCollector(IndexSearcher aSearcher)
+    {
+        searcher = aSearcher;
+    }
+
+    /**
+     * Counts the matches of the given queries in the given documents.
+     * 
+     * @param aQueries
+     *            the queries to count.
+     * @param aDocs
+     *            the global Lucene document IDs to consider. Deleted documents are skipped.
+     * @return the counts indexed by query and then by document. All arrays have the same length,
+     *         namely the number of live documents from the given set.
+     */
+    long[][] collect(List<MtasSpanQuery> aQueries, Collection<Integer> aDocs)
+        throws IOException
+    {
+        var leaves = searcher.getIndexReader().leaves();
+
+        var docs = aDocs.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+
+        // Partition the documents by segment, dropping deleted ones. The slices are contiguous
+        // in the result arrays, so each segment task can write its own range without locking.
+        var slices = new ArrayList<LeafSlice>();
+        var liveDocCount = 0;
+        var pos = 0;
+        for (var leaf : leaves) {
+            var end = leaf.docBase + leaf.reader().maxDoc();
+            var liveDocs = leaf.reader().getLiveDocs();
+            var localIds = new int[docs.length - pos];
+            var n = 0;
+            while (pos < docs.length && docs[pos] < end) {
+                var localId = docs[pos] - leaf.docBase;
+                if (localId >= 0 && (liveDocs == null || liveDocs.get(localId))) {
+                    localIds[n++] = localId;
+                }
+                pos++;
+            }
+
+            if (n > 0) {
+                slices.add(new LeafSlice(leaf, Arrays.copyOf(localIds, n), liveDocCount));
+                liveDocCount += n;
+            }
+        }
+
+        var weights = new SpanWeight[aQueries.size()];
+        for (var i = 0; i < weights.length; i++) {
+            weights[i] = aQueries.get(i).rewrite(searcher).createWeight(searcher,
+                    COMPLETE_NO_SCORES, 0.0f);
+        }
+
+        var counts = new long[weights.length][liveDocCount];
+
+        var tasks = new ArrayList<Callable<Void>>(slices.size());
+        for (var slice : slices) {
+            tasks.add(() -> {
+                countSlice(weights, slice, counts);
+                return null;
+            });
+        }
+        searcher.getTaskExecutor().invokeAll(tasks);
+
+        return counts;
+    }
+
+    private static void countSlice(SpanWeight[] aWeights, LeafSlice aSlice, long[][] aCounts)
+        throws IOException
+    {
+        for (var q = 0; q < aWeights.length; q++) {
+            var spans = aWeights[q].getSpans(aSlice.leaf(), POSITIONS);
+            if (spans == null) {
+                continue;
+            }
+
+            var localIds = aSlice.localIds();
+            var target = aCounts[q];
+            for (var i = 0; i < localIds.length; i++) {
+                var localId = localIds[i];
+                if (spans.docID() < localId) {
+                    if (spans.advance(localId) == NO_MORE_DOCS) {
+                        break;
+                    }
+                }
+                if (spans.docID() != localId) {
+                    continue;
+                }
+
+                var perDocCount = 0L;
+                while (spans.nextStartPosition() != Spans.NO_MORE_POSITIONS) {
+                    perDocCount++;
+                }
+                target[aSlice.offset() + i] = perDocCount;
+            }
+        }
+    }
+
+    /**
+     * Summarizes the per-document counts of a query. Like the default function of MTAS statistics,
+     * documents are only included if the sum of the query count and the sentence count lies
+     * within the given bounds. The per-sentence value of a document without sentences is zero.
+     * 
+     * @param aCounts
+     *            the per-document counts of the query.
+     * @param aSentenceCounts
+     *            the per-document sentence counts.
+     * @param aMinimum
+     *            the lower bound or {@code null}.
+     * @param aMaximum
+     *            the upper bound or {@code null}.
+     * @return the statistics.
+     */
+    static LayerStatistics summarize(long[] aCounts, long[] aSentenceCounts, Long aMinimum,
+            Long aMaximum)
+    {
+        var perDoc = new DescriptiveStatistics();
+        var perSentence = new DescriptiveStatistics();
+
+        for (var i = 0; i < aCounts.length; i++) {
+            var value = aCounts[i] + aSentenceCounts[i];
+            if ((aMinimum != null && value < aMinimum) || (aMaximum != null && value > aMaximum)) {
+                continue;
+            }
+
+            perDoc.addValue(aCounts[i]);
+            perSentence.addValue(
+                    aSentenceCounts[i] > 0 ? (double) aCounts[i] / aSentenceCounts[i] : 0.0);
+        }
+
+        return new LayerStatistics(perDoc.getSum(), perDoc.getMax(), perDoc.getMin(),
+                perDoc.getMean(), perDoc.getPercentile(50), perDoc.getStandardDeviation(),
+                perSentence.getSum(), perSentence.getMax(), perSentence.getMin(),
+                perSentence.getMean(), perSentence.getPercentile(50),
+                perSentence.getStandardDeviation(), perDoc.getN());
+    }
+
+    private record LeafSlice(LeafReaderContext leaf, int[] localIds, int offset) {}
+}
@@ -30,6 +30,8 @@ import de.tudarmstadt.ukp.inception.search.index.mtas.MtasDocumentIndexFactory;
 public class MtasDocumentIndexFootprintProvider
     implements FootprintProvider
 {
+    public static final String FOOTPRINT_ANNOTATION_INDEX = "Annotation index";
+
     private final MtasDocumentIndexFactory mtasDocumentIndexFactory;
 
     public MtasDocumentIndexFootprintProvider(MtasDocumentIndexFactory aMtasDocumentIndexFactory)
@@ -56,7 +58,7 @@ public class MtasDocumentIndexFootprintProvider
         try {
             var totalIndexSize = mtasDocumentIndexFactory.getIndexSize(aProject);
             return asList( //
-                    new Footprint("Annotation index", totalIndexSize, "pink"));
+                    new Footprint(FOOTPRINT_ANNOTATION_INDEX, totalIndexSize, "pink"));
         }
         catch (Exception e) {
             return emptyList();
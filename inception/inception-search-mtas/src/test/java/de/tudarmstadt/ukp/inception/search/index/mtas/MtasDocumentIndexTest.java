@@ -35,11 +35,14 @@ import java.io.ByteArrayInputStream;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.lucene.index.DirectoryReader;
@@ -109,13 +112,13 @@ import de.tudarmstadt.ukp.inception.scheduling.config.SchedulingServiceAutoConfi
 import de.tudarmstadt.ukp.inception.schema.config.AnnotationSchemaServiceAutoConfiguration;
 import de.tudarmstadt.ukp.inception.search.ExecutionException;
 import de.tudarmstadt.ukp.inception.search.LayerStatistics;
+import de.tudarmstadt.ukp.inception.search.SearchQueryRequest;
 import de.tudarmstadt.ukp.inception.search.SearchResult;
 import de.tudarmstadt.ukp.inception.search.SearchServiceImpl;
 import de.tudarmstadt.ukp.inception.search.config.SearchServiceAutoConfiguration;
 import de.tudarmstadt.ukp.inception.search.index.mtas.config.MtasDocumentIndexAutoConfiguration;
 import de.tudarmstadt.ukp.inception.search.model.Index;
 import de.tudarmstadt.ukp.inception.support.spring.ApplicationContextProvider;
-import de.tudarmstadt.ukp.inception.support.uima.WebAnnoCasUtil;
 
 @EnableAutoConfiguration
 @EntityScan({ //
@@ -411,6 +414,46 @@ class MtasDocumentIndexTest
         assertThat(results).containsExactly(expectedResult);
     }
 
+    @Test
+    void thatConcurrentQueriesOfDifferentRequestersAllSucceed() throws Exception
+    {
+        var project = new Project("concurrent-requesters");
+
+        createProject(project);
+
+        var sourceDocument = new SourceDocument("Raw text document", project, "text");
+
+        uploadAndIndexDocument(Pair.of(sourceDocument,
+                "The capital of Galicia is Santiago de Compostela."));
+
+        // Both requesters search the data of the same user, e.g. the user in two browser tabs or
+        // a curator looking at the annotations of the user
+        var requesters = List.of("tab-1", "tab-2", "curator");
+        var executor = Executors.newFixedThreadPool(requesters.size());
+        try {
+            var futures = new ArrayList<Future<Map<String, List<SearchResult>>>>();
+            for (var requester : requesters) {
+                var request = SearchQueryRequest.builder() //
+                        .withProject(project) //
+                        .withUser(user) //
+                        .withQuery("Galicia") //
+                        .withRequester(requester) //
+                        .build();
+                futures.add(executor.submit(() -> searchService.query(request)));
+            }
+
+            for (var future : futures) {
+                assertThat(future.get(60, SECONDS).values()) //
+                        .flatMap(results -> results) //
+                        .extracting(SearchResult::getText) //
+                        .containsExactly("Galicia");
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     void thatLastTokenInDocumentCanBeFound() throws Exception
     {
@@ -802,7 +845,7 @@ class MtasDocumentIndexTest
 
     /**
      * Reproducer for the timestamp-collision race in
-     * {@link MtasDocumentIndex#indexDocument(de.tudarmstadt.ukp.clarin.webanno.model.AnnotationDocument, byte[])}.
+     * {@link MtasDocumentIndex#indexDocument(de.tudarmstadt.ukp.clarin.webanno.model.AnnotationDocument, org.apache.uima.cas.CAS)}.
      * The previous {@code addDocument(ts=T)} → {@code deleteDocuments(FIELD_ID=X AND ts != T)}
      * pattern was meant to keep at least one row visible during re-indexing, but when two writes
      * land on the same millisecond — easy on Windows with its ~15ms clock granularity, and forced
@@ -830,8 +873,8 @@ class MtasDocumentIndexTest
         MtasDocumentIndex.nowSupplier = () -> fixedDate;
         try {
             // Two synchronous annotator writes sharing one millisecond timestamp.
-            searchService.indexDocument(annoDoc, WebAnnoCasUtil.casToByteArray(buildTokenCas(3)));
-            searchService.indexDocument(annoDoc, WebAnnoCasUtil.casToByteArray(buildTokenCas(5)));
+            searchService.indexDocument(annoDoc, buildTokenCas(3));
+            searchService.indexDocument(annoDoc, buildTokenCas(5));
 
             // Force commit + searcher refresh.
             searchService.query(user, project, "x");
@@ -846,6 +889,31 @@ class MtasDocumentIndexTest
                 .isEqualTo(1);
     }
 
+    @Test
+    void thatParserFailureDoesNotIndexEmptyDocument() throws Exception
+    {
+        var project = new Project("anno-parser-failure");
+        createProject(project);
+
+        var doc = new SourceDocument("doc", project, "text");
+        uploadAndIndexDocument(Pair.of(doc, "Goodbye moon. Hello World."));
+
+        var persistedDoc = documentService.getSourceDocument(project, doc.getName());
+        var annoDoc = documentService.createOrGetAnnotationDocument(persistedDoc, user);
+
+        // Without the token type, the parser cannot build a token collection
+        var brokenCas = JCasFactory.createJCas(getInternalTypeSystem()).getCas();
+        searchService.indexDocument(annoDoc, brokenCas);
+
+        // Force commit + searcher refresh.
+        searchService.query(user, project, "x");
+
+        var fieldId = persistedDoc.getId() + "/" + annoDoc.getId();
+        assertThat(countLiveRowsByFieldId(project, fieldId)) //
+                .as("Document that could not be parsed must not be indexed with a timestamp") //
+                .isZero();
+    }
+
     @Test
     void thatStaleSchemaVersionTriggersLazyReindex() throws Exception
     {
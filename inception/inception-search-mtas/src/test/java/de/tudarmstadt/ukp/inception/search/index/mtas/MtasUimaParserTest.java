@@ -420,6 +420,24 @@ public class MtasUimaParserTest
                         "Dependency-target.PosValue=B");
     }
 
+    @Test
+    public void thatTokenOffsetIndexFindsFloorAndCeiling()
+    {
+        // Token 1 and 2 start at the same offset - the later token wins as it did with the map
+        var sut = new MtasUimaParser.TokenOffsetIndex(new int[] { 0, 5, 5, 10 });
+
+        assertThat(sut.token(sut.floor(7))).isEqualTo(2);
+        assertThat(sut.offset(sut.floor(7))).isEqualTo(5);
+        assertThat(sut.token(sut.floor(10))).isEqualTo(3);
+        assertThat(sut.floor(-1)).isEqualTo(-1);
+
+        assertThat(sut.token(sut.ceiling(1))).isEqualTo(2);
+        assertThat(sut.token(sut.ceiling(0))).isEqualTo(0);
+        assertThat(sut.ceiling(11)).isEqualTo(-1);
+
+        assertThat(sut.token(sut.last())).isEqualTo(3);
+    }
+
     private List<MtasToken> toList(MtasTokenCollection result) throws MtasParserException
     {
         var tokens = new ArrayList<MtasToken>();
@@ -66,6 +66,7 @@ import de.tudarmstadt.ukp.inception.search.FeatureIndexingSupportRegistry;
 import de.tudarmstadt.ukp.inception.search.config.SearchServiceAutoConfiguration;
 import de.tudarmstadt.ukp.inception.search.index.IndexRebuildRequiredException;
 import de.tudarmstadt.ukp.inception.support.spring.ApplicationContextProvider;
+import de.tudarmstadt.ukp.inception.support.uima.WebAnnoCasUtil;
 
 @Transactional
 @DataJpaTest( //
@@ -156,7 +157,7 @@ public class MtasUpgradeTest
     {
         var binCas = createBinaryCasDocument(0, "test.txt",
                 "This is a test . This is sentence two .");
-        index.indexDocument(annDoc, binCas);
+        index.indexDocument(annDoc, WebAnnoCasUtil.byteArrayToCas(binCas));
     }
 
     @Test
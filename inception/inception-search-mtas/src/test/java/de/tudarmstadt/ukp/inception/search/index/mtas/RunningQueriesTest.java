@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.search.index.mtas;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+class RunningQueriesTest
+{
+    private static final String RESULTS = "results";
+    private static final String COUNT = "count";
+
+    @Test
+    void thatNewerQueryOfSameRequesterCancelsPredecessor()
+    {
+        var sut = new RunningQueries();
+
+        var first = sut.start(Optional.of("session-1:search"), RESULTS);
+        var second = sut.start(Optional.of("session-1:search"), RESULTS);
+
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+
+        // The superseded query completing must not unregister its successor
+        sut.finish(Optional.of("session-1:search"), RESULTS, first);
+        assertThat(sut.size()).isEqualTo(1);
+
+        var third = sut.start(Optional.of("session-1:search"), RESULTS);
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+    }
+
+    @Test
+    void thatQueriesOfDifferentRequestersDoNotCancelEachOther()
+    {
+        var sut = new RunningQueries();
+
+        var tab1 = sut.start(Optional.of("session-1:page-1"), RESULTS);
+        var tab2 = sut.start(Optional.of("session-1:page-2"), RESULTS);
+        var curator = sut.start(Optional.of("session-2:page-1"), RESULTS);
+
+        assertThat(tab1).isFalse();
+        assertThat(tab2).isFalse();
+        assertThat(curator).isFalse();
+    }
+
+    @Test
+    void thatQueriesOfDifferentKindsDoNotCancelEachOther()
+    {
+        var sut = new RunningQueries();
+
+        var results = sut.start(Optional.of("session-1:search"), RESULTS);
+        var count = sut.start(Optional.of("session-1:search"), COUNT);
+
+        assertThat(results).isFalse();
+        assertThat(count).isFalse();
+    }
+
+    @Test
+    void thatQueriesWithoutRequesterAreNeverCancelled()
+    {
+        var sut = new RunningQueries();
+
+        var first = sut.start(Optional.empty(), RESULTS);
+        var second = sut.start(Optional.empty(), RESULTS);
+
+        assertThat(first).isFalse();
+        assertThat(second).isFalse();
+        assertThat(sut.size()).isZero();
+
+        sut.finish(Optional.empty(), RESULTS, first);
+    }
+
+    @Test
+    void thatFinishedQueriesAreUnregistered()
+    {
+        var sut = new RunningQueries();
+
+        var query = sut.start(Optional.of("session-1:search"), RESULTS);
+        sut.finish(Optional.of("session-1:search"), RESULTS, query);
+
+        assertThat(sut.size()).isZero();
+        assertThat(query).isFalse();
+    }
+}
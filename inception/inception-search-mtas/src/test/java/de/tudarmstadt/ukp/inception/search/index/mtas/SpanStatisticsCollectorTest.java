@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.search.index.mtas;
+
+import static de.tudarmstadt.ukp.inception.search.index.mtas.SpanStatisticsCollector.summarize;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+
+class SpanStatisticsCollectorTest
+{
+    @Test
+    void thatCountsAreSummarizedPerDocumentAndPerSentence()
+    {
+        // Two documents with 9 and 6 tokens and 1 and 2 sentences respectively
+        var stats = summarize(new long[] { 9, 6 }, new long[] { 1, 2 }, null, null);
+
+        assertThat(stats.getNoOfDocuments()).isEqualTo(2.0);
+        assertThat(stats.getSum()).isEqualTo(15.0);
+        assertThat(stats.getMaximum()).isEqualTo(9.0);
+        assertThat(stats.getMinimum()).isEqualTo(6.0);
+        assertThat(stats.getMean()).isEqualTo(7.5);
+        assertThat(stats.getMedian()).isEqualTo(7.5);
+        assertThat(stats.getStandardDeviation()).isCloseTo(Math.sqrt(4.5), within(1e-9));
+        assertThat(stats.getSumPerSentence()).isEqualTo(12.0);
+        assertThat(stats.getMaximumPerSentence()).isEqualTo(9.0);
+        assertThat(stats.getMinimumPerSentence()).isEqualTo(3.0);
+        assertThat(stats.getMeanPerSentence()).isEqualTo(6.0);
+        assertThat(stats.getMedianPerSentence()).isEqualTo(6.0);
+        assertThat(stats.getStandardDeviationPerSentence()).isCloseTo(Math.sqrt(18),
+                within(1e-9));
+    }
+
+    @Test
+    void thatDocumentsWithoutSentencesCountAsZeroPerSentence()
+    {
+        var stats = summarize(new long[] { 4, 2 }, new long[] { 0, 2 }, null, null);
+
+        assertThat(stats.getSum()).isEqualTo(6.0);
+        assertThat(stats.getSumPerSentence()).isEqualTo(1.0);
+        assertThat(stats.getMinimumPerSentence()).isEqualTo(0.0);
+    }
+
+    @Test
+    void thatDocumentsOutsideBoundsAreSkipped()
+    {
+        var stats = summarize(new long[] { 9, 6, 1 }, new long[] { 1, 2, 1 }, 5L, 9L);
+
+        assertThat(stats.getNoOfDocuments()).isEqualTo(1.0);
+        assertThat(stats.getSum()).isEqualTo(6.0);
+    }
+}
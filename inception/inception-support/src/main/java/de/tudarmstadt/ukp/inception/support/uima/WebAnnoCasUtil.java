@@ -48,6 +48,7 @@ import org.apache.uima.cas.FSIterator;
 import org.apache.uima.cas.Feature;
 import org.apache.uima.cas.FeatureStructure;
 import org.apache.uima.cas.Type;
+import org.apache.uima.cas.TypeSystem;
 import org.apache.uima.cas.impl.CASCompleteSerializer;
 import org.apache.uima.cas.impl.CASImpl;
 import org.apache.uima.cas.impl.CASMgrSerializer;
@@ -95,6 +96,23 @@ public class WebAnnoCasUtil
         return cas;
     }
 
+    /**
+     * Creates a new CAS using the given (committed) type system. In contrast to
+     * {@link #createCas(TypeSystemDescription)}, the type system does not need to be compiled again
+     * and all CASes created this way share the same type system instance.
+     */
+    public static CAS createCas(TypeSystem aTypeSystem) throws ResourceInitializationException
+    {
+        CAS cas = CasCreationUtils.createCas(aTypeSystem, null, null, null);
+
+        if (ENFORCE_CAS_THREAD_LOCK) {
+            cas = (CAS) Proxy.newProxyInstance(cas.getClass().getClassLoader(),
+                    new Class[] { CAS.class }, new ThreadLockingInvocationHandler(cas));
+        }
+
+        return cas;
+    }
+
     public static CAS createCas() throws ResourceInitializationException
     {
         return createCas(null);
@@ -41,6 +41,7 @@ import de.tudarmstadt.ukp.inception.ui.curation.sidebar.CurationEditorExtension;
 import de.tudarmstadt.ukp.inception.ui.curation.sidebar.CurationSidebarFactory;
 import de.tudarmstadt.ukp.inception.ui.curation.sidebar.CurationSidebarService;
 import de.tudarmstadt.ukp.inception.ui.curation.sidebar.CurationSidebarServiceImpl;
+import de.tudarmstadt.ukp.inception.ui.curation.sidebar.render.CurationDiffCache;
 import de.tudarmstadt.ukp.inception.ui.curation.sidebar.render.CurationSidebarRenderer;
 
 @ConditionalOnWebApplication
@@ -83,15 +84,20 @@ public class CurationSidebarAutoConfiguration
                 aCurationSidebarProperties);
     }
 
+    @Bean
+    public CurationDiffCache curationDiffCache(DocumentService aDocumentService,
+            AnnotationSchemaService aAnnotationService, DiffAdapterRegistry aDiffAdapterRegistry)
+    {
+        return new CurationDiffCache(aDocumentService, aAnnotationService, aDiffAdapterRegistry);
+    }
+
     @Bean
     public CurationSidebarRenderer curationSidebarRenderer(
             CurationSessionService aCurationSessionService, CurationSidebarService aCurationService,
-            LayerSupportRegistry aLayerSupportRegistry, DocumentService aDocumentService,
-            UserDao aUserRepository, AnnotationSchemaService aAnnotationService,
-            DiffAdapterRegistry aDiffAdapterRegistry)
+            LayerSupportRegistry aLayerSupportRegistry, UserDao aUserRepository,
+            AnnotationSchemaService aAnnotationService, CurationDiffCache aCurationDiffCache)
     {
         return new CurationSidebarRenderer(aCurationSessionService, aCurationService,
-                aLayerSupportRegistry, aDocumentService, aUserRepository, aAnnotationService,
-                aDiffAdapterRegistry);
+                aLayerSupportRegistry, aUserRepository, aAnnotationService, aCurationDiffCache);
     }
 }
@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.ui.curation.sidebar.render;
+
+import static de.tudarmstadt.ukp.clarin.webanno.api.casstorage.CasAccessMode.UNMANAGED_ACCESS;
+import static de.tudarmstadt.ukp.clarin.webanno.api.casstorage.CasUpgradeMode.NO_CAS_UPGRADE;
+import static de.tudarmstadt.ukp.clarin.webanno.curation.casdiff.CasDiff.doDiff;
+import static de.tudarmstadt.ukp.inception.support.uima.WebAnnoCasUtil.getRealCas;
+import static java.time.Duration.ofMinutes;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.impl.CASImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import de.tudarmstadt.ukp.clarin.webanno.curation.casdiff.CasDiff;
+import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationLayer;
+import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationSet;
+import de.tudarmstadt.ukp.clarin.webanno.model.SourceDocument;
+import de.tudarmstadt.ukp.inception.curation.api.DiffAdapterRegistry;
+import de.tudarmstadt.ukp.inception.documents.api.DocumentService;
+import de.tudarmstadt.ukp.inception.documents.event.AfterCasWrittenEvent;
+import de.tudarmstadt.ukp.inception.schema.api.AnnotationSchemaService;
+import de.tudarmstadt.ukp.inception.ui.curation.sidebar.config.CurationSidebarAutoConfiguration;
+
+/**
+ * Caches the diff between the annotators shown in the curation sidebar. The diff is scoped to the
+ * render window and calculated only once per change of any of the involved annotator CASes. The
+ * annotator CASes themselves are cached per annotator, so if one annotator changes their CAS, only
+ * that CAS needs to be loaded again.
+ * <p>
+ * The CAS of the curator is deliberately not part of the cached diff. It changes with every
+ * curation action and is added to a copy of the cached diff on every render request (see
+ * {@link CasDiff#extend}). It is thus added last instead of first. This only affects the order of
+ * the configurations. The representative of a configuration is chosen by CAS group ID and does not
+ * depend on the order in which the CASes were added.
+ * </p>
+ * <p>
+ * The annotator CASes are bounded by their approximate size. A diff is dropped together with any
+ * of the CASes it was calculated from, so cached diffs do not retain CASes on their own.
+ * </p>
+ * <p>
+ * This class is exposed as a Spring Component via
+ * {@link CurationSidebarAutoConfiguration#curationDiffCache}.
+ * </p>
+ */
+public class CurationDiffCache
+{
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    // The CASes are weighed by the number of their feature structures
+    private static final long MAX_CAS_WEIGHT = 2_000_000;
+    private static final int MAX_DIFFS = 100;
+
+    private static final long NO_TIMESTAMP = -1;
+
+    private final DocumentService documentService;
+    private final AnnotationSchemaService schemaService;
+    private final DiffAdapterRegistry diffAdapterRegistry;
+
+    private final Cache<CasKey, CAS> casCache;
+    private final Cache<DiffKey, CasDiff> diffCache;
+
+    public CurationDiffCache(DocumentService aDocumentService,
+            AnnotationSchemaService aSchemaService, DiffAdapterRegistry aDiffAdapterRegistry)
+    {
+        documentService = aDocumentService;
+        schemaService = aSchemaService;
+        diffAdapterRegistry = aDiffAdapterRegistry;
+
+        diffCache = Caffeine.newBuilder() //
+                .maximumSize(MAX_DIFFS) //
+                .expireAfterAccess(ofMinutes(10)) //
+                .build();
+
+        // The diffs refer to the CASes they were calculated from. When a CAS is dropped, the diffs
+        // using it are dropped as well, so the diffs never keep CASes in memory beyond the bound
+        // of the CAS cache.
+        casCache = Caffeine.newBuilder() //
+                .maximumWeight(MAX_CAS_WEIGHT) //
+                .weigher((CasKey key, CAS cas) -> weigh(cas)) //
+                .expireAfterAccess(ofMinutes(10)) //
+                .removalListener((CasKey key, CAS cas, RemovalCause cause) -> {
+                    if (key != null) {
+                        invalidateDiffs(key);
+                    }
+                }) //
+                .build();
+    }
+
+    /**
+     * Obtains the diff between the given data owners for the given window of the given document.
+     * The returned diff is shared and must not be modified. Use {@link CasDiff#extend} to add
+     * further CASes to it.
+     * 
+     * @param aDocument
+     *            the document.
+     * @param aDataOwners
+     *            the data owners whose annotations should be compared.
+     * @param aLayers
+     *            the layers to compare.
+     * @param aWindowBegin
+     *            the begin of the window.
+     * @param aWindowEnd
+     *            the end of the window.
+     * @return the diff.
+     */
+    public CasDiff getDiff(SourceDocument aDocument, Collection<AnnotationSet> aDataOwners,
+            List<AnnotationLayer> aLayers, int aWindowBegin, int aWindowEnd)
+    {
+        var timestamps = new TreeMap<String, Long>();
+        for (var dataOwner : aDataOwners) {
+            timestamps.put(dataOwner.id(), getTimestamp(aDocument, dataOwner));
+        }
+
+        var layerIds = aLayers.stream().map(AnnotationLayer::getId).sorted().toList();
+        var key = new DiffKey(aDocument.getId(),
+                schemaService.getSchemaVersion(aDocument.getProject()), timestamps, layerIds,
+                aWindowBegin, aWindowEnd);
+
+        return diffCache.get(key, k -> {
+            var casses = new LinkedHashMap<String, CAS>();
+            for (var dataOwner : aDataOwners) {
+                var cas = getCas(aDocument, dataOwner, timestamps.get(dataOwner.id()));
+                if (cas != null) {
+                    casses.put(dataOwner.id(), cas);
+                }
+            }
+
+            var adapters = diffAdapterRegistry.getDiffAdapters(aLayers);
+            return doDiff(adapters, casses, aWindowBegin, aWindowEnd);
+        });
+    }
+
+    private long getTimestamp(SourceDocument aDocument, AnnotationSet aDataOwner)
+    {
+        try {
+            return documentService.getAnnotationCasTimestamp(aDocument, aDataOwner)
+                    .orElse(NO_TIMESTAMP);
+        }
+        catch (IOException e) {
+            LOG.error("Unable to obtain CAS timestamp for data owner [{}] on {}", aDataOwner,
+                    aDocument, e);
+            return NO_TIMESTAMP;
+        }
+    }
+
+    private CAS getCas(SourceDocument aDocument, AnnotationSet aDataOwner, long aTimestamp)
+    {
+        // The cached CASes are private copies. CASes obtained with exclusive access are returned
+        // to the exclusive access pool and may be modified by other sessions, so they must not be
+        // retained beyond the current request.
+        var key = new CasKey(aDocument.getId(), aDataOwner.id(), aTimestamp);
+        return casCache.get(key, k -> {
+            try {
+                return documentService.readAnnotationCas(aDocument, aDataOwner, NO_CAS_UPGRADE,
+                        UNMANAGED_ACCESS);
+            }
+            catch (IOException e) {
+                LOG.error("Could not retrieve CAS for data owner [{}] in project {}", aDataOwner,
+                        aDocument.getProject(), e);
+                return null;
+            }
+        });
+    }
+
+    private void invalidateDiffs(CasKey aKey)
+    {
+        diffCache.asMap().keySet().removeIf(key -> key.documentId() == aKey.documentId()
+                && Objects.equals(key.timestamps().get(aKey.dataOwner()), aKey.timestamp()));
+    }
+
+    private static int weigh(CAS aCas)
+    {
+        return Math.max(1, ((CASImpl) getRealCas(aCas)).getLastUsedFsId());
+    }
+
+    @EventListener
+    public void onAfterCasWritten(AfterCasWrittenEvent aEvent)
+    {
+        var docId = aEvent.getDocument().getDocument().getId();
+        var dataOwner = aEvent.getDocument().getUser();
+
+        // The timestamp of the written CAS has changed, so entries for the previous state cannot
+        // be hit anymore. We drop them right away to release the memory they occupy.
+        casCache.asMap().keySet()
+                .removeIf(key -> key.documentId() == docId && key.dataOwner().equals(dataOwner));
+        diffCache.asMap().keySet().removeIf(key -> key.documentId() == docId
+                && key.timestamps().containsKey(dataOwner));
+    }
+
+    private record CasKey(long documentId, String dataOwner, long timestamp) {}
+
+    private record DiffKey(long documentId, long schemaVersion, Map<String, Long> timestamps,
+            List<Long> layerIds, int windowBegin, int windowEnd) {}
+}
@@ -17,7 +17,6 @@
  */
 package de.tudarmstadt.ukp.inception.ui.curation.sidebar.render;
 
-import static de.tudarmstadt.ukp.clarin.webanno.curation.casdiff.CasDiff.doDiff;
 import static de.tudarmstadt.ukp.clarin.webanno.model.Mode.ANNOTATION;
 import static de.tudarmstadt.ukp.inception.rendering.Renderer.REL_EXTENSION_ID;
 import static java.util.function.Function.identity;
@@ -27,10 +26,8 @@ import static org.apache.uima.cas.text.AnnotationPredicates.colocated;
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.List;
 
-import org.apache.uima.cas.CAS;
 import org.apache.uima.jcas.tcas.Annotation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,8 +44,6 @@ import de.tudarmstadt.ukp.clarin.webanno.security.UserDao;
 import de.tudarmstadt.ukp.inception.annotation.layer.span.api.SpanPosition;
 import de.tudarmstadt.ukp.inception.curation.api.CurationSessionService;
 import de.tudarmstadt.ukp.inception.curation.api.CurationVID;
-import de.tudarmstadt.ukp.inception.curation.api.DiffAdapterRegistry;
-import de.tudarmstadt.ukp.inception.documents.api.DocumentService;
 import de.tudarmstadt.ukp.inception.rendering.pipeline.RenderStep;
 import de.tudarmstadt.ukp.inception.rendering.request.RenderRequest;
 import de.tudarmstadt.ukp.inception.rendering.vmodel.VArc;
@@ -83,23 +78,21 @@ public class CurationSidebarRenderer
     private final CurationSessionService curationSessionService;
     private final CurationSidebarService curationService;
     private final LayerSupportRegistry layerSupportRegistry;
-    private final DocumentService documentService;
     private final UserDao userRepository;
     private final AnnotationSchemaService annotationService;
-    private final DiffAdapterRegistry diffAdapterRegistry;
+    private final CurationDiffCache curationDiffCache;
 
     public CurationSidebarRenderer(CurationSessionService aCurationSessionService,
             CurationSidebarService aCurationService, LayerSupportRegistry aLayerSupportRegistry,
-            DocumentService aDocumentService, UserDao aUserRepository,
-            AnnotationSchemaService aAnnotationService, DiffAdapterRegistry aDiffAdapterRegistry)
+            UserDao aUserRepository, AnnotationSchemaService aAnnotationService,
+            CurationDiffCache aCurationDiffCache)
     {
         curationSessionService = aCurationSessionService;
         curationService = aCurationService;
         layerSupportRegistry = aLayerSupportRegistry;
-        documentService = aDocumentService;
         userRepository = aUserRepository;
         annotationService = aAnnotationService;
-        diffAdapterRegistry = aDiffAdapterRegistry;
+        curationDiffCache = aCurationDiffCache;
     }
 
     @Override
@@ -343,15 +336,20 @@ public class CurationSidebarRenderer
 
     private CasDiff createDiff(RenderRequest aRequest, List<AnnotationSet> selectedDataOwners)
     {
-        // The editable target CAS goes first, then the read-only CASes of the other data owners.
-        var casses = new LinkedHashMap<String, CAS>();
-        casses.put(aRequest.getAnnotationUser().getUsername(), aRequest.getCas());
-        documentService.readAllAnnotationCases(aRequest.getSourceDocument(), selectedDataOwners)
-                .forEach(casses::putIfAbsent);
-
-        var adapters = diffAdapterRegistry.getDiffAdapters(aRequest.getVisibleLayers());
-        return doDiff(adapters, casses, aRequest.getWindowBeginOffset(),
+        var targetUser = aRequest.getAnnotationUser().getUsername();
+
+        // The diff between the other data owners only changes when one of them changes their
+        // annotations, so it is cached. The editable target CAS changes with every curation action
+        // and is added to (a copy of) the cached diff on every request.
+        var dataOwners = selectedDataOwners.stream() //
+                .filter(dataOwner -> !dataOwner.id().equals(targetUser)) //
+                .toList();
+
+        var diff = curationDiffCache.getDiff(aRequest.getSourceDocument(), dataOwners,
+                aRequest.getVisibleLayers(), aRequest.getWindowBeginOffset(),
                 aRequest.getWindowEndOffset());
+
+        return diff.extend(targetUser, aRequest.getCas());
     }
 
     private void resolveArcEndpoints(String aTargetUser, DiffResult aDiff, boolean showAll,
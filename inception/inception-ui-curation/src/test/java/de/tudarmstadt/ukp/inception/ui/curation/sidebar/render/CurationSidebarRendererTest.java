@@ -162,8 +162,8 @@ class CurationSidebarRendererTest
         diffAdapterRegistry = new DiffAdapterRegistryImpl(schemaService, diffSupportRegistry);
 
         sut = new CurationSidebarRenderer(curationSessionService, curationService,
-                layerSupportRegistry, documentService, userRepository, schemaService,
-                diffAdapterRegistry);
+                layerSupportRegistry, userRepository, schemaService,
+                new CurationDiffCache(documentService, schemaService, diffAdapterRegistry));
 
         curator = User.builder() //
                 .withUsername(CURATION_USER) //
@@ -722,7 +722,9 @@ class CurationSidebarRendererTest
         var annotatorCasses = new LinkedHashMap<String, CAS>();
         annotatorCasses.put(anno1.getUsername(), anno1Cas);
         annotatorCasses.put(anno2.getUsername(), anno2Cas);
-        when(documentService.readAllAnnotationCases(any(), any())).thenReturn(annotatorCasses);
+        when(documentService.readAnnotationCas(any(SourceDocument.class), any(AnnotationSet.class),
+                any(), any())).thenAnswer(
+                        call -> annotatorCasses.get(call.getArgument(1, AnnotationSet.class).id()));
 
         return RenderRequest.builder() //
                 .withDocument(doc, curator) //
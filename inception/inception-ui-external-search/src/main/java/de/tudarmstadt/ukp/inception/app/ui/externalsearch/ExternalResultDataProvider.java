@@ -21,12 +21,14 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.wicket.extensions.markup.html.repeater.util.SortableDataProvider;
 import org.apache.wicket.model.IModel;
 import org.apache.wicket.model.LoadableDetachableModel;
 
+import de.tudarmstadt.ukp.clarin.webanno.model.Project;
 import de.tudarmstadt.ukp.clarin.webanno.security.model.User;
 import de.tudarmstadt.ukp.inception.externalsearch.ExternalSearchResult;
 import de.tudarmstadt.ukp.inception.externalsearch.ExternalSearchService;
@@ -100,4 +102,29 @@ public class ExternalResultDataProvider
 
         results.addAll(externalSearchService.query(user, aRepository, aQuery));
     }
+
+    /**
+     * Searches all repositories of the given project at once.
+     * 
+     * @return the error messages of the repositories that could not be searched by repository
+     *         name.
+     */
+    public Map<String, String> searchAllDocuments(Project aProject, String aQuery)
+    {
+        results.clear();
+
+        // No query, no results
+        if (StringUtils.isBlank(aQuery)) {
+            return Map.of();
+        }
+
+        var federatedResult = externalSearchService.queryAll(user, aProject, aQuery);
+        results.addAll(federatedResult.results());
+        return federatedResult.failures();
+    }
+
+    public List<ExternalSearchResult> getResults()
+    {
+        return results;
+    }
 }
@@ -21,6 +21,7 @@ import static de.tudarmstadt.ukp.clarin.webanno.model.PermissionLevel.ANNOTATOR;
 import static de.tudarmstadt.ukp.clarin.webanno.model.PermissionLevel.CURATOR;
 import static de.tudarmstadt.ukp.clarin.webanno.ui.core.page.ProjectPageBase.NS_PROJECT;
 import static de.tudarmstadt.ukp.clarin.webanno.ui.core.page.ProjectPageBase.PAGE_PARAM_PROJECT;
+import static de.tudarmstadt.ukp.inception.support.lambda.LambdaBehavior.visibleWhen;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -43,6 +44,7 @@ import org.apache.wicket.model.CompoundPropertyModel;
 import org.apache.wicket.model.IModel;
 import org.apache.wicket.model.LoadableDetachableModel;
 import org.apache.wicket.model.Model;
+import org.apache.wicket.model.StringResourceModel;
 import org.apache.wicket.request.mapper.parameter.PageParameters;
 import org.apache.wicket.spring.injection.annot.SpringBean;
 import org.slf4j.Logger;
@@ -53,10 +55,13 @@ import org.wicketstuff.event.annotation.OnEvent;
 import de.tudarmstadt.ukp.clarin.webanno.security.UserDao;
 import de.tudarmstadt.ukp.clarin.webanno.security.model.User;
 import de.tudarmstadt.ukp.clarin.webanno.ui.core.page.ProjectPageBase;
+import de.tudarmstadt.ukp.inception.app.ui.externalsearch.tasks.BulkImportTask;
 import de.tudarmstadt.ukp.inception.externalsearch.ExternalSearchResult;
 import de.tudarmstadt.ukp.inception.externalsearch.ExternalSearchService;
 import de.tudarmstadt.ukp.inception.externalsearch.event.ExternalSearchQueryEvent;
 import de.tudarmstadt.ukp.inception.externalsearch.model.DocumentRepository;
+import de.tudarmstadt.ukp.inception.scheduling.SchedulingService;
+import de.tudarmstadt.ukp.inception.support.lambda.LambdaAjaxLink;
 import de.tudarmstadt.ukp.inception.support.lambda.LambdaAjaxSubmitLink;
 import de.tudarmstadt.ukp.inception.support.spring.ApplicationEventPublisherHolder;
 
@@ -71,8 +76,10 @@ public class SearchPage
     private @SpringBean ExternalSearchService externalSearchService;
     private @SpringBean UserDao userRepository;
     private @SpringBean ApplicationEventPublisherHolder applicationEventPublisher;
+    private @SpringBean SchedulingService schedulingService;
 
     private WebMarkupContainer dataTableContainer;
+    private LambdaAjaxLink importAllLink;
 
     ExternalResultDataProvider dataProvider;
 
@@ -144,7 +151,8 @@ public class SearchPage
             repositoryCombo.setChoices(LoadableDetachableModel
                     .of(() -> externalSearchService.listDocumentRepositories(getProject())));
             repositoryCombo.setChoiceRenderer(new ChoiceRenderer<DocumentRepository>("name"));
-            repositoryCombo.setNullValid(false);
+            // Selecting no repository searches all repositories of the project
+            repositoryCombo.setNullValid(true);
             add(repositoryCombo);
 
             if (!repositoryCombo.getChoices().isEmpty()) {
@@ -156,6 +164,11 @@ public class SearchPage
             var searchLink = new LambdaAjaxSubmitLink<Void>("submitSearch", this::actionSearch);
             add(searchLink);
             setDefaultButton(searchLink);
+
+            importAllLink = new LambdaAjaxLink("importAll", this::actionImportAll);
+            importAllLink.setOutputMarkupPlaceholderTag(true);
+            importAllLink.add(visibleWhen(() -> dataProvider.size() > 0));
+            add(importAllLink);
         }
 
         private void actionSearch(AjaxRequestTarget aTarget, Form<Void> aForm)
@@ -163,7 +176,16 @@ public class SearchPage
             SearchFormModel model = getModelObject();
 
             try {
-                dataProvider.searchDocuments(model.repository, model.query);
+                if (model.repository != null) {
+                    dataProvider.searchDocuments(model.repository, model.query);
+                }
+                else {
+                    var failures = dataProvider.searchAllDocuments(getProject(), model.query);
+                    failures.forEach((repository, message) -> warn(
+                            new StringResourceModel("searchRepositoryFailed", this)
+                                    .setParameters(repository, message).getString()));
+                    aTarget.addChildren(getPage(), IFeedback.class);
+                }
             }
             catch (Exception e) {
                 LOG.error("Unable to perform query", e);
@@ -172,10 +194,26 @@ public class SearchPage
             }
 
             applicationEventPublisher.get()
-                    .publishEvent(new ExternalSearchQueryEvent(this, model.repository.getProject(),
+                    .publishEvent(new ExternalSearchQueryEvent(this, getProject(),
                             userRepository.getCurrentUsername(), model.query));
 
-            aTarget.add(dataTableContainer);
+            aTarget.add(dataTableContainer, importAllLink);
+        }
+
+        private void actionImportAll(AjaxRequestTarget aTarget)
+        {
+            var results = dataProvider.getResults();
+
+            schedulingService.enqueue(BulkImportTask.builder() //
+                    .withSessionOwner(userRepository.getCurrentUser()) //
+                    .withProject(getProject()) //
+                    .withTrigger("User request") //
+                    .withResults(results) //
+                    .build());
+
+            info(new StringResourceModel("importAllStarted", this)
+                    .setParameters(results.size()).getString());
+            aTarget.addChildren(getPage(), IFeedback.class);
         }
     }
 }
@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.app.ui.externalsearch.tasks;
+
+import static de.tudarmstadt.ukp.inception.scheduling.ProgressScope.SCOPE_DOCUMENTS;
+import static de.tudarmstadt.ukp.inception.scheduling.TaskScope.PROJECT;
+import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.apache.commons.lang3.exception.ExceptionUtils.getRootCauseMessage;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import de.tudarmstadt.ukp.clarin.webanno.api.casstorage.session.CasStorageSession;
+import de.tudarmstadt.ukp.inception.app.ui.externalsearch.utils.DocumentImporter;
+import de.tudarmstadt.ukp.inception.externalsearch.ExternalSearchResult;
+import de.tudarmstadt.ukp.inception.externalsearch.config.ExternalSearchProperties;
+import de.tudarmstadt.ukp.inception.scheduling.ProjectTask;
+import de.tudarmstadt.ukp.inception.scheduling.Task;
+
+/**
+ * Imports a set of external search results into the project. The documents are retrieved and
+ * converted by several workers at the same time. The number of requests sent to the repositories
+ * is still limited by the rate limits of the external search service.
+ */
+public class BulkImportTask
+    extends Task
+    implements ProjectTask
+{
+    public static final String TYPE = "ExternalSearchBulkImportTask";
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final long CANCEL_CHECK_INTERVAL_MS = 500;
+
+    private @Autowired DocumentImporter documentImporter;
+    private @Autowired ExternalSearchProperties properties;
+
+    private final List<ExternalSearchResult> results;
+
+    public BulkImportTask(Builder<? extends Builder<?>> aBuilder)
+    {
+        super(aBuilder.withType(TYPE).withCancellable(true).withScope(PROJECT));
+
+        results = aBuilder.results;
+    }
+
+    @Override
+    public String getTitle()
+    {
+        return "Importing documents from document repositories...";
+    }
+
+    @Override
+    public void execute()
+    {
+        // The document ID becomes the name of the imported document, so a document that was found
+        // in several repositories can only be imported once
+        var hits = new LinkedHashMap<String, ExternalSearchResult>();
+        for (var result : results) {
+            hits.putIfAbsent(result.getDocumentId(), result);
+        }
+
+        var concurrency = Math.max(1, Math.min(properties.getImportThreads(), hits.size()));
+
+        try (var progress = getMonitor().openScope(SCOPE_DOCUMENTS, hits.size())) {
+            if (hits.isEmpty()) {
+                progress.update(up -> up.status("No documents to import").statusToLog());
+                return;
+            }
+
+            progress.update(up -> up.info("Importing %d documents using %d workers...",
+                    hits.size(), concurrency));
+
+            var startTime = currentTimeMillis();
+            var imported = 0;
+            var skipped = 0;
+            var failed = 0;
+
+            var executor = Executors.newFixedThreadPool(concurrency,
+                    new BasicThreadFactory.Builder() //
+                            .daemon(true) //
+                            .namingPattern("external-search-import-%d") //
+                            .build());
+            var pending = new HashMap<Future<Boolean>, ExternalSearchResult>();
+            try {
+                var completionService = new ExecutorCompletionService<Boolean>(executor);
+                for (var hit : hits.values()) {
+                    pending.put(completionService.submit(() -> importDocument(hit)), hit);
+                }
+
+                while (!pending.isEmpty()) {
+                    if (getMonitor().isCancelled()) {
+                        progress.update(up -> up.info("Task cancelled"));
+                        return;
+                    }
+
+                    var future = completionService.poll(CANCEL_CHECK_INTERVAL_MS, MILLISECONDS);
+                    if (future == null) {
+                        continue;
+                    }
+
+                    var hit = pending.remove(future);
+                    try {
+                        if (future.get()) {
+                            imported++;
+                        }
+                        else {
+                            skipped++;
+                        }
+                        var done = imported;
+                        progress.update(up -> up.increment() //
+                                .status("%s (%s)", hit.getDocumentId(),
+                                        throughput(done, startTime)));
+                    }
+                    catch (ExecutionException e) {
+                        failed++;
+                        LOG.error("Unable to import [{}] from repository [{}]",
+                                hit.getDocumentId(), hit.getRepository().getName(), e.getCause());
+                        progress.update(up -> up.increment() //
+                                .error("Unable to import [%s] from repository [%s]: %s",
+                                        hit.getDocumentId(), hit.getRepository().getName(),
+                                        getRootCauseMessage(e)));
+                    }
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            finally {
+                // Imports that have not started yet are dropped. Imports that are already running
+                // are not interrupted because that could leave a half-created document behind.
+                pending.keySet().forEach(future -> future.cancel(false));
+                executor.shutdown();
+                awaitRunningImports(executor);
+            }
+
+            var importedCount = imported;
+            var skippedCount = skipped;
+            var failedCount = failed;
+            progress.update(up -> up.status(
+                    "Import complete: %d documents imported, %d already present, %d failed (%s)",
+                    importedCount, skippedCount, failedCount,
+                    throughput(importedCount, startTime)).statusToLog());
+        }
+    }
+
+    private boolean importDocument(ExternalSearchResult aHit) throws IOException
+    {
+        try (var session = CasStorageSession.openNested()) {
+            return documentImporter.importDocumentFromDocumentRepository(
+                    getSessionOwner().orElse(null), getProject(), aHit.getCollectionId(),
+                    aHit.getDocumentId(), aHit.getRepository());
+        }
+    }
+
+    private static void awaitRunningImports(ExecutorService aExecutor)
+    {
+        var interrupted = false;
+        try {
+            while (true) {
+                try {
+                    if (aExecutor.awaitTermination(CANCEL_CHECK_INTERVAL_MS, MILLISECONDS)) {
+                        return;
+                    }
+                }
+                catch (InterruptedException e) {
+                    // Keep waiting - the imports still write to the project
+                    interrupted = true;
+                }
+            }
+        }
+        finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static String throughput(int aCount, long aStartTime)
+    {
+        var seconds = Math.max(1, currentTimeMillis() - aStartTime) / 1000.0;
+        return String.format("%.1f documents/min", aCount * 60 / seconds);
+    }
+
+    public static Builder<Builder<?>> builder()
+    {
+        return new Builder<>();
+    }
+
+    public static class Builder<T extends Builder<?>>
+        extends Task.Builder<T>
+    {
+        private List<ExternalSearchResult> results;
+
+        @SuppressWarnings("unchecked")
+        public T withResults(List<ExternalSearchResult> aResults)
+        {
+            results = new ArrayList<>(aResults);
+            return (T) this;
+        }
+
+        public BulkImportTask build()
+        {
+            Validate.notNull(sessionOwner, "BulkImportTask requires a session owner");
+            Validate.notNull(project, "BulkImportTask requires a project");
+            Validate.notNull(results, "BulkImportTask requires results to import");
+
+            return new BulkImportTask(this);
+        }
+    }
+}
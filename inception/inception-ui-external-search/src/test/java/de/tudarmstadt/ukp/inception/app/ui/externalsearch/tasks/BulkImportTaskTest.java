@@ -0,0 +1,258 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.app.ui.externalsearch.tasks;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import de.tudarmstadt.ukp.clarin.webanno.model.Project;
+import de.tudarmstadt.ukp.clarin.webanno.security.model.User;
+import de.tudarmstadt.ukp.inception.app.ui.externalsearch.utils.DocumentImporter;
+import de.tudarmstadt.ukp.inception.externalsearch.ExternalSearchResult;
+import de.tudarmstadt.ukp.inception.externalsearch.config.ExternalSearchProperties;
+import de.tudarmstadt.ukp.inception.externalsearch.model.DocumentRepository;
+import de.tudarmstadt.ukp.inception.support.logging.LogLevel;
+import de.tudarmstadt.ukp.inception.support.logging.LogMessage;
+
+class BulkImportTaskTest
+{
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private AtomicInteger requestCount;
+    private CountDownLatch slowRequestStarted;
+    private Project project;
+    private User user;
+    private AutoCloseable mocks;
+
+    private @Spy StubDocumentImporter documentImporter = new StubDocumentImporter();
+    private @Spy ExternalSearchProperties properties = new ExternalSearchProperties();
+
+    private @InjectMocks BulkImportTask sut;
+
+    @BeforeEach
+    void setup() throws Exception
+    {
+        requestCount = new AtomicInteger();
+        slowRequestStarted = new CountDownLatch(1);
+
+        // Local stand-in for a remote repository which serves the document with the requested ID
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/docs/", ex -> {
+            var documentId = ex.getRequestURI().getPath().substring("/docs/".length());
+            if (documentId.startsWith("broken")) {
+                respond(ex, 500, "Internal server error");
+                return;
+            }
+
+            if (documentId.startsWith("slow")) {
+                slowRequestStarted.countDown();
+                try {
+                    Thread.sleep(1_000);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            respond(ex, 200, "Text of " + documentId);
+        });
+        server.start();
+
+        project = new Project("test");
+        user = new User("alice");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        if (mocks != null) {
+            mocks.close();
+        }
+
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void thatDocumentsFoundInSeveralRepositoriesAreImportedOnce() throws Exception
+    {
+        var repo1 = repository("repo1");
+        var repo2 = repository("repo2");
+
+        initTask(List.of(result(repo1, "doc-1"), result(repo2, "doc-1"), result(repo2, "doc-2")));
+
+        sut.execute();
+
+        assertThat(documentImporter.imported).containsExactlyInAnyOrder("doc-1", "doc-2");
+        assertThat(requestCount.get()).isEqualTo(2);
+        assertThat(sut.getMonitor().getStatusMessage().getMessage()) //
+                .contains("2 documents imported, 0 already present, 0 failed");
+    }
+
+    @Test
+    void thatFailedAndExistingDocumentsAreCounted() throws Exception
+    {
+        var repo = repository("repo");
+        documentImporter.existing.add("doc-2");
+
+        initTask(List.of(result(repo, "doc-1"), result(repo, "doc-2"), result(repo, "broken-1")));
+
+        sut.execute();
+
+        assertThat(documentImporter.imported).containsExactly("doc-1");
+        assertThat(sut.getMonitor().getStatusMessage().getMessage()) //
+                .contains("1 documents imported, 1 already present, 1 failed");
+        assertThat(sut.getMonitor().getMessages()) //
+                .filteredOn(msg -> msg.getLevel() == LogLevel.ERROR) //
+                .extracting(LogMessage::getMessage) //
+                .singleElement().asString() //
+                .contains("broken-1");
+    }
+
+    @Test
+    void thatCancellationDoesNotInterruptRunningImports() throws Exception
+    {
+        properties.setImportThreads(1);
+        var repo = repository("repo");
+
+        initTask(List.of(result(repo, "slow-1"), result(repo, "doc-2"), result(repo, "doc-3")));
+
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            var execution = executor.submit(() -> {
+                sut.execute();
+                return null;
+            });
+
+            assertThat(slowRequestStarted.await(5, SECONDS)).isTrue();
+            sut.getMonitor().cancel();
+            execution.get(10, SECONDS);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        // The running import completes, the queued imports never start
+        assertThat(documentImporter.interrupted).isEmpty();
+        assertThat(documentImporter.imported).containsExactly("slow-1");
+        assertThat(requestCount.get()).isEqualTo(1);
+    }
+
+    private void initTask(List<ExternalSearchResult> aResults) throws Exception
+    {
+        sut = BulkImportTask.builder() //
+                .withSessionOwner(user) //
+                .withProject(project) //
+                .withResults(aResults) //
+                .build();
+        mocks = MockitoAnnotations.openMocks(this);
+        sut.afterPropertiesSet();
+    }
+
+    private DocumentRepository repository(String aName)
+    {
+        var repository = new DocumentRepository(aName, project);
+        repository.setProperties("http://localhost:" + server.getAddress().getPort() + "/docs/");
+        return repository;
+    }
+
+    private static ExternalSearchResult result(DocumentRepository aRepository, String aDocumentId)
+    {
+        return new ExternalSearchResult(aRepository, "collection", aDocumentId);
+    }
+
+    private void respond(HttpExchange aExchange, int aStatus, String aBody) throws IOException
+    {
+        requestCount.incrementAndGet();
+        var body = aBody.getBytes(UTF_8);
+        aExchange.sendResponseHeaders(aStatus, body.length);
+        try (var os = aExchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    /**
+     * Importer which fetches the document from the repository URL stored in the repository
+     * properties.
+     */
+    static class StubDocumentImporter
+        implements DocumentImporter
+    {
+        private final HttpClient client = HttpClient.newHttpClient();
+
+        final List<String> imported = new CopyOnWriteArrayList<>();
+        final List<String> interrupted = new CopyOnWriteArrayList<>();
+        final Set<String> existing = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public boolean importDocumentFromDocumentRepository(User aUser, Project aProject,
+                String aCollectionId, String aDocumentId, DocumentRepository aRepository)
+            throws IOException
+        {
+            if (existing.contains(aDocumentId)) {
+                return false;
+            }
+
+            try {
+                var response = client.send(HttpRequest
+                        .newBuilder(URI.create(aRepository.getProperties() + aDocumentId))
+                        .build(), BodyHandlers.ofString());
+                if (response.statusCode() != 200) {
+                    throw new IOException("Server returned status " + response.statusCode());
+                }
+            }
+            catch (InterruptedException e) {
+                interrupted.add(aDocumentId);
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+
+            imported.add(aDocumentId);
+            return true;
+        }
+    }
+}
@@ -17,6 +17,7 @@
  */
 package de.tudarmstadt.ukp.clarin.webanno.ui.project.detail;
 
+import static java.util.Collections.emptyList;
 import static java.util.Comparator.comparing;
 import static java.util.Locale.ROOT;
 
@@ -34,7 +35,7 @@ import org.apache.wicket.spring.injection.annot.SpringBean;
 
 import de.tudarmstadt.ukp.clarin.webanno.model.Project;
 import de.tudarmstadt.ukp.inception.project.api.footprint.Footprint;
-import de.tudarmstadt.ukp.inception.project.api.footprint.FootprintProviderRegistry;
+import de.tudarmstadt.ukp.inception.project.api.footprint.FootprintTracker;
 import de.tudarmstadt.ukp.inception.support.lambda.LambdaStyleAttributeModifier;
 
 public class FootprintPanel
@@ -42,9 +43,10 @@ public class FootprintPanel
 {
     private static final long serialVersionUID = -1627121364400427020L;
 
-    private @SpringBean FootprintProviderRegistry footprintProviderRegistry;
+    private @SpringBean FootprintTracker footprintTracker;
 
     private final ListModel<Footprint> footPrints = new ListModel<>(new ArrayList<>());
+    private boolean computing;
 
     public FootprintPanel(String aId, IModel<Project> aModel)
     {
@@ -56,8 +58,10 @@ public class FootprintPanel
                 .mapToLong(Footprint::size) //
                 .sum());
 
-        add(new Label("total", total.map(FileUtils::byteCountToDisplaySize)) //
-                .add(AttributeModifier.replace("title", total.map(v -> v + " bytes"))));
+        add(new Label("total", total.map(v -> computing ? getString("computing")
+                : FileUtils.byteCountToDisplaySize(v))) //
+                .add(AttributeModifier.replace("title",
+                        total.map(v -> computing ? null : v + " bytes"))));
 
         add(new ListView<>("footprint", footPrints)
         {
@@ -91,9 +95,10 @@ public class FootprintPanel
     private void refresh()
     {
         var project = getModelObject();
-        footPrints.setObject(footprintProviderRegistry.getExtensions(project).stream() //
-                .flatMap(provider -> provider.getFootprint(project).stream()) //
-                .filter(footprint -> footprint.size() > 0) //
+        var footprint = footprintTracker.getFootprint(project);
+        computing = footprint.isEmpty();
+        footPrints.setObject(footprint.orElse(emptyList()).stream() //
+                .filter(fp -> fp.size() > 0) //
                 .sorted(comparing(Footprint::category)) //
                 .toList());
     }
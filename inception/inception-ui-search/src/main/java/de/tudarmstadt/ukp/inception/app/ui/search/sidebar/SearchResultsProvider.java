@@ -21,6 +21,7 @@ import static java.util.Collections.emptyIterator;
 
 import java.io.IOException;
 import java.util.Iterator;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 import org.apache.commons.collections4.IteratorUtils;
@@ -38,6 +39,7 @@ import de.tudarmstadt.ukp.clarin.webanno.model.SourceDocument;
 import de.tudarmstadt.ukp.clarin.webanno.security.model.User;
 import de.tudarmstadt.ukp.inception.search.ExecutionException;
 import de.tudarmstadt.ukp.inception.search.ResultsGroup;
+import de.tudarmstadt.ukp.inception.search.SearchQueryRequest;
 import de.tudarmstadt.ukp.inception.search.SearchService;
 
 public class SearchResultsProvider
@@ -49,6 +51,11 @@ public class SearchResultsProvider
 
     private SearchService searchService;
 
+    // Each provider belongs to a single page instance. Queries of this provider supersede earlier
+    // queries of the same provider that are still running, but not queries from other pages,
+    // browser tabs or users.
+    private final String requester = "search-results:" + UUID.randomUUID();
+
     // Query settings
     private User user;
     private Project project;
@@ -82,9 +89,10 @@ public class SearchResultsProvider
         // Query if the results in the given range are not in the cache i.e. if we need to fetch
         // a new page
         try {
-            var queryResults = searchService
-                    .query(user, project, query, document, annotationLayer, annotationFeature,
-                            first, count) //
+            var queryResults = searchService.query(newRequest() //
+                    .withOffset(first) //
+                    .withLimit(count) //
+                    .build()) //
                     .entrySet().stream() //
                     .map(e -> new ResultsGroup(e.getKey(), e.getValue())) //
                     .collect(Collectors.toList());
@@ -116,8 +124,10 @@ public class SearchResultsProvider
         }
 
         try {
-            totalResults = searchService.determineNumOfQueryResults(user, project, query, document,
-                    annotationLayer, annotationFeature);
+            totalResults = searchService.determineNumOfQueryResults(newRequest() //
+                    .withOffset(0) //
+                    .withLimit(0) //
+                    .build());
             return totalResults;
         }
         catch (ExecutionException | IOException e) {
@@ -125,6 +135,18 @@ public class SearchResultsProvider
         }
     }
 
+    private SearchQueryRequest.Builder newRequest()
+    {
+        return SearchQueryRequest.builder() //
+                .withProject(project) //
+                .withUser(user) //
+                .withQuery(query) //
+                .withLimitedToDocument(document) //
+                .withAnnotationLayer(annotationLayer) //
+                .withAnnotationFeature(annotationFeature) //
+                .withRequester(requester);
+    }
+
     @Override
     public IModel<ResultsGroup> model(ResultsGroup object)
     {
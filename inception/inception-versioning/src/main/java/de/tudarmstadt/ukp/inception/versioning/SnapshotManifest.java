@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Technische Universität Darmstadt under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The Technische Universität Darmstadt
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.tudarmstadt.ukp.inception.versioning;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Collections.unmodifiableSet;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records for every CAS contained in the last snapshot the CAS timestamp at the time of the export
+ * and the git blob the CAS was exported to. If the timestamp of a CAS has not changed since, the
+ * next snapshot can re-use the blob instead of exporting the CAS again.
+ * <p>
+ * The manifest is only valid for the commit it was written for. If the branch has been moved by
+ * other means in the meantime, the manifest is discarded and all CASes are exported again.
+ */
+class SnapshotManifest
+{
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    public Entry get(String aPath)
+    {
+        return entries.get(aPath);
+    }
+
+    public void put(String aPath, long aTimestamp, ObjectId aBlob)
+    {
+        entries.put(aPath, new Entry(aTimestamp, aBlob));
+    }
+
+    public int size()
+    {
+        return entries.size();
+    }
+
+    public Set<Map.Entry<String, Entry>> entries()
+    {
+        return unmodifiableSet(entries.entrySet());
+    }
+
+    /**
+     * Loads the manifest from the given file.
+     *
+     * @param aFile
+     *            the manifest file.
+     * @param aHead
+     *            the commit the branch currently points to (may be {@code null}).
+     * @return the manifest or an empty manifest if there is no manifest or if it was not written
+     *         for the given commit.
+     */
+    public static SnapshotManifest load(File aFile, ObjectId aHead)
+    {
+        var manifest = new SnapshotManifest();
+
+        if (aHead == null || !aFile.exists()) {
+            return manifest;
+        }
+
+        try (var reader = Files.newBufferedReader(aFile.toPath(), UTF_8)) {
+            var head = reader.readLine();
+            if (!Objects.equals(aHead.name(), head)) {
+                LOG.info("Snapshot manifest [{}] does not match current commit [{}] - ignoring it",
+                        aFile, aHead.name());
+                return manifest;
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // Path comes last because it is the only field that may contain a tab
+                var fields = line.split("\t", 3);
+                manifest.put(fields[2], Long.parseLong(fields[0]),
+                        ObjectId.fromString(fields[1]));
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            LOG.warn("Unable to read snapshot manifest [{}] - ignoring it", aFile, e);
+            return new SnapshotManifest();
+        }
+
+        return manifest;
+    }
+
+    /**
+     * Saves the manifest to the given file.
+     *
+     * @param aFile
+     *            the manifest file.
+     * @param aHead
+     *            the commit the manifest belongs to.
+     */
+    public void save(File aFile, ObjectId aHead) throws IOException
+    {
+        var tmp = new File(aFile.getParentFile(), aFile.getName() + ".tmp");
+        try (var writer = Files.newBufferedWriter(tmp.toPath(), UTF_8)) {
+            writer.write(aHead.name());
+            writer.newLine();
+            for (var e : entries.entrySet()) {
+                writer.write(Long.toString(e.getValue().timestamp()));
+                writer.write('\t');
+                writer.write(e.getValue().blob().name());
+                writer.write('\t');
+                writer.write(e.getKey());
+                writer.newLine();
+            }
+        }
+
+        Files.move(tmp.toPath(), aFile.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+    }
+
+    public record Entry(long timestamp, ObjectId blob) {}
+}
@@ -17,25 +17,49 @@
  */
 package de.tudarmstadt.ukp.inception.versioning;
 
+import static de.tudarmstadt.ukp.clarin.webanno.api.casstorage.CasAccessMode.SHARED_READ_ONLY_ACCESS;
+import static de.tudarmstadt.ukp.clarin.webanno.api.casstorage.CasUpgradeMode.NO_CAS_UPGRADE;
 import static de.tudarmstadt.ukp.clarin.webanno.model.AnnotationSet.CURATION_SET;
 import static de.tudarmstadt.ukp.clarin.webanno.model.AnnotationSet.INITIAL_SET;
 import static de.tudarmstadt.ukp.inception.project.api.ProjectService.DOCUMENT_FOLDER;
 import static de.tudarmstadt.ukp.inception.project.api.ProjectService.PROJECT_FOLDER;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.groupingBy;
 import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.eclipse.jgit.lib.Constants.HEAD;
+import static org.eclipse.jgit.lib.Constants.OBJ_BLOB;
+import static org.eclipse.jgit.lib.FileMode.REGULAR_FILE;
+import static org.eclipse.jgit.lib.RefUpdate.Result.FAST_FORWARD;
+import static org.eclipse.jgit.lib.RefUpdate.Result.NEW;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.lang.invoke.MethodHandles;
 import java.net.URISyntaxException;
-import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.apache.uima.cas.SerialFormat;
 import org.apache.uima.util.CasIOUtils;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.transport.URIish;
 import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
 import org.slf4j.Logger;
@@ -44,12 +68,15 @@ import org.springframework.context.event.EventListener;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.FileSystemUtils;
 
+import de.tudarmstadt.ukp.clarin.webanno.api.casstorage.CasProvider;
 import de.tudarmstadt.ukp.clarin.webanno.api.casstorage.CasStorageService;
 import de.tudarmstadt.ukp.clarin.webanno.api.casstorage.session.CasStorageSession;
 import de.tudarmstadt.ukp.clarin.webanno.export.model.ExportedAnnotationLayer;
 import de.tudarmstadt.ukp.clarin.webanno.export.model.ExportedAnnotationLayerReference;
+import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationDocument;
 import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationSet;
 import de.tudarmstadt.ukp.clarin.webanno.model.Project;
+import de.tudarmstadt.ukp.clarin.webanno.model.SourceDocument;
 import de.tudarmstadt.ukp.clarin.webanno.security.UserDao;
 import de.tudarmstadt.ukp.inception.curation.service.CurationDocumentService;
 import de.tudarmstadt.ukp.inception.documents.api.DocumentService;
@@ -73,6 +100,8 @@ public class VersioningServiceImpl
 
     public static final String REPO_NAME = "git-backup";
     public static final String LAYERS = "layers.json";
+    public static final String MANIFEST = "inception-snapshot-manifest";
+    public static final String ANNOTATION_FOLDER = "annotation";
 
     private final RepositoryProperties repositoryProperties;
     private final AnnotationSchemaService annotationService;
@@ -112,75 +141,182 @@ public class VersioningServiceImpl
     public void snapshotCompleteProject(Project aProject, String aCommitMessage)
         throws IOException, GitAPIException
     {
-        var repoDir = getRepoDir(aProject);
-        var documentDir = repoDir.toPath().resolve(DOCUMENT_FOLDER);
-
-        var git = Git.open(repoDir);
+        var startTime = System.currentTimeMillis();
+
+        try (var git = Git.open(getRepoDir(aProject))) {
+            var repo = git.getRepository();
+            var head = repo.resolve(HEAD);
+            var manifestFile = new File(repo.getDirectory(), MANIFEST);
+            var previousManifest = SnapshotManifest.load(manifestFile, head);
+
+            // Group the annotation documents by source document - this includes those of former
+            // annotators (removed from the project, role changed or account deleted) so the
+            // snapshot is a complete backup.
+            var annotationDocuments = documentService.listAllAnnotationDocuments(aProject).stream()
+                    .collect(groupingBy(AnnotationDocument::getDocument));
+
+            var jobs = new ArrayList<Callable<List<SnapshotEntry>>>();
+            for (var sourceDocument : documentService.listSourceDocuments(aProject)) {
+                var sets = annotationDocuments.getOrDefault(sourceDocument, emptyList()).stream()
+                        .map(annDoc -> AnnotationSet.forUser(annDoc.getUser()))
+                        // The initial and curation CASes are dumped separately. Their pseudo-user
+                        // annotation documents are included in listAllAnnotationDocuments, so skip
+                        // them here to avoid dumping those CASes a second time.
+                        .filter(set -> !CURATION_SET.equals(set) && !INITIAL_SET.equals(set))
+                        .distinct() //
+                        .toList();
+                jobs.add(() -> snapshotDocument(repo, previousManifest, sourceDocument, sets));
+            }
 
-        // Dump layers
-        var layersJsonFile = new File(repoDir, LAYERS);
-        dumpLayers(layersJsonFile, aProject);
-        git.add().addFilepattern(LAYERS).call();
+            var manifest = new SnapshotManifest();
+            var index = DirCache.newInCore();
+            var indexBuilder = index.builder();
+            try (var inserter = repo.newObjectInserter()) {
+                // Dump layers - this is cheap, so we always do it
+                var layers = inserter.insert(OBJ_BLOB, dumpLayers(aProject));
+                indexBuilder.add(entry(LAYERS, layers));
+
+                for (var snapshotEntry : runInParallel(jobs)) {
+                    indexBuilder.add(entry(snapshotEntry.path(), snapshotEntry.blob()));
+                    snapshotEntry.timestamp().ifPresent(timestamp -> manifest
+                            .put(snapshotEntry.path(), timestamp, snapshotEntry.blob()));
+                }
 
-        for (var sourceDocument : documentService.listSourceDocuments(aProject)) {
-            var sourceDir = documentDir.resolve(sourceDocument.getName());
+                indexBuilder.finish();
+                var tree = index.writeTree(inserter);
+                inserter.flush();
 
-            Files.createDirectories(sourceDir);
+                var newHead = commit(repo, inserter, head, tree, aCommitMessage);
+                manifest.save(manifestFile, newHead);
 
-            // Dump source documents
-            var sourceDocumentPath = sourceDir.resolve("source.xmi");
-            try (var session = CasStorageSession.openNested();
-                    var out = Files.newOutputStream(sourceDocumentPath)) {
-                var cas = documentService.createOrReadInitialCas(sourceDocument);
-                CasIOUtils.save(WebAnnoCasUtil.getRealCas(cas), out, SerialFormat.XMI);
+                LOG.info("Snapshot of project {} took {}ms ({} of {} CASes unchanged)", aProject,
+                        System.currentTimeMillis() - startTime,
+                        countReused(previousManifest, manifest), manifest.size());
             }
+        }
+    }
 
-            // Dump initial cas
-            var initialCasPath = sourceDir.resolve("initial.xmi");
-            try (var session = CasStorageSession.openNested();
-                    var out = Files.newOutputStream(initialCasPath)) {
-                var cas = documentService.createOrReadInitialCas(sourceDocument);
-                CasIOUtils.save(WebAnnoCasUtil.getRealCas(cas), out, SerialFormat.XMI);
+    private List<SnapshotEntry> snapshotDocument(Repository aRepo, SnapshotManifest aPrevious,
+            SourceDocument aDocument, List<AnnotationSet> aSets)
+        throws IOException
+    {
+        var sourceDir = DOCUMENT_FOLDER + "/" + aDocument.getName() + "/";
+        var entries = new ArrayList<SnapshotEntry>();
+
+        try (var inserter = aRepo.newObjectInserter()) {
+            // Dump source document and initial CAS - both are the initial CAS, so we export it
+            // only once and refer to the same blob from both paths
+            var initial = snapshotCas(inserter, aPrevious, sourceDir + "initial.xmi", aDocument,
+                    INITIAL_SET, () -> documentService.createOrReadInitialCas(aDocument,
+                            NO_CAS_UPGRADE, SHARED_READ_ONLY_ACCESS));
+            entries.add(initial);
+            entries.add(new SnapshotEntry(sourceDir + "source.xmi", initial.blob(),
+                    initial.timestamp()));
+
+            // Dump curation CAS - if there is none yet, an empty file is added
+            var curationPath = sourceDir + "curation.xmi";
+            if (curationDocumentService.existsCurationCas(aDocument)) {
+                entries.add(snapshotCas(inserter, aPrevious, curationPath, aDocument, CURATION_SET,
+                        () -> casStorageService.readCas(aDocument, CURATION_SET,
+                                SHARED_READ_ONLY_ACCESS)));
+            }
+            else {
+                entries.add(new SnapshotEntry(curationPath, inserter.insert(OBJ_BLOB, new byte[0]),
+                        Optional.empty()));
             }
 
-            // Dump curation cas
-            var curationCasPath = sourceDir.resolve("curation.xmi");
-            try (var session = CasStorageSession.openNested();
-                    var out = Files.newOutputStream(curationCasPath)) {
-                if (curationDocumentService.existsCurationCas(sourceDocument)) {
-                    var cas = curationDocumentService.readCurationCas(sourceDocument);
-                    CasIOUtils.save(WebAnnoCasUtil.getRealCas(cas), out, SerialFormat.XMI);
-                }
+            // Dump annotation documents - these go into their own folder so that a user name
+            // cannot clash with the source, initial or curation CAS
+            for (var set : aSets) {
+                var path = sourceDir + ANNOTATION_FOLDER + "/" + set + ".xmi";
+                entries.add(snapshotCas(inserter, aPrevious, path, aDocument, set,
+                        () -> casStorageService.readCas(aDocument, set, SHARED_READ_ONLY_ACCESS)));
             }
 
-            // Dump annotation documents - including those of former annotators (removed from the
-            // project, role changed or account deleted) so the snapshot is a complete backup.
-            for (var annotationDocument : documentService
-                    .listAllAnnotationDocuments(sourceDocument)) {
+            inserter.flush();
+        }
 
-                var set = AnnotationSet.forUser(annotationDocument.getUser());
+        return entries;
+    }
 
-                // The initial and curation CASes are dumped separately above. Their pseudo-user
-                // annotation documents are included in listAllAnnotationDocuments, so skip them
-                // here to avoid dumping those CASes a second time.
-                if (CURATION_SET.equals(set) || INITIAL_SET.equals(set)) {
-                    continue;
-                }
+    /**
+     * Exports the given CAS to a blob unless it has not changed since the previous snapshot, in
+     * which case the blob of the previous snapshot is re-used.
+     */
+    private SnapshotEntry snapshotCas(ObjectInserter aInserter, SnapshotManifest aPrevious,
+            String aPath, SourceDocument aDocument, AnnotationSet aSet, CasProvider aCasProvider)
+        throws IOException
+    {
+        // Obtain the timestamp before reading the CAS. If the CAS changes while we export it, the
+        // timestamp does not match anymore during the next snapshot and the CAS is exported again.
+        var timestamp = casStorageService.getCasTimestamp(aDocument, aSet);
+
+        var previous = aPrevious.get(aPath);
+        if (previous != null && timestamp.isPresent()
+                && previous.timestamp() == timestamp.get()) {
+            return new SnapshotEntry(aPath, previous.blob(), timestamp);
+        }
 
-                var annotationDocumentPath = sourceDir.resolve(set + ".xmi");
+        var buffer = new ByteArrayOutputStream();
+        CasIOUtils.save(WebAnnoCasUtil.getRealCas(aCasProvider.get()), buffer, SerialFormat.XMI);
+        var blob = aInserter.insert(OBJ_BLOB, buffer.toByteArray());
+        return new SnapshotEntry(aPath, blob, timestamp);
+    }
 
-                try (var session = CasStorageSession.openNested();
-                        var out = Files.newOutputStream(annotationDocumentPath)) {
-                    var cas = casStorageService.readCas(annotationDocument.getDocument(), set);
-                    CasIOUtils.save(WebAnnoCasUtil.getRealCas(cas), out, SerialFormat.XMI);
-                }
+    private <T> List<T> runInParallel(List<Callable<List<T>>> aJobs) throws IOException
+    {
+        var threads = Math.max(1,
+                Math.min(aJobs.size(), Runtime.getRuntime().availableProcessors()));
+        var executor = Executors.newFixedThreadPool(threads, new BasicThreadFactory.Builder() //
+                .daemon(true) //
+                .namingPattern("versioning-snapshot-%d") //
+                .build());
+
+        try {
+            var futures = new ArrayList<Future<List<T>>>();
+            for (var job : aJobs) {
+                futures.add(executor.submit(() -> {
+                    // Each worker needs its own CAS storage session
+                    try (var session = CasStorageSession.open()) {
+                        return job.call();
+                    }
+                }));
             }
+
+            var results = new ArrayList<T>();
+            for (var future : futures) {
+                results.addAll(future.get());
+            }
+            return results;
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException(e.getCause());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Snapshot was interrupted");
         }
+        finally {
+            executor.shutdownNow();
+        }
+    }
 
-        git.add().addFilepattern(DOCUMENT_FOLDER).call();
-        git.add().addFilepattern(LAYERS).call();
+    private static DirCacheEntry entry(String aPath, ObjectId aBlob)
+    {
+        var entry = new DirCacheEntry(aPath);
+        entry.setFileMode(REGULAR_FILE);
+        entry.setObjectId(aBlob);
+        return entry;
+    }
 
-        commit(git, aCommitMessage);
+    private static long countReused(SnapshotManifest aPrevious, SnapshotManifest aCurrent)
+    {
+        return aCurrent.entries().stream() //
+                .filter(e -> e.getValue().equals(aPrevious.get(e.getKey()))) //
+                .count();
     }
 
     @Override
@@ -262,8 +398,24 @@ public class VersioningServiceImpl
                 .call();
     }
 
-    private void commit(Git aGit, String aMessage) throws GitAPIException
+    /**
+     * Commits the given tree on top of the given head unless the tree is the same as the tree of
+     * the head.
+     * 
+     * @return the new head.
+     */
+    private ObjectId commit(Repository aRepo, ObjectInserter aInserter, ObjectId aHead,
+            ObjectId aTree, String aMessage)
+        throws IOException
     {
+        if (aHead != null) {
+            try (var revWalk = new RevWalk(aRepo)) {
+                if (revWalk.parseCommit(aHead).getTree().equals(aTree)) {
+                    return aHead;
+                }
+            }
+        }
+
         var user = userDao.getCurrentUser();
 
         var userName = user.getUsername();
@@ -272,14 +424,31 @@ public class VersioningServiceImpl
             email = userName + "@" + "inception";
         }
 
-        if (aGit.status().call().hasUncommittedChanges()) {
-            aGit.commit().setMessage(aMessage) //
-                    .setAuthor(userName, email) //
-                    .call();
+        var author = new PersonIdent(userName, email);
+        var commit = new CommitBuilder();
+        commit.setTreeId(aTree);
+        if (aHead != null) {
+            commit.setParentId(aHead);
+        }
+        commit.setAuthor(author);
+        commit.setCommitter(author);
+        commit.setMessage(aMessage);
+        var commitId = aInserter.insert(commit);
+        aInserter.flush();
+
+        var refUpdate = aRepo.updateRef(HEAD);
+        refUpdate.setNewObjectId(commitId);
+        refUpdate.setExpectedOldObjectId(aHead != null ? aHead : ObjectId.zeroId());
+        refUpdate.setRefLogMessage("commit: " + aMessage, false);
+        var result = refUpdate.update();
+        if (result != NEW && result != FAST_FORWARD) {
+            throw new IOException("Unable to update [" + HEAD + "]: " + result);
         }
+
+        return commitId;
     }
 
-    private void dumpLayers(File aFile, Project aProject) throws IOException
+    private byte[] dumpLayers(Project aProject) throws IOException
     {
         var exLayers = new ArrayList<ExportedAnnotationLayer>();
         for (var layer : annotationService.listAnnotationLayer(aProject)) {
@@ -301,6 +470,8 @@ public class VersioningServiceImpl
         }
 
         var json = JSONUtil.toPrettyJsonString(exLayers);
-        Files.write(aFile.toPath(), json.getBytes(UTF_8));
+        return json.getBytes(UTF_8);
     }
+
+    private record SnapshotEntry(String path, ObjectId blob, Optional<Long> timestamp) {}
 }
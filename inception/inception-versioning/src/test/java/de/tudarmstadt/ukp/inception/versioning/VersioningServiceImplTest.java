@@ -35,6 +35,7 @@ import java.util.stream.StreamSupport;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -53,6 +54,7 @@ import org.springframework.test.context.DynamicPropertySource;
 import de.tudarmstadt.ukp.clarin.webanno.api.casstorage.session.CasStorageSession;
 import de.tudarmstadt.ukp.clarin.webanno.constraints.config.ConstraintsServiceAutoConfiguration;
 import de.tudarmstadt.ukp.clarin.webanno.diag.config.CasDoctorAutoConfiguration;
+import de.tudarmstadt.ukp.clarin.webanno.model.AnnotationSet;
 import de.tudarmstadt.ukp.clarin.webanno.model.Project;
 import de.tudarmstadt.ukp.clarin.webanno.model.SourceDocument;
 import de.tudarmstadt.ukp.clarin.webanno.project.config.ProjectServiceAutoConfiguration;
@@ -197,17 +199,60 @@ public class VersioningServiceImplTest
                 "document/dinos.txt/source.xmi", //
                 "document/dinos.txt/initial.xmi", //
                 "document/dinos.txt/curation.xmi", //
-                "document/dinos.txt/admin.xmi", //
-                "document/dinos.txt/annotator.xmi", //
+                "document/dinos.txt/annotation/admin.xmi", //
+                "document/dinos.txt/annotation/annotator.xmi", //
 
                 "document/lorem.txt/source.xmi", //
                 "document/lorem.txt/initial.xmi", //
                 "document/lorem.txt/curation.xmi", //
-                "document/lorem.txt/admin.xmi", //
-                "document/lorem.txt/annotator.xmi" //
+                "document/lorem.txt/annotation/admin.xmi", //
+                "document/lorem.txt/annotation/annotator.xmi" //
         );
     }
 
+    @Test
+    @WithMockUser(username = "admin")
+    public void snapshottingProjectAgain_ShouldOnlyCommitChangedFiles() throws Exception
+    {
+        createProject(testProject);
+        var admin = createAdmin();
+        uploadDocuments();
+        createAnnotationDocuments(admin);
+
+        sut.snapshotCompleteProject(testProject, "First snapshot");
+
+        // Nothing has changed, so there should be no new commit
+        sut.snapshotCompleteProject(testProject, "Empty snapshot");
+
+        try (var session = CasStorageSession.open()) {
+            var doc = documentService.getSourceDocument(testProject, "dinos.txt");
+            var cas = documentService.readAnnotationCas(doc, AnnotationSet.forUser(admin));
+            cas.addFsToIndexes(cas.createAnnotation(cas.getAnnotationType(), 0, 1));
+            documentService.writeAnnotationCas(cas, doc, admin);
+        }
+
+        sut.snapshotCompleteProject(testProject, "Second snapshot");
+
+        var git = Git.open(sut.getRepoDir(testProject));
+        var commits = StreamSupport.stream(git.log().call().spliterator(), false).toList();
+        assertThat(commits) //
+                .extracting(RevCommit::getShortMessage) //
+                .containsExactly("Second snapshot", "First snapshot");
+
+        var changedFiles = new ArrayList<String>();
+        try (var treeWalk = new TreeWalk(git.getRepository())) {
+            treeWalk.addTree(commits.get(1).getTree());
+            treeWalk.addTree(commits.get(0).getTree());
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(TreeFilter.ANY_DIFF);
+
+            while (treeWalk.next()) {
+                changedFiles.add(treeWalk.getPathString());
+            }
+        }
+        assertThat(changedFiles).containsExactly("document/dinos.txt/annotation/admin.xmi");
+    }
+
     @Test
     @WithMockUser(username = "admin")
     public void pushingRepository_WithLocalRemote_ShouldPushFiles() throws Exception
@@ -251,12 +296,12 @@ public class VersioningServiceImplTest
                 "document/dinos.txt/source.xmi", //
                 "document/dinos.txt/initial.xmi", //
                 "document/dinos.txt/curation.xmi", //
-                "document/dinos.txt/admin.xmi", //
+                "document/dinos.txt/annotation/admin.xmi", //
 
                 "document/lorem.txt/source.xmi", //
                 "document/lorem.txt/initial.xmi", //
                 "document/lorem.txt/curation.xmi", //
-                "document/lorem.txt/admin.xmi" //
+                "document/lorem.txt/annotation/admin.xmi" //
         );
     }
 